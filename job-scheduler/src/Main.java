@@ -4,18 +4,25 @@ import com.lld.job.scheduler.facade.JobSchedulerSystem;
 import com.lld.job.scheduler.facade.JobSchedulerSystemImpl;
 import com.lld.job.scheduler.handler.EmailReportTaskHandler;
 import com.lld.job.scheduler.handler.TaskHandler;
+import com.lld.job.scheduler.model.DeadLetter;
 import com.lld.job.scheduler.model.TaskExecution;
+import com.lld.job.scheduler.retry.ExponentialBackoffRetryPolicy;
 import com.lld.job.scheduler.schedule.CronSchedulePolicy;
 import com.lld.job.scheduler.schedule.FixedIntervalSchedulePolicy;
 import com.lld.job.scheduler.schedule.OneTimeSchedulePolicy;
+import com.lld.job.scheduler.store.FileJobStore;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class Main {
 
-    public static void main(String[] args) throws InterruptedException {
+    public static void main(String[] args) throws InterruptedException, IOException {
         SchedulerConfig config = new SchedulerConfig(
                 4,
                 TaskPriorityPolicy.EARLIEST_EXECUTION_TIME_FIRST
@@ -91,6 +98,72 @@ public class Main {
 
         scheduler.stop();
         System.out.println("[main] Job scheduler stopped");
+
+        demonstrateRecovery(config);
+        demonstrateRetries(config);
+    }
+
+    // 5. Durable store: a ticker survives a restart, and the ticks missed
+    //    while the scheduler was down are fired once (MisfirePolicy.FIRE_ONCE).
+    private static void demonstrateRecovery(SchedulerConfig config) throws InterruptedException, IOException {
+        Path storeDirectory = Files.createTempDirectory("job-store");
+        TaskHandler ticker = context -> System.out.println(
+                "[ticker] scheduled " + context.getScheduledTime() + " ran at " + Instant.now()
+        );
+
+        JobSchedulerSystem first = new JobSchedulerSystemImpl(config, new FileJobStore(storeDirectory));
+        first.start();
+        String tickerTaskId = first.scheduleTask(
+                "ticker",
+                new FixedIntervalSchedulePolicy(Instant.now().plusSeconds(1), Duration.ofSeconds(1)),
+                ticker
+        );
+        Thread.sleep(2500);
+        first.stop();
+        System.out.println("[main] Scheduler stopped; down for 3 seconds");
+        Thread.sleep(3000);
+
+        JobSchedulerSystem second = new JobSchedulerSystemImpl(config, new FileJobStore(storeDirectory));
+        second.registerTaskHandler("ticker", ticker);
+        System.out.println("[main] Recovered ticker: " + second.getTask(tickerTaskId).isPresent()
+                + ", executions before restart: " + second.getExecutions(tickerTaskId).size());
+        second.start();
+        Thread.sleep(1500);
+        second.stop();
+        System.out.println("[main] Ticker executions in total: " + second.getExecutions(tickerTaskId).size());
+    }
+
+    // 6. Retries: a failing one-time task is retried with exponential backoff,
+    //    dead-lettered once its 3 attempts fail, then replayed after a "fix".
+    private static void demonstrateRetries(SchedulerConfig config) throws InterruptedException {
+        JobSchedulerSystem scheduler = new JobSchedulerSystemImpl(config);
+        scheduler.start();
+
+        AtomicBoolean downstreamUp = new AtomicBoolean(false);
+        String syncTaskId = scheduler.scheduleTask(
+                "sync-inventory",
+                new OneTimeSchedulePolicy(Instant.now().plusMillis(500)),
+                context -> {
+                    System.out.println("[sync] attempt " + context.getAttemptNumber() + " at " + Instant.now());
+                    if (!downstreamUp.get()) {
+                        throw new IllegalStateException("inventory service unavailable");
+                    }
+                },
+                new ExponentialBackoffRetryPolicy(3, Duration.ofMillis(200), Duration.ofSeconds(2), 2, 0.2)
+        );
+        Thread.sleep(1500);
+
+        for (DeadLetter deadLetter : scheduler.getDeadLetters()) {
+            System.out.println("[main] Dead letter: " + deadLetter.getTaskName()
+                    + " after " + deadLetter.getAttempts() + " attempts: " + deadLetter.getErrorMessage());
+            downstreamUp.set(true);
+            System.out.println("[main] Replaying: " + scheduler.replayDeadLetter(deadLetter.getDeadLetterId()));
+        }
+        Thread.sleep(500);
+
+        System.out.println("[main] Dead letters left: " + scheduler.getDeadLetters().size()
+                + ", sync executions: " + scheduler.getExecutions(syncTaskId).size());
+        scheduler.stop();
     }
 
     private static void scheduleBurst(JobSchedulerSystem scheduler, int count) {
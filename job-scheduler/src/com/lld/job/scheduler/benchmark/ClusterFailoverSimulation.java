@@ -0,0 +1,134 @@
+package com.lld.job.scheduler.benchmark;
+
+import com.lld.job.scheduler.cluster.InMemoryCoordinationStore;
+import com.lld.job.scheduler.config.ClusterConfig;
+import com.lld.job.scheduler.config.MisfirePolicy;
+import com.lld.job.scheduler.config.SchedulerConfig;
+import com.lld.job.scheduler.config.TaskPriorityPolicy;
+import com.lld.job.scheduler.config.TaskQueueType;
+import com.lld.job.scheduler.facade.ClusterJobSchedulerSystem;
+import com.lld.job.scheduler.handler.TaskHandler;
+import com.lld.job.scheduler.schedule.FixedIntervalSchedulePolicy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Three scheduler nodes in one JVM sharing an in-memory coordination store,
+ * firing {@value #TASKS} tasks every {@value #INTERVAL_MS} ms. Node B joins
+ * late and then crashes, so its partitions fail over once its leases
+ * expire; node C leaves gracefully. Every (task, fire-time) is counted:
+ * none may run twice, and with FIRE_ALL none may be lost either.
+ */
+public class ClusterFailoverSimulation {
+
+    private static final int TASKS = 60;
+    private static final int PARTITIONS = 12;
+    private static final long INTERVAL_MS = 200;
+    private static final Duration LEASE = Duration.ofSeconds(1);
+    private static final Duration RENEW = Duration.ofMillis(250);
+
+    private static final Map<String, AtomicInteger> RUNS_BY_FIRE_TIME = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicInteger> RUNS_BY_NODE = new ConcurrentHashMap<>();
+
+    public static void main(String[] args) throws InterruptedException {
+        InMemoryCoordinationStore coordinationStore = new InMemoryCoordinationStore();
+        ClusterJobSchedulerSystem nodeA = node("node-a", coordinationStore);
+        ClusterJobSchedulerSystem nodeB = node("node-b", coordinationStore);
+        ClusterJobSchedulerSystem nodeC = node("node-c", coordinationStore);
+
+        nodeA.start();
+        Thread.sleep(RENEW.toMillis());
+
+        Instant firstFire = Instant.now().plusMillis(500);
+        Instant lastFire = firstFire.plusSeconds(9);
+        List<String> taskIds = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            taskIds.add(nodeA.scheduleTask(
+                    "job-" + i,
+                    new FixedIntervalSchedulePolicy(firstFire, Duration.ofMillis(INTERVAL_MS)),
+                    handler("node-a")
+            ));
+        }
+
+        report("t=0s   A alone", nodeA, nodeB, nodeC);
+        nodeC.start();
+        nodeB.start();
+        Thread.sleep(2_000);
+        report("t=2s   B, C joined", nodeA, nodeB, nodeC);
+
+        nodeB.halt();
+        Thread.sleep(500);
+        report("t=2.5s B crashed", nodeA, nodeB, nodeC);
+        Thread.sleep(2_000);
+        report("t=4.5s B's leases expired", nodeA, nodeB, nodeC);
+
+        nodeC.stop();
+        Thread.sleep(500);
+        report("t=5s   C left", nodeA, nodeB, nodeC);
+
+        Thread.sleep(Duration.between(Instant.now(), lastFire).toMillis() + 1_000);
+        nodeA.stop();
+
+        int duplicates = 0;
+        int missed = 0;
+        for (String taskId : taskIds) {
+            for (Instant fire = firstFire; !fire.isAfter(lastFire); fire = fire.plusMillis(INTERVAL_MS)) {
+                AtomicInteger runs = RUNS_BY_FIRE_TIME.get(taskId + "@" + fire);
+                if (runs == null) {
+                    missed++;
+                } else if (runs.get() > 1) {
+                    duplicates += runs.get() - 1;
+                }
+            }
+        }
+
+        System.out.println("runs by node: " + RUNS_BY_NODE);
+        System.out.printf(
+                "fire-times %,d  ran twice %d  missed %d%n",
+                TASKS * (Duration.between(firstFire, lastFire).toMillis() / INTERVAL_MS + 1),
+                duplicates,
+                missed
+        );
+    }
+
+    private static ClusterJobSchedulerSystem node(String nodeId, InMemoryCoordinationStore coordinationStore) {
+        ClusterJobSchedulerSystem node = new ClusterJobSchedulerSystem(
+                new SchedulerConfig(
+                        4,
+                        TaskPriorityPolicy.EARLIEST_EXECUTION_TIME_FIRST,
+                        TaskQueueType.TIMING_WHEEL,
+                        MisfirePolicy.FIRE_ALL
+                ),
+                new ClusterConfig(nodeId, PARTITIONS, LEASE, RENEW),
+                coordinationStore
+        );
+        for (int i = 0; i < TASKS; i++) {
+            node.registerTaskHandler("job-" + i, handler(nodeId));
+        }
+        return node;
+    }
+
+    private static TaskHandler handler(String nodeId) {
+        return context -> {
+            RUNS_BY_FIRE_TIME.computeIfAbsent(
+                    context.getTaskDefinitionId() + "@" + context.getScheduledTime(),
+                    ignored -> new AtomicInteger()
+            ).incrementAndGet();
+            RUNS_BY_NODE.computeIfAbsent(nodeId, ignored -> new AtomicInteger()).incrementAndGet();
+        };
+    }
+
+    private static void report(String phase, ClusterJobSchedulerSystem... nodes) {
+        StringBuilder line = new StringBuilder(String.format("%-26s", phase));
+        for (int i = 0; i < nodes.length; i++) {
+            line.append(String.format("  %c %-38s", 'A' + i, nodes[i].getOwnedPartitions()));
+        }
+        System.out.println(line);
+    }
+}
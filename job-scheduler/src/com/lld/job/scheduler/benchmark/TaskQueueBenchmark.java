@@ -0,0 +1,131 @@
+package com.lld.job.scheduler.benchmark;
+
+import com.lld.job.scheduler.config.SchedulerConfig;
+import com.lld.job.scheduler.config.TaskPriorityPolicy;
+import com.lld.job.scheduler.config.TaskQueueType;
+import com.lld.job.scheduler.model.ScheduledTask;
+import com.lld.job.scheduler.queue.ScheduledTaskQueue;
+import com.lld.job.scheduler.service.ScheduledTaskQueueFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the scheduled-task queue backends with 1M pending tasks:
+ * insert and cancel throughput with fire-times spread over an hour, then
+ * firing lateness with all 1M fire-times spread over 10 seconds and one
+ * thread taking tasks as they fall due, as the dispatcher does.
+ */
+public class TaskQueueBenchmark {
+
+    private static final int TASKS = 1_000_000;
+    private static final int PRIORITY_QUEUE_CANCELS = 1_000;
+    private static final Duration INSERT_SPREAD = Duration.ofHours(1);
+    private static final Duration FIRING_SPREAD = Duration.ofSeconds(10);
+    // Long enough to insert 1M tasks and collect garbage before the first fires.
+    private static final Duration FIRING_LEAD = Duration.ofSeconds(5);
+
+    private static final String[] TASK_IDS = new String[TASKS];
+
+    static {
+        for (int i = 0; i < TASKS; i++) {
+            TASK_IDS[i] = "task-" + i;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        // The first round of each measurement only warms up the JIT.
+        for (int round = 0; round < 2; round++) {
+            for (TaskQueueType type : TaskQueueType.values()) {
+                measureInsertAndCancel(type, round == 1);
+            }
+        }
+        for (int round = 0; round < 2; round++) {
+            for (TaskQueueType type : TaskQueueType.values()) {
+                measureLateness(type, round == 1);
+            }
+        }
+    }
+
+    private static void measureInsertAndCancel(TaskQueueType type, boolean report) {
+        ScheduledTask[] tasks = spread(Instant.now().plus(Duration.ofMinutes(1)), INSERT_SPREAD);
+        ScheduledTaskQueue queue = newQueue(type);
+
+        long started = System.nanoTime();
+        for (ScheduledTask task : tasks) {
+            queue.offer(task);
+        }
+        double insertNanos = (double) (System.nanoTime() - started) / TASKS;
+
+        // Cancelling from a heap is a linear scan, so only a sample is timed there.
+        int cancels = type == TaskQueueType.PRIORITY_QUEUE ? PRIORITY_QUEUE_CANCELS : TASKS;
+        SplittableRandom random = new SplittableRandom(3);
+        started = System.nanoTime();
+        for (int i = 0; i < cancels; i++) {
+            queue.cancel(TASK_IDS[cancels == TASKS ? i : random.nextInt(TASKS)]);
+        }
+        double cancelNanos = (double) (System.nanoTime() - started) / cancels;
+
+        if (!report) {
+            return;
+        }
+        System.out.printf(
+                "%-14s insert %,6.0f ns/op (%,5.2fM/s)  cancel %,10.0f ns/op (%,d of %,d timed)%n",
+                type,
+                insertNanos,
+                1e3 / insertNanos,
+                cancelNanos,
+                cancels,
+                TASKS
+        );
+    }
+
+    private static void measureLateness(TaskQueueType type, boolean report) throws InterruptedException {
+        ScheduledTaskQueue queue = newQueue(type);
+        Instant firstFire = Instant.now().plus(FIRING_LEAD);
+        for (ScheduledTask task : spread(firstFire, FIRING_SPREAD)) {
+            queue.offer(task);
+        }
+        System.gc();
+
+        long[] latenessMicros = new long[TASKS];
+        for (int i = 0; i < TASKS; i++) {
+            ScheduledTask task = queue.take();
+            latenessMicros[i] = Duration.between(task.getExecutionTime(), Instant.now()).toNanos() / 1_000;
+        }
+
+        if (!report) {
+            return;
+        }
+        Arrays.sort(latenessMicros);
+        System.out.printf(
+                "%-14s lateness p50 %,6d us  p99 %,6d us  p99.9 %,6d us  max %,7d us  early %d%n",
+                type,
+                latenessMicros[TASKS / 2],
+                latenessMicros[(int) (TASKS * 0.99)],
+                latenessMicros[(int) (TASKS * 0.999)],
+                latenessMicros[TASKS - 1],
+                Arrays.stream(latenessMicros).filter(micros -> micros < 0).count()
+        );
+    }
+
+    private static ScheduledTaskQueue newQueue(TaskQueueType type) {
+        return ScheduledTaskQueueFactory.create(
+                new SchedulerConfig(1, TaskPriorityPolicy.EARLIEST_EXECUTION_TIME_FIRST, type)
+        );
+    }
+
+    // Fire-times uniformly random over [start, start + spread), microsecond precision.
+    private static ScheduledTask[] spread(Instant start, Duration spread) {
+        SplittableRandom random = new SplittableRandom(7);
+        long spreadMicros = spread.toNanos() / 1_000;
+        ScheduledTask[] tasks = new ScheduledTask[TASKS];
+        for (int i = 0; i < TASKS; i++) {
+            Instant executionTime = start.plusNanos(random.nextLong(spreadMicros) * 1_000);
+            tasks[i] = new ScheduledTask(TASK_IDS[i], executionTime);
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,180 @@
+package com.lld.job.scheduler.benchmark;
+
+import com.lld.job.scheduler.config.BulkheadConfig;
+import com.lld.job.scheduler.config.MisfirePolicy;
+import com.lld.job.scheduler.config.SchedulerConfig;
+import com.lld.job.scheduler.config.TaskPriorityPolicy;
+import com.lld.job.scheduler.config.TaskQueueType;
+import com.lld.job.scheduler.config.WorkerThreadType;
+import com.lld.job.scheduler.facade.JobSchedulerSystem;
+import com.lld.job.scheduler.facade.JobSchedulerSystemImpl;
+import com.lld.job.scheduler.handler.CategorizedTaskHandler;
+import com.lld.job.scheduler.handler.HandlerCategory;
+import com.lld.job.scheduler.handler.TaskHandler;
+import com.lld.job.scheduler.schedule.OneTimeSchedulePolicy;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking tasks that each sleep {@value #SLEEP_MS} ms, all due at
+ * the same instant, through the whole scheduler: once on the shared fixed
+ * pool of {@value #FIXED_POOL_THREADS} platform threads, once with a
+ * virtual-thread bulkhead for blocking handlers.
+ *
+ * The first run measures throughput for {@value #BLOCKING_TASKS} sleeping
+ * tasks. The second adds {@value #CPU_TASKS} short CPU-bound tasks to
+ * {@value #MIXED_BLOCKING_TASKS} sleeping ones and measures how long the
+ * CPU-bound tasks wait to start.
+ */
+public class WorkerPoolBenchmark {
+
+    private static final int BLOCKING_TASKS = 100_000;
+    private static final int MIXED_BLOCKING_TASKS = 20_000;
+    private static final int CPU_TASKS = 200;
+    private static final long SLEEP_MS = 100;
+    private static final int FIXED_POOL_THREADS = 1_000;
+    // Long enough to schedule every task before the first fires.
+    private static final Duration FIRING_LEAD = Duration.ofSeconds(5);
+
+    private static final AtomicInteger SLEEPING = new AtomicInteger();
+    private static final AtomicInteger PEAK_SLEEPING = new AtomicInteger();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        int cpuThreads = Runtime.getRuntime().availableProcessors();
+
+        SchedulerConfig fixedPool = config(FIXED_POOL_THREADS, List.of());
+        SchedulerConfig bulkheads = config(cpuThreads, List.of(
+                new BulkheadConfig(HandlerCategory.BLOCKING, BLOCKING_TASKS, WorkerThreadType.VIRTUAL)
+        ));
+
+        // The first round of each measurement only warms up the JIT.
+        for (int round = 0; round < 2; round++) {
+            measureThroughput("fixed pool", fixedPool, round == 1);
+            measureThroughput("bulkheads", bulkheads, round == 1);
+        }
+        for (int round = 0; round < 2; round++) {
+            measureStartDelay("fixed pool", fixedPool, round == 1);
+            measureStartDelay("bulkheads", bulkheads, round == 1);
+        }
+    }
+
+    private static void measureThroughput(String name, SchedulerConfig config, boolean report)
+            throws InterruptedException {
+        JobSchedulerSystem scheduler = new JobSchedulerSystemImpl(config);
+        scheduler.start();
+
+        CountDownLatch done = new CountDownLatch(BLOCKING_TASKS);
+        TaskHandler sleeper = blocking(done);
+        Instant fireAt = Instant.now().plus(FIRING_LEAD);
+        for (int i = 0; i < BLOCKING_TASKS; i++) {
+            scheduler.scheduleTask("sleep-" + i, new OneTimeSchedulePolicy(fireAt), sleeper);
+        }
+        PEAK_SLEEPING.set(0);
+        THREADS.resetPeakThreadCount();
+
+        done.await();
+        double seconds = Duration.between(fireAt, Instant.now()).toNanos() / 1e9;
+        scheduler.stop();
+
+        if (report) {
+            System.out.printf(
+                    "%-10s  %,d sleeping tasks  done in %6.2f s  %,9.0f tasks/s"
+                            + "  peak sleeping at once %,7d  peak platform threads %,d%n",
+                    name,
+                    BLOCKING_TASKS,
+                    seconds,
+                    BLOCKING_TASKS / seconds,
+                    PEAK_SLEEPING.get(),
+                    THREADS.getPeakThreadCount()
+            );
+        }
+    }
+
+    private static void measureStartDelay(String name, SchedulerConfig config, boolean report)
+            throws InterruptedException {
+        JobSchedulerSystem scheduler = new JobSchedulerSystemImpl(config);
+        scheduler.start();
+
+        CountDownLatch done = new CountDownLatch(MIXED_BLOCKING_TASKS + CPU_TASKS);
+        long[] startDelayMicros = new long[CPU_TASKS];
+        TaskHandler sleeper = blocking(done);
+        Instant fireAt = Instant.now().plus(FIRING_LEAD);
+
+        // Interleaved, so neither kind is simply first in line.
+        int blockingPerCpuTask = MIXED_BLOCKING_TASKS / CPU_TASKS;
+        for (int i = 0; i < CPU_TASKS; i++) {
+            for (int j = 0; j < blockingPerCpuTask; j++) {
+                scheduler.scheduleTask("sleep-" + i + "-" + j, new OneTimeSchedulePolicy(fireAt), sleeper);
+            }
+            int slot = i;
+            scheduler.scheduleTask("compute-" + i, new OneTimeSchedulePolicy(fireAt), context -> {
+                startDelayMicros[slot] = Duration.between(
+                        context.getScheduledTime(),
+                        context.getActualStartTime()
+                ).toNanos() / 1_000;
+                compute();
+                done.countDown();
+            });
+        }
+
+        done.await();
+        scheduler.stop();
+
+        if (report) {
+            Arrays.sort(startDelayMicros);
+            System.out.printf(
+                    "%-10s  %d CPU tasks among %,d sleeping  start delay p50 %,8.1f ms  p99 %,8.1f ms  max %,8.1f ms%n",
+                    name,
+                    CPU_TASKS,
+                    MIXED_BLOCKING_TASKS,
+                    startDelayMicros[CPU_TASKS / 2] / 1e3,
+                    startDelayMicros[CPU_TASKS * 99 / 100] / 1e3,
+                    startDelayMicros[CPU_TASKS - 1] / 1e3
+            );
+        }
+    }
+
+    private static TaskHandler blocking(CountDownLatch done) {
+        return new CategorizedTaskHandler(context -> {
+            PEAK_SLEEPING.accumulateAndGet(SLEEPING.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(SLEEP_MS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            SLEEPING.decrementAndGet();
+            done.countDown();
+        }, HandlerCategory.BLOCKING, null);
+    }
+
+    // About a millisecond of arithmetic.
+    private static void compute() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1);
+        long value = 0;
+        while (System.nanoTime() < deadline) {
+            value += value * 31 + 7;
+        }
+        sink = value;
+    }
+
+    private static SchedulerConfig config(int workerThreadCount, List<BulkheadConfig> bulkheads) {
+        return new SchedulerConfig(
+                workerThreadCount,
+                TaskPriorityPolicy.EARLIEST_EXECUTION_TIME_FIRST,
+                TaskQueueType.TIMING_WHEEL,
+                MisfirePolicy.FIRE_ONCE,
+                bulkheads
+        );
+    }
+}
@@ -0,0 +1,12 @@
+package com.lld.job.scheduler.cluster;
+
+public enum ClaimResult {
+    // This node holds the partition and the fire-time had not run yet, or
+    // still waits for a retry.
+    CLAIMED,
+    // The fire-time already ran, on this node or on a previous owner, and
+    // no retry of it is pending.
+    ALREADY_CLAIMED,
+    // The partition's lease is no longer held by this node.
+    NOT_OWNED
+}
@@ -0,0 +1,82 @@
+package com.lld.job.scheduler.cluster;
+
+import com.lld.job.scheduler.model.DeadLetter;
+import com.lld.job.scheduler.model.TaskDefinition;
+import com.lld.job.scheduler.model.TaskExecution;
+import com.lld.job.scheduler.store.JobStore;
+import com.lld.job.scheduler.store.StoredJobs;
+import com.lld.job.scheduler.store.StoredTaskDefinition;
+
+import java.util.List;
+
+// Writes a node's repository saves through to the coordination store.
+// Task writes are fenced by the partition's lease: once the partition has
+// moved on, a late save from this node is dropped. Tasks are loaded per
+// partition as leases are won, so there is nothing to load up front.
+public class ClusterJobStore implements JobStore {
+
+    private final CoordinationStore coordinationStore;
+    private final PartitionOwnership partitionOwnership;
+
+    public ClusterJobStore(CoordinationStore coordinationStore, PartitionOwnership partitionOwnership) {
+        this.coordinationStore = coordinationStore;
+        this.partitionOwnership = partitionOwnership;
+    }
+
+    @Override
+    public StoredJobs load() {
+        return new StoredJobs(List.of(), List.of(), List.of());
+    }
+
+    @Override
+    public void saveTaskDefinition(TaskDefinition taskDefinition) {
+        StoredTaskDefinition snapshot = new StoredTaskDefinition(
+                taskDefinition.getTaskId(),
+                taskDefinition.getTaskName(),
+                taskDefinition.getSchedulePolicy(),
+                taskDefinition.getRetryPolicy(),
+                taskDefinition.getTaskStatus(),
+                taskDefinition.getNextExecutionTime()
+        );
+        partitionOwnership.leaseFor(taskDefinition.getTaskId())
+                .ifPresent(lease -> coordinationStore.saveTask(lease, snapshot));
+    }
+
+    @Override
+    public void deleteTaskDefinition(String taskId) {
+        partitionOwnership.leaseFor(taskId)
+                .ifPresent(lease -> coordinationStore.deleteTask(lease, taskId));
+    }
+
+    @Override
+    public void saveTaskExecution(TaskExecution taskExecution) {
+        coordinationStore.saveExecution(new TaskExecution(
+                taskExecution.getExecutionId(),
+                taskExecution.getTaskDefinitionId(),
+                taskExecution.getScheduledTime(),
+                taskExecution.getAttemptNumber(),
+                taskExecution.getActualStartTime(),
+                taskExecution.getCompletedAt(),
+                taskExecution.getStatus(),
+                taskExecution.getErrorMessage()
+        ));
+    }
+
+    @Override
+    public void saveDeadLetter(DeadLetter deadLetter) {
+        coordinationStore.saveDeadLetter(deadLetter);
+    }
+
+    @Override
+    public void deleteDeadLetter(String deadLetterId) {
+        coordinationStore.deleteDeadLetter(deadLetterId);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,105 @@
+package com.lld.job.scheduler.cluster;
+
+import com.lld.job.scheduler.model.DeadLetter;
+import com.lld.job.scheduler.model.TaskExecution;
+import com.lld.job.scheduler.store.StoredTaskDefinition;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * State shared by every node of a scheduler cluster: membership, partition
+ * leases, the task table, execution history, dead letters, per-partition
+ * command queues and the fire-times already claimed.
+ *
+ * Expiry is judged by the store's own clock, so nodes never compare their
+ * clocks with each other. Every write that only the owner of a partition
+ * may make carries its lease and is refused once that lease has expired
+ * or changed hands.
+ */
+public interface CoordinationStore {
+
+    void heartbeat(String nodeId);
+
+    /**
+     * Removes the node from membership at once, instead of after the timeout.
+     */
+    void leave(String nodeId);
+
+    /**
+     * Nodes that sent a heartbeat within the timeout.
+     */
+    Set<String> liveNodes(Duration timeout);
+
+    /**
+     * Grants or renews the lease on a partition, unless another node holds
+     * it and it has not expired.
+     */
+    Optional<PartitionLease> acquireLease(int partition, String nodeId, Duration leaseDuration);
+
+    void releaseLease(PartitionLease lease);
+
+    /**
+     * Adds a task that is not yet owned by any node; ignored if the id exists.
+     */
+    void createTask(int partition, StoredTaskDefinition taskDefinition);
+
+    /**
+     * @return false if the lease is no longer valid
+     */
+    boolean saveTask(PartitionLease lease, StoredTaskDefinition taskDefinition);
+
+    boolean deleteTask(PartitionLease lease, String taskId);
+
+    Optional<StoredTaskDefinition> findTask(String taskId);
+
+    List<StoredTaskDefinition> findTasks(int partition);
+
+    void saveExecution(TaskExecution taskExecution);
+
+    List<TaskExecution> findExecutions(String taskId);
+
+    void saveDeadLetter(DeadLetter deadLetter);
+
+    void deleteDeadLetter(String deadLetterId);
+
+    List<DeadLetter> findDeadLetters();
+
+    /**
+     * @param deadLetterId the dead letter to replay; null for every type but REPLAY
+     */
+    void sendCommand(int partition, String taskId, TaskCommandType type, String deadLetterId);
+
+    /**
+     * Commands not yet acknowledged, oldest first.
+     */
+    List<TaskCommand> pendingCommands(int partition);
+
+    /**
+     * Drops the partition's commands up to and including the sequence.
+     */
+    boolean acknowledgeCommands(PartitionLease lease, long throughSequence);
+
+    /**
+     * Records that the fire-time is running. A task's fire-times are claimed
+     * in increasing order, so each one is claimed at most once cluster-wide,
+     * except that a fire-time with a retry pending can be claimed again from
+     * the first attempt, by the owner that re-arms it after a failover. A
+     * retry (attempt above 1) is claimed only while its retry is pending.
+     */
+    ClaimResult claimExecution(PartitionLease lease, String taskId, Instant scheduledTime, int attempt);
+
+    /**
+     * Records that the last claimed fire-time failed and waits for a retry.
+     */
+    boolean markRetryPending(PartitionLease lease, String taskId, Instant scheduledTime);
+
+    /**
+     * Records that the fire-time's retries ended, in a success or a dead
+     * letter.
+     */
+    boolean clearRetryPending(PartitionLease lease, String taskId, Instant scheduledTime);
+}
@@ -0,0 +1,234 @@
+package com.lld.job.scheduler.cluster;
+
+import com.lld.job.scheduler.model.DeadLetter;
+import com.lld.job.scheduler.model.TaskExecution;
+import com.lld.job.scheduler.store.StoredTaskDefinition;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Local stand-in for the coordination store (etcd, ZooKeeper or a SQL
+ * table in production): one instance shared by several scheduler nodes in
+ * the same JVM. Every operation is atomic under one lock, as a
+ * transaction would be.
+ */
+public class InMemoryCoordinationStore implements CoordinationStore {
+
+    private final Map<String, Instant> heartbeats = new HashMap<>();
+    private final Map<Integer, PartitionLease> leases = new HashMap<>();
+    private final Map<Integer, Map<String, StoredTaskDefinition>> tasksByPartition = new HashMap<>();
+    private final Map<String, Integer> partitionByTaskId = new HashMap<>();
+    private final Map<String, Map<String, TaskExecution>> executionsByTaskId = new HashMap<>();
+    private final Map<String, DeadLetter> deadLetters = new LinkedHashMap<>();
+    private final Map<Integer, List<TaskCommand>> commandsByPartition = new HashMap<>();
+    private final Map<String, Instant> lastClaimedByTaskId = new HashMap<>();
+    private final Map<String, Instant> retryPendingByTaskId = new HashMap<>();
+
+    private long nextToken = 1;
+    private long nextSequence = 1;
+
+    @Override
+    public synchronized void heartbeat(String nodeId) {
+        heartbeats.put(nodeId, Instant.now());
+    }
+
+    @Override
+    public synchronized void leave(String nodeId) {
+        heartbeats.remove(nodeId);
+    }
+
+    @Override
+    public synchronized Set<String> liveNodes(Duration timeout) {
+        Instant cutoff = Instant.now().minus(timeout);
+        Set<String> live = new HashSet<>();
+
+        for (Map.Entry<String, Instant> heartbeat : heartbeats.entrySet()) {
+            if (heartbeat.getValue().isAfter(cutoff)) {
+                live.add(heartbeat.getKey());
+            }
+        }
+        return live;
+    }
+
+    @Override
+    public synchronized Optional<PartitionLease> acquireLease(int partition, String nodeId, Duration leaseDuration) {
+        Instant now = Instant.now();
+        PartitionLease current = leases.get(partition);
+
+        if (current != null && current.isValidAt(now) && !current.getNodeId().equals(nodeId)) {
+            return Optional.empty();
+        }
+
+        // Renewing a live lease keeps its token; anything else is a new owner.
+        long token = current != null && current.isValidAt(now) ? current.getToken() : nextToken++;
+        PartitionLease lease = new PartitionLease(partition, nodeId, token, now.plus(leaseDuration));
+        leases.put(partition, lease);
+        return Optional.of(lease);
+    }
+
+    @Override
+    public synchronized void releaseLease(PartitionLease lease) {
+        if (isCurrent(lease)) {
+            leases.remove(lease.getPartition());
+        }
+    }
+
+    @Override
+    public synchronized void createTask(int partition, StoredTaskDefinition taskDefinition) {
+        if (partitionByTaskId.putIfAbsent(taskDefinition.getTaskId(), partition) != null) {
+            return;
+        }
+        tasksByPartition.computeIfAbsent(partition, ignored -> new LinkedHashMap<>())
+                .put(taskDefinition.getTaskId(), taskDefinition);
+    }
+
+    @Override
+    public synchronized boolean saveTask(PartitionLease lease, StoredTaskDefinition taskDefinition) {
+        if (!isCurrent(lease)) {
+            return false;
+        }
+        partitionByTaskId.put(taskDefinition.getTaskId(), lease.getPartition());
+        tasksByPartition.computeIfAbsent(lease.getPartition(), ignored -> new LinkedHashMap<>())
+                .put(taskDefinition.getTaskId(), taskDefinition);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean deleteTask(PartitionLease lease, String taskId) {
+        if (!isCurrent(lease)) {
+            return false;
+        }
+        partitionByTaskId.remove(taskId);
+        lastClaimedByTaskId.remove(taskId);
+        retryPendingByTaskId.remove(taskId);
+        Map<String, StoredTaskDefinition> tasks = tasksByPartition.get(lease.getPartition());
+        if (tasks != null) {
+            tasks.remove(taskId);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized Optional<StoredTaskDefinition> findTask(String taskId) {
+        Integer partition = partitionByTaskId.get(taskId);
+        if (partition == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(tasksByPartition.get(partition).get(taskId));
+    }
+
+    @Override
+    public synchronized List<StoredTaskDefinition> findTasks(int partition) {
+        return new ArrayList<>(tasksByPartition.getOrDefault(partition, Map.of()).values());
+    }
+
+    // Execution history is written by whichever node ran the execution.
+    @Override
+    public synchronized void saveExecution(TaskExecution taskExecution) {
+        executionsByTaskId.computeIfAbsent(taskExecution.getTaskDefinitionId(), ignored -> new LinkedHashMap<>())
+                .put(taskExecution.getExecutionId(), taskExecution);
+    }
+
+    @Override
+    public synchronized List<TaskExecution> findExecutions(String taskId) {
+        return new ArrayList<>(executionsByTaskId.getOrDefault(taskId, Map.of()).values());
+    }
+
+    // Dead letters, like execution history, are written by the node that ran the fire-time.
+    @Override
+    public synchronized void saveDeadLetter(DeadLetter deadLetter) {
+        deadLetters.put(deadLetter.getDeadLetterId(), deadLetter);
+    }
+
+    @Override
+    public synchronized void deleteDeadLetter(String deadLetterId) {
+        deadLetters.remove(deadLetterId);
+    }
+
+    @Override
+    public synchronized List<DeadLetter> findDeadLetters() {
+        return new ArrayList<>(deadLetters.values());
+    }
+
+    @Override
+    public synchronized void sendCommand(int partition, String taskId, TaskCommandType type, String deadLetterId) {
+        commandsByPartition.computeIfAbsent(partition, ignored -> new ArrayList<>())
+                .add(new TaskCommand(nextSequence++, taskId, type, deadLetterId));
+    }
+
+    @Override
+    public synchronized List<TaskCommand> pendingCommands(int partition) {
+        return new ArrayList<>(commandsByPartition.getOrDefault(partition, List.of()));
+    }
+
+    @Override
+    public synchronized boolean acknowledgeCommands(PartitionLease lease, long throughSequence) {
+        if (!isCurrent(lease)) {
+            return false;
+        }
+        List<TaskCommand> commands = commandsByPartition.get(lease.getPartition());
+        if (commands != null) {
+            commands.removeIf(command -> command.getSequence() <= throughSequence);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized ClaimResult claimExecution(
+            PartitionLease lease,
+            String taskId,
+            Instant scheduledTime,
+            int attempt
+    ) {
+        if (!isCurrent(lease)) {
+            return ClaimResult.NOT_OWNED;
+        }
+
+        boolean retryPending = scheduledTime.equals(retryPendingByTaskId.get(taskId));
+        if (attempt > 1) {
+            return retryPending ? ClaimResult.CLAIMED : ClaimResult.ALREADY_CLAIMED;
+        }
+
+        Instant lastClaimed = lastClaimedByTaskId.get(taskId);
+        if (lastClaimed != null && !scheduledTime.isAfter(lastClaimed) && !retryPending) {
+            return ClaimResult.ALREADY_CLAIMED;
+        }
+        // Starting a fire-time over, or moving past it, ends its retries.
+        lastClaimedByTaskId.put(taskId, scheduledTime);
+        retryPendingByTaskId.remove(taskId);
+        return ClaimResult.CLAIMED;
+    }
+
+    @Override
+    public synchronized boolean markRetryPending(PartitionLease lease, String taskId, Instant scheduledTime) {
+        if (!isCurrent(lease) || !scheduledTime.equals(lastClaimedByTaskId.get(taskId))) {
+            return false;
+        }
+        retryPendingByTaskId.put(taskId, scheduledTime);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean clearRetryPending(PartitionLease lease, String taskId, Instant scheduledTime) {
+        if (!isCurrent(lease)) {
+            return false;
+        }
+        return retryPendingByTaskId.remove(taskId, scheduledTime);
+    }
+
+    private boolean isCurrent(PartitionLease lease) {
+        PartitionLease current = leases.get(lease.getPartition());
+        return current != null
+                && current.getToken() == lease.getToken()
+                && current.isValidAt(Instant.now());
+    }
+}
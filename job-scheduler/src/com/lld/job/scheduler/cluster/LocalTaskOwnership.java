@@ -0,0 +1,20 @@
+package com.lld.job.scheduler.cluster;
+
+import com.lld.job.scheduler.model.ScheduledTask;
+
+// A single scheduler owns every task.
+public class LocalTaskOwnership implements TaskOwnership {
+
+    @Override
+    public ClaimResult claim(ScheduledTask scheduledTask) {
+        return ClaimResult.CLAIMED;
+    }
+
+    @Override
+    public void retryPending(ScheduledTask failedRun) {
+    }
+
+    @Override
+    public void retriesEnded(ScheduledTask lastRun) {
+    }
+}
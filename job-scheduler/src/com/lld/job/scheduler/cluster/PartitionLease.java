@@ -0,0 +1,40 @@
+package com.lld.job.scheduler.cluster;
+
+import java.time.Instant;
+
+// Time-bounded ownership of one partition. The token grows every time the
+// partition changes hands, so a write made under an older lease is refused.
+public class PartitionLease {
+
+    private final int partition;
+    private final String nodeId;
+    private final long token;
+    private final Instant expiresAt;
+
+    public PartitionLease(int partition, String nodeId, long token, Instant expiresAt) {
+        this.partition = partition;
+        this.nodeId = nodeId;
+        this.token = token;
+        this.expiresAt = expiresAt;
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getToken() {
+        return token;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isValidAt(Instant time) {
+        return time.isBefore(expiresAt);
+    }
+}
@@ -0,0 +1,100 @@
+package com.lld.job.scheduler.cluster;
+
+import com.lld.job.scheduler.model.ScheduledTask;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The partitions this node holds leases on. Tasks map to partitions by
+ * hash of their id. A lease counts as held only until it expires, so a
+ * node that stopped renewing stops firing before anyone can take over.
+ */
+public class PartitionOwnership implements TaskOwnership {
+
+    private final CoordinationStore coordinationStore;
+    private final int partitionCount;
+    private final ConcurrentMap<Integer, PartitionLease> leases = new ConcurrentHashMap<>();
+
+    public PartitionOwnership(CoordinationStore coordinationStore, int partitionCount) {
+        this.coordinationStore = coordinationStore;
+        this.partitionCount = partitionCount;
+    }
+
+    public int partitionOf(String taskId) {
+        return Math.floorMod(taskId.hashCode(), partitionCount);
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public Optional<PartitionLease> leaseFor(int partition) {
+        PartitionLease lease = leases.get(partition);
+        if (lease == null || !lease.isValidAt(Instant.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(lease);
+    }
+
+    public Optional<PartitionLease> leaseFor(String taskId) {
+        return leaseFor(partitionOf(taskId));
+    }
+
+    public Set<Integer> heldPartitions() {
+        return Set.copyOf(leases.keySet());
+    }
+
+    public void hold(PartitionLease lease) {
+        leases.put(lease.getPartition(), lease);
+    }
+
+    public void drop(int partition) {
+        leases.remove(partition);
+    }
+
+    @Override
+    public ClaimResult claim(ScheduledTask scheduledTask) {
+        Optional<PartitionLease> lease = leaseFor(scheduledTask.getTaskDefinitionId());
+        if (lease.isEmpty()) {
+            return ClaimResult.NOT_OWNED;
+        }
+        // A replay reruns a dead letter on request, so the lease is all it needs.
+        if (scheduledTask.isReplay()) {
+            return ClaimResult.CLAIMED;
+        }
+        return coordinationStore.claimExecution(
+                lease.get(),
+                scheduledTask.getTaskDefinitionId(),
+                scheduledTask.getScheduledTime(),
+                scheduledTask.getAttempt()
+        );
+    }
+
+    @Override
+    public void retryPending(ScheduledTask failedRun) {
+        if (failedRun.isReplay()) {
+            return;
+        }
+        leaseFor(failedRun.getTaskDefinitionId()).ifPresent(lease -> coordinationStore.markRetryPending(
+                lease,
+                failedRun.getTaskDefinitionId(),
+                failedRun.getScheduledTime()
+        ));
+    }
+
+    @Override
+    public void retriesEnded(ScheduledTask lastRun) {
+        if (lastRun.isReplay()) {
+            return;
+        }
+        leaseFor(lastRun.getTaskDefinitionId()).ifPresent(lease -> coordinationStore.clearRetryPending(
+                lease,
+                lastRun.getTaskDefinitionId(),
+                lastRun.getScheduledTime()
+        ));
+    }
+}
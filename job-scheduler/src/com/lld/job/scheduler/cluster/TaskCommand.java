@@ -0,0 +1,34 @@
+package com.lld.job.scheduler.cluster;
+
+// A request to change a task, queued for whichever node owns its partition.
+public class TaskCommand {
+
+    private final long sequence;
+    private final String taskId;
+    private final TaskCommandType type;
+    // Set only for REPLAY.
+    private final String deadLetterId;
+
+    public TaskCommand(long sequence, String taskId, TaskCommandType type, String deadLetterId) {
+        this.sequence = sequence;
+        this.taskId = taskId;
+        this.type = type;
+        this.deadLetterId = deadLetterId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public TaskCommandType getType() {
+        return type;
+    }
+
+    public String getDeadLetterId() {
+        return deadLetterId;
+    }
+}
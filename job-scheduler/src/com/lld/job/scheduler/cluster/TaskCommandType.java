@@ -0,0 +1,9 @@
+package com.lld.job.scheduler.cluster;
+
+public enum TaskCommandType {
+    SCHEDULE,
+    CANCEL,
+    PAUSE,
+    RESUME,
+    REPLAY
+}
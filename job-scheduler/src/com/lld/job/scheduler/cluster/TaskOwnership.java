@@ -0,0 +1,15 @@
+package com.lld.job.scheduler.cluster;
+
+import com.lld.job.scheduler.model.ScheduledTask;
+
+// Decides whether this node may run a due task; claimed right before it runs.
+public interface TaskOwnership {
+
+    ClaimResult claim(ScheduledTask scheduledTask);
+
+    // The failed run's fire-time waits for a retry, which a node taking over must not lose.
+    void retryPending(ScheduledTask failedRun);
+
+    // The retried fire-time succeeded or was dead-lettered.
+    void retriesEnded(ScheduledTask lastRun);
+}
@@ -0,0 +1,46 @@
+package com.lld.job.scheduler.config;
+
+import com.lld.job.scheduler.handler.HandlerCategory;
+
+/**
+ * Runs the handlers of one category on their own threads, at most
+ * maxConcurrency at a time. Tasks beyond the limit wait for that
+ * category's threads only, so a flood of slow blocking tasks cannot delay
+ * CPU-bound ones.
+ */
+public class BulkheadConfig {
+
+    private final HandlerCategory category;
+    private final int maxConcurrency;
+    private final WorkerThreadType workerThreadType;
+
+    public BulkheadConfig(HandlerCategory category, int maxConcurrency, WorkerThreadType workerThreadType) {
+        if (category == null) {
+            throw new IllegalArgumentException("Handler category cannot be null");
+        }
+
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Max concurrency must be positive");
+        }
+
+        if (workerThreadType == null) {
+            throw new IllegalArgumentException("Worker thread type cannot be null");
+        }
+
+        this.category = category;
+        this.maxConcurrency = maxConcurrency;
+        this.workerThreadType = workerThreadType;
+    }
+
+    public HandlerCategory getCategory() {
+        return category;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public WorkerThreadType getWorkerThreadType() {
+        return workerThreadType;
+    }
+}
@@ -0,0 +1,52 @@
+package com.lld.job.scheduler.config;
+
+import java.time.Duration;
+
+public class ClusterConfig {
+
+    private final String nodeId;
+    private final int partitionCount;
+    private final Duration leaseDuration;
+    private final Duration renewInterval;
+
+    public ClusterConfig(String nodeId, int partitionCount, Duration leaseDuration, Duration renewInterval) {
+        if (nodeId == null || nodeId.isBlank()) {
+            throw new IllegalArgumentException("Node id is required");
+        }
+
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive");
+        }
+
+        if (leaseDuration == null || renewInterval == null) {
+            throw new IllegalArgumentException("Lease duration and renew interval cannot be null");
+        }
+
+        // A node must get several chances to renew before its lease runs out.
+        if (renewInterval.isNegative() || renewInterval.isZero()
+                || renewInterval.multipliedBy(2).compareTo(leaseDuration) > 0) {
+            throw new IllegalArgumentException("Renew interval must be positive and at most half the lease duration");
+        }
+
+        this.nodeId = nodeId;
+        this.partitionCount = partitionCount;
+        this.leaseDuration = leaseDuration;
+        this.renewInterval = renewInterval;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public Duration getLeaseDuration() {
+        return leaseDuration;
+    }
+
+    public Duration getRenewInterval() {
+        return renewInterval;
+    }
+}
@@ -0,0 +1,12 @@
+package com.lld.job.scheduler.config;
+
+// What happens to fire-times that passed unrun, while the scheduler was down
+// or while a run and its retries went on past them.
+public enum MisfirePolicy {
+    // Run once for the latest missed fire-time, then continue on schedule.
+    FIRE_ONCE,
+    // Run once for every missed fire-time, back to back.
+    FIRE_ALL,
+    // Drop the missed fire-times and wait for the next one.
+    SKIP
+}
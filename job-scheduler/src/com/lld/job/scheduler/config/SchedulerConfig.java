@@ -1,11 +1,52 @@
 package com.lld.job.scheduler.config;
 
+import com.lld.job.scheduler.handler.HandlerCategory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 public class SchedulerConfig {
 
     private final int workerThreadCount;
     private final TaskPriorityPolicy taskPriorityPolicy;
+    private final TaskQueueType taskQueueType;
+    private final MisfirePolicy misfirePolicy;
+    private final List<BulkheadConfig> bulkheads;
 
     public SchedulerConfig(int workerThreadCount, TaskPriorityPolicy taskPriorityPolicy) {
+        this(workerThreadCount, taskPriorityPolicy, TaskQueueType.TIMING_WHEEL);
+    }
+
+    public SchedulerConfig(
+            int workerThreadCount,
+            TaskPriorityPolicy taskPriorityPolicy,
+            TaskQueueType taskQueueType
+    ) {
+        this(workerThreadCount, taskPriorityPolicy, taskQueueType, MisfirePolicy.FIRE_ONCE);
+    }
+
+    public SchedulerConfig(
+            int workerThreadCount,
+            TaskPriorityPolicy taskPriorityPolicy,
+            TaskQueueType taskQueueType,
+            MisfirePolicy misfirePolicy
+    ) {
+        this(workerThreadCount, taskPriorityPolicy, taskQueueType, misfirePolicy, List.of());
+    }
+
+    /**
+     * With no bulkheads every task shares one pool of workerThreadCount
+     * platform threads. With bulkheads each listed category gets its own,
+     * and unlisted categories share a workerThreadCount-thread default.
+     */
+    public SchedulerConfig(
+            int workerThreadCount,
+            TaskPriorityPolicy taskPriorityPolicy,
+            TaskQueueType taskQueueType,
+            MisfirePolicy misfirePolicy,
+            List<BulkheadConfig> bulkheads
+    ) {
         if (workerThreadCount <= 0) {
             throw new IllegalArgumentException("Worker thread count must be positive");
         }
@@ -14,8 +55,33 @@ public class SchedulerConfig {
             throw new IllegalArgumentException("Task priority policy cannot be null");
         }
 
+        if (taskQueueType == null) {
+            throw new IllegalArgumentException("Task queue type cannot be null");
+        }
+
+        if (misfirePolicy == null) {
+            throw new IllegalArgumentException("Misfire policy cannot be null");
+        }
+
+        if (bulkheads == null) {
+            throw new IllegalArgumentException("Bulkheads cannot be null");
+        }
+
+        Set<HandlerCategory> categories = new HashSet<>();
+        for (BulkheadConfig bulkhead : bulkheads) {
+            if (bulkhead == null) {
+                throw new IllegalArgumentException("Bulkhead cannot be null");
+            }
+            if (!categories.add(bulkhead.getCategory())) {
+                throw new IllegalArgumentException("Duplicate bulkhead for category: " + bulkhead.getCategory());
+            }
+        }
+
         this.workerThreadCount = workerThreadCount;
         this.taskPriorityPolicy = taskPriorityPolicy;
+        this.taskQueueType = taskQueueType;
+        this.misfirePolicy = misfirePolicy;
+        this.bulkheads = List.copyOf(bulkheads);
     }
 
     public int getWorkerThreadCount() {
@@ -25,4 +91,16 @@ public class SchedulerConfig {
     public TaskPriorityPolicy getTaskPriorityPolicy() {
         return taskPriorityPolicy;
     }
+
+    public TaskQueueType getTaskQueueType() {
+        return taskQueueType;
+    }
+
+    public MisfirePolicy getMisfirePolicy() {
+        return misfirePolicy;
+    }
+
+    public List<BulkheadConfig> getBulkheads() {
+        return bulkheads;
+    }
 }
@@ -0,0 +1,6 @@
+package com.lld.job.scheduler.config;
+
+public enum TaskQueueType {
+    TIMING_WHEEL,
+    PRIORITY_QUEUE
+}
@@ -0,0 +1,8 @@
+package com.lld.job.scheduler.config;
+
+public enum WorkerThreadType {
+    // A fixed set of OS threads, one per concurrent task.
+    PLATFORM,
+    // A new virtual thread per task; a blocked handler parks instead of holding an OS thread.
+    VIRTUAL
+}
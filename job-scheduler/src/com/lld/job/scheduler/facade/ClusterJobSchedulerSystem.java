@@ -0,0 +1,275 @@
+package com.lld.job.scheduler.facade;
+
+import com.lld.job.scheduler.cluster.ClusterJobStore;
+import com.lld.job.scheduler.cluster.CoordinationStore;
+import com.lld.job.scheduler.cluster.PartitionOwnership;
+import com.lld.job.scheduler.cluster.TaskCommandType;
+import com.lld.job.scheduler.config.ClusterConfig;
+import com.lld.job.scheduler.config.SchedulerConfig;
+import com.lld.job.scheduler.handler.TaskHandler;
+import com.lld.job.scheduler.handler.TaskHandlerRegistry;
+import com.lld.job.scheduler.model.DeadLetter;
+import com.lld.job.scheduler.model.TaskDefinition;
+import com.lld.job.scheduler.model.TaskExecution;
+import com.lld.job.scheduler.model.TaskStatus;
+import com.lld.job.scheduler.repository.DeadLetterRepository;
+import com.lld.job.scheduler.repository.TaskDefinitionRepository;
+import com.lld.job.scheduler.repository.TaskExecutionRepository;
+import com.lld.job.scheduler.retry.NoRetryPolicy;
+import com.lld.job.scheduler.retry.RetryPolicy;
+import com.lld.job.scheduler.schedule.SchedulePolicy;
+import com.lld.job.scheduler.service.ClusterCoordinator;
+import com.lld.job.scheduler.service.JobRecoveryService;
+import com.lld.job.scheduler.service.TaskExecutionService;
+import com.lld.job.scheduler.service.TaskSchedulerService;
+import com.lld.job.scheduler.store.JobStore;
+import com.lld.job.scheduler.store.StoredTaskDefinition;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * One node of a scheduler cluster. Nodes share a {@link CoordinationStore}
+ * and split the tasks between them by partition lease; each runs its own
+ * dispatcher and worker pool for the partitions it holds.
+ *
+ * Any node accepts any call. Changes are queued as commands for the owner
+ * of the task's partition and take effect at once on the owner, or within
+ * one renew interval elsewhere. Handlers must be registered by task name
+ * on every node that may own the task.
+ */
+public class ClusterJobSchedulerSystem implements JobSchedulerSystem {
+
+    private final CoordinationStore coordinationStore;
+    private final PartitionOwnership partitionOwnership;
+    private final TaskHandlerRegistry taskHandlerRegistry;
+    private final TaskDefinitionRepository taskDefinitionRepository;
+    private final TaskSchedulerService taskSchedulerService;
+    private final ClusterCoordinator clusterCoordinator;
+
+    public ClusterJobSchedulerSystem(
+            SchedulerConfig schedulerConfig,
+            ClusterConfig clusterConfig,
+            CoordinationStore coordinationStore
+    ) {
+        if (schedulerConfig == null || clusterConfig == null) {
+            throw new IllegalArgumentException("Scheduler and cluster config are required");
+        }
+        if (coordinationStore == null) {
+            throw new IllegalArgumentException("Coordination store is required");
+        }
+
+        this.coordinationStore = coordinationStore;
+        this.partitionOwnership = new PartitionOwnership(coordinationStore, clusterConfig.getPartitionCount());
+        this.taskHandlerRegistry = new TaskHandlerRegistry();
+
+        JobStore jobStore = new ClusterJobStore(coordinationStore, partitionOwnership);
+        this.taskDefinitionRepository = new TaskDefinitionRepository(jobStore);
+        TaskExecutionRepository taskExecutionRepository = new TaskExecutionRepository(jobStore);
+        DeadLetterRepository deadLetterRepository = new DeadLetterRepository(jobStore);
+
+        TaskExecutionService taskExecutionService = new TaskExecutionService(
+                taskDefinitionRepository,
+                taskExecutionRepository
+        );
+
+        this.taskSchedulerService = new TaskSchedulerService(
+                schedulerConfig,
+                taskDefinitionRepository,
+                taskExecutionService,
+                deadLetterRepository,
+                partitionOwnership
+        );
+
+        JobRecoveryService jobRecoveryService = new JobRecoveryService(
+                jobStore,
+                taskDefinitionRepository,
+                taskExecutionRepository,
+                deadLetterRepository,
+                taskSchedulerService,
+                taskHandlerRegistry
+        );
+
+        this.clusterCoordinator = new ClusterCoordinator(
+                clusterConfig,
+                coordinationStore,
+                partitionOwnership,
+                taskDefinitionRepository,
+                deadLetterRepository,
+                taskSchedulerService,
+                jobRecoveryService
+        );
+    }
+
+    @Override
+    public void start() {
+        taskSchedulerService.start();
+        clusterCoordinator.start();
+    }
+
+    /**
+     * Stops firing, then hands this node's partitions back and leaves the
+     * cluster, so the other nodes take over without waiting for the leases
+     * to expire.
+     */
+    @Override
+    public void stop() {
+        clusterCoordinator.stop();
+        taskSchedulerService.stop();
+        clusterCoordinator.leave();
+    }
+
+    /**
+     * Stops the node the way a crash would: its leases are left to expire
+     * before other nodes take its partitions over.
+     */
+    public void halt() {
+        clusterCoordinator.stop();
+        taskSchedulerService.stop();
+    }
+
+    /**
+     * The partitions whose tasks this node currently fires.
+     */
+    public List<Integer> getOwnedPartitions() {
+        return clusterCoordinator.ownedPartitions();
+    }
+
+    /**
+     * Also registers the handler on this node under the task name.
+     */
+    @Override
+    public String scheduleTask(String taskName, SchedulePolicy schedule, TaskHandler taskHandler) {
+        return scheduleTask(taskName, schedule, taskHandler, new NoRetryPolicy());
+    }
+
+    /**
+     * Also registers the handler on this node under the task name.
+     */
+    @Override
+    public String scheduleTask(
+            String taskName,
+            SchedulePolicy schedule,
+            TaskHandler taskHandler,
+            RetryPolicy retryPolicy
+    ) {
+        if (taskName == null || taskName.isBlank()) {
+            throw new IllegalArgumentException("Task name is required");
+        }
+        if (schedule == null) {
+            throw new IllegalArgumentException("Schedule policy is required");
+        }
+        if (taskHandler == null) {
+            throw new IllegalArgumentException("Task handler is required");
+        }
+        if (retryPolicy == null) {
+            throw new IllegalArgumentException("Retry policy is required");
+        }
+
+        taskHandlerRegistry.register(taskName, taskHandler);
+
+        String taskId = UUID.randomUUID().toString();
+        coordinationStore.createTask(
+                partitionOwnership.partitionOf(taskId),
+                new StoredTaskDefinition(
+                        taskId,
+                        taskName,
+                        schedule,
+                        retryPolicy,
+                        TaskStatus.ACTIVE,
+                        schedule.nextExecutionAfter(Instant.now()).orElse(null)
+                )
+        );
+        clusterCoordinator.submit(taskId, TaskCommandType.SCHEDULE);
+        return taskId;
+    }
+
+    @Override
+    public void registerTaskHandler(String taskName, TaskHandler taskHandler) {
+        if (taskName == null || taskName.isBlank()) {
+            throw new IllegalArgumentException("Task name is required");
+        }
+        if (taskHandler == null) {
+            throw new IllegalArgumentException("Task handler is required");
+        }
+
+        taskHandlerRegistry.register(taskName, taskHandler);
+    }
+
+    @Override
+    public boolean cancelTask(String taskId) {
+        return submit(taskId, TaskCommandType.CANCEL);
+    }
+
+    @Override
+    public boolean pauseTask(String taskId) {
+        return submit(taskId, TaskCommandType.PAUSE);
+    }
+
+    @Override
+    public boolean resumeTask(String taskId) {
+        return submit(taskId, TaskCommandType.RESUME);
+    }
+
+    /**
+     * The live definition on the owning node; elsewhere, a copy of the
+     * stored one.
+     */
+    @Override
+    public Optional<TaskDefinition> getTask(String taskId) {
+        Optional<TaskDefinition> owned = taskDefinitionRepository.findById(taskId);
+        if (owned.isPresent()) {
+            return owned;
+        }
+
+        return coordinationStore.findTask(taskId).map(storedTask -> {
+            TaskDefinition taskDefinition = new TaskDefinition(
+                    storedTask.getTaskId(),
+                    storedTask.getTaskName(),
+                    storedTask.getSchedulePolicy(),
+                    taskHandlerRegistry.handlerFor(storedTask.getTaskName()),
+                    storedTask.getRetryPolicy(),
+                    storedTask.getTaskStatus()
+            );
+            taskDefinition.setNextExecutionTime(storedTask.getNextExecutionTime());
+            return taskDefinition;
+        });
+    }
+
+    @Override
+    public List<TaskExecution> getExecutions(String taskId) {
+        return coordinationStore.findExecutions(taskId);
+    }
+
+    @Override
+    public List<DeadLetter> getDeadLetters() {
+        return coordinationStore.findDeadLetters();
+    }
+
+    /**
+     * Queued for the owner of the task's partition like any other change;
+     * true means the replay was sent, not that the owner accepted it.
+     */
+    @Override
+    public boolean replayDeadLetter(String deadLetterId) {
+        Optional<DeadLetter> deadLetter = coordinationStore.findDeadLetters().stream()
+                .filter(candidate -> candidate.getDeadLetterId().equals(deadLetterId))
+                .findFirst();
+
+        if (deadLetter.isEmpty()) {
+            return false;
+        }
+        clusterCoordinator.submit(deadLetter.get().getTaskDefinitionId(), TaskCommandType.REPLAY, deadLetterId);
+        return true;
+    }
+
+    private boolean submit(String taskId, TaskCommandType type) {
+        if (coordinationStore.findTask(taskId).isEmpty()) {
+            return false;
+        }
+        clusterCoordinator.submit(taskId, type);
+        return true;
+    }
+}
@@ -1,8 +1,10 @@
 package com.lld.job.scheduler.facade;
 
 import com.lld.job.scheduler.handler.TaskHandler;
+import com.lld.job.scheduler.model.DeadLetter;
 import com.lld.job.scheduler.model.TaskDefinition;
 import com.lld.job.scheduler.model.TaskExecution;
+import com.lld.job.scheduler.retry.RetryPolicy;
 import com.lld.job.scheduler.schedule.SchedulePolicy;
 
 import java.util.List;
@@ -24,7 +26,8 @@ public interface JobSchedulerSystem {
     void start();
 
     /**
-     * Gracefully stops the dispatcher and worker pool.
+     * Gracefully stops the dispatcher and worker pool, then flushes and
+     * closes the job store.
      */
     void stop();
 
@@ -38,6 +41,24 @@ public interface JobSchedulerSystem {
      */
     String scheduleTask(String taskName, SchedulePolicy schedule, TaskHandler taskHandler);
 
+    /**
+     * Registers a new task whose failed or timed-out runs are retried
+     * under the given policy; a fire-time whose attempts are all used up
+     * is dead-lettered. Tasks scheduled without a policy get one attempt.
+     */
+    String scheduleTask(
+            String taskName,
+            SchedulePolicy schedule,
+            TaskHandler taskHandler,
+            RetryPolicy retryPolicy
+    );
+
+    /**
+     * Binds the handler that runs tasks of this name after they are
+     * recovered from the job store. Handlers are code and are not persisted.
+     */
+    void registerTaskHandler(String taskName, TaskHandler taskHandler);
+
     /**
      * Cancels a previously scheduled task. Pending executions are removed
      * from the queue and any in-flight execution is allowed to complete.
@@ -63,4 +84,18 @@ public interface JobSchedulerSystem {
      * Returns execution history for a task.
      */
     List<TaskExecution> getExecutions(String taskId);
+
+    /**
+     * Returns every fire-time that failed all its attempts and has not
+     * since been replayed successfully.
+     */
+    List<DeadLetter> getDeadLetters();
+
+    /**
+     * Runs a dead-lettered fire-time again, with a fresh set of attempts.
+     *
+     * @return false if the dead letter is unknown or already being
+     *         replayed, or its task is gone, cancelled or paused
+     */
+    boolean replayDeadLetter(String deadLetterId);
 }
@@ -1,15 +1,24 @@
 package com.lld.job.scheduler.facade;
 
+import com.lld.job.scheduler.cluster.LocalTaskOwnership;
 import com.lld.job.scheduler.config.SchedulerConfig;
 import com.lld.job.scheduler.handler.TaskHandler;
+import com.lld.job.scheduler.handler.TaskHandlerRegistry;
+import com.lld.job.scheduler.model.DeadLetter;
 import com.lld.job.scheduler.model.TaskDefinition;
 import com.lld.job.scheduler.model.TaskExecution;
 import com.lld.job.scheduler.model.TaskStatus;
+import com.lld.job.scheduler.repository.DeadLetterRepository;
 import com.lld.job.scheduler.repository.TaskDefinitionRepository;
 import com.lld.job.scheduler.repository.TaskExecutionRepository;
+import com.lld.job.scheduler.retry.NoRetryPolicy;
+import com.lld.job.scheduler.retry.RetryPolicy;
 import com.lld.job.scheduler.schedule.SchedulePolicy;
+import com.lld.job.scheduler.service.JobRecoveryService;
 import com.lld.job.scheduler.service.TaskExecutionService;
 import com.lld.job.scheduler.service.TaskSchedulerService;
+import com.lld.job.scheduler.store.JobStore;
+import com.lld.job.scheduler.store.NoOpJobStore;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,13 +32,31 @@ import java.util.UUID;
  */
 public class JobSchedulerSystemImpl implements JobSchedulerSystem {
 
+    private final JobStore jobStore;
+    private final TaskHandlerRegistry taskHandlerRegistry;
     private final TaskDefinitionRepository taskDefinitionRepository;
     private final TaskExecutionRepository taskExecutionRepository;
+    private final DeadLetterRepository deadLetterRepository;
     private final TaskSchedulerService taskSchedulerService;
 
     public JobSchedulerSystemImpl(SchedulerConfig schedulerConfig) {
-        this.taskDefinitionRepository = new TaskDefinitionRepository();
-        this.taskExecutionRepository = new TaskExecutionRepository();
+        this(schedulerConfig, new NoOpJobStore());
+    }
+
+    /**
+     * Recovers every task and execution held by the job store before
+     * returning; register handlers for recovered tasks before they fire.
+     */
+    public JobSchedulerSystemImpl(SchedulerConfig schedulerConfig, JobStore jobStore) {
+        if (jobStore == null) {
+            throw new IllegalArgumentException("Job store is required");
+        }
+
+        this.jobStore = jobStore;
+        this.taskHandlerRegistry = new TaskHandlerRegistry();
+        this.taskDefinitionRepository = new TaskDefinitionRepository(jobStore);
+        this.taskExecutionRepository = new TaskExecutionRepository(jobStore);
+        this.deadLetterRepository = new DeadLetterRepository(jobStore);
 
         TaskExecutionService taskExecutionService = new TaskExecutionService(
                 taskDefinitionRepository,
@@ -39,8 +66,19 @@ public class JobSchedulerSystemImpl implements JobSchedulerSystem {
         this.taskSchedulerService = new TaskSchedulerService(
                 schedulerConfig,
                 taskDefinitionRepository,
-                taskExecutionService
+                taskExecutionService,
+                deadLetterRepository,
+                new LocalTaskOwnership()
         );
+
+        new JobRecoveryService(
+                jobStore,
+                taskDefinitionRepository,
+                taskExecutionRepository,
+                deadLetterRepository,
+                taskSchedulerService,
+                taskHandlerRegistry
+        ).recover();
     }
 
     @Override
@@ -51,10 +89,21 @@ public class JobSchedulerSystemImpl implements JobSchedulerSystem {
     @Override
     public void stop() {
         taskSchedulerService.stop();
+        jobStore.close();
     }
 
     @Override
     public String scheduleTask(String taskName, SchedulePolicy schedule, TaskHandler taskHandler) {
+        return scheduleTask(taskName, schedule, taskHandler, new NoRetryPolicy());
+    }
+
+    @Override
+    public String scheduleTask(
+            String taskName,
+            SchedulePolicy schedule,
+            TaskHandler taskHandler,
+            RetryPolicy retryPolicy
+    ) {
         if (taskName == null || taskName.isBlank()) {
             throw new IllegalArgumentException("Task name is required");
         }
@@ -64,6 +113,9 @@ public class JobSchedulerSystemImpl implements JobSchedulerSystem {
         if (taskHandler == null) {
             throw new IllegalArgumentException("Task handler is required");
         }
+        if (retryPolicy == null) {
+            throw new IllegalArgumentException("Retry policy is required");
+        }
 
         String taskId = UUID.randomUUID().toString();
 
@@ -72,6 +124,7 @@ public class JobSchedulerSystemImpl implements JobSchedulerSystem {
                 taskName,
                 schedule,
                 taskHandler,
+                retryPolicy,
                 TaskStatus.ACTIVE
         );
 
@@ -79,6 +132,18 @@ public class JobSchedulerSystemImpl implements JobSchedulerSystem {
         return taskId;
     }
 
+    @Override
+    public void registerTaskHandler(String taskName, TaskHandler taskHandler) {
+        if (taskName == null || taskName.isBlank()) {
+            throw new IllegalArgumentException("Task name is required");
+        }
+        if (taskHandler == null) {
+            throw new IllegalArgumentException("Task handler is required");
+        }
+
+        taskHandlerRegistry.register(taskName, taskHandler);
+    }
+
     @Override
     public boolean cancelTask(String taskId) {
         return taskSchedulerService.cancel(taskId);
@@ -103,4 +168,14 @@ public class JobSchedulerSystemImpl implements JobSchedulerSystem {
     public List<TaskExecution> getExecutions(String taskId) {
         return taskExecutionRepository.findByTaskDefinitionId(taskId);
     }
+
+    @Override
+    public List<DeadLetter> getDeadLetters() {
+        return deadLetterRepository.findAll();
+    }
+
+    @Override
+    public boolean replayDeadLetter(String deadLetterId) {
+        return taskSchedulerService.replay(deadLetterId);
+    }
 }
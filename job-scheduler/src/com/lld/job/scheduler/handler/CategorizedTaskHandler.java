@@ -0,0 +1,41 @@
+package com.lld.job.scheduler.handler;
+
+import com.lld.job.scheduler.model.TaskExecutionContext;
+
+import java.time.Duration;
+
+// Gives a lambda handler a category and a timeout.
+public class CategorizedTaskHandler implements TaskHandler {
+
+    private final TaskHandler taskHandler;
+    private final HandlerCategory category;
+    private final Duration timeout;
+
+    public CategorizedTaskHandler(TaskHandler taskHandler, HandlerCategory category, Duration timeout) {
+        if (taskHandler == null || category == null) {
+            throw new IllegalArgumentException("Task handler and category cannot be null");
+        }
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+
+        this.taskHandler = taskHandler;
+        this.category = category;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void execute(TaskExecutionContext context) {
+        taskHandler.execute(context);
+    }
+
+    @Override
+    public HandlerCategory getCategory() {
+        return category;
+    }
+
+    @Override
+    public Duration getTimeout() {
+        return timeout;
+    }
+}
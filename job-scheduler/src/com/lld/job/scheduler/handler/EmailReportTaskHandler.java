@@ -8,4 +8,9 @@ public class EmailReportTaskHandler implements TaskHandler{
     public void execute(TaskExecutionContext context) {
         System.out.println("email sent");
     }
+
+    @Override
+    public HandlerCategory getCategory() {
+        return HandlerCategory.BLOCKING;
+    }
 }
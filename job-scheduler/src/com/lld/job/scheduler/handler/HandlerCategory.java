@@ -0,0 +1,9 @@
+package com.lld.job.scheduler.handler;
+
+// Picks the bulkhead a handler runs in, so one kind of work cannot starve another.
+public enum HandlerCategory {
+    // Keeps a CPU busy for its whole run.
+    CPU_BOUND,
+    // Spends most of its run waiting on I/O (mail, HTTP, database).
+    BLOCKING
+}
@@ -2,6 +2,17 @@ package com.lld.job.scheduler.handler;
 
 import com.lld.job.scheduler.model.TaskExecutionContext;
 
+import java.time.Duration;
+
 public interface TaskHandler {
     void execute(TaskExecutionContext context);
+
+    default HandlerCategory getCategory() {
+        return HandlerCategory.CPU_BOUND;
+    }
+
+    // The handler is interrupted once it runs longer; null means no limit.
+    default Duration getTimeout() {
+        return null;
+    }
 }
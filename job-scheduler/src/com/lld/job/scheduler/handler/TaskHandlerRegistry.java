@@ -0,0 +1,44 @@
+package com.lld.job.scheduler.handler;
+
+import com.lld.job.scheduler.model.TaskExecutionContext;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Handlers by task name. A handler is code and cannot be persisted, so a
+// task recovered from the job store runs whatever is registered under its
+// name at the time it fires.
+public class TaskHandlerRegistry {
+
+    private final ConcurrentMap<String, TaskHandler> handlers = new ConcurrentHashMap<>();
+
+    public void register(String taskName, TaskHandler taskHandler) {
+        handlers.put(taskName, taskHandler);
+    }
+
+    public TaskHandler handlerFor(String taskName) {
+        return new TaskHandler() {
+            @Override
+            public void execute(TaskExecutionContext context) {
+                TaskHandler taskHandler = handlers.get(taskName);
+                if (taskHandler == null) {
+                    throw new IllegalStateException("No task handler registered for task: " + taskName);
+                }
+                taskHandler.execute(context);
+            }
+
+            @Override
+            public HandlerCategory getCategory() {
+                TaskHandler taskHandler = handlers.get(taskName);
+                return taskHandler == null ? HandlerCategory.CPU_BOUND : taskHandler.getCategory();
+            }
+
+            @Override
+            public Duration getTimeout() {
+                TaskHandler taskHandler = handlers.get(taskName);
+                return taskHandler == null ? null : taskHandler.getTimeout();
+            }
+        };
+    }
+}
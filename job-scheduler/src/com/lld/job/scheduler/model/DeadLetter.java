@@ -0,0 +1,62 @@
+package com.lld.job.scheduler.model;
+
+import java.time.Instant;
+
+// A fire-time whose every attempt failed, kept until it is replayed successfully.
+public class DeadLetter {
+
+    private final String deadLetterId;
+    private final String taskDefinitionId;
+    private final String taskName;
+    private final Instant scheduledTime;
+    private final int attempts;
+    private final String errorMessage;
+    private final Instant deadLetteredAt;
+
+    public DeadLetter(
+            String deadLetterId,
+            String taskDefinitionId,
+            String taskName,
+            Instant scheduledTime,
+            int attempts,
+            String errorMessage,
+            Instant deadLetteredAt
+    ) {
+        this.deadLetterId = deadLetterId;
+        this.taskDefinitionId = taskDefinitionId;
+        this.taskName = taskName;
+        this.scheduledTime = scheduledTime;
+        this.attempts = attempts;
+        this.errorMessage = errorMessage;
+        this.deadLetteredAt = deadLetteredAt;
+    }
+
+    public String getDeadLetterId() {
+        return deadLetterId;
+    }
+
+    public String getTaskDefinitionId() {
+        return taskDefinitionId;
+    }
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    public Instant getScheduledTime() {
+        return scheduledTime;
+    }
+
+    // Attempts made in the last run of this fire-time, original or replay.
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public Instant getDeadLetteredAt() {
+        return deadLetteredAt;
+    }
+}
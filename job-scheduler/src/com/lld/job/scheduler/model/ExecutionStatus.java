@@ -5,5 +5,6 @@ public enum ExecutionStatus {
     RUNNING,
     SUCCESS,
     FAILED,
+    TIMED_OUT,
     SKIPPED
 }
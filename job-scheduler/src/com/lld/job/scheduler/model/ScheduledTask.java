@@ -5,10 +5,31 @@ import java.time.Instant;
 public class ScheduledTask {
     String taskDefinitionId;
     Instant executionTime;
+    // The fire-time this run belongs to; later than executionTime only for reruns.
+    Instant scheduledTime;
+    int attempt;
+    String deadLetterId;
 
     public ScheduledTask(String taskDefinitionId, Instant executionTime) {
+        this(taskDefinitionId, executionTime, executionTime, 1, null);
+    }
+
+    /**
+     * A rerun of a fire-time that already ran: a retry (attempt above 1) or
+     * a replay of a dead letter.
+     */
+    public ScheduledTask(
+            String taskDefinitionId,
+            Instant executionTime,
+            Instant scheduledTime,
+            int attempt,
+            String deadLetterId
+    ) {
         this.taskDefinitionId = taskDefinitionId;
         this.executionTime = executionTime;
+        this.scheduledTime = scheduledTime;
+        this.attempt = attempt;
+        this.deadLetterId = deadLetterId;
     }
 
     public String getTaskDefinitionId() {
@@ -18,4 +39,29 @@ public class ScheduledTask {
     public Instant getExecutionTime() {
         return executionTime;
     }
+
+    public Instant getScheduledTime() {
+        return scheduledTime;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    // Null unless this run replays a dead letter.
+    public String getDeadLetterId() {
+        return deadLetterId;
+    }
+
+    public boolean isReplay() {
+        return deadLetterId != null;
+    }
+
+    public boolean isRerun() {
+        return attempt > 1 || isReplay();
+    }
+
+    public ScheduledTask nextAttemptAt(Instant executionTime) {
+        return new ScheduledTask(taskDefinitionId, executionTime, scheduledTime, attempt + 1, deadLetterId);
+    }
 }
@@ -1,27 +1,46 @@
 package com.lld.job.scheduler.model;
 
 import com.lld.job.scheduler.handler.TaskHandler;
+import com.lld.job.scheduler.retry.NoRetryPolicy;
+import com.lld.job.scheduler.retry.RetryPolicy;
 import com.lld.job.scheduler.schedule.SchedulePolicy;
 
+import java.time.Instant;
+
 public class TaskDefinition {
 
     private final String taskId;
     private final String taskName;
     private final SchedulePolicy schedulePolicy;
     private final TaskHandler taskHandler;
+    private final RetryPolicy retryPolicy;
     private volatile TaskStatus taskStatus;
+    // The fire-time currently queued or running; null when none is armed.
+    private volatile Instant nextExecutionTime;
+
+    public TaskDefinition(
+            String taskId,
+            String taskName,
+            SchedulePolicy schedulePolicy,
+            TaskHandler taskHandler,
+            TaskStatus taskStatus
+    ) {
+        this(taskId, taskName, schedulePolicy, taskHandler, new NoRetryPolicy(), taskStatus);
+    }
 
     public TaskDefinition(
             String taskId,
             String taskName,
             SchedulePolicy schedulePolicy,
             TaskHandler taskHandler,
+            RetryPolicy retryPolicy,
             TaskStatus taskStatus
     ) {
         this.taskId = taskId;
         this.taskName = taskName;
         this.schedulePolicy = schedulePolicy;
         this.taskHandler = taskHandler;
+        this.retryPolicy = retryPolicy;
         this.taskStatus = taskStatus;
     }
 
@@ -41,14 +60,31 @@ public class TaskDefinition {
         return taskHandler;
     }
 
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
     public TaskStatus getTaskStatus() {
         return taskStatus;
     }
 
+    public Instant getNextExecutionTime() {
+        return nextExecutionTime;
+    }
+
+    public void setNextExecutionTime(Instant nextExecutionTime) {
+        this.nextExecutionTime = nextExecutionTime;
+    }
+
     public boolean isActive() {
         return taskStatus == TaskStatus.ACTIVE;
     }
 
+    // A replay may also re-run a fire-time of a task that has since completed.
+    public boolean isRunnable(ScheduledTask scheduledTask) {
+        return isActive() || (scheduledTask.isReplay() && taskStatus == TaskStatus.COMPLETED);
+    }
+
     public void cancel() {
         this.taskStatus = TaskStatus.CANCELLED;
     }
@@ -1,6 +1,7 @@
 package com.lld.job.scheduler.model;
 
 
+import java.time.Duration;
 import java.time.Instant;
 
 public class TaskExecution {
@@ -8,6 +9,7 @@ public class TaskExecution {
     private final String executionId;
     private final String taskDefinitionId;
     private final Instant scheduledTime;
+    private final int attemptNumber;
 
     private Instant actualStartTime;
     private Instant completedAt;
@@ -18,13 +20,43 @@ public class TaskExecution {
             String executionId,
             String taskDefinitionId,
             Instant scheduledTime
+    ) {
+        this(executionId, taskDefinitionId, scheduledTime, 1);
+    }
+
+    public TaskExecution(
+            String executionId,
+            String taskDefinitionId,
+            Instant scheduledTime,
+            int attemptNumber
     ) {
         this.executionId = executionId;
         this.taskDefinitionId = taskDefinitionId;
         this.scheduledTime = scheduledTime;
+        this.attemptNumber = attemptNumber;
         this.status = ExecutionStatus.CREATED;
     }
 
+    public TaskExecution(
+            String executionId,
+            String taskDefinitionId,
+            Instant scheduledTime,
+            int attemptNumber,
+            Instant actualStartTime,
+            Instant completedAt,
+            ExecutionStatus status,
+            String errorMessage
+    ) {
+        this.executionId = executionId;
+        this.taskDefinitionId = taskDefinitionId;
+        this.scheduledTime = scheduledTime;
+        this.attemptNumber = attemptNumber;
+        this.actualStartTime = actualStartTime;
+        this.completedAt = completedAt;
+        this.status = status;
+        this.errorMessage = errorMessage;
+    }
+
     public String getExecutionId() {
         return executionId;
     }
@@ -37,6 +69,10 @@ public class TaskExecution {
         return scheduledTime;
     }
 
+    public int getAttemptNumber() {
+        return attemptNumber;
+    }
+
     public Instant getActualStartTime() {
         return actualStartTime;
     }
@@ -53,6 +89,10 @@ public class TaskExecution {
         return errorMessage;
     }
 
+    public boolean isFailure() {
+        return status == ExecutionStatus.FAILED || status == ExecutionStatus.TIMED_OUT;
+    }
+
     public void markRunning(Instant actualStartTime) {
         this.actualStartTime = actualStartTime;
         this.status = ExecutionStatus.RUNNING;
@@ -69,6 +109,18 @@ public class TaskExecution {
         this.errorMessage = exception.getMessage();
     }
 
+    public void markFailed(Instant completedAt, String reason) {
+        this.completedAt = completedAt;
+        this.status = ExecutionStatus.FAILED;
+        this.errorMessage = reason;
+    }
+
+    public void markTimedOut(Instant completedAt, Duration timeout) {
+        this.completedAt = completedAt;
+        this.status = ExecutionStatus.TIMED_OUT;
+        this.errorMessage = "Timed out after " + timeout.toMillis() + " ms";
+    }
+
     public void markSkipped(Instant completedAt, String reason) {
         this.completedAt = completedAt;
         this.status = ExecutionStatus.SKIPPED;
@@ -0,0 +1,98 @@
+package com.lld.job.scheduler.queue;
+
+import com.lld.job.scheduler.model.ScheduledTask;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Binary heap ordered by the priority policy: O(log n) offer and take,
+ * O(n) cancel and hasPending.
+ *
+ * The dispatcher waits for the head's fire-time, or for a new head, instead
+ * of polling.
+ */
+public class PriorityScheduledTaskQueue implements ScheduledTaskQueue {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition headChanged = lock.newCondition();
+    private final PriorityQueue<ScheduledTask> queue;
+
+    public PriorityScheduledTaskQueue(Comparator<ScheduledTask> comparator) {
+        this.queue = new PriorityQueue<>(11, comparator);
+    }
+
+    @Override
+    public void offer(ScheduledTask scheduledTask) {
+        lock.lock();
+        try {
+            queue.offer(scheduledTask);
+            if (queue.peek() == scheduledTask) {
+                headChanged.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ScheduledTask take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                ScheduledTask head = queue.peek();
+
+                if (head == null) {
+                    headChanged.await();
+                    continue;
+                }
+
+                Duration remaining = Duration.between(Instant.now(), head.getExecutionTime());
+                if (remaining.isNegative() || remaining.isZero()) {
+                    return queue.poll();
+                }
+
+                headChanged.awaitNanos(remaining.toNanos());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean cancel(String taskDefinitionId) {
+        lock.lock();
+        try {
+            return queue.removeIf(
+                    scheduled -> scheduled.getTaskDefinitionId().equals(taskDefinitionId)
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean hasPending(String taskDefinitionId) {
+        lock.lock();
+        try {
+            return queue.stream()
+                    .anyMatch(scheduled -> scheduled.getTaskDefinitionId().equals(taskDefinitionId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
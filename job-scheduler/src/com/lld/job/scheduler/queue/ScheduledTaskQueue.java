@@ -0,0 +1,31 @@
+package com.lld.job.scheduler.queue;
+
+import com.lld.job.scheduler.model.ScheduledTask;
+
+/**
+ * Pending fire-times, consumed by the dispatcher.
+ *
+ * Implementations are thread-safe: any thread may offer, cancel or query
+ * while the dispatcher is blocked in {@link #take()}.
+ */
+public interface ScheduledTaskQueue {
+
+    void offer(ScheduledTask scheduledTask);
+
+    /**
+     * Blocks until at least one task is due, then returns the due task that
+     * the priority policy ranks first.
+     */
+    ScheduledTask take() throws InterruptedException;
+
+    /**
+     * Removes every pending fire-time of the task.
+     *
+     * @return whether any was pending
+     */
+    boolean cancel(String taskDefinitionId);
+
+    boolean hasPending(String taskDefinitionId);
+
+    int size();
+}
@@ -0,0 +1,355 @@
+package com.lld.job.scheduler.queue;
+
+import com.lld.job.scheduler.model.ScheduledTask;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical timing wheel with a 1 ms tick: O(1) offer and cancel, and
+ * fire-times honoured to the millisecond.
+ *
+ * Level L has 64 slots of 64^L ms each. A task is filed at the lowest level
+ * whose slot still separates its fire-time from the current time, i.e. by
+ * the highest 6-bit group in which the two differ, and moves down a level
+ * each time the wheel reaches its slot. Each slot is a doubly linked list
+ * and each task id keeps a chain of its own entries, so cancelling never
+ * searches. A 64-bit occupancy mask per level gives the next slot that
+ * needs attention, which is how long the dispatcher sleeps: it is woken
+ * only when a slot is reached or an earlier task arrives, never to poll.
+ *
+ * Moving a whole upper slot down at once would stall firing for as long as
+ * the move takes (tens of milliseconds for a few hundred thousand tasks),
+ * so an upper slot is moved down ahead of time, during the last lower-level
+ * slot before it starts: a few entries per take(), the rest while idle.
+ * Entries moved early sit in lower-level slots at or behind the clock's
+ * position, which always stand for the next revolution.
+ *
+ * Tasks that are due are handed out in the order of the priority policy.
+ */
+public class TimingWheelScheduledTaskQueue implements ScheduledTaskQueue {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+    private static final int DUE = -1;
+    // Entries moved down ahead of time per take(), and per pass while idle.
+    private static final int TAKE_CASCADE_CHUNK = 16;
+    private static final int IDLE_CASCADE_CHUNK = 1_024;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition wakeUpChanged = lock.newCondition();
+
+    private final Entry[][] slots = new Entry[LEVELS][SLOTS];
+    private final long[] occupiedSlots = new long[LEVELS];
+    private final PriorityQueue<Entry> dueEntries;
+    private final Map<String, Entry> pendingByTaskId = new HashMap<>();
+
+    private long currentMillis;
+    // When the dispatcher is next due to wake up; an earlier offer must wake it.
+    private long wakeUpMillis = Long.MAX_VALUE;
+    private int size;
+
+    public TimingWheelScheduledTaskQueue(Comparator<ScheduledTask> comparator) {
+        this.dueEntries = new PriorityQueue<>(
+                (first, second) -> comparator.compare(first.scheduledTask, second.scheduledTask)
+        );
+        this.currentMillis = System.currentTimeMillis();
+    }
+
+    @Override
+    public void offer(ScheduledTask scheduledTask) {
+        Entry entry = new Entry(scheduledTask, fireMillis(scheduledTask.getExecutionTime()));
+
+        lock.lock();
+        try {
+            Entry first = pendingByTaskId.put(scheduledTask.getTaskDefinitionId(), entry);
+            if (first != null) {
+                entry.nextForTask = first;
+                first.previousForTask = entry;
+            }
+            size++;
+
+            place(entry);
+
+            if (entry.fireMillis < wakeUpMillis) {
+                wakeUpChanged.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ScheduledTask take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                Instant now = Instant.now();
+                long nowMillis = now.toEpochMilli();
+                advance(nowMillis);
+
+                Entry entry;
+                while ((entry = dueEntries.poll()) != null) {
+                    if (!entry.cancelled) {
+                        cascadeAhead(nowMillis, TAKE_CASCADE_CHUNK);
+                        unlinkFromTask(entry);
+                        size--;
+                        return entry.scheduledTask;
+                    }
+                }
+
+                if (cascadeAhead(nowMillis, IDLE_CASCADE_CHUNK)) {
+                    continue;
+                }
+
+                wakeUpMillis = nextWakeUpMillis();
+                if (wakeUpMillis == Long.MAX_VALUE) {
+                    wakeUpChanged.await();
+                } else {
+                    wakeUpChanged.awaitNanos(
+                            TimeUnit.MILLISECONDS.toNanos(wakeUpMillis - nowMillis) - now.getNano() % 1_000_000
+                    );
+                }
+            }
+        } finally {
+            wakeUpMillis = Long.MAX_VALUE;
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean cancel(String taskDefinitionId) {
+        lock.lock();
+        try {
+            Entry entry = pendingByTaskId.remove(taskDefinitionId);
+            if (entry == null) {
+                return false;
+            }
+
+            // Due entries sit in a heap; they are marked here and dropped when polled.
+            for (; entry != null; entry = entry.nextForTask) {
+                entry.cancelled = true;
+                if (entry.level != DUE) {
+                    unlinkFromSlot(entry);
+                }
+                size--;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean hasPending(String taskDefinitionId) {
+        lock.lock();
+        try {
+            return pendingByTaskId.containsKey(taskDefinitionId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Rounded up, so a task never fires before its execution time.
+    private static long fireMillis(Instant executionTime) {
+        long millis = executionTime.toEpochMilli();
+        return executionTime.getNano() % 1_000_000 == 0 ? millis : millis + 1;
+    }
+
+    private void place(Entry entry) {
+        if (entry.fireMillis <= currentMillis) {
+            entry.level = DUE;
+            dueEntries.offer(entry);
+            return;
+        }
+
+        fileAt(entry, (63 - Long.numberOfLeadingZeros(entry.fireMillis ^ currentMillis)) / SLOT_BITS);
+    }
+
+    private void fileAt(Entry entry, int level) {
+        int slot = (int) (entry.fireMillis >>> (level * SLOT_BITS)) & (SLOTS - 1);
+
+        Entry first = slots[level][slot];
+        entry.next = first;
+        if (first != null) {
+            first.previous = entry;
+        }
+        slots[level][slot] = entry;
+        occupiedSlots[level] |= 1L << slot;
+        entry.level = level;
+        entry.slot = slot;
+    }
+
+    // Every slot the clock has passed is emptied and its entries filed again,
+    // a level lower or as due.
+    private void advance(long now) {
+        if (now <= currentMillis) {
+            return;
+        }
+        long previous = currentMillis;
+        currentMillis = now;
+
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = level * SLOT_BITS;
+            long previousUnit = previous >>> shift;
+            long nowUnit = now >>> shift;
+            if (previousUnit == nowUnit) {
+                break;
+            }
+
+            long passed = nowUnit - previousUnit >= SLOTS
+                    ? -1L
+                    : Long.rotateLeft((1L << (nowUnit - previousUnit)) - 1, (int) (previousUnit + 1) & (SLOTS - 1));
+            long pending = occupiedSlots[level] & passed;
+            occupiedSlots[level] &= ~pending;
+
+            while (pending != 0) {
+                int slot = Long.numberOfTrailingZeros(pending);
+                pending &= pending - 1;
+
+                Entry entry = slots[level][slot];
+                slots[level][slot] = null;
+                while (entry != null) {
+                    Entry next = entry.next;
+                    entry.previous = null;
+                    entry.next = null;
+                    place(entry);
+                    entry = next;
+                }
+            }
+        }
+    }
+
+    // Moves up to budget entries of each upper slot that starts within one
+    // lower-level slot into the level below; returns whether any were left.
+    private boolean cascadeAhead(long now, int budget) {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            long start = nextSlotStart(level);
+            if (start == Long.MAX_VALUE || now < start - (1L << ((level - 1) * SLOT_BITS))) {
+                continue;
+            }
+
+            int slot = (int) (start >>> (level * SLOT_BITS)) & (SLOTS - 1);
+            Entry entry = slots[level][slot];
+            for (; entry != null && budget > 0; budget--) {
+                Entry next = entry.next;
+                entry.next = null;
+                if (next != null) {
+                    next.previous = null;
+                }
+                fileAt(entry, level - 1);
+                entry = next;
+            }
+
+            slots[level][slot] = entry;
+            if (entry != null) {
+                return true;
+            }
+            occupiedSlots[level] &= ~(1L << slot);
+        }
+        return false;
+    }
+
+    // The next slot start of every level, pulled forward by one lower-level
+    // slot where an upper slot has to be moved down ahead of time.
+    private long nextWakeUpMillis() {
+        long wakeUp = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            long start = nextSlotStart(level);
+            if (start == Long.MAX_VALUE) {
+                continue;
+            }
+            wakeUp = Math.min(wakeUp, level == 0 ? start : start - (1L << ((level - 1) * SLOT_BITS)));
+        }
+        return wakeUp;
+    }
+
+    // Occupied slots ahead of the clock's position belong to the current
+    // revolution of their level, the others to the next one.
+    private long nextSlotStart(int level) {
+        long occupied = occupiedSlots[level];
+        if (occupied == 0) {
+            return Long.MAX_VALUE;
+        }
+
+        int shift = level * SLOT_BITS;
+        int revolutionShift = shift + SLOT_BITS;
+        int position = (int) (currentMillis >>> shift) & (SLOTS - 1);
+        long revolutionStart = revolutionShift >= Long.SIZE
+                ? 0
+                : (currentMillis >>> revolutionShift) << revolutionShift;
+
+        long ahead = position == SLOTS - 1 ? 0 : occupied & (-1L << (position + 1));
+        if (ahead != 0) {
+            return revolutionStart | ((long) Long.numberOfTrailingZeros(ahead) << shift);
+        }
+        return revolutionStart + (1L << revolutionShift) + ((long) Long.numberOfTrailingZeros(occupied) << shift);
+    }
+
+    private void unlinkFromSlot(Entry entry) {
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            slots[entry.level][entry.slot] = entry.next;
+            if (entry.next == null) {
+                occupiedSlots[entry.level] &= ~(1L << entry.slot);
+            }
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+    }
+
+    private void unlinkFromTask(Entry entry) {
+        if (entry.previousForTask != null) {
+            entry.previousForTask.nextForTask = entry.nextForTask;
+        } else if (entry.nextForTask != null) {
+            pendingByTaskId.put(entry.scheduledTask.getTaskDefinitionId(), entry.nextForTask);
+        } else {
+            pendingByTaskId.remove(entry.scheduledTask.getTaskDefinitionId());
+        }
+        if (entry.nextForTask != null) {
+            entry.nextForTask.previousForTask = entry.previousForTask;
+        }
+    }
+
+    private static final class Entry {
+        private final ScheduledTask scheduledTask;
+        private final long fireMillis;
+
+        // Neighbours in the slot list.
+        private Entry previous;
+        private Entry next;
+        // Neighbours among the pending entries of the same task id.
+        private Entry previousForTask;
+        private Entry nextForTask;
+
+        private int level;
+        private int slot;
+        private boolean cancelled;
+
+        private Entry(ScheduledTask scheduledTask, long fireMillis) {
+            this.scheduledTask = scheduledTask;
+            this.fireMillis = fireMillis;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.lld.job.scheduler.repository;
+
+import com.lld.job.scheduler.model.DeadLetter;
+import com.lld.job.scheduler.store.JobStore;
+import com.lld.job.scheduler.store.NoOpJobStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class DeadLetterRepository {
+
+    private final ConcurrentMap<String, DeadLetter> deadLetterStore = new ConcurrentHashMap<>();
+    private final JobStore jobStore;
+
+    public DeadLetterRepository() {
+        this(new NoOpJobStore());
+    }
+
+    public DeadLetterRepository(JobStore jobStore) {
+        this.jobStore = jobStore;
+    }
+
+    public void save(DeadLetter deadLetter) {
+        deadLetterStore.put(deadLetter.getDeadLetterId(), deadLetter);
+        jobStore.saveDeadLetter(deadLetter);
+    }
+
+    // Puts back a dead letter read from the job store, without writing it again.
+    public void restore(DeadLetter deadLetter) {
+        deadLetterStore.put(deadLetter.getDeadLetterId(), deadLetter);
+    }
+
+    // Drops the in-memory copy only; the job store keeps the dead letter.
+    public void evict(String deadLetterId) {
+        deadLetterStore.remove(deadLetterId);
+    }
+
+    public Optional<DeadLetter> findById(String deadLetterId) {
+        return Optional.ofNullable(deadLetterStore.get(deadLetterId));
+    }
+
+    public List<DeadLetter> findAll() {
+        return new ArrayList<>(deadLetterStore.values());
+    }
+
+    public void delete(String deadLetterId) {
+        deadLetterStore.remove(deadLetterId);
+        jobStore.deleteDeadLetter(deadLetterId);
+    }
+}
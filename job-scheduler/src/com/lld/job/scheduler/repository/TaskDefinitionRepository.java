@@ -1,6 +1,8 @@
 package com.lld.job.scheduler.repository;
 
 import com.lld.job.scheduler.model.TaskDefinition;
+import com.lld.job.scheduler.store.JobStore;
+import com.lld.job.scheduler.store.NoOpJobStore;
 
 import java.util.Collection;
 import java.util.Optional;
@@ -10,9 +12,29 @@ import java.util.concurrent.ConcurrentMap;
 public class TaskDefinitionRepository {
 
     private final ConcurrentMap<String, TaskDefinition> taskStore = new ConcurrentHashMap<>();
+    private final JobStore jobStore;
+
+    public TaskDefinitionRepository() {
+        this(new NoOpJobStore());
+    }
+
+    public TaskDefinitionRepository(JobStore jobStore) {
+        this.jobStore = jobStore;
+    }
 
     public void save(TaskDefinition taskDefinition) {
         taskStore.put(taskDefinition.getTaskId(), taskDefinition);
+        jobStore.saveTaskDefinition(taskDefinition);
+    }
+
+    // Puts back a task read from the job store, without writing it again.
+    public void restore(TaskDefinition taskDefinition) {
+        taskStore.put(taskDefinition.getTaskId(), taskDefinition);
+    }
+
+    // Drops the in-memory copy only; the job store keeps the task.
+    public void evict(String taskId) {
+        taskStore.remove(taskId);
     }
 
     public Optional<TaskDefinition> findById(String taskId) {
@@ -25,6 +47,7 @@ public class TaskDefinitionRepository {
 
     public void delete(String taskId) {
         taskStore.remove(taskId);
+        jobStore.deleteTaskDefinition(taskId);
     }
 
     public boolean existsById(String taskId) {
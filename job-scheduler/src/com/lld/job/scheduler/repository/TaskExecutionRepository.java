@@ -1,6 +1,8 @@
 package com.lld.job.scheduler.repository;
 
 import com.lld.job.scheduler.model.TaskExecution;
+import com.lld.job.scheduler.store.JobStore;
+import com.lld.job.scheduler.store.NoOpJobStore;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,9 +13,24 @@ import java.util.concurrent.ConcurrentMap;
 public class TaskExecutionRepository {
 
     private final ConcurrentMap<String, TaskExecution> executionStore = new ConcurrentHashMap<>();
+    private final JobStore jobStore;
+
+    public TaskExecutionRepository() {
+        this(new NoOpJobStore());
+    }
+
+    public TaskExecutionRepository(JobStore jobStore) {
+        this.jobStore = jobStore;
+    }
 
     public void save(TaskExecution taskExecution) {
         executionStore.put(taskExecution.getExecutionId(), taskExecution);
+        jobStore.saveTaskExecution(taskExecution);
+    }
+
+    // Puts back an execution read from the job store, without writing it again.
+    public void restore(TaskExecution taskExecution) {
+        executionStore.put(taskExecution.getExecutionId(), taskExecution);
     }
 
     public Optional<TaskExecution> findById(String executionId) {
@@ -0,0 +1,67 @@
+package com.lld.job.scheduler.retry;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Waits initialDelay after the first failure, multiplier times longer after
+ * each one after that, and never longer than maxDelay.
+ *
+ * Jitter takes a random share of up to that fraction off each delay, so
+ * tasks that failed together (say, on the same outage) do not all retry
+ * in the same instant. 0 keeps the delays exact; 1 is "full jitter",
+ * anywhere between zero and the computed delay.
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+
+    final int maxAttempts;
+    final Duration initialDelay;
+    final Duration maxDelay;
+    final double multiplier;
+    final double jitter;
+
+    public ExponentialBackoffRetryPolicy(
+            int maxAttempts,
+            Duration initialDelay,
+            Duration maxDelay,
+            double multiplier,
+            double jitter
+    ) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be positive");
+        }
+        if (initialDelay == null || initialDelay.isNegative()) {
+            throw new IllegalArgumentException("Initial delay must not be null or negative");
+        }
+        if (maxDelay == null || maxDelay.compareTo(initialDelay) < 0) {
+            throw new IllegalArgumentException("Max delay must not be shorter than the initial delay");
+        }
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("Multiplier must be at least 1");
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 1");
+        }
+
+        this.maxAttempts = maxAttempts;
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+    }
+
+    @Override
+    public Optional<Duration> nextRetryDelay(int failedAttempt) {
+        if (failedAttempt >= maxAttempts) {
+            return Optional.empty();
+        }
+
+        double nanos = Math.min(
+                initialDelay.toNanos() * Math.pow(multiplier, failedAttempt - 1),
+                maxDelay.toNanos()
+        );
+        nanos -= nanos * jitter * ThreadLocalRandom.current().nextDouble();
+        return Optional.of(Duration.ofNanos((long) nanos));
+    }
+}
@@ -0,0 +1,30 @@
+package com.lld.job.scheduler.retry;
+
+import java.time.Duration;
+import java.util.Optional;
+
+public class FixedDelayRetryPolicy implements RetryPolicy {
+
+    final int maxAttempts;
+    final Duration delay;
+
+    public FixedDelayRetryPolicy(int maxAttempts, Duration delay) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be positive");
+        }
+        if (delay == null || delay.isNegative()) {
+            throw new IllegalArgumentException("Delay must not be null or negative");
+        }
+
+        this.maxAttempts = maxAttempts;
+        this.delay = delay;
+    }
+
+    @Override
+    public Optional<Duration> nextRetryDelay(int failedAttempt) {
+        if (failedAttempt >= maxAttempts) {
+            return Optional.empty();
+        }
+        return Optional.of(delay);
+    }
+}
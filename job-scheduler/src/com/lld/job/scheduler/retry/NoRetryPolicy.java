@@ -0,0 +1,13 @@
+package com.lld.job.scheduler.retry;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// A single attempt: a failure is dead-lettered straight away.
+public class NoRetryPolicy implements RetryPolicy {
+
+    @Override
+    public Optional<Duration> nextRetryDelay(int failedAttempt) {
+        return Optional.empty();
+    }
+}
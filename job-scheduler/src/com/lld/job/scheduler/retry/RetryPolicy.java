@@ -0,0 +1,18 @@
+package com.lld.job.scheduler.retry;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * When a failed or timed-out execution is tried again. Attempts are
+ * numbered from 1, so a policy of 3 attempts retries twice; once they are
+ * used up the fire-time is dead-lettered.
+ */
+public interface RetryPolicy {
+
+    /**
+     * The delay before the attempt after failedAttempt, or empty when no
+     * attempts remain.
+     */
+    Optional<Duration> nextRetryDelay(int failedAttempt);
+}
@@ -0,0 +1,56 @@
+package com.lld.job.scheduler.retry;
+
+import java.time.Duration;
+
+// Text form of the built-in retry policies, as kept by the job store.
+// Custom RetryPolicy implementations cannot be persisted.
+public final class RetryPolicyCodec {
+
+    private static final String NONE = "NONE";
+    private static final String FIXED_DELAY = "FIXED_DELAY";
+    private static final String EXPONENTIAL_BACKOFF = "EXPONENTIAL_BACKOFF";
+
+    private RetryPolicyCodec() {
+    }
+
+    public static String encode(RetryPolicy retryPolicy) {
+        if (retryPolicy instanceof NoRetryPolicy) {
+            return NONE;
+        }
+        if (retryPolicy instanceof FixedDelayRetryPolicy fixedDelay) {
+            return FIXED_DELAY + "|" + fixedDelay.maxAttempts + "|" + fixedDelay.delay;
+        }
+        if (retryPolicy instanceof ExponentialBackoffRetryPolicy backoff) {
+            return EXPONENTIAL_BACKOFF
+                    + "|" + backoff.maxAttempts
+                    + "|" + backoff.initialDelay
+                    + "|" + backoff.maxDelay
+                    + "|" + backoff.multiplier
+                    + "|" + backoff.jitter;
+        }
+        throw new IllegalArgumentException(
+                "Retry policy cannot be persisted: " + retryPolicy.getClass().getName()
+        );
+    }
+
+    public static RetryPolicy decode(String encoded) {
+        String[] parts = encoded.split("\\|");
+
+        switch (parts[0]) {
+            case NONE:
+                return new NoRetryPolicy();
+            case FIXED_DELAY:
+                return new FixedDelayRetryPolicy(Integer.parseInt(parts[1]), Duration.parse(parts[2]));
+            case EXPONENTIAL_BACKOFF:
+                return new ExponentialBackoffRetryPolicy(
+                        Integer.parseInt(parts[1]),
+                        Duration.parse(parts[2]),
+                        Duration.parse(parts[3]),
+                        Double.parseDouble(parts[4]),
+                        Double.parseDouble(parts[5])
+                );
+            default:
+                throw new IllegalArgumentException("Unsupported retry policy: " + encoded);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.lld.job.scheduler.schedule;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+// Text form of the built-in schedule policies, as kept by the job store.
+// Custom SchedulePolicy implementations cannot be persisted.
+public final class SchedulePolicyCodec {
+
+    private static final String ONE_TIME = "ONE_TIME";
+    private static final String FIXED_INTERVAL = "FIXED_INTERVAL";
+    private static final String CRON = "CRON";
+
+    private SchedulePolicyCodec() {
+    }
+
+    public static String encode(SchedulePolicy schedulePolicy) {
+        if (schedulePolicy instanceof OneTimeSchedulePolicy oneTime) {
+            return ONE_TIME + "|" + oneTime.executionTime;
+        }
+        if (schedulePolicy instanceof FixedIntervalSchedulePolicy fixedInterval) {
+            return FIXED_INTERVAL + "|" + fixedInterval.startTime + "|" + fixedInterval.interval;
+        }
+        if (schedulePolicy instanceof CronSchedulePolicy cron) {
+            // The expression goes last: it is the only part that contains spaces.
+            return CRON + "|" + cron.zoneId + "|" + cron.cronExpression;
+        }
+        throw new IllegalArgumentException(
+                "Schedule policy cannot be persisted: " + schedulePolicy.getClass().getName()
+        );
+    }
+
+    public static SchedulePolicy decode(String encoded) {
+        String[] parts = encoded.split("\\|", 3);
+
+        switch (parts[0]) {
+            case ONE_TIME:
+                return new OneTimeSchedulePolicy(Instant.parse(parts[1]));
+            case FIXED_INTERVAL:
+                return new FixedIntervalSchedulePolicy(Instant.parse(parts[1]), Duration.parse(parts[2]));
+            case CRON:
+                return new CronSchedulePolicy(parts[2], ZoneId.of(parts[1]));
+            default:
+                throw new IllegalArgumentException("Unsupported schedule policy: " + encoded);
+        }
+    }
+}
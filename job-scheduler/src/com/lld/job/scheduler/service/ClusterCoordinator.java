@@ -0,0 +1,293 @@
+package com.lld.job.scheduler.service;
+
+import com.lld.job.scheduler.cluster.CoordinationStore;
+import com.lld.job.scheduler.cluster.PartitionLease;
+import com.lld.job.scheduler.cluster.PartitionOwnership;
+import com.lld.job.scheduler.cluster.TaskCommand;
+import com.lld.job.scheduler.cluster.TaskCommandType;
+import com.lld.job.scheduler.config.ClusterConfig;
+import com.lld.job.scheduler.model.DeadLetter;
+import com.lld.job.scheduler.model.TaskDefinition;
+import com.lld.job.scheduler.repository.DeadLetterRepository;
+import com.lld.job.scheduler.repository.TaskDefinitionRepository;
+import com.lld.job.scheduler.store.StoredTaskDefinition;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps this node's share of the partition leases and the tasks that go
+ * with them.
+ *
+ * Every renew interval the node sends a heartbeat, renews its leases,
+ * sheds partitions above its fair share (partitions / live nodes, rounded
+ * up) and takes free or expired ones below it. Winning a partition loads
+ * its tasks and dead letters from the coordination store and re-arms the
+ * tasks through the misfire policy; losing one drops them again. Commands
+ * sent to a partition are applied in order by its owner.
+ */
+public class ClusterCoordinator {
+
+    private final ClusterConfig clusterConfig;
+    private final CoordinationStore coordinationStore;
+    private final PartitionOwnership partitionOwnership;
+    private final TaskDefinitionRepository taskDefinitionRepository;
+    private final DeadLetterRepository deadLetterRepository;
+    private final TaskSchedulerService taskSchedulerService;
+    private final JobRecoveryService jobRecoveryService;
+
+    // Partitions whose tasks are loaded here, with the lease token they were loaded under.
+    private final Map<Integer, Long> loadedTokens = new HashMap<>();
+
+    private ScheduledExecutorService leaseLoop;
+
+    public ClusterCoordinator(
+            ClusterConfig clusterConfig,
+            CoordinationStore coordinationStore,
+            PartitionOwnership partitionOwnership,
+            TaskDefinitionRepository taskDefinitionRepository,
+            DeadLetterRepository deadLetterRepository,
+            TaskSchedulerService taskSchedulerService,
+            JobRecoveryService jobRecoveryService
+    ) {
+        this.clusterConfig = clusterConfig;
+        this.coordinationStore = coordinationStore;
+        this.partitionOwnership = partitionOwnership;
+        this.taskDefinitionRepository = taskDefinitionRepository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.taskSchedulerService = taskSchedulerService;
+        this.jobRecoveryService = jobRecoveryService;
+    }
+
+    public synchronized void start() {
+        if (leaseLoop != null) {
+            return;
+        }
+
+        leaseLoop = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-coordinator-" + clusterConfig.getNodeId());
+            thread.setDaemon(true);
+            return thread;
+        });
+        leaseLoop.scheduleWithFixedDelay(
+                this::maintainLeases,
+                0,
+                clusterConfig.getRenewInterval().toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Stops heartbeats and renewals. Held leases run out on their own
+     * unless released.
+     */
+    public void stop() {
+        ScheduledExecutorService loop;
+        synchronized (this) {
+            loop = leaseLoop;
+            leaseLoop = null;
+        }
+        if (loop == null) {
+            return;
+        }
+
+        loop.shutdownNow();
+        try {
+            loop.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands every held partition back and leaves the membership, so other
+     * nodes take over at their next renewal instead of after the leases expire.
+     */
+    public synchronized void leave() {
+        for (int partition : new ArrayList<>(loadedTokens.keySet())) {
+            Optional<PartitionLease> lease = partitionOwnership.leaseFor(partition);
+            unload(partition);
+            lease.ifPresent(coordinationStore::releaseLease);
+        }
+        coordinationStore.leave(clusterConfig.getNodeId());
+    }
+
+    /**
+     * Queues the command for the task's partition, and applies it straight
+     * away if this node owns that partition.
+     */
+    public synchronized void submit(String taskId, TaskCommandType type) {
+        submit(taskId, type, null);
+    }
+
+    public synchronized void submit(String taskId, TaskCommandType type, String deadLetterId) {
+        int partition = partitionOwnership.partitionOf(taskId);
+        coordinationStore.sendCommand(partition, taskId, type, deadLetterId);
+
+        if (loadedTokens.containsKey(partition)) {
+            applyCommands(partition);
+        }
+    }
+
+    public synchronized List<Integer> ownedPartitions() {
+        List<Integer> partitions = new ArrayList<>();
+        for (int partition : loadedTokens.keySet()) {
+            if (partitionOwnership.leaseFor(partition).isPresent()) {
+                partitions.add(partition);
+            }
+        }
+        Collections.sort(partitions);
+        return partitions;
+    }
+
+    private synchronized void maintainLeases() {
+        try {
+            coordinationStore.heartbeat(clusterConfig.getNodeId());
+
+            int partitionCount = clusterConfig.getPartitionCount();
+            int liveNodes = Math.max(1, coordinationStore.liveNodes(clusterConfig.getLeaseDuration()).size());
+            int fairShare = (partitionCount + liveNodes - 1) / liveNodes;
+
+            renewLeases();
+            shedPartitions(fairShare);
+
+            int first = Math.floorMod(clusterConfig.getNodeId().hashCode(), partitionCount);
+            for (int i = 0; i < partitionCount && loadedTokens.size() < fairShare; i++) {
+                int partition = (first + i) % partitionCount;
+                if (!loadedTokens.containsKey(partition)) {
+                    acquire(partition).ifPresent(this::load);
+                }
+            }
+
+            for (int partition : new ArrayList<>(loadedTokens.keySet())) {
+                applyCommands(partition);
+            }
+        } catch (RuntimeException exception) {
+            System.out.println("Cluster coordinator error: " + exception.getMessage());
+        }
+    }
+
+    // A lease that lapsed and was granted again under a new token may have
+    // had another owner in between, so its tasks are loaded afresh.
+    private void renewLeases() {
+        for (int partition : new ArrayList<>(loadedTokens.keySet())) {
+            Optional<PartitionLease> renewed = acquire(partition);
+
+            if (renewed.isPresent() && renewed.get().getToken() == loadedTokens.get(partition)) {
+                partitionOwnership.hold(renewed.get());
+            } else {
+                unload(partition);
+                renewed.ifPresent(this::load);
+            }
+        }
+    }
+
+    private void shedPartitions(int fairShare) {
+        List<Integer> partitions = new ArrayList<>(loadedTokens.keySet());
+        Collections.sort(partitions);
+
+        for (int i = partitions.size() - 1; i >= 0 && loadedTokens.size() > fairShare; i--) {
+            int partition = partitions.get(i);
+            Optional<PartitionLease> lease = partitionOwnership.leaseFor(partition);
+            unload(partition);
+            lease.ifPresent(coordinationStore::releaseLease);
+        }
+    }
+
+    private Optional<PartitionLease> acquire(int partition) {
+        return coordinationStore.acquireLease(
+                partition,
+                clusterConfig.getNodeId(),
+                clusterConfig.getLeaseDuration()
+        );
+    }
+
+    private void load(PartitionLease lease) {
+        partitionOwnership.hold(lease);
+        loadedTokens.put(lease.getPartition(), lease.getToken());
+
+        Instant now = Instant.now();
+        for (DeadLetter deadLetter : coordinationStore.findDeadLetters()) {
+            if (partitionOwnership.partitionOf(deadLetter.getTaskDefinitionId()) == lease.getPartition()) {
+                deadLetterRepository.restore(deadLetter);
+            }
+        }
+        for (StoredTaskDefinition storedTaskDefinition : coordinationStore.findTasks(lease.getPartition())) {
+            jobRecoveryService.restore(storedTaskDefinition, now);
+        }
+    }
+
+    // Stops firing first: the lease is dropped before the tasks are.
+    private void unload(int partition) {
+        partitionOwnership.drop(partition);
+        loadedTokens.remove(partition);
+
+        List<String> taskIds = new ArrayList<>();
+        for (TaskDefinition taskDefinition : taskDefinitionRepository.findAll()) {
+            if (partitionOwnership.partitionOf(taskDefinition.getTaskId()) == partition) {
+                taskIds.add(taskDefinition.getTaskId());
+            }
+        }
+        taskIds.forEach(taskSchedulerService::unload);
+
+        for (DeadLetter deadLetter : deadLetterRepository.findAll()) {
+            if (partitionOwnership.partitionOf(deadLetter.getTaskDefinitionId()) == partition) {
+                deadLetterRepository.evict(deadLetter.getDeadLetterId());
+            }
+        }
+    }
+
+    private void applyCommands(int partition) {
+        Optional<PartitionLease> lease = partitionOwnership.leaseFor(partition);
+        if (lease.isEmpty()) {
+            return;
+        }
+
+        List<TaskCommand> commands = coordinationStore.pendingCommands(partition);
+        if (commands.isEmpty()) {
+            return;
+        }
+
+        // Applying is idempotent in order, so a new owner may safely replay
+        // commands a failed owner applied but never acknowledged.
+        for (TaskCommand command : commands) {
+            apply(command);
+        }
+        coordinationStore.acknowledgeCommands(lease.get(), commands.get(commands.size() - 1).getSequence());
+    }
+
+    private void apply(TaskCommand command) {
+        String taskId = command.getTaskId();
+
+        switch (command.getType()) {
+            case SCHEDULE:
+                if (!taskDefinitionRepository.existsById(taskId)) {
+                    coordinationStore.findTask(taskId)
+                            .ifPresent(storedTask -> jobRecoveryService.restore(storedTask, Instant.now()));
+                }
+                break;
+            case CANCEL:
+                taskSchedulerService.cancel(taskId);
+                break;
+            case PAUSE:
+                taskSchedulerService.pause(taskId);
+                break;
+            case RESUME:
+                taskSchedulerService.resume(taskId);
+                break;
+            case REPLAY:
+                taskSchedulerService.replay(command.getDeadLetterId());
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported task command: " + command.getType());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.lld.job.scheduler.service;
+
+import com.lld.job.scheduler.handler.TaskHandlerRegistry;
+import com.lld.job.scheduler.model.DeadLetter;
+import com.lld.job.scheduler.model.ExecutionStatus;
+import com.lld.job.scheduler.model.TaskDefinition;
+import com.lld.job.scheduler.model.TaskExecution;
+import com.lld.job.scheduler.repository.DeadLetterRepository;
+import com.lld.job.scheduler.repository.TaskDefinitionRepository;
+import com.lld.job.scheduler.repository.TaskExecutionRepository;
+import com.lld.job.scheduler.store.JobStore;
+import com.lld.job.scheduler.store.StoredJobs;
+import com.lld.job.scheduler.store.StoredTaskDefinition;
+
+import java.time.Instant;
+
+/**
+ * Rebuilds the repositories and the queue from the job store.
+ *
+ * Executions still CREATED or RUNNING when the process died are marked
+ * FAILED. Active tasks are re-armed at their stored next fire-time; a
+ * fire-time that passed while the scheduler was down is a misfire and is
+ * handled by the configured MisfirePolicy, as is one a run outlasts. That includes the fire-time of
+ * an execution cut short by the crash, so FIRE_ONCE and FIRE_ALL run it
+ * again (at-least-once). Paused tasks stay paused until resumed.
+ */
+public class JobRecoveryService {
+
+    private final JobStore jobStore;
+    private final TaskDefinitionRepository taskDefinitionRepository;
+    private final TaskExecutionRepository taskExecutionRepository;
+    private final DeadLetterRepository deadLetterRepository;
+    private final TaskSchedulerService taskSchedulerService;
+    private final TaskHandlerRegistry taskHandlerRegistry;
+
+    public JobRecoveryService(
+            JobStore jobStore,
+            TaskDefinitionRepository taskDefinitionRepository,
+            TaskExecutionRepository taskExecutionRepository,
+            DeadLetterRepository deadLetterRepository,
+            TaskSchedulerService taskSchedulerService,
+            TaskHandlerRegistry taskHandlerRegistry
+    ) {
+        this.jobStore = jobStore;
+        this.taskDefinitionRepository = taskDefinitionRepository;
+        this.taskExecutionRepository = taskExecutionRepository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.taskSchedulerService = taskSchedulerService;
+        this.taskHandlerRegistry = taskHandlerRegistry;
+    }
+
+    public void recover() {
+        StoredJobs storedJobs = jobStore.load();
+        Instant now = Instant.now();
+
+        for (TaskExecution taskExecution : storedJobs.getTaskExecutions()) {
+            taskExecutionRepository.restore(taskExecution);
+
+            if (taskExecution.getStatus() == ExecutionStatus.CREATED
+                    || taskExecution.getStatus() == ExecutionStatus.RUNNING) {
+                taskExecution.markFailed(now, "Interrupted by scheduler restart");
+                taskExecutionRepository.save(taskExecution);
+            }
+        }
+
+        for (DeadLetter deadLetter : storedJobs.getDeadLetters()) {
+            deadLetterRepository.restore(deadLetter);
+        }
+
+        for (StoredTaskDefinition storedTaskDefinition : storedJobs.getTaskDefinitions()) {
+            restore(storedTaskDefinition, now);
+        }
+    }
+
+    /**
+     * Puts one stored task back in the repository and, if it is active,
+     * back on the queue, applying the misfire policy to a passed fire-time.
+     */
+    public void restore(StoredTaskDefinition storedTaskDefinition, Instant now) {
+        TaskDefinition taskDefinition = new TaskDefinition(
+                storedTaskDefinition.getTaskId(),
+                storedTaskDefinition.getTaskName(),
+                storedTaskDefinition.getSchedulePolicy(),
+                taskHandlerRegistry.handlerFor(storedTaskDefinition.getTaskName()),
+                storedTaskDefinition.getRetryPolicy(),
+                storedTaskDefinition.getTaskStatus()
+        );
+        taskDefinition.setNextExecutionTime(storedTaskDefinition.getNextExecutionTime());
+        taskDefinitionRepository.restore(taskDefinition);
+
+        if (taskDefinition.isActive() && taskDefinition.getNextExecutionTime() != null) {
+            taskSchedulerService.rearm(taskDefinition, taskDefinition.getNextExecutionTime(), now);
+        }
+    }
+}
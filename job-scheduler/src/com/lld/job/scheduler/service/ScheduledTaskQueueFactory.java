@@ -0,0 +1,33 @@
+package com.lld.job.scheduler.service;
+
+import com.lld.job.scheduler.config.SchedulerConfig;
+import com.lld.job.scheduler.queue.PriorityScheduledTaskQueue;
+import com.lld.job.scheduler.queue.ScheduledTaskQueue;
+import com.lld.job.scheduler.queue.TimingWheelScheduledTaskQueue;
+
+public final class ScheduledTaskQueueFactory {
+
+    private ScheduledTaskQueueFactory() {
+    }
+
+    public static ScheduledTaskQueue create(SchedulerConfig schedulerConfig) {
+        switch (schedulerConfig.getTaskQueueType()) {
+            case TIMING_WHEEL:
+                return new TimingWheelScheduledTaskQueue(
+                        ScheduledTaskComparatorFactory.getComparator(
+                                schedulerConfig.getTaskPriorityPolicy()
+                        )
+                );
+            case PRIORITY_QUEUE:
+                return new PriorityScheduledTaskQueue(
+                        ScheduledTaskComparatorFactory.getComparator(
+                                schedulerConfig.getTaskPriorityPolicy()
+                        )
+                );
+            default:
+                throw new IllegalArgumentException(
+                        "Unsupported task queue type: " + schedulerConfig.getTaskQueueType()
+                );
+        }
+    }
+}
@@ -8,14 +8,19 @@ import com.lld.job.scheduler.model.TaskExecutionContext;
 import com.lld.job.scheduler.repository.TaskDefinitionRepository;
 import com.lld.job.scheduler.repository.TaskExecutionRepository;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class TaskExecutionService {
 
     private final TaskDefinitionRepository taskDefinitionRepository;
     private final TaskExecutionRepository taskExecutionRepository;
+    private final ScheduledThreadPoolExecutor timeoutTimer;
 
     public TaskExecutionService(
             TaskDefinitionRepository taskDefinitionRepository,
@@ -23,9 +28,22 @@ public class TaskExecutionService {
     ) {
         this.taskDefinitionRepository = taskDefinitionRepository;
         this.taskExecutionRepository = taskExecutionRepository;
+
+        this.timeoutTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "task-timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Most handlers finish in time; drop their timers instead of letting them pile up.
+        this.timeoutTimer.setRemoveOnCancelPolicy(true);
     }
 
-    public void execute(ScheduledTask scheduledTask) {
+    /**
+     * Runs one attempt of the fire-time and records it.
+     *
+     * @return the recorded execution; SKIPPED if the task is gone or not runnable
+     */
+    public TaskExecution execute(ScheduledTask scheduledTask) {
         Optional<TaskDefinition> optionalTask =
                 taskDefinitionRepository.findById(scheduledTask.getTaskDefinitionId());
 
@@ -34,7 +52,8 @@ public class TaskExecutionService {
         TaskExecution taskExecution = new TaskExecution(
                 executionId,
                 scheduledTask.getTaskDefinitionId(),
-                scheduledTask.getExecutionTime()
+                scheduledTask.getScheduledTime(),
+                scheduledTask.getAttempt()
         );
 
         taskExecutionRepository.save(taskExecution);
@@ -42,15 +61,15 @@ public class TaskExecutionService {
         if (optionalTask.isEmpty()) {
             taskExecution.markSkipped(Instant.now(), "Task definition not found");
             taskExecutionRepository.save(taskExecution);
-            return;
+            return taskExecution;
         }
 
         TaskDefinition taskDefinition = optionalTask.get();
 
-        if (!taskDefinition.isActive()) {
+        if (!taskDefinition.isRunnable(scheduledTask)) {
             taskExecution.markSkipped(Instant.now(), "Task is not active");
             taskExecutionRepository.save(taskExecution);
-            return;
+            return taskExecution;
         }
 
         Instant actualStartTime = Instant.now();
@@ -60,11 +79,19 @@ public class TaskExecutionService {
         TaskExecutionContext context = new TaskExecutionContext(
                 executionId,
                 taskDefinition.getTaskId(),
-                scheduledTask.getExecutionTime(),
+                scheduledTask.getScheduledTime(),
                 actualStartTime,
-                1
+                scheduledTask.getAttempt()
         );
 
+        Duration timeout = taskDefinition.getTaskHandler().getTimeout();
+        Deadline deadline = null;
+        ScheduledFuture<?> timer = null;
+        if (timeout != null) {
+            deadline = new Deadline(Thread.currentThread());
+            timer = timeoutTimer.schedule(deadline::expire, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
         try {
             taskDefinition.getTaskHandler().execute(context);
             taskExecution.markSuccess(Instant.now());
@@ -72,6 +99,52 @@ public class TaskExecutionService {
             taskExecution.markFailed(Instant.now(), exception);
         }
 
+        if (deadline != null) {
+            timer.cancel(false);
+            if (deadline.finish()) {
+                taskExecution.markTimedOut(Instant.now(), timeout);
+            }
+        }
+
         taskExecutionRepository.save(taskExecution);
+        return taskExecution;
+    }
+
+    /**
+     * Interrupts a handler that overruns its timeout. Handlers stop at the
+     * next blocking call (sleep, I/O on an interruptible channel, lock
+     * wait); one that ignores interrupts runs on, and is still recorded as
+     * timed out when it returns.
+     */
+    private static final class Deadline {
+
+        private final Thread worker;
+        private boolean finished;
+        private boolean expired;
+
+        private Deadline(Thread worker) {
+            this.worker = worker;
+        }
+
+        private synchronized void expire() {
+            if (!finished) {
+                expired = true;
+                worker.interrupt();
+            }
+        }
+
+        // After this no interrupt can arrive, so clearing a delivered one
+        // keeps it from hitting the next task on a pooled thread.
+        private boolean finish() {
+            boolean timedOut;
+            synchronized (this) {
+                finished = true;
+                timedOut = expired;
+            }
+            if (timedOut) {
+                Thread.interrupted();
+            }
+            return timedOut;
+        }
     }
 }
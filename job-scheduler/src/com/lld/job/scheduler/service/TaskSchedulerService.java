@@ -1,54 +1,88 @@
 package com.lld.job.scheduler.service;
 
+import com.lld.job.scheduler.cluster.LocalTaskOwnership;
+import com.lld.job.scheduler.cluster.TaskOwnership;
+import com.lld.job.scheduler.config.MisfirePolicy;
 import com.lld.job.scheduler.config.SchedulerConfig;
+import com.lld.job.scheduler.handler.HandlerCategory;
+import com.lld.job.scheduler.model.DeadLetter;
+import com.lld.job.scheduler.model.ExecutionStatus;
 import com.lld.job.scheduler.model.ScheduledTask;
 import com.lld.job.scheduler.model.TaskDefinition;
+import com.lld.job.scheduler.model.TaskExecution;
+import com.lld.job.scheduler.queue.ScheduledTaskQueue;
+import com.lld.job.scheduler.repository.DeadLetterRepository;
 import com.lld.job.scheduler.repository.TaskDefinitionRepository;
+import com.lld.job.scheduler.schedule.SchedulePolicy;
+import com.lld.job.scheduler.worker.WorkerPool;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.PriorityBlockingQueue;
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class TaskSchedulerService {
 
-    private static final Duration IDLE_SLEEP = Duration.ofMillis(100);
-
     private final TaskDefinitionRepository taskDefinitionRepository;
     private final TaskExecutionService taskExecutionService;
-    private final PriorityBlockingQueue<ScheduledTask> scheduledTaskQueue;
-    private final ExecutorService workerPool;
-    private final Semaphore availableWorkerSlots;
+    private final DeadLetterRepository deadLetterRepository;
+    private final TaskOwnership taskOwnership;
+    private final MisfirePolicy misfirePolicy;
+    // Categories share one queue and dispatcher unless the worker pool
+    // keeps them apart; then each has its own, so a full bulkhead holds
+    // back only its own category.
+    private final Map<HandlerCategory, ScheduledTaskQueue> scheduledTaskQueues = new EnumMap<>(HandlerCategory.class);
+    private final WorkerPool workerPool;
+    // Dead letters with a replay queued or running, by task id.
+    private final ConcurrentMap<String, String> replayingDeadLetters = new ConcurrentHashMap<>();
 
     private volatile boolean running;
-    private Thread dispatcherThread;
+    private final List<Thread> dispatcherThreads = new ArrayList<>();
 
     public TaskSchedulerService(
             SchedulerConfig schedulerConfig,
             TaskDefinitionRepository taskDefinitionRepository,
             TaskExecutionService taskExecutionService
+    ) {
+        this(
+                schedulerConfig,
+                taskDefinitionRepository,
+                taskExecutionService,
+                new DeadLetterRepository(),
+                new LocalTaskOwnership()
+        );
+    }
+
+    public TaskSchedulerService(
+            SchedulerConfig schedulerConfig,
+            TaskDefinitionRepository taskDefinitionRepository,
+            TaskExecutionService taskExecutionService,
+            DeadLetterRepository deadLetterRepository,
+            TaskOwnership taskOwnership
     ) {
         this.taskDefinitionRepository = taskDefinitionRepository;
         this.taskExecutionService = taskExecutionService;
+        this.deadLetterRepository = deadLetterRepository;
+        this.taskOwnership = taskOwnership;
+        this.misfirePolicy = schedulerConfig.getMisfirePolicy();
 
-        this.scheduledTaskQueue = new PriorityBlockingQueue<>(
-                11,
-                ScheduledTaskComparatorFactory.getComparator(
-                        schedulerConfig.getTaskPriorityPolicy()
-                )
-        );
-
-        this.workerPool = Executors.newFixedThreadPool(
-                schedulerConfig.getWorkerThreadCount()
-        );
+        this.workerPool = WorkerPoolFactory.create(schedulerConfig);
 
-        this.availableWorkerSlots = new Semaphore(
-                schedulerConfig.getWorkerThreadCount()
-        );
+        ScheduledTaskQueue sharedQueue = ScheduledTaskQueueFactory.create(schedulerConfig);
+        for (HandlerCategory category : HandlerCategory.values()) {
+            scheduledTaskQueues.put(
+                    category,
+                    workerPool.separatesCategories() ? ScheduledTaskQueueFactory.create(schedulerConfig) : sharedQueue
+            );
+        }
     }
 
     public synchronized void start() {
@@ -58,9 +92,22 @@ public class TaskSchedulerService {
 
         running = true;
 
-        dispatcherThread = new Thread(this::dispatchLoop, "scheduler-dispatcher");
-        dispatcherThread.setDaemon(true);
-        dispatcherThread.start();
+        Set<ScheduledTaskQueue> dispatched = new HashSet<>();
+        for (Map.Entry<HandlerCategory, ScheduledTaskQueue> lane : scheduledTaskQueues.entrySet()) {
+            if (!dispatched.add(lane.getValue())) {
+                continue;
+            }
+
+            Thread dispatcherThread = new Thread(
+                    () -> dispatchLoop(lane.getKey(), lane.getValue()),
+                    workerPool.separatesCategories()
+                            ? "scheduler-dispatcher-" + lane.getKey().name().toLowerCase()
+                            : "scheduler-dispatcher"
+            );
+            dispatcherThread.setDaemon(true);
+            dispatcherThread.start();
+            dispatcherThreads.add(dispatcherThread);
+        }
     }
 
     public synchronized void stop() {
@@ -70,36 +117,135 @@ public class TaskSchedulerService {
 
         running = false;
 
-        if (dispatcherThread != null) {
+        for (Thread dispatcherThread : dispatcherThreads) {
             dispatcherThread.interrupt();
         }
+        dispatcherThreads.clear();
 
         workerPool.shutdown();
-        try {
-            if (!workerPool.awaitTermination(5, TimeUnit.SECONDS)) {
-                workerPool.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            workerPool.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
     }
 
     public void schedule(TaskDefinition taskDefinition) {
-        taskDefinitionRepository.save(taskDefinition);
-
         Optional<Instant> nextExecutionTime =
                 taskDefinition.getSchedulePolicy()
                         .nextExecutionAfter(Instant.now());
 
-        nextExecutionTime.ifPresent(executionTime -> {
-            ScheduledTask scheduledTask = new ScheduledTask(
-                    taskDefinition.getTaskId(),
-                    executionTime
-            );
+        if (nextExecutionTime.isPresent()) {
+            arm(taskDefinition, nextExecutionTime.get());
+        } else {
+            taskDefinitionRepository.save(taskDefinition);
+        }
+    }
+
+    /**
+     * Queues the task at the given fire-time and records it as the task's
+     * next execution time. The definition is saved before it is queued, so
+     * the dispatcher always finds it.
+     */
+    public void arm(TaskDefinition taskDefinition, Instant executionTime) {
+        taskDefinition.setNextExecutionTime(executionTime);
+        taskDefinitionRepository.save(taskDefinition);
 
-            scheduledTaskQueue.offer(scheduledTask);
-        });
+        queueFor(taskDefinition).offer(new ScheduledTask(
+                taskDefinition.getTaskId(),
+                executionTime
+        ));
+    }
+
+    /**
+     * Arms the task at the given fire-time or, if that has already passed,
+     * as the misfire policy says.
+     */
+    public void rearm(TaskDefinition taskDefinition, Instant nextExecutionTime, Instant now) {
+        if (!nextExecutionTime.isBefore(now)) {
+            arm(taskDefinition, nextExecutionTime);
+            return;
+        }
+
+        SchedulePolicy schedulePolicy = taskDefinition.getSchedulePolicy();
+
+        switch (misfirePolicy) {
+            case FIRE_ONCE:
+                // Rescheduling continues from the fire-time that ran, so
+                // running the latest missed one skips the others.
+                arm(taskDefinition, latestMissedExecutionTime(schedulePolicy, nextExecutionTime, now));
+                break;
+            case FIRE_ALL:
+                // Each run reschedules the following missed fire-time, which
+                // is already due, until the schedule has caught up.
+                arm(taskDefinition, nextExecutionTime);
+                break;
+            case SKIP:
+                Optional<Instant> nextAfterNow = schedulePolicy.nextExecutionAfter(now);
+                if (nextAfterNow.isPresent()) {
+                    arm(taskDefinition, nextAfterNow.get());
+                } else {
+                    complete(taskDefinition);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported misfire policy: " + misfirePolicy);
+        }
+    }
+
+    /**
+     * Marks a task that has no further fire-times as completed.
+     */
+    public void complete(TaskDefinition taskDefinition) {
+        taskDefinition.markCompleted();
+        taskDefinition.setNextExecutionTime(null);
+        taskDefinitionRepository.save(taskDefinition);
+    }
+
+    /**
+     * Forgets a task on this node only, without changing its status; used
+     * when its partition moves to another node.
+     */
+    public void unload(String taskId) {
+        cancelPending(taskId);
+        replayingDeadLetters.values().removeIf(taskId::equals);
+        taskDefinitionRepository.evict(taskId);
+    }
+
+    /**
+     * Runs a dead-lettered fire-time again now, with a fresh set of
+     * attempts under the task's retry policy. The dead letter is deleted
+     * once a run succeeds and updated if every attempt fails again. A
+     * replay never moves the task's schedule on, so a completed one-time
+     * task can be replayed too.
+     *
+     * @return false if the dead letter is unknown, already being replayed,
+     *         or its task is gone, cancelled or paused
+     */
+    public boolean replay(String deadLetterId) {
+        Optional<DeadLetter> optionalDeadLetter = deadLetterRepository.findById(deadLetterId);
+
+        if (optionalDeadLetter.isEmpty()) {
+            return false;
+        }
+
+        DeadLetter deadLetter = optionalDeadLetter.get();
+        ScheduledTask replay = new ScheduledTask(
+                deadLetter.getTaskDefinitionId(),
+                Instant.now(),
+                deadLetter.getScheduledTime(),
+                1,
+                deadLetterId
+        );
+
+        Optional<TaskDefinition> optionalTaskDefinition =
+                taskDefinitionRepository.findById(deadLetter.getTaskDefinitionId());
+
+        if (optionalTaskDefinition.isEmpty() || !optionalTaskDefinition.get().isRunnable(replay)) {
+            return false;
+        }
+
+        if (replayingDeadLetters.putIfAbsent(deadLetterId, deadLetter.getTaskDefinitionId()) != null) {
+            return false;
+        }
+
+        queueFor(optionalTaskDefinition.get()).offer(replay);
+        return true;
     }
 
     public boolean cancel(String taskId) {
@@ -112,12 +258,19 @@ public class TaskSchedulerService {
 
         TaskDefinition taskDefinition = optionalTaskDefinition.get();
         taskDefinition.cancel();
+        taskDefinitionRepository.save(taskDefinition);
 
-        // Lazy removal: any queued ScheduledTask for this id will be skipped
-        // when the dispatcher picks it up because isActive() will return false.
-        scheduledTaskQueue.removeIf(
-                scheduled -> scheduled.getTaskDefinitionId().equals(taskId)
-        );
+        // A ScheduledTask the dispatcher has already taken is still skipped
+        // by the worker because isActive() will return false.
+        cancelPending(taskId);
+        replayingDeadLetters.values().removeIf(taskId::equals);
+
+        // A retry taken off the queue never settles, so its pending mark
+        // would let a new owner rerun the fire-time. While retries are
+        // pending, the next fire-time is still the failed one.
+        if (taskDefinition.getNextExecutionTime() != null) {
+            taskOwnership.retriesEnded(new ScheduledTask(taskId, taskDefinition.getNextExecutionTime()));
+        }
         return true;
     }
 
@@ -129,7 +282,9 @@ public class TaskSchedulerService {
             return false;
         }
 
-        optionalTaskDefinition.get().pause();
+        TaskDefinition taskDefinition = optionalTaskDefinition.get();
+        taskDefinition.pause();
+        taskDefinitionRepository.save(taskDefinition);
         return true;
     }
 
@@ -149,67 +304,151 @@ public class TaskSchedulerService {
         }
 
         // Re-arm next execution if we have no pending ScheduledTask for this id.
-        boolean hasPending = scheduledTaskQueue.stream()
-                .anyMatch(s -> s.getTaskDefinitionId().equals(taskId));
-
-        if (!hasPending) {
-            taskDefinition.getSchedulePolicy()
-                    .nextExecutionAfter(Instant.now())
-                    .ifPresent(nextTime -> scheduledTaskQueue.offer(
-                            new ScheduledTask(taskId, nextTime)
-                    ));
+        Optional<Instant> nextExecutionTime = hasPending(taskId)
+                ? Optional.empty()
+                : taskDefinition.getSchedulePolicy().nextExecutionAfter(Instant.now());
+
+        if (nextExecutionTime.isPresent()) {
+            arm(taskDefinition, nextExecutionTime.get());
+        } else {
+            taskDefinitionRepository.save(taskDefinition);
         }
         return true;
     }
 
-    private void dispatchLoop() {
+    // Blocks on room in the worker pool, then on the next due task: nothing
+    // runs while no task is due or every worker is busy.
+    private void dispatchLoop(HandlerCategory category, ScheduledTaskQueue scheduledTaskQueue) {
         while (running) {
             try {
-                ScheduledTask head = scheduledTaskQueue.peek();
-
-                if (head == null) {
-                    sleep(IDLE_SLEEP);
-                    continue;
+                workerPool.reserve(category);
+
+                ScheduledTask dueTask;
+                try {
+                    dueTask = scheduledTaskQueue.take();
+                } catch (InterruptedException exception) {
+                    workerPool.cancelReservation(category);
+                    throw exception;
                 }
 
-                Instant now = Instant.now();
+                workerPool.execute(category, () -> run(dueTask));
 
-                if (head.getExecutionTime().isAfter(now)) {
-                    Duration remaining = Duration.between(now, head.getExecutionTime());
-                    sleep(min(remaining, IDLE_SLEEP));
-                    continue;
-                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception exception) {
+                System.out.println("Dispatcher error: " + exception.getMessage());
+            }
+        }
+    }
 
-                if (!availableWorkerSlots.tryAcquire()) {
-                    sleep(IDLE_SLEEP);
-                    continue;
-                }
+    // A task runs in the category its handler had when it was queued, even
+    // if a handler registered since then has another.
+    private ScheduledTaskQueue queueFor(TaskDefinition taskDefinition) {
+        return scheduledTaskQueues.get(taskDefinition.getTaskHandler().getCategory());
+    }
+
+    private void cancelPending(String taskId) {
+        for (ScheduledTaskQueue scheduledTaskQueue : new HashSet<>(scheduledTaskQueues.values())) {
+            scheduledTaskQueue.cancel(taskId);
+        }
+    }
 
-                ScheduledTask dueTask = scheduledTaskQueue.poll();
+    private boolean hasPending(String taskId) {
+        for (ScheduledTaskQueue scheduledTaskQueue : new HashSet<>(scheduledTaskQueues.values())) {
+            if (scheduledTaskQueue.hasPending(taskId)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-                if (dueTask == null) {
-                    availableWorkerSlots.release();
-                    continue;
+    private void run(ScheduledTask dueTask) {
+        switch (taskOwnership.claim(dueTask)) {
+            case CLAIMED:
+                settle(dueTask, taskExecutionService.execute(dueTask));
+                break;
+            case ALREADY_CLAIMED:
+                // A previous owner ran this fire-time but failed over before
+                // recording the next one. A retry finds its fire-time taken
+                // over or finished instead, and is dropped.
+                if (!dueTask.isRerun()) {
+                    rescheduleIfRequired(dueTask);
                 }
+                break;
+            case NOT_OWNED:
+                // The partition has moved; its new owner fires the task.
+                break;
+            default:
+                throw new IllegalStateException("Unsupported claim result");
+        }
+    }
 
-                workerPool.submit(() -> {
-                    try {
-                        taskExecutionService.execute(dueTask);
-                        rescheduleIfRequired(dueTask);
-                    } finally {
-                        availableWorkerSlots.release();
-                    }
-                });
+    // Retries a failed run or dead-letters it once its attempts are used up;
+    // then, unless the run was a replay, moves the task on to its next fire-time.
+    private void settle(ScheduledTask dueTask, TaskExecution taskExecution) {
+        Optional<TaskDefinition> optionalTaskDefinition =
+                taskDefinitionRepository.findById(dueTask.getTaskDefinitionId());
 
-            } catch (InterruptedException exception) {
-                Thread.currentThread().interrupt();
-                break;
-            } catch (Exception exception) {
-                System.out.println("Dispatcher error: " + exception.getMessage());
+        if (taskExecution.isFailure() && optionalTaskDefinition.isPresent()) {
+            if (retryIfAllowed(dueTask, optionalTaskDefinition.get())) {
+                return;
             }
+            deadLetter(dueTask, optionalTaskDefinition.get(), taskExecution);
+        } else if (dueTask.isReplay() && taskExecution.getStatus() == ExecutionStatus.SUCCESS) {
+            deadLetterRepository.delete(dueTask.getDeadLetterId());
+        }
+
+        if (dueTask.isRerun()) {
+            taskOwnership.retriesEnded(dueTask);
+        }
+
+        if (dueTask.isReplay()) {
+            replayingDeadLetters.remove(dueTask.getDeadLetterId());
+        } else {
+            rescheduleIfRequired(dueTask);
         }
     }
 
+    // The next attempt goes back on the queue instead of sleeping here, so
+    // the worker is free while the backoff runs. The task's next fire-time
+    // stays at the failed one until the retries end, so after a restart or
+    // a failover the misfire policy runs it again from the first attempt;
+    // the pending retry is recorded so that a new owner may claim it.
+    private boolean retryIfAllowed(ScheduledTask dueTask, TaskDefinition taskDefinition) {
+        if (!taskDefinition.isRunnable(dueTask)) {
+            return false;
+        }
+
+        Optional<Duration> retryDelay =
+                taskDefinition.getRetryPolicy().nextRetryDelay(dueTask.getAttempt());
+
+        if (retryDelay.isEmpty()) {
+            return false;
+        }
+
+        taskOwnership.retryPending(dueTask);
+        queueFor(taskDefinition).offer(dueTask.nextAttemptAt(Instant.now().plus(retryDelay.get())));
+        return true;
+    }
+
+    private void deadLetter(ScheduledTask dueTask, TaskDefinition taskDefinition, TaskExecution taskExecution) {
+        // A replay that fails again updates its own dead letter.
+        String deadLetterId = dueTask.isReplay()
+                ? dueTask.getDeadLetterId()
+                : UUID.randomUUID().toString();
+
+        deadLetterRepository.save(new DeadLetter(
+                deadLetterId,
+                taskDefinition.getTaskId(),
+                taskDefinition.getTaskName(),
+                dueTask.getScheduledTime(),
+                dueTask.getAttempt(),
+                taskExecution.getErrorMessage(),
+                Instant.now()
+        ));
+    }
+
     private void rescheduleIfRequired(ScheduledTask completedScheduledTask) {
         Optional<TaskDefinition> optionalTaskDefinition =
                 taskDefinitionRepository.findById(
@@ -229,28 +468,27 @@ public class TaskSchedulerService {
         Optional<Instant> nextExecutionTime =
                 taskDefinition.getSchedulePolicy()
                         .nextExecutionAfter(
-                                completedScheduledTask.getExecutionTime()
+                                completedScheduledTask.getScheduledTime()
                         );
 
         if (nextExecutionTime.isEmpty()) {
             // No further executions scheduled (e.g. one-time task).
-            taskDefinition.markCompleted();
+            complete(taskDefinition);
             return;
         }
 
-        ScheduledTask nextScheduledTask = new ScheduledTask(
-                taskDefinition.getTaskId(),
-                nextExecutionTime.get()
-        );
-        scheduledTaskQueue.offer(nextScheduledTask);
+        // A long run or its retries may have outlasted several fire-times.
+        rearm(taskDefinition, nextExecutionTime.get(), Instant.now());
     }
 
-    private void sleep(Duration duration) throws InterruptedException {
-        long millis = Math.max(1L, duration.toMillis());
-        Thread.sleep(millis);
-    }
+    private static Instant latestMissedExecutionTime(SchedulePolicy schedulePolicy, Instant missed, Instant now) {
+        Instant latest = missed;
+        Optional<Instant> following = schedulePolicy.nextExecutionAfter(latest);
 
-    private Duration min(Duration first, Duration second) {
-        return first.compareTo(second) <= 0 ? first : second;
+        while (following.isPresent() && following.get().isBefore(now)) {
+            latest = following.get();
+            following = schedulePolicy.nextExecutionAfter(latest);
+        }
+        return latest;
     }
 }
@@ -0,0 +1,31 @@
+package com.lld.job.scheduler.service;
+
+import com.lld.job.scheduler.config.BulkheadConfig;
+import com.lld.job.scheduler.config.SchedulerConfig;
+import com.lld.job.scheduler.config.WorkerThreadType;
+import com.lld.job.scheduler.handler.HandlerCategory;
+import com.lld.job.scheduler.worker.Bulkhead;
+import com.lld.job.scheduler.worker.BulkheadWorkerPool;
+import com.lld.job.scheduler.worker.FixedWorkerPool;
+import com.lld.job.scheduler.worker.WorkerPool;
+
+public final class WorkerPoolFactory {
+
+    private WorkerPoolFactory() {
+    }
+
+    public static WorkerPool create(SchedulerConfig schedulerConfig) {
+        if (schedulerConfig.getBulkheads().isEmpty()) {
+            return new FixedWorkerPool(schedulerConfig.getWorkerThreadCount());
+        }
+
+        return new BulkheadWorkerPool(
+                schedulerConfig.getBulkheads(),
+                new Bulkhead(new BulkheadConfig(
+                        HandlerCategory.CPU_BOUND,
+                        schedulerConfig.getWorkerThreadCount(),
+                        WorkerThreadType.PLATFORM
+                ))
+        );
+    }
+}
@@ -0,0 +1,577 @@
+package com.lld.job.scheduler.store;
+
+import com.lld.job.scheduler.model.DeadLetter;
+import com.lld.job.scheduler.model.ExecutionStatus;
+import com.lld.job.scheduler.model.TaskDefinition;
+import com.lld.job.scheduler.model.TaskExecution;
+import com.lld.job.scheduler.model.TaskStatus;
+import com.lld.job.scheduler.retry.NoRetryPolicy;
+import com.lld.job.scheduler.retry.RetryPolicyCodec;
+import com.lld.job.scheduler.schedule.SchedulePolicyCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of task definition, execution and dead letter snapshots,
+ * indexed in memory by the offset of the latest record for each id.
+ *
+ * A save only encodes a snapshot and queues it. A single writer thread
+ * drains the queue, appends the whole batch and forces it to disk once
+ * (group commit), so worker threads never wait on the disk; a crash loses
+ * at most the saves not yet written. Every record is framed by its length
+ * and a CRC32, and on open the log is replayed up to the first torn or
+ * corrupt record and cut there. A batch that fails to write is cut off
+ * again at once, so later records never land behind torn bytes that a
+ * replay would drop them with; if even that fails, the store stops taking
+ * saves.
+ *
+ * Superseded records are dropped by copying the live ones into a new file
+ * that atomically replaces the log: on open, and whenever superseded
+ * records outnumber live ones.
+ *
+ * Fields added since a record type was introduced go at its end and are
+ * read only if present, so older logs still open.
+ */
+public class FileJobStore implements JobStore {
+
+    private static final String LOG_FILE = "jobs.log";
+    private static final String COMPACTION_FILE = "jobs.log.compacting";
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MAX_BATCH_RECORDS = 1_024;
+    private static final int MIN_COMPACTION_RECORDS = 10_000;
+
+    private static final byte TASK_DEFINITION = 1;
+    private static final byte TASK_DEFINITION_DELETED = 2;
+    private static final byte TASK_EXECUTION = 3;
+    private static final byte DEAD_LETTER = 4;
+    private static final byte DEAD_LETTER_DELETED = 5;
+
+    private static final PendingRecord CLOSE = new PendingRecord(null, null);
+
+    private final Path logFile;
+    private final Path compactionFile;
+    private final StoredJobs storedJobs;
+    private final BlockingQueue<PendingRecord> pendingRecords = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+
+    // Owned by the writer thread once the store is open.
+    private FileChannel channel;
+    private Map<String, Long> offsetByKey = new HashMap<>();
+    private long recordCount;
+    private IOException stoppedBy;
+
+    // Guarded by this.
+    private boolean closed;
+    private boolean stopped;
+    private long savedCount;
+    private long writtenCount;
+    private IOException writeFailure;
+
+    public FileJobStore(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Job store directory cannot be null");
+        }
+
+        this.logFile = directory.resolve(LOG_FILE);
+        this.compactionFile = directory.resolve(COMPACTION_FILE);
+
+        try {
+            Files.createDirectories(directory);
+            channel = FileChannel.open(
+                    logFile,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE
+            );
+            replay();
+            storedJobs = readLiveRecords();
+            compact();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Cannot open job store in " + directory, exception);
+        }
+
+        writerThread = new Thread(this::writeLoop, "job-store-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public StoredJobs load() {
+        return storedJobs;
+    }
+
+    // Snapshots are taken under the same lock that orders the queue, so the
+    // last record written for an id is always its latest state.
+    @Override
+    public synchronized void saveTaskDefinition(TaskDefinition taskDefinition) {
+        enqueue(definitionKey(taskDefinition.getTaskId()), payload(TASK_DEFINITION, taskDefinition.getTaskId(), out -> {
+            writeString(out, taskDefinition.getTaskName());
+            writeString(out, SchedulePolicyCodec.encode(taskDefinition.getSchedulePolicy()));
+            writeString(out, taskDefinition.getTaskStatus().name());
+            writeInstant(out, taskDefinition.getNextExecutionTime());
+            writeString(out, RetryPolicyCodec.encode(taskDefinition.getRetryPolicy()));
+        }));
+    }
+
+    @Override
+    public synchronized void deleteTaskDefinition(String taskId) {
+        enqueue(definitionKey(taskId), payload(TASK_DEFINITION_DELETED, taskId, out -> {
+        }));
+    }
+
+    @Override
+    public synchronized void saveTaskExecution(TaskExecution taskExecution) {
+        enqueue(executionKey(taskExecution.getExecutionId()), payload(TASK_EXECUTION, taskExecution.getExecutionId(), out -> {
+            writeString(out, taskExecution.getTaskDefinitionId());
+            writeInstant(out, taskExecution.getScheduledTime());
+            writeInstant(out, taskExecution.getActualStartTime());
+            writeInstant(out, taskExecution.getCompletedAt());
+            writeString(out, taskExecution.getStatus().name());
+            writeString(out, taskExecution.getErrorMessage());
+            out.writeInt(taskExecution.getAttemptNumber());
+        }));
+    }
+
+    @Override
+    public synchronized void saveDeadLetter(DeadLetter deadLetter) {
+        enqueue(deadLetterKey(deadLetter.getDeadLetterId()), payload(DEAD_LETTER, deadLetter.getDeadLetterId(), out -> {
+            writeString(out, deadLetter.getTaskDefinitionId());
+            writeString(out, deadLetter.getTaskName());
+            writeInstant(out, deadLetter.getScheduledTime());
+            out.writeInt(deadLetter.getAttempts());
+            writeString(out, deadLetter.getErrorMessage());
+            writeInstant(out, deadLetter.getDeadLetteredAt());
+        }));
+    }
+
+    @Override
+    public synchronized void deleteDeadLetter(String deadLetterId) {
+        enqueue(deadLetterKey(deadLetterId), payload(DEAD_LETTER_DELETED, deadLetterId, out -> {
+        }));
+    }
+
+    @Override
+    public synchronized void flush() {
+        long target = savedCount;
+        while (writtenCount < target) {
+            try {
+                wait();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        if (writeFailure != null) {
+            throw new UncheckedIOException("Job store write failed", writeFailure);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pendingRecords.add(CLOSE);
+        }
+
+        try {
+            writerThread.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(String key, byte[] payload) {
+        if (closed) {
+            throw new IllegalStateException("Job store is closed");
+        }
+        if (stopped) {
+            throw new IllegalStateException("Job store stopped after a failed write", writeFailure);
+        }
+        pendingRecords.add(new PendingRecord(key, frame(payload)));
+        savedCount++;
+    }
+
+    private void writeLoop() {
+        List<PendingRecord> batch = new ArrayList<>(MAX_BATCH_RECORDS);
+        boolean closing = false;
+
+        while (!closing) {
+            try {
+                batch.add(pendingRecords.take());
+            } catch (InterruptedException exception) {
+                break;
+            }
+            pendingRecords.drainTo(batch, MAX_BATCH_RECORDS - 1);
+
+            closing = batch.remove(CLOSE);
+            IOException failure = stoppedBy;
+            if (failure == null) {
+                try {
+                    write(batch);
+                } catch (IOException exception) {
+                    System.out.println("Job store write failed: " + exception.getMessage());
+                    failure = exception;
+                }
+            }
+            // The batch is durable by now, so a failed compaction only leaves the log longer.
+            if (failure == null && recordCount >= MIN_COMPACTION_RECORDS && recordCount > 2L * offsetByKey.size()) {
+                try {
+                    compact();
+                } catch (IOException exception) {
+                    System.out.println("Job store compaction failed: " + exception.getMessage());
+                }
+            }
+
+            synchronized (this) {
+                writtenCount += batch.size();
+                if (failure != null) {
+                    writeFailure = failure;
+                }
+                stopped = stoppedBy != null;
+                notifyAll();
+            }
+            batch.clear();
+        }
+
+        try {
+            channel.close();
+        } catch (IOException exception) {
+            System.out.println("Job store close failed: " + exception.getMessage());
+        }
+    }
+
+    private void write(List<PendingRecord> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long batchStart = channel.position();
+        int batchBytes = 0;
+        for (PendingRecord record : batch) {
+            batchBytes += record.bytes.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(batchBytes);
+        for (PendingRecord record : batch) {
+            buffer.put(record.bytes);
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException exception) {
+            cutBack(batchStart, exception);
+            throw exception;
+        }
+
+        long offset = batchStart;
+        for (PendingRecord record : batch) {
+            if (isDeletion(record.bytes[HEADER_BYTES])) {
+                offsetByKey.remove(record.key);
+            } else {
+                offsetByKey.put(record.key, offset);
+            }
+            offset += record.bytes.length;
+        }
+        recordCount += batch.size();
+    }
+
+    // Drops whatever part of a failed batch reached the log; none of it was indexed.
+    private void cutBack(long batchStart, IOException failure) {
+        try {
+            channel.truncate(batchStart);
+            channel.position(batchStart);
+            channel.force(true);
+        } catch (IOException exception) {
+            failure.addSuppressed(exception);
+            stoppedBy = failure;
+        }
+    }
+
+    // Indexes every intact record and cuts the log at the first one that is not.
+    private void replay() throws IOException {
+        long size = channel.size();
+        long offset = 0;
+
+        while (offset + HEADER_BYTES <= size) {
+            ByteBuffer header = read(offset, HEADER_BYTES);
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || offset + HEADER_BYTES + length > size) {
+                break;
+            }
+
+            byte[] payload = read(offset + HEADER_BYTES, length).array();
+            if (checksum(payload) != checksum) {
+                break;
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            byte type = in.readByte();
+            String id = readString(in);
+            String key = key(type, id);
+            if (isDeletion(type)) {
+                offsetByKey.remove(key);
+            } else {
+                offsetByKey.put(key, offset);
+            }
+
+            recordCount++;
+            offset += HEADER_BYTES + length;
+        }
+
+        if (offset < size) {
+            System.out.println("Job store: dropping " + (size - offset) + " bytes of torn or corrupt log tail");
+            channel.truncate(offset);
+        }
+        channel.position(offset);
+    }
+
+    private StoredJobs readLiveRecords() throws IOException {
+        List<StoredTaskDefinition> taskDefinitions = new ArrayList<>();
+        List<TaskExecution> taskExecutions = new ArrayList<>();
+        List<DeadLetter> deadLetters = new ArrayList<>();
+
+        for (long offset : offsetByKey.values()) {
+            int length = read(offset, HEADER_BYTES).getInt();
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(read(offset + HEADER_BYTES, length).array())
+            );
+
+            byte type = in.readByte();
+            String id = readString(in);
+            if (type == TASK_DEFINITION) {
+                String taskName = readString(in);
+                String schedulePolicy = readString(in);
+                String taskStatus = readString(in);
+                Instant nextExecutionTime = readInstant(in);
+                taskDefinitions.add(new StoredTaskDefinition(
+                        id,
+                        taskName,
+                        SchedulePolicyCodec.decode(schedulePolicy),
+                        in.available() > 0 ? RetryPolicyCodec.decode(readString(in)) : new NoRetryPolicy(),
+                        TaskStatus.valueOf(taskStatus),
+                        nextExecutionTime
+                ));
+            } else if (type == TASK_EXECUTION) {
+                String taskDefinitionId = readString(in);
+                Instant scheduledTime = readInstant(in);
+                Instant actualStartTime = readInstant(in);
+                Instant completedAt = readInstant(in);
+                ExecutionStatus status = ExecutionStatus.valueOf(readString(in));
+                String errorMessage = readString(in);
+                taskExecutions.add(new TaskExecution(
+                        id,
+                        taskDefinitionId,
+                        scheduledTime,
+                        in.available() > 0 ? in.readInt() : 1,
+                        actualStartTime,
+                        completedAt,
+                        status,
+                        errorMessage
+                ));
+            } else {
+                deadLetters.add(new DeadLetter(
+                        id,
+                        readString(in),
+                        readString(in),
+                        readInstant(in),
+                        in.readInt(),
+                        readString(in),
+                        readInstant(in)
+                ));
+            }
+        }
+        return new StoredJobs(taskDefinitions, taskExecutions, deadLetters);
+    }
+
+    // Copies the latest record of every id into a new file and swaps it in.
+    private void compact() throws IOException {
+        Map<String, Long> compactedOffsets = new HashMap<>();
+
+        try (FileChannel compacted = FileChannel.open(
+                compactionFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE
+        )) {
+            for (Map.Entry<String, Long> entry : offsetByKey.entrySet()) {
+                long offset = entry.getValue();
+                int length = read(offset, HEADER_BYTES).getInt();
+                ByteBuffer record = read(offset, HEADER_BYTES + length);
+
+                compactedOffsets.put(entry.getKey(), compacted.position());
+                while (record.hasRemaining()) {
+                    compacted.write(record);
+                }
+            }
+            compacted.force(true);
+        }
+
+        channel.close();
+        try {
+            Files.move(compactionFile, logFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException exception) {
+            // The old log is still in place and its index still valid.
+            try {
+                reopen();
+            } catch (IOException reopenFailure) {
+                exception.addSuppressed(reopenFailure);
+            }
+            throw exception;
+        }
+        reopen();
+
+        offsetByKey = compactedOffsets;
+        recordCount = compactedOffsets.size();
+    }
+
+    private void reopen() throws IOException {
+        channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of job store log at offset " + offset);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static String key(byte type, String id) {
+        switch (type) {
+            case TASK_DEFINITION:
+            case TASK_DEFINITION_DELETED:
+                return definitionKey(id);
+            case TASK_EXECUTION:
+                return executionKey(id);
+            case DEAD_LETTER:
+            case DEAD_LETTER_DELETED:
+                return deadLetterKey(id);
+            default:
+                throw new IllegalArgumentException("Unsupported job store record type: " + type);
+        }
+    }
+
+    private static boolean isDeletion(byte type) {
+        return type == TASK_DEFINITION_DELETED || type == DEAD_LETTER_DELETED;
+    }
+
+    private static String definitionKey(String taskId) {
+        return "d:" + taskId;
+    }
+
+    private static String executionKey(String executionId) {
+        return "e:" + executionId;
+    }
+
+    private static String deadLetterKey(String deadLetterId) {
+        return "x:" + deadLetterId;
+    }
+
+    private static byte[] payload(byte type, String id, FieldWriter fields) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(type);
+            writeString(out, id);
+            fields.write(out);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] frame(byte[] payload) {
+        return ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putInt(checksum(payload))
+                .put(payload)
+                .array();
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return Instant.ofEpochSecond(in.readLong(), in.readInt());
+    }
+
+    private interface FieldWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static final class PendingRecord {
+        private final String key;
+        private final byte[] bytes;
+
+        private PendingRecord(String key, byte[] bytes) {
+            this.key = key;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.lld.job.scheduler.store;
+
+import com.lld.job.scheduler.model.DeadLetter;
+import com.lld.job.scheduler.model.TaskDefinition;
+import com.lld.job.scheduler.model.TaskExecution;
+
+/**
+ * Durable copy of task definitions and execution history.
+ *
+ * The repositories keep serving reads from memory and hand every save to
+ * the store; the scheduler reads the store back once, when it is built,
+ * to recover after a restart.
+ */
+public interface JobStore {
+
+    /**
+     * Returns everything the store held when it was opened.
+     */
+    StoredJobs load();
+
+    /**
+     * Records the current state of the task, including its next fire-time.
+     */
+    void saveTaskDefinition(TaskDefinition taskDefinition);
+
+    void deleteTaskDefinition(String taskId);
+
+    /**
+     * Records the current state of the execution.
+     */
+    void saveTaskExecution(TaskExecution taskExecution);
+
+    void saveDeadLetter(DeadLetter deadLetter);
+
+    void deleteDeadLetter(String deadLetterId);
+
+    /**
+     * Blocks until every save made so far is durable.
+     */
+    void flush();
+
+    /**
+     * Flushes, then releases the store. Saves after close are rejected.
+     */
+    void close();
+}
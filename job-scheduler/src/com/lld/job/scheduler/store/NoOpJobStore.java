@@ -0,0 +1,44 @@
+package com.lld.job.scheduler.store;
+
+import com.lld.job.scheduler.model.DeadLetter;
+import com.lld.job.scheduler.model.TaskDefinition;
+import com.lld.job.scheduler.model.TaskExecution;
+
+import java.util.List;
+
+// Keeps nothing: state lives only in the repositories and is lost on restart.
+public class NoOpJobStore implements JobStore {
+
+    @Override
+    public StoredJobs load() {
+        return new StoredJobs(List.of(), List.of(), List.of());
+    }
+
+    @Override
+    public void saveTaskDefinition(TaskDefinition taskDefinition) {
+    }
+
+    @Override
+    public void deleteTaskDefinition(String taskId) {
+    }
+
+    @Override
+    public void saveTaskExecution(TaskExecution taskExecution) {
+    }
+
+    @Override
+    public void saveDeadLetter(DeadLetter deadLetter) {
+    }
+
+    @Override
+    public void deleteDeadLetter(String deadLetterId) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,35 @@
+package com.lld.job.scheduler.store;
+
+import com.lld.job.scheduler.model.DeadLetter;
+import com.lld.job.scheduler.model.TaskExecution;
+
+import java.util.List;
+
+public class StoredJobs {
+
+    private final List<StoredTaskDefinition> taskDefinitions;
+    private final List<TaskExecution> taskExecutions;
+    private final List<DeadLetter> deadLetters;
+
+    public StoredJobs(
+            List<StoredTaskDefinition> taskDefinitions,
+            List<TaskExecution> taskExecutions,
+            List<DeadLetter> deadLetters
+    ) {
+        this.taskDefinitions = taskDefinitions;
+        this.taskExecutions = taskExecutions;
+        this.deadLetters = deadLetters;
+    }
+
+    public List<StoredTaskDefinition> getTaskDefinitions() {
+        return taskDefinitions;
+    }
+
+    public List<TaskExecution> getTaskExecutions() {
+        return taskExecutions;
+    }
+
+    public List<DeadLetter> getDeadLetters() {
+        return deadLetters;
+    }
+}
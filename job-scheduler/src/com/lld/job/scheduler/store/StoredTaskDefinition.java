@@ -0,0 +1,58 @@
+package com.lld.job.scheduler.store;
+
+import com.lld.job.scheduler.model.TaskStatus;
+import com.lld.job.scheduler.retry.RetryPolicy;
+import com.lld.job.scheduler.schedule.SchedulePolicy;
+
+import java.time.Instant;
+
+// A TaskDefinition as persisted: everything but the handler, which is code.
+public class StoredTaskDefinition {
+
+    private final String taskId;
+    private final String taskName;
+    private final SchedulePolicy schedulePolicy;
+    private final RetryPolicy retryPolicy;
+    private final TaskStatus taskStatus;
+    private final Instant nextExecutionTime;
+
+    public StoredTaskDefinition(
+            String taskId,
+            String taskName,
+            SchedulePolicy schedulePolicy,
+            RetryPolicy retryPolicy,
+            TaskStatus taskStatus,
+            Instant nextExecutionTime
+    ) {
+        this.taskId = taskId;
+        this.taskName = taskName;
+        this.schedulePolicy = schedulePolicy;
+        this.retryPolicy = retryPolicy;
+        this.taskStatus = taskStatus;
+        this.nextExecutionTime = nextExecutionTime;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    public SchedulePolicy getSchedulePolicy() {
+        return schedulePolicy;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public TaskStatus getTaskStatus() {
+        return taskStatus;
+    }
+
+    public Instant getNextExecutionTime() {
+        return nextExecutionTime;
+    }
+}
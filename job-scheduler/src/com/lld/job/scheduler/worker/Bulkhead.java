@@ -0,0 +1,90 @@
+package com.lld.job.scheduler.worker;
+
+import com.lld.job.scheduler.config.BulkheadConfig;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs one category's tasks, at most maxConcurrency at a time. A task is
+ * handed over only under a reservation, a permit of a fair semaphore, so
+ * it always starts at once: no task waits in a pool queue or on a parked
+ * thread, and tasks beyond the limit stay in the scheduler's queue.
+ *
+ * On platform threads the pool has one thread per permit. On virtual
+ * threads each task gets its own thread.
+ */
+public class Bulkhead {
+
+    private final ExecutorService executorService;
+    private final Semaphore permits;
+
+    public Bulkhead(BulkheadConfig bulkheadConfig) {
+        String name = "bulkhead-" + bulkheadConfig.getCategory().name().toLowerCase() + "-";
+
+        switch (bulkheadConfig.getWorkerThreadType()) {
+            case PLATFORM:
+                this.executorService = Executors.newFixedThreadPool(
+                        bulkheadConfig.getMaxConcurrency(),
+                        Thread.ofPlatform().name(name, 0).factory()
+                );
+                break;
+            case VIRTUAL:
+                this.executorService = Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name(name, 0).factory()
+                );
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Unsupported worker thread type: " + bulkheadConfig.getWorkerThreadType()
+                );
+        }
+        // Fair, because categories without a bulkhead of their own share the default one.
+        this.permits = new Semaphore(bulkheadConfig.getMaxConcurrency(), true);
+    }
+
+    public void reserve() throws InterruptedException {
+        permits.acquire();
+    }
+
+    public void cancelReservation() {
+        permits.release();
+    }
+
+    /**
+     * Runs the work under a reservation from {@link #reserve()}, which is
+     * returned when the work ends.
+     */
+    public void execute(Runnable work) {
+        try {
+            executorService.execute(() -> {
+                try {
+                    work.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException exception) {
+            permits.release();
+            throw exception;
+        }
+    }
+
+    public void shutdown() {
+        shutdown(executorService);
+    }
+
+    static void shutdown(ExecutorService executorService) {
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException exception) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.lld.job.scheduler.worker;
+
+import com.lld.job.scheduler.config.BulkheadConfig;
+import com.lld.job.scheduler.handler.HandlerCategory;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One {@link Bulkhead} per configured handler category, and a shared
+ * default for the rest. Each category has its own dispatcher, which
+ * reserves a place in the category's bulkhead before it takes the next due
+ * task, so a full bulkhead holds back only its own category's tasks, and
+ * holds them in the queue, in priority order.
+ */
+public class BulkheadWorkerPool implements WorkerPool {
+
+    private final Map<HandlerCategory, Bulkhead> bulkheads = new EnumMap<>(HandlerCategory.class);
+    private final Bulkhead defaultBulkhead;
+
+    public BulkheadWorkerPool(List<BulkheadConfig> bulkheadConfigs, Bulkhead defaultBulkhead) {
+        for (BulkheadConfig bulkheadConfig : bulkheadConfigs) {
+            bulkheads.put(bulkheadConfig.getCategory(), new Bulkhead(bulkheadConfig));
+        }
+        this.defaultBulkhead = defaultBulkhead;
+    }
+
+    @Override
+    public boolean separatesCategories() {
+        return true;
+    }
+
+    @Override
+    public void reserve(HandlerCategory category) throws InterruptedException {
+        bulkheadFor(category).reserve();
+    }
+
+    @Override
+    public void cancelReservation(HandlerCategory category) {
+        bulkheadFor(category).cancelReservation();
+    }
+
+    @Override
+    public void execute(HandlerCategory category, Runnable work) {
+        bulkheadFor(category).execute(work);
+    }
+
+    @Override
+    public void shutdown() {
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            bulkhead.shutdown();
+        }
+        defaultBulkhead.shutdown();
+    }
+
+    private Bulkhead bulkheadFor(HandlerCategory category) {
+        return bulkheads.getOrDefault(category, defaultBulkhead);
+    }
+}
@@ -0,0 +1,60 @@
+package com.lld.job.scheduler.worker;
+
+import com.lld.job.scheduler.handler.HandlerCategory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * One pool of platform threads shared by every category. A reservation is
+ * a free thread, so the dispatcher only takes a due task when a worker can
+ * start it at once, and higher-priority tasks that fall due meanwhile are
+ * not stuck behind ones already taken.
+ */
+public class FixedWorkerPool implements WorkerPool {
+
+    private final ExecutorService executorService;
+    private final Semaphore availableWorkerSlots;
+
+    public FixedWorkerPool(int workerThreadCount) {
+        this.executorService = Executors.newFixedThreadPool(workerThreadCount);
+        this.availableWorkerSlots = new Semaphore(workerThreadCount);
+    }
+
+    @Override
+    public boolean separatesCategories() {
+        return false;
+    }
+
+    @Override
+    public void reserve(HandlerCategory category) throws InterruptedException {
+        availableWorkerSlots.acquire();
+    }
+
+    @Override
+    public void cancelReservation(HandlerCategory category) {
+        availableWorkerSlots.release();
+    }
+
+    @Override
+    public void execute(HandlerCategory category, Runnable work) {
+        try {
+            executorService.execute(() -> {
+                try {
+                    work.run();
+                } finally {
+                    availableWorkerSlots.release();
+                }
+            });
+        } catch (RuntimeException exception) {
+            availableWorkerSlots.release();
+            throw exception;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        Bulkhead.shutdown(executorService);
+    }
+}
@@ -0,0 +1,39 @@
+package com.lld.job.scheduler.worker;
+
+import com.lld.job.scheduler.handler.HandlerCategory;
+
+/**
+ * The threads due tasks run on. The dispatcher reserves room before it
+ * takes the next due task, and runs the task under that reservation.
+ * Pools that keep categories apart get one dispatcher per category.
+ */
+public interface WorkerPool {
+
+    /**
+     * Whether tasks of different categories run apart, so each category
+     * needs its own dispatcher to keep one from waiting on another.
+     */
+    boolean separatesCategories();
+
+    /**
+     * Blocks until the pool can start one more task of the category, and
+     * holds that place.
+     */
+    void reserve(HandlerCategory category) throws InterruptedException;
+
+    /**
+     * Gives back a reservation that will not be used.
+     */
+    void cancelReservation(HandlerCategory category);
+
+    /**
+     * Runs the work under a reservation from {@link #reserve(HandlerCategory)}
+     * for the same category; the reservation is returned when the work ends.
+     */
+    void execute(HandlerCategory category, Runnable work);
+
+    /**
+     * Lets running tasks finish for up to five seconds, then interrupts them.
+     */
+    void shutdown();
+}
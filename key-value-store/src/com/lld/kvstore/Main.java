@@ -1,5 +1,7 @@
 package com.lld.kvstore;
 
+import com.lld.kvstore.cluster.ClusterConfig;
+import com.lld.kvstore.cluster.ClusteredKeyValueStore;
 import com.lld.kvstore.core.KeyValueStore;
 import com.lld.kvstore.core.KeyValueStoreImpl;
 import com.lld.kvstore.types.Value;
@@ -27,6 +29,10 @@ public class Main {
         testSetOperations(store);
         testCommandPattern(commandBus, store);
         testTypeSafety(store);
+        testMetrics(store);
+        testPersistentCollections();
+        testExpiryAndEviction();
+        testCluster();
     }
     
     private static void testPrimitiveOperations(KeyValueStore store) {
@@ -95,6 +101,25 @@ public class Main {
         Command deleteCommand = new DeleteCommand(store, "command_test");
         Object result3 = commandBus.dispatch(deleteCommand);
         System.out.println("Delete command result: " + result3);
+        
+        List<Object> pipelined = commandBus.pipeline(Arrays.asList(
+            new SetPrimitiveCommand(store, "counter", 1),
+            new GetCommand(store, "counter"),
+            new DeleteCommand(store, "counter")));
+        System.out.println("Pipeline results: " + pipelined);
+        
+        store.setPrimitive("balance", 100);
+        Transaction transaction = commandBus.multi(store);
+        transaction.watch("balance");
+        store.setPrimitive("balance", 50);
+        transaction.queue(new SetPrimitiveCommand(store, "balance", 0));
+        System.out.println("EXEC after concurrent change: " + transaction.exec());
+        
+        transaction = commandBus.multi(store);
+        transaction.watch("balance");
+        transaction.queue(new SetPrimitiveCommand(store, "balance", 0))
+                   .queue(new GetCommand(store, "balance"));
+        System.out.println("EXEC: " + transaction.exec());
     }
     
     private static void testTypeSafety(KeyValueStore store) {
@@ -113,4 +138,74 @@ public class Main {
         store.deleteKey("test_key");
         System.out.println("Cleaned up test key");
     }
+    
+    private static void testMetrics(KeyValueStore store) {
+        System.out.println("\n--- Metrics ---");
+        
+        System.out.print(store.stats().get().toInfo("commandstats").replace("\r\n", "\n"));
+    }
+    
+    private static void testPersistentCollections() {
+        System.out.println("\n--- Persistent Collections ---");
+        
+        KeyValueStore store = new KeyValueStoreImpl(new InMemoryStorage(), new TypeValidator(),
+                                                    new ValueFactory(ValueModel.PERSISTENT),
+                                                    new StripedConcurrencyManager());
+        
+        store.setSet("tags", Set.of("java", "redis"));
+        java.util.Collection<String> before = store.<String>fetchFromCollection("tags", 0).get();
+        store.addToCollection("tags", Arrays.asList("hamt"));
+        System.out.println("Snapshot taken before the write: " + before);
+        System.out.println("Current tags: " + store.fetchFromCollection("tags", 0).get());
+    }
+    
+    private static void testExpiryAndEviction() {
+        System.out.println("\n--- TTL and Eviction ---");
+        
+        InMemoryStorage cache = new InMemoryStorage(new CacheConfig(64 * 1024, EvictionPolicy.APPROXIMATE_LRU));
+        KeyValueStore store = new KeyValueStoreImpl(cache, new TypeValidator(), new ValueFactory(),
+                                                    new StripedConcurrencyManager());
+        
+        store.setPrimitive("session", "abc123", 50);
+        System.out.println("Get before expiry: " + store.get("session"));
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Get after expiry: " + store.get("session"));
+        
+        for (int i = 0; i < 5_000; i++) {
+            store.setPrimitive("item-" + i, i);
+        }
+        System.out.println("Cache stats: " + cache.getStats());
+        cache.close();
+    }
+    
+    private static void testCluster() {
+        System.out.println("\n--- Sharded Cluster ---");
+        
+        ClusteredKeyValueStore cluster = new ClusteredKeyValueStore(
+                new ClusterConfig(1, true),
+                () -> new KeyValueStoreImpl(new InMemoryStorage(), new TypeValidator(), new ValueFactory(),
+                                            new StripedConcurrencyManager()),
+                List.of("node-1", "node-2", "node-3", "node-4"));
+        
+        int keys = 100_000;
+        for (int i = 0; i < keys; i++) {
+            cluster.setPrimitive("user:" + i, i);
+        }
+        System.out.println("user:42 lives on " + cluster.nodeFor("user:42"));
+        
+        long moved = cluster.addNode("node-5");
+        System.out.printf("Added node-5: moved %d of %d keys (%.1f%%)%n", moved, keys, 100.0 * moved / keys);
+        
+        try {
+            cluster.awaitReplication();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Replica read of user:42 on " + cluster.nodeFor("user:42") + ": " + cluster.get("user:42"));
+        cluster.close();
+    }
 }
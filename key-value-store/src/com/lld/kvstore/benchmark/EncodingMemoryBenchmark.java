@@ -0,0 +1,80 @@
+package com.lld.kvstore.benchmark;
+
+import com.lld.kvstore.storage.ValueFactory;
+import com.lld.kvstore.types.ListValue;
+import com.lld.kvstore.types.PrimitiveType;
+import com.lld.kvstore.types.SetValue;
+import com.lld.kvstore.types.Value;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Retained heap of 1M-element INTEGER/LONG sets and lists, boxed encoding versus the specialized
+ * one {@link ValueFactory} picks. Measured as used heap after GC, so run with a quiet JVM, e.g.
+ * {@code java -Xmx2g -XX:+UseSerialGC ... EncodingMemoryBenchmark}.
+ */
+public class EncodingMemoryBenchmark {
+    private static final int ELEMENTS = 1_000_000;
+
+    public static void main(String[] args) {
+        ValueFactory factory = new ValueFactory();
+
+        compare("INTEGER set", () -> new SetValue(intSet(), PrimitiveType.INTEGER),
+                () -> factory.createSet(intSet(), PrimitiveType.INTEGER));
+        compare("LONG set", () -> new SetValue(longSet(), PrimitiveType.LONG),
+                () -> factory.createSet(longSet(), PrimitiveType.LONG));
+        compare("INTEGER list", () -> new ListValue(intList(), PrimitiveType.INTEGER),
+                () -> factory.createList(intList(), PrimitiveType.INTEGER));
+    }
+
+    private static void compare(String name, Supplier<Value> boxed, Supplier<Value> specialized) {
+        long boxedBytes = retained(boxed);
+        long specializedBytes = retained(specialized);
+        System.out.printf("%-13s boxed=%,12d B  specialized=%,12d B  reduction=%.1fx%n",
+                          name, boxedBytes, specializedBytes, (double) boxedBytes / specializedBytes);
+    }
+
+    private static long retained(Supplier<Value> builder) {
+        long before = usedAfterGc();
+        Value value = builder.get();
+        long after = usedAfterGc();
+        Reference.reachabilityFence(value);
+        return after - before;
+    }
+
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Set<Object> intSet() {
+        Set<Object> values = new HashSet<>();
+        for (int i = 0; i < ELEMENTS; i++) {
+            values.add(i * 7);
+        }
+        return values;
+    }
+
+    private static Set<Object> longSet() {
+        Set<Object> values = new HashSet<>();
+        for (int i = 0; i < ELEMENTS; i++) {
+            values.add(i * 7919L);
+        }
+        return values;
+    }
+
+    private static List<Object> intList() {
+        List<Object> values = new ArrayList<>(ELEMENTS);
+        for (int i = 0; i < ELEMENTS; i++) {
+            values.add(i * 7);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,76 @@
+package com.lld.kvstore.benchmark;
+
+import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.KeyValueStoreImpl;
+import com.lld.kvstore.storage.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class LockManagerBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 8, 64};
+    private static final int KEY_SPACE = 100_000;
+    private static final int READ_PERCENT = 90;
+    private static final long WARMUP_MS = 2_000;
+    private static final long MEASURE_MS = 5_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        run("per-key", ConcurrencyManager::new);
+        run("striped", StripedConcurrencyManager::new);
+    }
+
+    private static void run(String name, Supplier<LockManager> lockManagers) throws InterruptedException {
+        for (int threads : THREAD_COUNTS) {
+            KeyValueStore store = new KeyValueStoreImpl(
+                new InMemoryStorage(), new TypeValidator(), new ValueFactory(), lockManagers.get());
+            String[] keys = new String[KEY_SPACE];
+            for (int i = 0; i < KEY_SPACE; i++) {
+                keys[i] = "key-" + i;
+                store.setPrimitive(keys[i], (long) i);
+            }
+
+            measure(store, keys, threads, WARMUP_MS);
+            long ops = measure(store, keys, threads, MEASURE_MS);
+            System.out.printf("%-8s threads=%-3d %,15d ops/s%n", name, threads, ops * 1000 / MEASURE_MS);
+        }
+    }
+
+    private static long measure(KeyValueStore store, String[] keys, int threads, long durationMs)
+            throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + durationMs * 1_000_000L;
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                try {
+                    start.await();
+                    while ((local & 0xFF) != 0 || System.nanoTime() < deadline) {
+                        String key = keys[random.nextInt(keys.length)];
+                        if (random.nextInt(100) < READ_PERCENT) {
+                            store.get(key);
+                        } else {
+                            store.setPrimitive(key, random.nextLong());
+                        }
+                        local++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    ops.add(local);
+                    done.countDown();
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        start.countDown();
+        done.await();
+        return ops.sum();
+    }
+}
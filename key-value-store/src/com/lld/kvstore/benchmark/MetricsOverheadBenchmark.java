@@ -0,0 +1,97 @@
+package com.lld.kvstore.benchmark;
+
+import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.KeyValueStoreImpl;
+import com.lld.kvstore.metrics.StoreMetrics;
+import com.lld.kvstore.storage.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Cost of {@link StoreMetrics} on the GET/SET hot path: the same 90% GET / 10% SET mix over a
+ * preloaded keyspace with metrics disabled, sampled (the default) and timing every call. Each
+ * round runs the variants in a rotated order so JIT and GC drift hit all of them alike.
+ */
+public class MetricsOverheadBenchmark {
+    private static final int KEYS = 100_000;
+    private static final int OPS_PER_THREAD = 2_000_000;
+    private static final int ROUNDS = 7;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        String[] names = {"disabled", "sampled 1/" + StoreMetrics.DEFAULT_SAMPLE_INTERVAL, "every call"};
+        List<Supplier<StoreMetrics>> variants = List.of(
+            StoreMetrics::disabled,
+            StoreMetrics::new,
+            () -> new StoreMetrics(1)
+        );
+        KeyValueStore[] stores = new KeyValueStore[variants.size()];
+        for (int v = 0; v < variants.size(); v++) {
+            stores[v] = preload(variants.get(v).get());
+        }
+
+        long[] best = new long[variants.size()];
+        Arrays.fill(best, Long.MAX_VALUE);
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < variants.size(); i++) {
+                int v = (round + i) % variants.size();
+                best[v] = Math.min(best[v], run(stores[v], threads));
+            }
+        }
+
+        long totalOps = (long) OPS_PER_THREAD * threads;
+        for (int v = 0; v < variants.size(); v++) {
+            System.out.printf("%-14s threads=%-2d %,12d ops/s  overhead=%5.1f%%%n", names[v], threads,
+                              totalOps * 1_000_000_000L / best[v], 100.0 * (best[v] - best[0]) / best[0]);
+        }
+        System.out.println(stores[1].stats().get().toInfo("latencystats"));
+    }
+
+    private static KeyValueStore preload(StoreMetrics metrics) {
+        KeyValueStore store = new KeyValueStoreImpl(new InMemoryStorage(), new TypeValidator(), new ValueFactory(),
+                                                    new StripedConcurrencyManager(), metrics);
+        for (int i = 0; i < KEYS; i++) {
+            store.setPrimitive("key-" + i, (long) i);
+        }
+        return store;
+    }
+
+    private static long run(KeyValueStore store, int threads) throws InterruptedException {
+        String[] keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key-" + i;
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    int index = seed * 7919;
+                    for (int i = 0; i < OPS_PER_THREAD; i++) {
+                        index = (index + 40_503) % KEYS;
+                        if (i % 10 == 0) {
+                            store.setPrimitive(keys[index], (long) i);
+                        } else {
+                            store.get(keys[index]);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - started;
+    }
+}
@@ -0,0 +1,79 @@
+package com.lld.kvstore.benchmark;
+
+import com.lld.kvstore.commands.*;
+import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.KeyValueStoreImpl;
+import com.lld.kvstore.storage.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Bulk-load throughput: threads split {@link #TOTAL_KEYS} writes between them and issue either one
+ * {@link CommandBus#dispatch} per command or as {@link CommandBus#pipeline} batches.
+ */
+public class PipelineBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 8};
+    private static final int TOTAL_KEYS = 1_000_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int threads : THREAD_COUNTS) {
+            for (int stripes : new int[] {64, StripedConcurrencyManager.DEFAULT_STRIPES}) {
+                run("dispatch", threads, stripes, false);
+                run("pipeline", threads, stripes, true);
+            }
+        }
+    }
+
+    private static void run(String name, int threads, int stripes, boolean pipelined) throws InterruptedException {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            KeyValueStore store = new KeyValueStoreImpl(new InMemoryStorage(), new TypeValidator(),
+                                                        new ValueFactory(), new StripedConcurrencyManager(stripes));
+            best = Math.min(best, load(store, threads, pipelined));
+        }
+        System.out.printf("%-8s threads=%-2d stripes=%-5d %,12d ops/s%n",
+                          name, threads, stripes, TOTAL_KEYS * 1_000_000_000L / best);
+    }
+
+    private static long load(KeyValueStore store, int threads, boolean pipelined) throws InterruptedException {
+        CommandBus bus = new CommandBus();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    List<Command> batch = new ArrayList<>(BATCH_SIZE);
+                    for (int i = 0; i < TOTAL_KEYS / threads; i++) {
+                        Command command = new SetPrimitiveCommand(store, "key-" + thread + "-" + i, (long) i);
+                        if (!pipelined) {
+                            bus.dispatch(command);
+                            continue;
+                        }
+                        batch.add(command);
+                        if (batch.size() == BATCH_SIZE) {
+                            bus.pipeline(batch);
+                            batch.clear();
+                        }
+                    }
+                    bus.pipeline(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - started;
+    }
+}
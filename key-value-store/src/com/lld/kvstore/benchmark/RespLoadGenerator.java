@@ -0,0 +1,266 @@
+package com.lld.kvstore.benchmark;
+
+import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.KeyValueStoreImpl;
+import com.lld.kvstore.server.RespServer;
+import com.lld.kvstore.server.ServerConfig;
+import com.lld.kvstore.storage.*;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Loopback load generator in the spirit of {@code redis-benchmark}: each connection sends
+ * {@code pipeline} GET/SET requests at once, waits for all replies and records the round trip.
+ * Reports ops/sec and round-trip latency percentiles. Without a port it starts an in-process
+ * server on an ephemeral port.
+ *
+ * <p>Usage: {@code RespLoadGenerator [connections] [pipeline] [seconds] [port]}
+ */
+public class RespLoadGenerator {
+    private static final int KEY_SPACE = 100_000;
+    private static final int READ_PERCENT = 90;
+    private static final int VALUE_BYTES = 32;
+    private static final int MAX_SAMPLES = 2_000_000;
+    private static final byte[][] KEYS = new byte[KEY_SPACE][];
+
+    static {
+        for (int i = 0; i < KEY_SPACE; i++) {
+            KEYS[i] = ("key:" + i).getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int pipeline = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        RespServer server = null;
+        int port;
+        if (args.length > 3) {
+            port = Integer.parseInt(args[3]);
+        } else {
+            KeyValueStore store = new KeyValueStoreImpl(new InMemoryStorage(), new TypeValidator(),
+                                                        new ValueFactory(), new StripedConcurrencyManager());
+            server = new RespServer(store, new ServerConfig(0));
+            server.start();
+            port = server.getPort();
+        }
+
+        try {
+            run(port, connections, pipeline, 2);
+            run(port, connections, pipeline, seconds).print(connections, pipeline, seconds);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private static Report run(int port, int connections, int pipeline, int seconds) throws Exception {
+        Client[] clients = new Client[connections];
+        for (int i = 0; i < connections; i++) {
+            clients[i] = new Client(port, pipeline, Math.max(1, MAX_SAMPLES / connections));
+        }
+        CountDownLatch done = new CountDownLatch(connections);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        for (Client client : clients) {
+            Thread thread = new Thread(() -> {
+                try {
+                    client.runUntil(deadline);
+                } catch (IOException e) {
+                    client.failure = e;
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+
+        Report report = new Report();
+        for (Client client : clients) {
+            if (client.failure != null) {
+                throw client.failure;
+            }
+            client.close();
+            report.add(client);
+        }
+        return report;
+    }
+
+    private static final class Client {
+        private final SocketChannel channel;
+        private final int pipeline;
+        private final ByteBuffer request;
+        private final ByteBuffer reply;
+        private final byte[] value;
+        private final long[] samples;
+        private int sampleCount;
+        private long ops;
+        private IOException failure;
+
+        Client(int port, int pipeline, int maxSamples) throws IOException {
+            this.channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", port));
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            this.pipeline = pipeline;
+            this.request = ByteBuffer.allocateDirect(pipeline * (64 + VALUE_BYTES));
+            this.reply = ByteBuffer.allocateDirect(Math.max(64 * 1024, pipeline * (16 + VALUE_BYTES)));
+            this.value = new byte[VALUE_BYTES];
+            Arrays.fill(value, (byte) 'v');
+            this.samples = new long[maxSamples];
+        }
+
+        void runUntil(long deadline) throws IOException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                request.clear();
+                for (int i = 0; i < pipeline; i++) {
+                    byte[] key = KEYS[random.nextInt(KEY_SPACE)];
+                    if (random.nextInt(100) < READ_PERCENT) {
+                        putCommand(request, "GET", key, null);
+                    } else {
+                        putCommand(request, "SET", key, value);
+                    }
+                }
+                request.flip();
+
+                long started = System.nanoTime();
+                while (request.hasRemaining()) {
+                    channel.write(request);
+                }
+                awaitReplies(pipeline);
+                long elapsed = System.nanoTime() - started;
+
+                if (sampleCount < samples.length) {
+                    samples[sampleCount++] = elapsed;
+                }
+                ops += pipeline;
+            }
+        }
+
+        // Reads until {@code expected} complete replies have arrived.
+        private void awaitReplies(int expected) throws IOException {
+            reply.clear();
+            int parsed = 0;
+            int position = 0;
+            while (parsed < expected) {
+                if (channel.read(reply) < 0) {
+                    throw new IOException("Server closed the connection");
+                }
+                int end;
+                while (parsed < expected && (end = skipReply(reply, position, reply.position())) >= 0) {
+                    position = end;
+                    parsed++;
+                }
+                if (!reply.hasRemaining()) {
+                    reply.limit(reply.position()).position(position);
+                    reply.compact();
+                    position = 0;
+                }
+            }
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+
+        private static void putCommand(ByteBuffer buffer, String name, byte[] key, byte[] value) {
+            buffer.put((byte) '*').put((byte) (value == null ? '2' : '3')).put((byte) '\r').put((byte) '\n');
+            putBulk(buffer, name.getBytes(StandardCharsets.US_ASCII));
+            putBulk(buffer, key);
+            if (value != null) {
+                putBulk(buffer, value);
+            }
+        }
+
+        private static void putBulk(ByteBuffer buffer, byte[] bytes) {
+            buffer.put((byte) '$').put(Integer.toString(bytes.length).getBytes(StandardCharsets.US_ASCII));
+            buffer.put((byte) '\r').put((byte) '\n').put(bytes).put((byte) '\r').put((byte) '\n');
+        }
+
+        // Returns the offset after the reply starting at {@code from}, or -1 if it is incomplete.
+        private static int skipReply(ByteBuffer buffer, int from, int limit) {
+            if (from >= limit) {
+                return -1;
+            }
+            int lineEnd = lineEnd(buffer, from + 1, limit);
+            if (lineEnd < 0) {
+                return -1;
+            }
+            byte type = buffer.get(from);
+            if (type == '$') {
+                int length = parseInt(buffer, from + 1, lineEnd);
+                if (length < 0) {
+                    return lineEnd + 2;
+                }
+                int end = lineEnd + 2 + length + 2;
+                return end <= limit ? end : -1;
+            }
+            if (type == '*') {
+                int count = parseInt(buffer, from + 1, lineEnd);
+                int position = lineEnd + 2;
+                for (int i = 0; i < count; i++) {
+                    position = skipReply(buffer, position, limit);
+                    if (position < 0) {
+                        return -1;
+                    }
+                }
+                return position;
+            }
+            return lineEnd + 2;
+        }
+
+        private static int lineEnd(ByteBuffer buffer, int from, int limit) {
+            for (int i = from; i + 1 < limit; i++) {
+                if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static int parseInt(ByteBuffer buffer, int from, int to) {
+            boolean negative = buffer.get(from) == '-';
+            int value = 0;
+            for (int i = negative ? from + 1 : from; i < to; i++) {
+                value = value * 10 + (buffer.get(i) - '0');
+            }
+            return negative ? -value : value;
+        }
+    }
+
+    private static final class Report {
+        private long ops;
+        private long[] latencies = new long[0];
+
+        void add(Client client) {
+            ops += client.ops;
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + client.sampleCount);
+            System.arraycopy(client.samples, 0, latencies, offset, client.sampleCount);
+        }
+
+        void print(int connections, int pipeline, int seconds) {
+            Arrays.sort(latencies);
+            System.out.printf("connections=%d pipeline=%d: %,d ops/s, round trip p50=%.1f us p99=%.1f us p99.9=%.1f us%n",
+                              connections, pipeline, ops / seconds,
+                              percentile(0.50), percentile(0.99), percentile(0.999));
+        }
+
+        private double percentile(double quantile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(quantile * latencies.length) - 1);
+            return latencies[Math.max(0, index)] / 1_000.0;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.lld.kvstore.benchmark;
+
+import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.KeyValueStoreImpl;
+import com.lld.kvstore.storage.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-heavy collection workloads (95% reads, 5% SADD/SREM or RPUSH/LREM of one element) on
+ * {@link ValueModel#COMPACT} versus {@link ValueModel#PERSISTENT} values. Reads are either a whole
+ * collection fetch (SMEMBERS, iterated) or one small page (SSCAN/LRANGE of 16).
+ */
+public class ValueModelBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 8};
+    private static final int KEYS = 1_000;
+    private static final int ELEMENTS = 1_000;
+    private static final int PAGE = 16;
+    private static final int READ_PERCENT = 95;
+    private static final long WARMUP_MS = 2_000;
+    private static final long MEASURE_MS = 4_000;
+
+    private enum Workload { SET_MEMBERS, SET_SCAN, LIST_RANGE }
+
+    public static void main(String[] args) throws InterruptedException {
+        for (Workload workload : Workload.values()) {
+            for (int threads : THREAD_COUNTS) {
+                for (ValueModel model : ValueModel.values()) {
+                    KeyValueStore store = populate(model, workload);
+                    measure(store, workload, threads, WARMUP_MS);
+                    long ops = measure(store, workload, threads, MEASURE_MS);
+                    System.out.printf("%-11s %-10s threads=%-2d %,12d ops/s%n",
+                                      workload, model, threads, ops * 1000 / MEASURE_MS);
+                }
+            }
+        }
+    }
+
+    private static KeyValueStore populate(ValueModel model, Workload workload) {
+        KeyValueStore store = new KeyValueStoreImpl(new InMemoryStorage(), new TypeValidator(),
+                                                    new ValueFactory(model), new StripedConcurrencyManager());
+        List<Integer> elements = new ArrayList<>(ELEMENTS);
+        for (int i = 0; i < ELEMENTS; i++) {
+            elements.add(i);
+        }
+        for (int k = 0; k < KEYS; k++) {
+            if (workload == Workload.LIST_RANGE) {
+                store.setList(key(k), elements);
+            } else {
+                store.setSet(key(k), elements);
+            }
+        }
+        return store;
+    }
+
+    private static long measure(KeyValueStore store, Workload workload, int threads, long durationMs)
+            throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + durationMs * 1_000_000L;
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                long sink = 0;
+                try {
+                    start.await();
+                    while ((local & 0xFF) != 0 || System.nanoTime() < deadline) {
+                        String key = key(random.nextInt(KEYS));
+                        if (random.nextInt(100) < READ_PERCENT) {
+                            sink += read(store, workload, key);
+                        } else {
+                            write(store, workload, key, random);
+                        }
+                        local++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    ops.add(local);
+                    if (sink == 42) {
+                        System.out.print("");
+                    }
+                    done.countDown();
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        start.countDown();
+        done.await();
+        return ops.sum();
+    }
+
+    private static long read(KeyValueStore store, Workload workload, String key) {
+        switch (workload) {
+            case SET_MEMBERS:
+                long sum = 0;
+                Collection<Object> members = store.<Object>fetchFromCollection(key, 0).get();
+                for (Object member : members) {
+                    sum += (Integer) member;
+                }
+                return sum;
+            case SET_SCAN:
+                return store.scanCollection(key, 0, PAGE).get().getItems().size();
+            default:
+                return store.fetchRange(key, 0, PAGE).get().size();
+        }
+    }
+
+    // Adds or removes one element, keeping collections near their initial size.
+    private static void write(KeyValueStore store, Workload workload, String key, ThreadLocalRandom random) {
+        List<Integer> element = List.of(random.nextInt(ELEMENTS * 2));
+        if (random.nextBoolean()) {
+            store.addToCollection(key, element);
+        } else {
+            store.removeFromCollection(key, element);
+        }
+    }
+
+    private static String key(int index) {
+        return "collection-" + index;
+    }
+}
@@ -0,0 +1,55 @@
+package com.lld.kvstore.benchmark;
+
+import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.KeyValueStoreImpl;
+import com.lld.kvstore.storage.*;
+import com.lld.kvstore.storage.wal.RecoveryStats;
+import com.lld.kvstore.storage.wal.WalConfig;
+import com.lld.kvstore.storage.wal.WriteAheadLogStorage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Loads N keys through a WAL-backed store, snapshots halfway, then reopens it and reports how
+ * fast snapshot + log tail are replayed. Usage: {@code WalRecoveryBenchmark [keys] [dir]};
+ * 10M keys needs roughly {@code -Xmx6g}.
+ */
+public class WalRecoveryBenchmark {
+    private static final long TARGET_MS = 10_000;
+
+    public static void main(String[] args) throws IOException {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path directory = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("kv-wal");
+        WalConfig config = new WalConfig(directory);
+
+        long started = System.nanoTime();
+        try (WriteAheadLogStorage storage = new WriteAheadLogStorage(config, new ValueFactory())) {
+            KeyValueStore store = new KeyValueStoreImpl(
+                storage, new TypeValidator(), new ValueFactory(), new StripedConcurrencyManager());
+            for (int i = 0; i < keys; i++) {
+                store.setPrimitive("key-" + i, (long) i);
+                if (i == keys / 2) {
+                    storage.snapshot();
+                }
+            }
+        }
+        long loadMs = (System.nanoTime() - started) / 1_000_000;
+        System.out.printf("loaded %,d keys in %,d ms%n", keys, loadMs);
+
+        try (WriteAheadLogStorage recovered = new WriteAheadLogStorage(config, new ValueFactory())) {
+            RecoveryStats stats = recovered.getRecoveryStats();
+            System.out.println(stats);
+            System.out.printf("recovered %,d keys, %s the %,d ms target%n", recovered.size(),
+                              stats.getElapsedMillis() <= TARGET_MS ? "within" : "MISSED", TARGET_MS);
+        }
+
+        if (args.length <= 1) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.lld.kvstore.cluster;
+
+/**
+ * Shape of a {@link ClusteredKeyValueStore}: virtual nodes per shard on the hash ring, replicas
+ * per shard, whether reads may be served by replicas, and how many replicated writes a shard may
+ * queue before writers wait for its replicas to catch up.
+ */
+public class ClusterConfig {
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+    public static final int DEFAULT_REPLICATION_BACKLOG = 100_000;
+
+    private final int virtualNodes;
+    private final int replicasPerShard;
+    private final boolean readFromReplicas;
+    private final int replicationBacklog;
+
+    public ClusterConfig(int replicasPerShard, boolean readFromReplicas) {
+        this(DEFAULT_VIRTUAL_NODES, replicasPerShard, readFromReplicas, DEFAULT_REPLICATION_BACKLOG);
+    }
+
+    public ClusterConfig(int virtualNodes, int replicasPerShard, boolean readFromReplicas, int replicationBacklog) {
+        if (virtualNodes <= 0 || replicasPerShard < 0 || replicationBacklog <= 0) {
+            throw new IllegalArgumentException("virtualNodes and replicationBacklog must be positive, replicasPerShard non-negative");
+        }
+        this.virtualNodes = virtualNodes;
+        this.replicasPerShard = replicasPerShard;
+        this.readFromReplicas = readFromReplicas;
+        this.replicationBacklog = replicationBacklog;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public int getReplicasPerShard() {
+        return replicasPerShard;
+    }
+
+    public boolean isReadFromReplicas() {
+        return readFromReplicas;
+    }
+
+    public int getReplicationBacklog() {
+        return replicationBacklog;
+    }
+}
@@ -0,0 +1,473 @@
+package com.lld.kvstore.cluster;
+
+import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.KeyVersion;
+import com.lld.kvstore.core.Operation;
+import com.lld.kvstore.storage.KeyScanCursor;
+import com.lld.kvstore.types.*;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A {@link KeyValueStore} partitioned over several local stores by a consistent-hash ring.
+ * Each ring node is a {@link Shard}: a primary store plus replicas fed asynchronously from the
+ * primary's write stream. Writes go to the owning primary; reads go to its replicas when
+ * {@link ClusterConfig#isReadFromReplicas()} is set, and may then briefly lag the primary.
+ *
+ * <p>Writes to a key are serialized by a cluster-level stripe lock held across the primary
+ * write and its hand-off to replication, so replicas apply a key's writes in primary order.
+ *
+ * <p>{@link #addNode} rebalances online. The new ring is published as a pending migration: a
+ * key that will belong to the new shard is moved the first time anyone touches it, and a
+ * background scan moves the rest before the new ring takes over. Only the keys the new node
+ * owns move, about 1/N of them. Empty collections are dropped rather than moved, since the
+ * store cannot create one.
+ *
+ * <p>Transactions must keep all their keys on one shard, like Redis Cluster's CROSSSLOT rule.
+ */
+public class ClusteredKeyValueStore implements KeyValueStore, AutoCloseable {
+    private static final int LOCK_STRIPES = 1024;
+    private static final int SCAN_PAGE = 1_000;
+
+    private final ClusterConfig config;
+    private final Supplier<KeyValueStore> nodeFactory;
+    private final ReentrantLock[] keyLocks;
+    private volatile HashRing<Shard> ring;
+    private volatile Migration migration;
+
+    public ClusteredKeyValueStore(ClusterConfig config, Supplier<KeyValueStore> nodeFactory, List<String> nodeIds) {
+        if (nodeIds.isEmpty()) {
+            throw new IllegalArgumentException("A cluster needs at least one node");
+        }
+        this.config = config;
+        this.nodeFactory = nodeFactory;
+        this.keyLocks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            keyLocks[i] = new ReentrantLock();
+        }
+        HashRing<Shard> initial = new HashRing<>(config.getVirtualNodes());
+        for (String nodeId : nodeIds) {
+            initial = initial.with(nodeId, newShard(nodeId));
+        }
+        this.ring = initial;
+    }
+
+    /**
+     * Adds a shard and moves the keys it now owns onto it while the cluster keeps serving.
+     * Returns the number of keys moved.
+     */
+    public synchronized long addNode(String nodeId) {
+        Shard shard = newShard(nodeId);
+        HashRing<Shard> current = ring;
+        Migration active = new Migration(current.with(nodeId, shard), shard);
+        migration = active;
+        // Writers that routed by the old ring before seeing the migration still hold their
+        // stripe; wait them out so the scan below cannot miss a key they are creating.
+        for (ReentrantLock lock : keyLocks) {
+            lock.lock();
+            lock.unlock();
+        }
+
+        for (Shard source : current.nodes()) {
+            Result<KeyScanCursor> scan = source.primary().scanKeys();
+            if (!scan.isOk()) {
+                throw new IllegalStateException("Cannot rebalance: " + scan.error());
+            }
+            KeyScanCursor cursor = scan.get();
+            for (List<String> page = cursor.next(SCAN_PAGE); !page.isEmpty(); page = cursor.next(SCAN_PAGE)) {
+                for (String key : page) {
+                    if (active.ring.nodeFor(key) == shard) {
+                        ReentrantLock lock = lockFor(key);
+                        lock.lock();
+                        try {
+                            ownerLocked(key);
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                }
+            }
+        }
+
+        ring = active.ring;
+        migration = null;
+        return active.migrated.get();
+    }
+
+    public List<String> getNodeIds() {
+        List<String> ids = new ArrayList<>();
+        ring.nodes().forEach(shard -> ids.add(shard.getId()));
+        return ids;
+    }
+
+    public String nodeFor(String key) {
+        return route(key).getId();
+    }
+
+    /** Writes queued for replicas but not yet applied, across all shards. */
+    public long replicationBacklog() {
+        long total = 0;
+        for (Shard shard : ring.nodes()) {
+            total += shard.replicationBacklog();
+        }
+        return total;
+    }
+
+    /** Replicas that threw while applying a write and were taken out of service, across all shards. */
+    public int failedReplicas() {
+        int total = 0;
+        for (Shard shard : ring.nodes()) {
+            total += shard.failedReplicaCount();
+        }
+        return total;
+    }
+
+    /** Waits until every write accepted so far has been applied on all healthy replicas. */
+    public void awaitReplication() throws InterruptedException {
+        for (Shard shard : ring.nodes()) {
+            shard.awaitReplication();
+        }
+    }
+
+    @Override
+    public void close() {
+        ring.nodes().forEach(Shard::close);
+    }
+
+    @Override
+    public Result<Void> setPrimitive(String key, Object value) {
+        return write(key, store -> store.setPrimitive(key, value));
+    }
+
+    @Override
+    public <T> Result<Void> setList(String key, Collection<T> values) {
+        return write(key, store -> store.setList(key, values));
+    }
+
+    @Override
+    public <T> Result<Void> setSet(String key, Collection<T> values) {
+        return write(key, store -> store.setSet(key, values));
+    }
+
+    @Override
+    public Result<Void> setPrimitive(String key, Object value, long ttlMillis) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        return ttlMillis <= 0
+            ? Result.error("Failed to set primitive: TTL must be positive")
+            : write(key, store -> store.setPrimitive(key, value, remaining(expiresAt)));
+    }
+
+    @Override
+    public <T> Result<Void> setList(String key, Collection<T> values, long ttlMillis) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        return ttlMillis <= 0
+            ? Result.error("Failed to set list: TTL must be positive")
+            : write(key, store -> store.setList(key, values, remaining(expiresAt)));
+    }
+
+    @Override
+    public <T> Result<Void> setSet(String key, Collection<T> values, long ttlMillis) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        return ttlMillis <= 0
+            ? Result.error("Failed to set set: TTL must be positive")
+            : write(key, store -> store.setSet(key, values, remaining(expiresAt)));
+    }
+
+    @Override
+    public Result<Value> get(String key) {
+        return read(key, store -> store.get(key));
+    }
+
+    @Override
+    public Result<Long> ttl(String key) {
+        return read(key, store -> store.ttl(key));
+    }
+
+    @Override
+    public Result<Void> deleteKey(String key) {
+        return write(key, store -> store.deleteKey(key));
+    }
+
+    @Override
+    public <T> Result<Void> addToCollection(String key, Collection<T> values) {
+        return write(key, store -> store.addToCollection(key, values));
+    }
+
+    @Override
+    public <T> Result<Collection<T>> fetchFromCollection(String key, int limit) {
+        return read(key, store -> store.fetchFromCollection(key, limit));
+    }
+
+    @Override
+    public <T> Result<Void> removeFromCollection(String key, Collection<T> values) {
+        return write(key, store -> store.removeFromCollection(key, values));
+    }
+
+    @Override
+    public <T> Result<List<T>> fetchRange(String key, int offset, int count) {
+        return read(key, store -> store.fetchRange(key, offset, count));
+    }
+
+    @Override
+    public <T> Result<ScanResult<T>> scanCollection(String key, long cursor, int count) {
+        return read(key, store -> store.scanCollection(key, cursor, count));
+    }
+
+    @Override
+    public Result<KeyScanCursor> scanKeys() {
+        List<KeyScanCursor> cursors = new ArrayList<>();
+        for (Shard shard : ring.nodes()) {
+            Result<KeyScanCursor> cursor = shard.primary().scanKeys();
+            if (!cursor.isOk()) {
+                return cursor;
+            }
+            cursors.add(cursor.get());
+        }
+        return Result.success(KeyScanCursor.concat(cursors));
+    }
+
+    @Override
+    public List<Result<?>> executeBatch(List<Operation> operations) {
+        List<ReentrantLock> held = lockAll(operations, List.of());
+        try {
+            Map<Shard, List<Integer>> byShard = new LinkedHashMap<>();
+            for (int i = 0; i < operations.size(); i++) {
+                byShard.computeIfAbsent(ownerLocked(operations.get(i).getKey()), _ -> new ArrayList<>()).add(i);
+            }
+
+            Result<?>[] results = new Result<?>[operations.size()];
+            for (Map.Entry<Shard, List<Integer>> group : byShard.entrySet()) {
+                List<Operation> batch = new ArrayList<>(group.getValue().size());
+                group.getValue().forEach(i -> batch.add(operations.get(i)));
+                List<Result<?>> batchResults = group.getKey().primary().executeBatch(batch);
+
+                List<Operation> applied = new ArrayList<>();
+                for (int j = 0; j < batch.size(); j++) {
+                    results[group.getValue().get(j)] = batchResults.get(j);
+                    if (batch.get(j).isWrite() && batchResults.get(j).isOk()) {
+                        applied.add(batch.get(j));
+                    }
+                }
+                if (!applied.isEmpty()) {
+                    group.getKey().replicate(replica -> Shard.firstError(replica.executeBatch(applied)));
+                }
+            }
+            return List.of(results);
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    @Override
+    public Result<KeyVersion> watch(String key) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            return ownerLocked(key).primary().watch(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Result<List<Result<?>>> executeAtomically(List<Operation> operations, Collection<KeyVersion> watches) {
+        List<ReentrantLock> held = lockAll(operations, watches);
+        try {
+            Set<Shard> shards = Collections.newSetFromMap(new IdentityHashMap<>());
+            operations.forEach(operation -> shards.add(ownerLocked(operation.getKey())));
+            watches.forEach(watched -> shards.add(ownerLocked(watched.getKey())));
+            if (shards.size() > 1) {
+                return Result.error("CROSSSLOT Keys in request don't hash to the same node");
+            }
+            if (shards.isEmpty()) {
+                return Result.success(List.of());
+            }
+
+            Shard shard = shards.iterator().next();
+            Result<List<Result<?>>> result = shard.primary().executeAtomically(operations, watches);
+            if (result.isOk()) {
+                // Only the writes that took effect on the primary, so each must succeed on a replica too.
+                List<Operation> writes = new ArrayList<>();
+                for (int i = 0; i < operations.size(); i++) {
+                    if (operations.get(i).isWrite() && result.get().get(i).isOk()) {
+                        writes.add(operations.get(i));
+                    }
+                }
+                if (!writes.isEmpty()) {
+                    shard.replicate(replica -> {
+                        Result<List<Result<?>>> replayed = replica.executeAtomically(writes, List.of());
+                        return replayed.isOk() ? Shard.firstError(replayed.get()) : replayed;
+                    });
+                }
+            }
+            return result;
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    private <T> Result<T> write(String key, Function<KeyValueStore, Result<T>> command) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            return ownerLocked(key).write(command);
+        } catch (Exception e) {
+            return Result.error("Cluster write failed: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> Result<T> read(String key, Function<KeyValueStore, Result<T>> query) {
+        return query.apply(route(key).readTarget(config.isReadFromReplicas()));
+    }
+
+    /** Owner of {@code key} for a lock-free read; a key still waiting to move is moved first. */
+    private Shard route(String key) {
+        Migration active = migration;
+        if (active == null || active.ring.nodeFor(key) != active.target) {
+            return ring.nodeFor(key);
+        }
+        if (active.moved.contains(key)) {
+            return active.target;
+        }
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            return ownerLocked(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the key's stripe lock. Reads migration before ring: addNode publishes the
+    // new ring before clearing the migration, so a null migration implies the current ring.
+    private Shard ownerLocked(String key) {
+        Migration active = migration;
+        Shard current = ring.nodeFor(key);
+        if (active == null || active.ring.nodeFor(key) != active.target) {
+            return current;
+        }
+        if (active.moved.add(key) && current != active.target && migrate(key, current, active.target)) {
+            active.migrated.incrementAndGet();
+        }
+        return active.target;
+    }
+
+    // Caller holds the key's stripe lock.
+    private static boolean migrate(String key, Shard source, Shard target) {
+        Result<Value> value = source.primary().get(key);
+        if (!value.isOk()) {
+            return false;
+        }
+        Result<Long> ttl = source.primary().ttl(key);
+        long ttlMillis = ttl.isOk() ? ttl.get() : -1;
+
+        Function<KeyValueStore, Result<Void>> copy = copyOf(key, value.get(), ttlMillis);
+        if (copy != null) {
+            Result<Void> copied = target.write(copy);
+            if (!copied.isOk()) {
+                throw new IllegalStateException("Failed to move " + key + " to " + target.getId() + ": " + copied.error());
+            }
+        }
+        source.write(store -> store.deleteKey(key));
+        return copy != null;
+    }
+
+    // Null when there is nothing worth moving: an empty collection or a key expiring right now.
+    private static Function<KeyValueStore, Result<Void>> copyOf(String key, Value value, long ttlMillis) {
+        if (ttlMillis == 0) {
+            return null;
+        }
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        boolean expiring = ttlMillis > 0;
+        if (value instanceof PrimitiveValue primitive) {
+            Object content = primitive.getValue();
+            return expiring
+                ? store -> store.setPrimitive(key, content, remaining(expiresAt))
+                : store -> store.setPrimitive(key, content);
+        }
+        Collection<Object> elements = value instanceof ListValue list
+            ? list.getValues()
+            : ((SetValue) value).getValues();
+        if (elements.isEmpty()) {
+            return null;
+        }
+        if (value instanceof ListValue) {
+            return expiring
+                ? store -> store.setList(key, elements, remaining(expiresAt))
+                : store -> store.setList(key, elements);
+        }
+        return expiring
+            ? store -> store.setSet(key, elements, remaining(expiresAt))
+            : store -> store.setSet(key, elements);
+    }
+
+    // Replicas apply a write later than the primary; keep the absolute expiry rather than
+    // restarting the TTL clock on each of them.
+    private static long remaining(long expiresAt) {
+        return Math.max(1, expiresAt - System.currentTimeMillis());
+    }
+
+    private ReentrantLock lockFor(String key) {
+        return keyLocks[stripeIndex(key)];
+    }
+
+    private static int stripeIndex(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (LOCK_STRIPES - 1);
+    }
+
+    // Takes the stripes of all keys in index order, so concurrent batches cannot deadlock.
+    private List<ReentrantLock> lockAll(List<Operation> operations, Collection<KeyVersion> watches) {
+        BitSet stripes = new BitSet(LOCK_STRIPES);
+        operations.forEach(operation -> stripes.set(stripeIndex(operation.getKey())));
+        watches.forEach(watched -> stripes.set(stripeIndex(watched.getKey())));
+        List<ReentrantLock> held = new ArrayList<>(stripes.cardinality());
+        for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+            keyLocks[i].lock();
+            held.add(keyLocks[i]);
+        }
+        return held;
+    }
+
+    private static void unlockAll(List<ReentrantLock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+
+    private Shard newShard(String nodeId) {
+        List<KeyValueStore> replicas = new ArrayList<>();
+        for (int i = 0; i < config.getReplicasPerShard(); i++) {
+            replicas.add(nodeFactory.get());
+        }
+        return new Shard(nodeId, nodeFactory.get(), replicas, config.getReplicationBacklog());
+    }
+
+    private static final class Migration {
+        private final HashRing<Shard> ring;
+        private final Shard target;
+        private final Set<String> moved;
+        private final AtomicLong migrated;
+
+        Migration(HashRing<Shard> ring, Shard target) {
+            this.ring = ring;
+            this.target = target;
+            this.moved = ConcurrentHashMap.newKeySet();
+            this.migrated = new AtomicLong();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.lld.kvstore.cluster;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring with virtual nodes. Every node sits at {@code virtualNodes} points on a
+ * 64-bit ring and a key belongs to the first point at or after its hash, so a node joining N
+ * others takes over about 1/(N+1) of the keys, drawn evenly from all of them. Immutable;
+ * {@link #with} returns a new ring, so lookups need no locking.
+ */
+public final class HashRing<T> {
+    private final int virtualNodes;
+    private final NavigableMap<Long, T> points;
+    private final Map<String, T> nodes;
+
+    public HashRing(int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.virtualNodes = virtualNodes;
+        this.points = new TreeMap<>();
+        this.nodes = new LinkedHashMap<>();
+    }
+
+    private HashRing(HashRing<T> base) {
+        this.virtualNodes = base.virtualNodes;
+        this.points = new TreeMap<>(base.points);
+        this.nodes = new LinkedHashMap<>(base.nodes);
+    }
+
+    public HashRing<T> with(String id, T node) {
+        if (nodes.containsKey(id)) {
+            throw new IllegalArgumentException("Node already on the ring: " + id);
+        }
+        HashRing<T> ring = new HashRing<>(this);
+        ring.nodes.put(id, node);
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.points.putIfAbsent(hash(id + "#" + i), node);
+        }
+        return ring;
+    }
+
+    public T nodeFor(String key) {
+        if (points.isEmpty()) {
+            throw new IllegalStateException("Ring has no nodes");
+        }
+        Map.Entry<Long, T> owner = points.ceilingEntry(hash(key));
+        return owner != null ? owner.getValue() : points.firstEntry().getValue();
+    }
+
+    public Collection<T> nodes() {
+        return Collections.unmodifiableCollection(nodes.values());
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    // 64-bit FNV-1a over the UTF-16 chars, then the MurmurHash3 finalizer to spread similar keys.
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
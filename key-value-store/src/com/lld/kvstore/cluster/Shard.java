@@ -0,0 +1,169 @@
+package com.lld.kvstore.cluster;
+
+import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.types.Result;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * One ring node: a primary store and its replicas. Writes run on the primary and, if they
+ * succeed, are queued for a replication thread that replays them on every replica in the
+ * same order. A full queue makes writers wait, which bounds how far replicas can fall behind.
+ *
+ * <p>A replica that throws or returns an error while applying a write has missed it and may have
+ * diverged, so it is marked failed: it gets no further writes and serves no reads. The thread keeps draining the
+ * queue for the others, so one bad replica cannot stall the shard's writers.
+ */
+final class Shard implements AutoCloseable {
+    private final String id;
+    private final KeyValueStore primary;
+    private final List<KeyValueStore> replicas;
+    private final Set<KeyValueStore> failedReplicas;
+    private final BlockingQueue<Function<KeyValueStore, Result<?>>> backlog;
+    private final AtomicInteger nextReplica;
+    private final Thread replicator;
+    private volatile boolean closed;
+
+    Shard(String id, KeyValueStore primary, List<KeyValueStore> replicas, int backlogCapacity) {
+        this.id = id;
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.failedReplicas = ConcurrentHashMap.newKeySet();
+        this.backlog = new ArrayBlockingQueue<>(backlogCapacity);
+        this.nextReplica = new AtomicInteger();
+        if (this.replicas.isEmpty()) {
+            this.replicator = null;
+        } else {
+            this.replicator = new Thread(this::replicate, "kv-replicator-" + id);
+            replicator.setDaemon(true);
+            replicator.start();
+        }
+    }
+
+    String getId() {
+        return id;
+    }
+
+    KeyValueStore primary() {
+        return primary;
+    }
+
+    /** Where to send a read: a healthy replica in round-robin order, or the primary if there are none. */
+    KeyValueStore readTarget(boolean fromReplicas) {
+        if (!fromReplicas || failedReplicas.size() == replicas.size()) {
+            return primary;
+        }
+        int start = nextReplica.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            KeyValueStore replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (!failedReplicas.contains(replica)) {
+                return replica;
+            }
+        }
+        return primary;
+    }
+
+    /** Runs {@code command} on the primary and replicates it if it succeeded. */
+    <T> Result<T> write(Function<KeyValueStore, Result<T>> command) {
+        Result<T> result = command.apply(primary);
+        if (result.isOk()) {
+            replicate(command::apply);
+        }
+        return result;
+    }
+
+    /**
+     * Queues {@code write} for the replicas; blocks while the backlog is full. It must succeed on
+     * every replica, as it did on the primary.
+     */
+    void replicate(Function<KeyValueStore, Result<?>> write) {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        try {
+            backlog.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing replication for shard " + id);
+        }
+    }
+
+    int replicationBacklog() {
+        return backlog.size();
+    }
+
+    int failedReplicaCount() {
+        return failedReplicas.size();
+    }
+
+    /** Waits until every write queued so far has reached the healthy replicas. */
+    void awaitReplication() throws InterruptedException {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        Barrier barrier = new Barrier();
+        backlog.put(barrier);
+        barrier.reached.await();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (replicator != null) {
+            replicator.interrupt();
+        }
+    }
+
+    private void replicate() {
+        while (!closed) {
+            Function<KeyValueStore, Result<?>> write;
+            try {
+                write = backlog.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (write instanceof Barrier barrier) {
+                barrier.reached.countDown();
+                continue;
+            }
+            for (KeyValueStore replica : replicas) {
+                if (failedReplicas.contains(replica)) {
+                    continue;
+                }
+                try {
+                    if (!write.apply(replica).isOk()) {
+                        failedReplicas.add(replica);
+                    }
+                } catch (RuntimeException e) {
+                    failedReplicas.add(replica);
+                }
+            }
+        }
+    }
+
+    /** The first error among {@code results}, or success if there is none. */
+    static Result<?> firstError(List<Result<?>> results) {
+        for (Result<?> result : results) {
+            if (!result.isOk()) {
+                return result;
+            }
+        }
+        return Result.success(null);
+    }
+
+    /** Queue marker released once every write ahead of it has been replayed. */
+    private static final class Barrier implements Function<KeyValueStore, Result<?>> {
+        private final CountDownLatch reached = new CountDownLatch(1);
+
+        @Override
+        public Result<?> apply(KeyValueStore replica) {
+            return Result.success(null);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.lld.kvstore.commands;
+
+import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.Operation;
+
+/** A command that can also run inside a pipeline or transaction on its store. */
+public interface BatchableCommand extends Command {
+    KeyValueStore getStore();
+    Operation toOperation();
+}
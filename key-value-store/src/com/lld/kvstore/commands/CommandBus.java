@@ -1,7 +1,49 @@
 package com.lld.kvstore.commands;
 
+import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.Operation;
+import java.util.ArrayList;
+import java.util.List;
+
 public class CommandBus {
     public Object dispatch(Command command) {
         return command.execute();
     }
+
+    /**
+     * Runs {@code commands} and returns their results in order. Consecutive batchable commands on
+     * the same store go to {@link KeyValueStore#executeBatch} together, which shares lock
+     * acquisitions between them; any other command is dispatched on its own.
+     */
+    public List<Object> pipeline(List<? extends Command> commands) {
+        List<Object> results = new ArrayList<>(commands.size());
+        List<Operation> run = new ArrayList<>();
+        KeyValueStore runStore = null;
+        for (Command command : commands) {
+            if (command instanceof BatchableCommand batchable) {
+                if (batchable.getStore() != runStore) {
+                    flush(runStore, run, results);
+                    runStore = batchable.getStore();
+                }
+                run.add(batchable.toOperation());
+            } else {
+                flush(runStore, run, results);
+                results.add(dispatch(command));
+            }
+        }
+        flush(runStore, run, results);
+        return results;
+    }
+
+    /** Starts a MULTI/EXEC transaction on {@code store}. */
+    public Transaction multi(KeyValueStore store) {
+        return new Transaction(store);
+    }
+
+    private static void flush(KeyValueStore store, List<Operation> run, List<Object> results) {
+        if (!run.isEmpty()) {
+            results.addAll(store.executeBatch(run));
+            run.clear();
+        }
+    }
 }
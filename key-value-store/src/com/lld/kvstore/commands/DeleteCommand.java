@@ -1,9 +1,10 @@
 package com.lld.kvstore.commands;
 
 import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.Operation;
 import com.lld.kvstore.types.Result;
 
-public class DeleteCommand implements Command {
+public class DeleteCommand implements BatchableCommand {
     private final KeyValueStore store;
     private final String key;
     
@@ -16,4 +17,14 @@ public class DeleteCommand implements Command {
     public Result<Void> execute() {
         return store.deleteKey(key);
     }
+    
+    @Override
+    public KeyValueStore getStore() {
+        return store;
+    }
+    
+    @Override
+    public Operation toOperation() {
+        return Operation.delete(key);
+    }
 }
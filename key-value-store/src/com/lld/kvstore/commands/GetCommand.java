@@ -1,10 +1,11 @@
 package com.lld.kvstore.commands;
 
 import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.Operation;
 import com.lld.kvstore.types.Result;
 import com.lld.kvstore.types.Value;
 
-public class GetCommand implements Command {
+public class GetCommand implements BatchableCommand {
     private final KeyValueStore store;
     private final String key;
     
@@ -17,4 +18,14 @@ public class GetCommand implements Command {
     public Result<Value> execute() {
         return store.get(key);
     }
+    
+    @Override
+    public KeyValueStore getStore() {
+        return store;
+    }
+    
+    @Override
+    public Operation toOperation() {
+        return Operation.get(key);
+    }
 }
@@ -1,9 +1,10 @@
 package com.lld.kvstore.commands;
 
 import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.Operation;
 import com.lld.kvstore.types.Result;
 
-public class SetPrimitiveCommand implements Command {
+public class SetPrimitiveCommand implements BatchableCommand {
     private final KeyValueStore store;
     private final String key;
     private final Object value;
@@ -18,4 +19,14 @@ public class SetPrimitiveCommand implements Command {
     public Result<Void> execute() {
         return store.setPrimitive(key, value);
     }
+    
+    @Override
+    public KeyValueStore getStore() {
+        return store;
+    }
+    
+    @Override
+    public Operation toOperation() {
+        return Operation.set(key, value);
+    }
 }
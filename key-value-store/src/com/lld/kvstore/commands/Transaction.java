@@ -0,0 +1,71 @@
+package com.lld.kvstore.commands;
+
+import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.KeyVersion;
+import com.lld.kvstore.core.Operation;
+import com.lld.kvstore.types.Result;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MULTI/EXEC on one store. Commands are queued instead of run, and {@link #exec} runs them all
+ * atomically. Keys passed to {@link #watch} beforehand make {@code exec} fail without running
+ * anything if they were modified in between. Meant for a single client thread.
+ */
+public class Transaction {
+    private final KeyValueStore store;
+    private final List<KeyVersion> watches;
+    private final List<Operation> queued;
+    private boolean finished;
+
+    Transaction(KeyValueStore store) {
+        this.store = store;
+        this.watches = new ArrayList<>();
+        this.queued = new ArrayList<>();
+    }
+
+    public Result<Void> watch(String key) {
+        ensureOpen();
+        if (!queued.isEmpty()) {
+            return Result.error("WATCH must come before the first queued command");
+        }
+        Result<KeyVersion> version = store.watch(key);
+        if (!version.isOk()) {
+            return Result.error(version.error());
+        }
+        watches.add(version.get());
+        return Result.success(null);
+    }
+
+    public Transaction queue(BatchableCommand command) {
+        ensureOpen();
+        if (command.getStore() != store) {
+            throw new IllegalArgumentException("Command targets a different store");
+        }
+        queued.add(command.toOperation());
+        return this;
+    }
+
+    public Result<List<Result<?>>> exec() {
+        ensureOpen();
+        finished = true;
+        return store.executeAtomically(queued, watches);
+    }
+
+    public void discard() {
+        ensureOpen();
+        finished = true;
+        queued.clear();
+        watches.clear();
+    }
+
+    public int size() {
+        return queued.size();
+    }
+
+    private void ensureOpen() {
+        if (finished) {
+            throw new IllegalStateException("Transaction already executed or discarded");
+        }
+    }
+}
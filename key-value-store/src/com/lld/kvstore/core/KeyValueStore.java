@@ -1,18 +1,57 @@
 package com.lld.kvstore.core;
 
+import com.lld.kvstore.metrics.MetricsSnapshot;
 import com.lld.kvstore.types.Value;
 import com.lld.kvstore.types.Result;
+import com.lld.kvstore.types.ScanResult;
+import com.lld.kvstore.storage.KeyScanCursor;
 import java.util.Collection;
+import java.util.List;
 
 public interface KeyValueStore {
     Result<Void> setPrimitive(String key, Object value);
     <T> Result<Void> setList(String key, Collection<T> values);
     <T> Result<Void> setSet(String key, Collection<T> values);
 
+    Result<Void> setPrimitive(String key, Object value, long ttlMillis);
+    <T> Result<Void> setList(String key, Collection<T> values, long ttlMillis);
+    <T> Result<Void> setSet(String key, Collection<T> values, long ttlMillis);
+
     Result<Value> get(String key);
+    /** Remaining time to live in milliseconds, or {@code -1} if the key does not expire. */
+    Result<Long> ttl(String key);
     Result<Void> deleteKey(String key);
 
     <T> Result<Void> addToCollection(String key, Collection<T> values);
     <T> Result<Collection<T>> fetchFromCollection(String key, int limit);
     <T> Result<Void> removeFromCollection(String key, Collection<T> values);
+
+    /** LRANGE-style page of a list: elements {@code [offset, offset + count)}. */
+    <T> Result<List<T>> fetchRange(String key, int offset, int count);
+    /** SSCAN-style page of a set (or list): start at cursor {@code 0}, stop when it returns {@code 0}. */
+    <T> Result<ScanResult<T>> scanCollection(String key, long cursor, int count);
+    /** SCAN-style cursor over all keys that never blocks writers. */
+    Result<KeyScanCursor> scanKeys();
+
+    /**
+     * Pipelined execution. Consecutive operations guarded by the same lock (the same key, or the
+     * same stripe) run under one acquisition, shared if none of them writes. Operations are never
+     * reordered, so results come back in input order and match running them one by one.
+     */
+    List<Result<?>> executeBatch(List<Operation> operations);
+
+    /** WATCH: records the current version of {@code key} for a later {@link #executeAtomically}. */
+    Result<KeyVersion> watch(String key);
+
+    /**
+     * MULTI/EXEC. Takes the write locks of every operation and watched key, fails without running
+     * anything if a watched key changed, and otherwise runs all operations before releasing. As in
+     * Redis a failing operation does not roll back the others.
+     */
+    Result<List<Result<?>>> executeAtomically(List<Operation> operations, Collection<KeyVersion> watches);
+
+    /** Call counts, errors, latency percentiles and lock wait since the store was created. */
+    default Result<MetricsSnapshot> stats() {
+        return Result.error("Metrics not supported by " + getClass().getSimpleName());
+    }
 }
@@ -1,138 +1,256 @@
 package com.lld.kvstore.core;
 
+import com.lld.kvstore.metrics.MetricsSnapshot;
+import com.lld.kvstore.metrics.StoreMetrics;
+import com.lld.kvstore.metrics.StoreOperation;
 import com.lld.kvstore.types.*;
 import com.lld.kvstore.storage.*;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Predicate;
 
 public class KeyValueStoreImpl implements KeyValueStore {
     private final Storage storage;
     private final TypeValidator typeValidator;
     private final ValueFactory valueFactory;
-    private final ConcurrencyManager concurrencyManager;
+    private final LockManager concurrencyManager;
+    private final StoreMetrics metrics;
     
     public KeyValueStoreImpl(Storage storage, TypeValidator typeValidator, 
-                            ValueFactory valueFactory, ConcurrencyManager concurrencyManager) {
+                            ValueFactory valueFactory, LockManager concurrencyManager) {
+        this(storage, typeValidator, valueFactory, concurrencyManager, new StoreMetrics());
+    }
+    
+    public KeyValueStoreImpl(Storage storage, TypeValidator typeValidator, ValueFactory valueFactory,
+                            LockManager concurrencyManager, StoreMetrics metrics) {
         this.storage = storage;
         this.typeValidator = typeValidator;
         this.valueFactory = valueFactory;
         this.concurrencyManager = concurrencyManager;
+        this.metrics = metrics;
     }
     
     @Override
     public Result<Void> setPrimitive(String key, Object value) {
+        long started = metrics.start();
+        return metrics.record(StoreOperation.SET_PRIMITIVE, started, writePrimitive(key, value, StorageEntry.NO_EXPIRY));
+    }
+
+    @Override
+    public Result<Void> setPrimitive(String key, Object value, long ttlMillis) {
+        long started = metrics.start();
+        if (ttlMillis <= 0) {
+            return metrics.record(StoreOperation.SET_PRIMITIVE, started, Result.error("Failed to set primitive: TTL must be positive"));
+        }
+        return metrics.record(StoreOperation.SET_PRIMITIVE, started, writePrimitive(key, value, System.currentTimeMillis() + ttlMillis));
+    }
+
+    private Result<Void> writePrimitive(String key, Object value, long expiresAt) {
         ReadWriteLock lock = concurrencyManager.getLock(key);
-        lock.writeLock().lock();
+        metrics.acquire(lock.writeLock());
+        try {
+            return applyPrimitive(key, value, expiresAt);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the key's write lock.
+    private Result<Void> applyPrimitive(String key, Object value, long expiresAt) {
         try {
             TypeDescriptor type = typeValidator.createPrimitiveType(value);
             StorageEntry existing = storage.read(key).orElse(null);
             typeValidator.validateTypeCompatibility(existing, type);
             
             Value primitiveValue = valueFactory.createPrimitive(value, type.getPrimitiveType());
-            StorageEntry entry = new StorageEntry(key, type, primitiveValue);
+            StorageEntry entry = new StorageEntry(key, type, primitiveValue, expiresAt);
             storage.write(key, entry);
             
             return Result.success(null);
         } catch (Exception e) {
             return Result.error("Failed to set primitive: " + e.getMessage());
-        } finally {
-            lock.writeLock().unlock();
         }
     }
     
     @Override
     public <T> Result<Void> setList(String key, Collection<T> values) {
+        long started = metrics.start();
+        return metrics.record(StoreOperation.SET_LIST, started, writeList(key, values, StorageEntry.NO_EXPIRY));
+    }
+
+    @Override
+    public <T> Result<Void> setList(String key, Collection<T> values, long ttlMillis) {
+        long started = metrics.start();
+        if (ttlMillis <= 0) {
+            return metrics.record(StoreOperation.SET_LIST, started, Result.error("Failed to set list: TTL must be positive"));
+        }
+        return metrics.record(StoreOperation.SET_LIST, started, writeList(key, values, System.currentTimeMillis() + ttlMillis));
+    }
+
+    private <T> Result<Void> writeList(String key, Collection<T> values, long expiresAt) {
         ReadWriteLock lock = concurrencyManager.getLock(key);
-        lock.writeLock().lock();
+        metrics.acquire(lock.writeLock());
+        try {
+            return applyList(key, values, expiresAt);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the key's write lock.
+    private <T> Result<Void> applyList(String key, Collection<T> values, long expiresAt) {
         try {
             TypeDescriptor type = typeValidator.createCollectionType(ValueType.LIST, values);
             StorageEntry existing = storage.read(key).orElse(null);
             typeValidator.validateTypeCompatibility(existing, type);
             
             Value listValue = valueFactory.createList(values, type.getPrimitiveType());
-            StorageEntry entry = new StorageEntry(key, type, listValue);
+            StorageEntry entry = new StorageEntry(key, type, listValue, expiresAt);
             storage.write(key, entry);
             
             return Result.success(null);
         } catch (Exception e) {
             return Result.error("Failed to set list: " + e.getMessage());
-        } finally {
-            lock.writeLock().unlock();
         }
     }
     
     @Override
     public <T> Result<Void> setSet(String key, Collection<T> values) {
+        long started = metrics.start();
+        return metrics.record(StoreOperation.SET_SET, started, writeSet(key, values, StorageEntry.NO_EXPIRY));
+    }
+
+    @Override
+    public <T> Result<Void> setSet(String key, Collection<T> values, long ttlMillis) {
+        long started = metrics.start();
+        if (ttlMillis <= 0) {
+            return metrics.record(StoreOperation.SET_SET, started, Result.error("Failed to set set: TTL must be positive"));
+        }
+        return metrics.record(StoreOperation.SET_SET, started, writeSet(key, values, System.currentTimeMillis() + ttlMillis));
+    }
+
+    private <T> Result<Void> writeSet(String key, Collection<T> values, long expiresAt) {
         ReadWriteLock lock = concurrencyManager.getLock(key);
-        lock.writeLock().lock();
+        metrics.acquire(lock.writeLock());
+        try {
+            return applySet(key, values, expiresAt);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the key's write lock.
+    private <T> Result<Void> applySet(String key, Collection<T> values, long expiresAt) {
         try {
             TypeDescriptor type = typeValidator.createCollectionType(ValueType.SET, values);
             StorageEntry existing = storage.read(key).orElse(null);
             typeValidator.validateTypeCompatibility(existing, type);
             
             Value setValue = valueFactory.createSet(values, type.getPrimitiveType());
-            StorageEntry entry = new StorageEntry(key, type, setValue);
+            StorageEntry entry = new StorageEntry(key, type, setValue, expiresAt);
             storage.write(key, entry);
             
             return Result.success(null);
         } catch (Exception e) {
             return Result.error("Failed to set set: " + e.getMessage());
-        } finally {
-            lock.writeLock().unlock();
         }
     }
 
     @Override
     public Result<Value> get(String key) {
-        ReadWriteLock lock = concurrencyManager.getLock(key);
-        lock.readLock().lock();
+        long started = metrics.start();
+        return metrics.record(StoreOperation.GET, started, readValue(key));
+    }
+
+    private Result<Value> readValue(String key) {
         try {
-            return storage.read(key)
+            return concurrencyManager.readOptimistically(key, () -> storage.lookup(key))
+                .map(entry -> Result.<Value>success((Value) entry.getValue()))
+                .orElse(Result.error("Key not found: " + key));
+        } catch (Exception e) {
+            return Result.error("Failed to get value: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Result<Long> ttl(String key) {
+        long started = metrics.start();
+        return metrics.record(StoreOperation.TTL, started, readTtl(key));
+    }
+
+    private Result<Long> readTtl(String key) {
+        try {
+            return concurrencyManager.readOptimistically(key, () -> storage.read(key))
+                .map(entry -> Result.success(entry.hasExpiry()
+                    ? Math.max(0, entry.getExpiresAt() - System.currentTimeMillis())
+                    : -1L))
+                .orElse(Result.error("Key not found: " + key));
+        } catch (Exception e) {
+            return Result.error("Failed to get TTL: " + e.getMessage());
+        }
+    }
+
+    // Caller holds the key's read or write lock.
+    private Result<Value> applyGet(String key) {
+        try {
+            return storage.lookup(key)
                 .map(entry -> Result.<Value>success((Value) entry.getValue()))
                 .orElse(Result.error("Key not found: " + key));
         } catch (Exception e) {
             return Result.error("Failed to get value: " + e.getMessage());
-        } finally {
-            lock.readLock().unlock();
         }
     }
     
     @Override
     public Result<Void> deleteKey(String key) {
+        long started = metrics.start();
+        return metrics.record(StoreOperation.DELETE, started, delete(key));
+    }
+
+    private Result<Void> delete(String key) {
         ReadWriteLock lock = concurrencyManager.getLock(key);
-        lock.writeLock().lock();
+        metrics.acquire(lock.writeLock());
+        try {
+            return applyDelete(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the key's write lock.
+    private Result<Void> applyDelete(String key) {
         try {
             storage.delete(key);
             return Result.success(null);
         } catch (Exception e) {
             return Result.error("Failed to delete key: " + e.getMessage());
-        } finally {
-            lock.writeLock().unlock();
         }
     }
 
     @Override
     public <T> Result<Void> addToCollection(String key, Collection<T> values) {
+        long started = metrics.start();
+        return metrics.record(StoreOperation.ADD_TO_COLLECTION, started, addValues(key, values));
+    }
+
+    private <T> Result<Void> addValues(String key, Collection<T> values) {
         ReadWriteLock lock = concurrencyManager.getLock(key);
-        lock.writeLock().lock();
+        metrics.acquire(lock.writeLock());
         try {
             StorageEntry existing = storage.read(key)
                 .orElseThrow(() -> new IllegalArgumentException("Key not found: " + key));
             
             Value currentValue = (Value) existing.getValue();
-            if (currentValue instanceof ListValue) {
-                ListValue listValue = (ListValue) currentValue;
-                for (T value : values) {
-                    listValue.add(value);
-                }
-            } else if (currentValue instanceof SetValue) {
-                SetValue setValue = (SetValue) currentValue;
-                for (T value : values) {
-                    setValue.add(value);
-                }
-            } else {
+            if (!(currentValue instanceof ListValue) && !(currentValue instanceof SetValue)) {
                 return Result.error("Key does not contain a collection");
             }
+            storage.addToCollection(key, values);
             
             return Result.success(null);
         } catch (Exception e) {
@@ -144,59 +262,61 @@ public class KeyValueStoreImpl implements KeyValueStore {
     
     @Override
     public <T> Result<Collection<T>> fetchFromCollection(String key, int limit) {
-        ReadWriteLock lock = concurrencyManager.getLock(key);
-        lock.readLock().lock();
+        long started = metrics.start();
+        return metrics.record(StoreOperation.FETCH_FROM_COLLECTION, started, fetchValues(key, limit));
+    }
+
+    private <T> Result<Collection<T>> fetchValues(String key, int limit) {
         try {
-            StorageEntry existing = storage.read(key)
-                .orElseThrow(() -> new IllegalArgumentException("Key not found: " + key));
+            StorageEntry existing = lookupEntry(key);
             
             Value currentValue = (Value) existing.getValue();
             Collection<T> result;
             
             if (currentValue instanceof ListValue) {
                 ListValue listValue = (ListValue) currentValue;
-                result = (Collection<T>) listValue.getValues();
+                result = (Collection<T>) (limit > 0 ? listValue.range(0, limit) : listValue.getValues());
             } else if (currentValue instanceof SetValue) {
                 SetValue setValue = (SetValue) currentValue;
-                result = (Collection<T>) setValue.getValues();
+                result = (Collection<T>) (limit > 0 ? setValue.scan(0, limit).getItems() : setValue.getValues());
             } else {
                 return Result.error("Key does not contain a collection");
             }
             
-            if (limit > 0 && result.size() > limit) {
-                result = result.stream().limit(limit).collect(java.util.stream.Collectors.toList());
-            }
-            
             return Result.success(result);
         } catch (Exception e) {
             return Result.error("Failed to fetch from collection: " + e.getMessage());
-        } finally {
-            lock.readLock().unlock();
         }
     }
     
+    /**
+     * Finds the entry for a collection read without holding the key's lock past the lookup. The
+     * value is read afterwards, which is safe because collection values guard themselves: with
+     * their own lock, or by being a persistent version that never changes.
+     */
+    private StorageEntry lookupEntry(String key) {
+        return concurrencyManager.readOptimistically(key, () -> storage.lookup(key))
+            .orElseThrow(() -> new IllegalArgumentException("Key not found: " + key));
+    }
+    
     @Override
     public <T> Result<Void> removeFromCollection(String key, Collection<T> values) {
+        long started = metrics.start();
+        return metrics.record(StoreOperation.REMOVE_FROM_COLLECTION, started, removeValues(key, values));
+    }
+
+    private <T> Result<Void> removeValues(String key, Collection<T> values) {
         ReadWriteLock lock = concurrencyManager.getLock(key);
-        lock.writeLock().lock();
+        metrics.acquire(lock.writeLock());
         try {
             StorageEntry existing = storage.read(key)
                 .orElseThrow(() -> new IllegalArgumentException("Key not found: " + key));
             
             Value currentValue = (Value) existing.getValue();
-            if (currentValue instanceof ListValue) {
-                ListValue listValue = (ListValue) currentValue;
-                for (T value : values) {
-                    listValue.remove(value);
-                }
-            } else if (currentValue instanceof SetValue) {
-                SetValue setValue = (SetValue) currentValue;
-                for (T value : values) {
-                    setValue.remove(value);
-                }
-            } else {
+            if (!(currentValue instanceof ListValue) && !(currentValue instanceof SetValue)) {
                 return Result.error("Key does not contain a collection");
             }
+            storage.removeFromCollection(key, values);
             
             return Result.success(null);
         } catch (Exception e) {
@@ -205,4 +325,249 @@ public class KeyValueStoreImpl implements KeyValueStore {
             lock.writeLock().unlock();
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public <T> Result<List<T>> fetchRange(String key, int offset, int count) {
+        long started = metrics.start();
+        return metrics.record(StoreOperation.FETCH_RANGE, started, readRange(key, offset, count));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Result<List<T>> readRange(String key, int offset, int count) {
+        try {
+            StorageEntry existing = lookupEntry(key);
+            
+            Value currentValue = (Value) existing.getValue();
+            if (!(currentValue instanceof ListValue)) {
+                return Result.error("Key does not contain a list");
+            }
+            return Result.success((List<T>) ((ListValue) currentValue).range(offset, count));
+        } catch (Exception e) {
+            return Result.error("Failed to fetch range: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public <T> Result<ScanResult<T>> scanCollection(String key, long cursor, int count) {
+        long started = metrics.start();
+        return metrics.record(StoreOperation.SCAN_COLLECTION, started, scanValues(key, cursor, count));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Result<ScanResult<T>> scanValues(String key, long cursor, int count) {
+        try {
+            StorageEntry existing = lookupEntry(key);
+            
+            Value currentValue = (Value) existing.getValue();
+            if (currentValue instanceof SetValue) {
+                return Result.success((ScanResult<T>) (ScanResult<?>) ((SetValue) currentValue).scan(cursor, count));
+            } else if (currentValue instanceof ListValue) {
+                if (cursor < 0 || cursor > Integer.MAX_VALUE || count <= 0) {
+                    return Result.error("Failed to scan collection: invalid cursor or count");
+                }
+                ListValue listValue = (ListValue) currentValue;
+                List<Object> page = listValue.range((int) cursor, count);
+                long next = cursor + page.size();
+                return Result.success(new ScanResult<>((List<T>) page, next < listValue.size() ? next : 0));
+            }
+            return Result.error("Key does not contain a collection");
+        } catch (Exception e) {
+            return Result.error("Failed to scan collection: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public Result<KeyScanCursor> scanKeys() {
+        long started = metrics.start();
+        try {
+            return metrics.record(StoreOperation.SCAN_KEYS, started, Result.success(storage.scanKeys()));
+        } catch (Exception e) {
+            return metrics.record(StoreOperation.SCAN_KEYS, started, Result.error("Failed to scan keys: " + e.getMessage()));
+        }
+    }
+
+    @Override
+    public Result<MetricsSnapshot> stats() {
+        return Result.success(metrics.snapshot());
+    }
+
+    @Override
+    public List<Result<?>> executeBatch(List<Operation> operations) {
+        long started = metrics.start();
+        int size = operations.size();
+        ReadWriteLock[] locks = new ReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = concurrencyManager.getLock(operations.get(i).getKey());
+        }
+        
+        List<Result<?>> results = new ArrayList<>(size);
+        int runStart = 0;
+        while (runStart < size) {
+            ReadWriteLock runLock = locks[runStart];
+            int runEnd = runStart;
+            boolean writes = false;
+            while (runEnd < size && locks[runEnd] == runLock) {
+                writes |= operations.get(runEnd).isWrite();
+                runEnd++;
+            }
+            
+            Lock lock = writes ? runLock.writeLock() : runLock.readLock();
+            metrics.acquire(lock);
+            try {
+                for (int i = runStart; i < runEnd; i++) {
+                    results.add(apply(operations.get(i)));
+                }
+            } finally {
+                lock.unlock();
+            }
+            runStart = runEnd;
+        }
+        metrics.record(StoreOperation.BATCH, started);
+        return results;
+    }
+    
+    @Override
+    public Result<KeyVersion> watch(String key) {
+        long started = metrics.start();
+        return metrics.record(StoreOperation.WATCH, started, readVersion(key));
+    }
+
+    private Result<KeyVersion> readVersion(String key) {
+        ReadWriteLock lock = concurrencyManager.getLock(key);
+        metrics.acquire(lock.readLock());
+        try {
+            return Result.success(new KeyVersion(key, storage.read(key).orElse(null)));
+        } catch (Exception e) {
+            return Result.error("Failed to watch key: " + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public Result<List<Result<?>>> executeAtomically(List<Operation> operations, Collection<KeyVersion> watches) {
+        long started = metrics.start();
+        return metrics.record(StoreOperation.TRANSACTION, started, applyAtomically(operations, watches));
+    }
+
+    private Result<List<Result<?>>> applyAtomically(List<Operation> operations, Collection<KeyVersion> watches) {
+        Set<String> keys = new HashSet<>();
+        operations.forEach(operation -> keys.add(operation.getKey()));
+        watches.forEach(watched -> keys.add(watched.getKey()));
+        
+        List<Lock> held = lockAll(keys, _ -> true);
+        try {
+            for (KeyVersion watched : watches) {
+                if (!watched.matches(storage.read(watched.getKey()).orElse(null))) {
+                    return Result.error("Transaction aborted: watched key changed: " + watched.getKey());
+                }
+            }
+            
+            List<Result<?>> results = new ArrayList<>(operations.size());
+            for (Operation operation : operations) {
+                results.add(apply(operation));
+            }
+            return Result.success(results);
+        } catch (Exception e) {
+            return Result.error("Failed to execute transaction: " + e.getMessage());
+        } finally {
+            unlockAll(held);
+        }
+    }
+    
+    /**
+     * Takes every distinct lock guarding {@code keys} once, in the lock manager's global order,
+     * exclusively where {@code exclusive} says so and shared otherwise.
+     */
+    private List<Lock> lockAll(Collection<String> keys, Predicate<ReadWriteLock> exclusive) {
+        List<Lock> held = new ArrayList<>();
+        try {
+            for (ReadWriteLock lock : concurrencyManager.orderedLocks(keys)) {
+                Lock acquired = exclusive.test(lock) ? lock.writeLock() : lock.readLock();
+                metrics.acquire(acquired);
+                held.add(acquired);
+            }
+        } catch (RuntimeException e) {
+            unlockAll(held);
+            throw e;
+        }
+        return held;
+    }
+    
+    private static void unlockAll(List<Lock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+    
+    // Batched operations are counted under their own operation but not timed; the batch or
+    // transaction as a whole carries the latency.
+    private Result<?> apply(Operation operation) {
+        switch (operation.getKind()) {
+            case GET:
+                return count(StoreOperation.GET, applyGet(operation.getKey()));
+            case SET:
+                return count(StoreOperation.SET_PRIMITIVE,
+                             applyPrimitive(operation.getKey(), operation.getValue(), StorageEntry.NO_EXPIRY));
+            case DELETE:
+                return count(StoreOperation.DELETE, applyDelete(operation.getKey()));
+            case LIST_APPEND:
+                return count(StoreOperation.ADD_TO_COLLECTION,
+                             applyCollectionAdd(operation.getKey(), (Collection<?>) operation.getValue(), ValueType.LIST, false));
+            case LIST_PREPEND:
+                return count(StoreOperation.ADD_TO_COLLECTION,
+                             applyCollectionAdd(operation.getKey(), (Collection<?>) operation.getValue(), ValueType.LIST, true));
+            case SET_ADD:
+                return count(StoreOperation.ADD_TO_COLLECTION,
+                             applyCollectionAdd(operation.getKey(), (Collection<?>) operation.getValue(), ValueType.SET, false));
+            default:
+                return Result.error("Unsupported operation: " + operation.getKind());
+        }
+    }
+
+    private Result<?> count(StoreOperation operation, Result<?> result) {
+        metrics.count(operation, result);
+        return result;
+    }
+
+    // Caller holds the key's write lock. atHead inserts list values one by one at the head, like LPUSH.
+    private Result<Integer> applyCollectionAdd(String key, Collection<?> values, ValueType valueType, boolean atHead) {
+        try {
+            StorageEntry existing = storage.read(key).orElse(null);
+            if (existing == null) {
+                Collection<?> ordered = values;
+                if (atHead) {
+                    List<Object> reversed = new ArrayList<>(values);
+                    Collections.reverse(reversed);
+                    ordered = reversed;
+                }
+                Result<Void> created = valueType == ValueType.LIST
+                    ? applyList(key, ordered, StorageEntry.NO_EXPIRY)
+                    : applySet(key, values, StorageEntry.NO_EXPIRY);
+                if (!created.isOk()) {
+                    return Result.error(created.error());
+                }
+                return Result.success(collectionSize(storage.read(key).orElseThrow().getValue()));
+            }
+            
+            Value currentValue = (Value) existing.getValue();
+            if (currentValue.getType().getValueType() != valueType) {
+                return Result.error("Key does not contain a " + valueType.name().toLowerCase());
+            }
+            int before = collectionSize(currentValue);
+            if (atHead) {
+                storage.prependToCollection(key, values);
+            } else {
+                storage.addToCollection(key, values);
+            }
+            int after = collectionSize(currentValue);
+            return Result.success(valueType == ValueType.LIST ? after : after - before);
+        } catch (Exception e) {
+            return Result.error("Failed to add to collection: " + e.getMessage());
+        }
+    }
+    
+    private static int collectionSize(Object value) {
+        return value instanceof ListValue ? ((ListValue) value).size() : ((SetValue) value).size();
+    }
+}
@@ -0,0 +1,35 @@
+package com.lld.kvstore.core;
+
+import com.lld.kvstore.storage.StorageEntry;
+
+/**
+ * What a key looked like when it was watched: the entry object stored under it (or none) and
+ * that entry's in-place modification count. The key counts as changed if it now holds another
+ * entry or the same entry was modified, so overwrites, deletes, expiry and eviction all abort a
+ * watching transaction. The one blind spot is a key that was absent, got created and was deleted
+ * again before the check.
+ */
+public class KeyVersion {
+    private final String key;
+    private final StorageEntry entry;
+    private final long version;
+
+    KeyVersion(String key, StorageEntry entry) {
+        this.key = key;
+        this.entry = entry;
+        this.version = entry == null ? 0 : entry.getVersion();
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    boolean matches(StorageEntry current) {
+        return current == entry && (current == null || current.getVersion() == version);
+    }
+
+    @Override
+    public String toString() {
+        return "KeyVersion{key='" + key + "', present=" + (entry != null) + ", version=" + version + '}';
+    }
+}
@@ -0,0 +1,71 @@
+package com.lld.kvstore.core;
+
+import java.util.Collection;
+
+/**
+ * A single command queued for {@link KeyValueStore#executeBatch} or
+ * {@link KeyValueStore#executeAtomically}. {@code LIST_APPEND}, {@code LIST_PREPEND} and
+ * {@code SET_ADD} create the collection if the key is absent and succeed with the list's new length
+ * or the number of set members actually added. {@code LIST_PREPEND} inserts its values one at a
+ * time at the head, so they end up in reverse order, as with Redis LPUSH.
+ */
+public class Operation {
+    public enum Kind {
+        GET, SET, DELETE, LIST_APPEND, LIST_PREPEND, SET_ADD
+    }
+
+    private final Kind kind;
+    private final String key;
+    private final Object value;
+
+    private Operation(Kind kind, String key, Object value) {
+        this.kind = kind;
+        this.key = key;
+        this.value = value;
+    }
+
+    public static Operation get(String key) {
+        return new Operation(Kind.GET, key, null);
+    }
+
+    public static Operation set(String key, Object value) {
+        return new Operation(Kind.SET, key, value);
+    }
+
+    public static Operation delete(String key) {
+        return new Operation(Kind.DELETE, key, null);
+    }
+
+    public static Operation listAppend(String key, Collection<?> values) {
+        return new Operation(Kind.LIST_APPEND, key, values);
+    }
+
+    public static Operation listPrepend(String key, Collection<?> values) {
+        return new Operation(Kind.LIST_PREPEND, key, values);
+    }
+
+    public static Operation setAdd(String key, Collection<?> values) {
+        return new Operation(Kind.SET_ADD, key, values);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public boolean isWrite() {
+        return kind != Kind.GET;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + key + (value != null ? " " + value : "");
+    }
+}
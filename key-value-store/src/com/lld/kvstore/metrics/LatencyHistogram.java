@@ -0,0 +1,117 @@
+package com.lld.kvstore.metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * HdrHistogram-style log-linear histogram of nanosecond latencies. Every power of two is split
+ * into 32 equal sub-buckets, so any recorded value is reported within about 3% in 8 KB, whatever
+ * the range; values above ~68 s are clamped.
+ *
+ * <p>Written by a single thread and read by others: updates are opaque stores, which cost the same
+ * as plain ones on the writer but are guaranteed to become visible to {@link #addTo}.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final long MAX_TRACKABLE = (1L << 36) - 1;
+    private static final int BUCKETS = bucketIndex(MAX_TRACKABLE) + 1;
+
+    private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle COUNT;
+    private static final VarHandle TOTAL;
+    private static final VarHandle MAX;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            COUNT = lookup.findVarHandle(LatencyHistogram.class, "count", long.class);
+            TOTAL = lookup.findVarHandle(LatencyHistogram.class, "total", long.class);
+            MAX = lookup.findVarHandle(LatencyHistogram.class, "max", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long[] counts;
+    private long count;
+    private long total;
+    private long max;
+
+    public LatencyHistogram() {
+        this.counts = new long[BUCKETS];
+    }
+
+    /** Records one value. Only the owning thread may call this. */
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_TRACKABLE));
+        int index = bucketIndex(value);
+        COUNTS.setOpaque(counts, index, (long) COUNTS.getOpaque(counts, index) + 1);
+        COUNT.setOpaque(this, (long) COUNT.getOpaque(this) + 1);
+        TOTAL.setOpaque(this, (long) TOTAL.getOpaque(this) + value);
+        if (value > (long) MAX.getOpaque(this)) {
+            MAX.setOpaque(this, value);
+        }
+    }
+
+    /** Adds this histogram's counts into {@code target}, which must not be shared yet. */
+    public void addTo(LatencyHistogram target) {
+        for (int i = 0; i < BUCKETS; i++) {
+            target.counts[i] += (long) COUNTS.getOpaque(counts, i);
+        }
+        target.count += (long) COUNT.getOpaque(this);
+        target.total += (long) TOTAL.getOpaque(this);
+        target.max = Math.max(target.max, (long) MAX.getOpaque(this));
+    }
+
+    public long getCount() {
+        return (long) COUNT.getOpaque(this);
+    }
+
+    public long getMax() {
+        return (long) MAX.getOpaque(this);
+    }
+
+    public long getTotal() {
+        return (long) TOTAL.getOpaque(this);
+    }
+
+    public double getMean() {
+        long samples = getCount();
+        return samples == 0 ? 0 : (double) getTotal() / samples;
+    }
+
+    /**
+     * Smallest value that at least {@code percentile}% of the samples do not exceed, reported as
+     * the upper edge of its bucket (never above the true maximum); {@code 0} when empty.
+     */
+    public long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        long samples = getCount();
+        if (samples == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * samples));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += (long) COUNTS.getOpaque(counts, i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    // Values below 64 get a bucket each; above that, the top 6 significant bits pick the bucket.
+    private static int bucketIndex(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    private static long bucketUpperBound(int index) {
+        int shift = Math.max(0, (index >> SUB_BUCKET_BITS) - 1);
+        long lower = (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,127 @@
+package com.lld.kvstore.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/** Point-in-time totals from {@link StoreMetrics#snapshot()}. */
+public class MetricsSnapshot {
+    private final Map<StoreOperation, OperationStats> operations;
+    private final LatencyHistogram lockWait;
+    private final int sampleInterval;
+
+    public MetricsSnapshot(Map<StoreOperation, OperationStats> operations, LatencyHistogram lockWait, int sampleInterval) {
+        this.operations = Collections.unmodifiableMap(new EnumMap<>(operations));
+        this.lockWait = lockWait;
+        this.sampleInterval = sampleInterval;
+    }
+
+    /** Stats for {@code operation}; only operations that were called at least once are present. */
+    public OperationStats get(StoreOperation operation) {
+        return operations.get(operation);
+    }
+
+    public Map<StoreOperation, OperationStats> getOperations() {
+        return operations;
+    }
+
+    public long getTotalCalls() {
+        return operations.values().stream().mapToLong(OperationStats::getCalls).sum();
+    }
+
+    public long getTotalErrors() {
+        return operations.values().stream().mapToLong(OperationStats::getErrors).sum();
+    }
+
+    /** Lock acquisitions that had to wait because another thread held the lock. */
+    public long getLockContentions() {
+        return lockWait.getCount();
+    }
+
+    public long getLockWaitNanos() {
+        return lockWait.getTotal();
+    }
+
+    public long getLockWaitPercentileNanos(double percentile) {
+        return lockWait.valueAtPercentile(percentile);
+    }
+
+    /** One in this many calls per thread has its latency recorded. */
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    /** Renders the snapshot as Redis {@code INFO} sections, with latencies in microseconds. */
+    public String toInfo() {
+        return toInfo("all");
+    }
+
+    /**
+     * Like {@link #toInfo()} but limited to one section ({@code stats}, {@code commandstats} or
+     * {@code latencystats}); {@code all} or {@code everything} returns them all.
+     */
+    public String toInfo(String section) {
+        String wanted = section.toLowerCase(Locale.ROOT);
+        boolean all = wanted.equals("all") || wanted.equals("everything") || wanted.equals("default");
+        StringBuilder info = new StringBuilder();
+        if (all || wanted.equals("stats")) {
+            info.append("# Stats\r\n");
+            line(info, "total_calls", getTotalCalls());
+            line(info, "total_errors", getTotalErrors());
+            line(info, "latency_sample_interval", sampleInterval);
+            line(info, "lock_contentions", getLockContentions());
+            line(info, "lock_wait_usec", micros(getLockWaitNanos()));
+            line(info, "lock_wait_percentiles_usec", percentiles(lockWait));
+        }
+        if (all || wanted.equals("commandstats")) {
+            separate(info).append("# Commandstats\r\n");
+            operations.values().forEach(stats -> line(info, "cmdstat_" + name(stats),
+                    "calls=" + stats.getCalls()
+                    + ",misses=" + stats.getMisses()
+                    + ",failed_calls=" + stats.getErrors()
+                    + (stats.getSampledCalls() > 0 ? ",usec_per_call=" + micros(stats.getMeanLatencyNanos()) : "")));
+        }
+        if (all || wanted.equals("latencystats")) {
+            separate(info).append("# Latencystats\r\n");
+            operations.values().stream()
+                    .filter(stats -> stats.getSampledCalls() > 0)
+                    .forEach(stats -> line(info, "latency_percentiles_usec_" + name(stats), percentiles(stats.latency())));
+        }
+        return info.toString();
+    }
+
+    private static StringBuilder separate(StringBuilder info) {
+        return info.length() == 0 ? info : info.append("\r\n");
+    }
+
+    private static String name(OperationStats stats) {
+        return stats.getOperation().name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String percentiles(LatencyHistogram histogram) {
+        return "p50=" + micros(histogram.valueAtPercentile(50))
+                + ",p99=" + micros(histogram.valueAtPercentile(99))
+                + ",p99.9=" + micros(histogram.valueAtPercentile(99.9))
+                + ",max=" + micros(histogram.getMax());
+    }
+
+    private static String micros(double nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000);
+    }
+
+    private static void line(StringBuilder info, String name, Object value) {
+        info.append(name).append(':').append(value).append("\r\n");
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsSnapshot{" +
+                "totalCalls=" + getTotalCalls() +
+                ", totalErrors=" + getTotalErrors() +
+                ", lockContentions=" + getLockContentions() +
+                ", lockWaitNanos=" + getLockWaitNanos() +
+                ", operations=" + operations.values() +
+                '}';
+    }
+}
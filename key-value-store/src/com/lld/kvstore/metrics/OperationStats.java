@@ -0,0 +1,73 @@
+package com.lld.kvstore.metrics;
+
+/**
+ * Totals for one {@link StoreOperation}. Calls, misses and errors are exact; latency comes from
+ * the sampled calls only (see {@link StoreMetrics}).
+ */
+public class OperationStats {
+    private final StoreOperation operation;
+    private final long calls;
+    private final long misses;
+    private final long errors;
+    private final LatencyHistogram latency;
+
+    public OperationStats(StoreOperation operation, long calls, long misses, long errors, LatencyHistogram latency) {
+        this.operation = operation;
+        this.calls = calls;
+        this.misses = misses;
+        this.errors = errors;
+        this.latency = latency;
+    }
+
+    public StoreOperation getOperation() {
+        return operation;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    /** Calls that found no such key. */
+    public long getMisses() {
+        return misses;
+    }
+
+    /** Calls that returned an error other than a missing key: wrong type, bad argument, exception. */
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getSampledCalls() {
+        return latency.getCount();
+    }
+
+    public long getLatencyPercentileNanos(double percentile) {
+        return latency.valueAtPercentile(percentile);
+    }
+
+    public double getMeanLatencyNanos() {
+        return latency.getMean();
+    }
+
+    public long getMaxLatencyNanos() {
+        return latency.getMax();
+    }
+
+    LatencyHistogram latency() {
+        return latency;
+    }
+
+    @Override
+    public String toString() {
+        return "OperationStats{" +
+                "operation=" + operation +
+                ", calls=" + calls +
+                ", misses=" + misses +
+                ", errors=" + errors +
+                ", p50Nanos=" + getLatencyPercentileNanos(50) +
+                ", p99Nanos=" + getLatencyPercentileNanos(99) +
+                ", p999Nanos=" + getLatencyPercentileNanos(99.9) +
+                ", maxNanos=" + getMaxLatencyNanos() +
+                '}';
+    }
+}
@@ -0,0 +1,193 @@
+package com.lld.kvstore.metrics;
+
+import com.lld.kvstore.types.Result;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Per-operation call counts, outcomes, latency and lock wait for one store.
+ *
+ * <p>Each thread records into its own {@link Recorder} with no atomics or shared cache lines, and
+ * {@link #snapshot()} merges all recorders on demand. Counts are exact. Reading the clock costs as
+ * much as a cached GET, so only one call in {@code sampleInterval} per thread is timed; lock wait
+ * is timed only when {@code tryLock} fails, so uncontended acquisitions cost nothing extra.
+ *
+ * <p>Recorders outlive their threads so their counts stay in the totals; stores that spawn an
+ * unbounded number of short-lived threads should use {@link #disabled()}.
+ */
+public class StoreMetrics {
+    public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+    private static final StoreOperation[] OPERATIONS = StoreOperation.values();
+    private static final String KEY_NOT_FOUND = "Key not found";
+
+    private final boolean enabled;
+    private final int sampleMask;
+    private final Queue<Recorder> recorders;
+    private final ThreadLocal<Recorder> recorder;
+
+    public StoreMetrics() {
+        this(DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /** @param sampleInterval time one call in this many per thread; a power of two, 1 times every call */
+    public StoreMetrics(int sampleInterval) {
+        this(true, sampleInterval);
+    }
+
+    private StoreMetrics(boolean enabled, int sampleInterval) {
+        if (sampleInterval <= 0 || Integer.bitCount(sampleInterval) != 1) {
+            throw new IllegalArgumentException("Sample interval must be a positive power of two");
+        }
+        this.enabled = enabled;
+        this.sampleMask = sampleInterval - 1;
+        this.recorders = new ConcurrentLinkedQueue<>();
+        this.recorder = ThreadLocal.withInitial(() -> {
+            Recorder created = new Recorder();
+            recorders.add(created);
+            return created;
+        });
+    }
+
+    /** Records nothing; {@link #snapshot()} stays empty. */
+    public static StoreMetrics disabled() {
+        return new StoreMetrics(false, 1);
+    }
+
+    /** Call on entry; pass the result to {@link #record}. Reads the clock only for sampled calls. */
+    public long start() {
+        if (!enabled || (recorder.get().ticks++ & sampleMask) != 0) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    /** Counts a call started with {@link #start()} and classifies its result; returns {@code result}. */
+    public <R extends Result<?>> R record(StoreOperation operation, long started, R result) {
+        if (enabled) {
+            recorder.get().record(operation, started, outcome(result));
+        }
+        return result;
+    }
+
+    /** Counts a call that cannot fail as a whole, such as a batch. */
+    public void record(StoreOperation operation, long started) {
+        if (enabled) {
+            recorder.get().record(operation, started, Recorder.OK);
+        }
+    }
+
+    /** Counts an untimed call, e.g. one operation inside a batch or transaction. */
+    public void count(StoreOperation operation, Result<?> result) {
+        if (enabled) {
+            recorder.get().record(operation, NOT_SAMPLED, outcome(result));
+        }
+    }
+
+    /** Acquires {@code lock}, timing the wait if it is held by someone else. */
+    public void acquire(Lock lock) {
+        if (!enabled) {
+            lock.lock();
+            return;
+        }
+        if (lock.tryLock()) {
+            return;
+        }
+        long started = System.nanoTime();
+        lock.lock();
+        recorder.get().lockWait.record(System.nanoTime() - started);
+    }
+
+    public MetricsSnapshot snapshot() {
+        int size = OPERATIONS.length;
+        long[] calls = new long[size];
+        long[] misses = new long[size];
+        long[] errors = new long[size];
+        LatencyHistogram[] latency = new LatencyHistogram[size];
+        LatencyHistogram lockWait = new LatencyHistogram();
+        for (Recorder source : recorders) {
+            for (int i = 0; i < size; i++) {
+                calls[i] += Recorder.read(source.calls, i);
+                misses[i] += Recorder.read(source.misses, i);
+                errors[i] += Recorder.read(source.errors, i);
+                LatencyHistogram sampled = source.latency.get(i);
+                if (sampled != null) {
+                    if (latency[i] == null) {
+                        latency[i] = new LatencyHistogram();
+                    }
+                    sampled.addTo(latency[i]);
+                }
+            }
+            source.lockWait.addTo(lockWait);
+        }
+
+        Map<StoreOperation, OperationStats> operations = new EnumMap<>(StoreOperation.class);
+        for (int i = 0; i < size; i++) {
+            if (calls[i] > 0) {
+                operations.put(OPERATIONS[i], new OperationStats(OPERATIONS[i], calls[i], misses[i], errors[i],
+                        latency[i] != null ? latency[i] : new LatencyHistogram()));
+            }
+        }
+        return new MetricsSnapshot(operations, lockWait, sampleMask + 1);
+    }
+
+    // Result carries no error code; the store reports missing keys with a fixed prefix.
+    private static int outcome(Result<?> result) {
+        if (result.isOk()) {
+            return Recorder.OK;
+        }
+        String error = result.error();
+        return error != null && error.startsWith(KEY_NOT_FOUND) ? Recorder.MISS : Recorder.ERROR;
+    }
+
+    /** One thread's counters. Written only by that thread; opaque writes keep them readable. */
+    private static final class Recorder {
+        static final int OK = 0;
+        static final int MISS = 1;
+        static final int ERROR = 2;
+
+        private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+        final long[] calls = new long[OPERATIONS.length];
+        final long[] misses = new long[OPERATIONS.length];
+        final long[] errors = new long[OPERATIONS.length];
+        // Allocated on first sample: 8 KB each, and most threads use a few operations.
+        final AtomicReferenceArray<LatencyHistogram> latency = new AtomicReferenceArray<>(OPERATIONS.length);
+        final LatencyHistogram lockWait = new LatencyHistogram();
+        int ticks;
+
+        void record(StoreOperation operation, long started, int outcome) {
+            int index = operation.ordinal();
+            if (started != NOT_SAMPLED) {
+                long elapsed = System.nanoTime() - started;
+                LatencyHistogram histogram = latency.get(index);
+                if (histogram == null) {
+                    histogram = new LatencyHistogram();
+                    latency.set(index, histogram);
+                }
+                histogram.record(elapsed);
+            }
+            increment(calls, index);
+            if (outcome == MISS) {
+                increment(misses, index);
+            } else if (outcome == ERROR) {
+                increment(errors, index);
+            }
+        }
+
+        static long read(long[] counters, int index) {
+            return (long) LONGS.getOpaque(counters, index);
+        }
+
+        private static void increment(long[] counters, int index) {
+            LONGS.setOpaque(counters, index, (long) LONGS.getOpaque(counters, index) + 1);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.lld.kvstore.metrics;
+
+/** Store calls tracked by {@link StoreMetrics}, one per {@code KeyValueStore} method. */
+public enum StoreOperation {
+    GET,
+    SET_PRIMITIVE,
+    SET_LIST,
+    SET_SET,
+    DELETE,
+    TTL,
+    ADD_TO_COLLECTION,
+    REMOVE_FROM_COLLECTION,
+    FETCH_FROM_COLLECTION,
+    FETCH_RANGE,
+    SCAN_COLLECTION,
+    SCAN_KEYS,
+    WATCH,
+    BATCH,
+    TRANSACTION
+}
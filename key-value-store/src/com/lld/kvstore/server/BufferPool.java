@@ -0,0 +1,38 @@
+package com.lld.kvstore.server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Direct buffers of one size, owned by a single event loop so no synchronization is needed.
+ * Connections borrow a buffer only while they have unprocessed input or unsent output, so idle
+ * connections hold none and a few buffers per loop serve thousands of clients.
+ */
+final class BufferPool {
+    private static final int MAX_POOLED = 256;
+
+    private final int bufferBytes;
+    private final ArrayDeque<ByteBuffer> free;
+
+    BufferPool(int bufferBytes) {
+        this.bufferBytes = bufferBytes;
+        this.free = new ArrayDeque<>();
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer buffer = free.pollFirst();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferBytes);
+    }
+
+    /** Returns a buffer to the pool; grown (oversized) buffers are left to the garbage collector. */
+    void release(ByteBuffer buffer) {
+        if (buffer.capacity() == bufferBytes && free.size() < MAX_POOLED) {
+            buffer.clear();
+            free.addFirst(buffer);
+        }
+    }
+
+    int bufferBytes() {
+        return bufferBytes;
+    }
+}
@@ -0,0 +1,299 @@
+package com.lld.kvstore.server;
+
+import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.Operation;
+import com.lld.kvstore.metrics.MetricsSnapshot;
+import com.lld.kvstore.types.ListValue;
+import com.lld.kvstore.types.PrimitiveValue;
+import com.lld.kvstore.types.Result;
+import com.lld.kvstore.types.SetValue;
+import com.lld.kvstore.types.Value;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Turns parsed requests into store calls. GET, plain SET, DEL, LPUSH/RPUSH and SADD from one
+ * read are queued and handed to {@link KeyValueStore#executeBatch} together, so a pipelined burst
+ * shares lock acquisitions; any other command first flushes the queue so replies stay in order.
+ *
+ * <p>One handler per event loop.
+ */
+final class CommandHandler {
+    private static final byte[] OK = "+OK\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PONG = "+PONG\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EMPTY_ARRAY = "*0\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EX = {'E', 'X'};
+    private static final byte[] PX = {'P', 'X'};
+    private static final String WRONGTYPE = "WRONGTYPE Operation against a key holding the wrong kind of value";
+
+    private final KeyValueStore store;
+    private final byte[] scratch;
+    private final List<Operation> operations;
+    // Queued replies: command, and how many operations it contributed to the batch.
+    private RespCommand[] pendingCommands;
+    private int[] pendingOperations;
+    private int pendingCount;
+
+    CommandHandler(KeyValueStore store) {
+        this.store = store;
+        this.scratch = new byte[1024];
+        this.operations = new ArrayList<>();
+        this.pendingCommands = new RespCommand[64];
+        this.pendingOperations = new int[64];
+    }
+
+    void handle(RespParser parser, ByteBuffer in, Connection connection) {
+        RespCommand command = RespCommand.lookup(parser, in);
+        if (command == null) {
+            flush(connection);
+            connection.writeError("ERR unknown command '" + parser.argString(in, 0, scratch) + "'");
+            return;
+        }
+        int argCount = parser.argCount();
+        if (!command.acceptsArgCount(argCount)) {
+            flush(connection);
+            connection.writeError("ERR wrong number of arguments for '" + command.name().toLowerCase() + "' command");
+            return;
+        }
+
+        switch (command) {
+            case GET:
+                queue(command, Operation.get(parser.argString(in, 1, scratch)));
+                break;
+            case SET:
+                if (argCount == 3) {
+                    queue(command, Operation.set(parser.argString(in, 1, scratch), parser.argString(in, 2, scratch)));
+                } else {
+                    flush(connection);
+                    setWithExpiry(parser, in, connection);
+                }
+                break;
+            case DEL:
+                for (int i = 1; i < argCount; i++) {
+                    String key = parser.argString(in, i, scratch);
+                    operations.add(Operation.get(key));
+                    operations.add(Operation.delete(key));
+                }
+                pend(command, 2 * (argCount - 1));
+                break;
+            case LPUSH:
+                queue(command, Operation.listPrepend(parser.argString(in, 1, scratch), elements(parser, in)));
+                break;
+            case RPUSH:
+                queue(command, Operation.listAppend(parser.argString(in, 1, scratch), elements(parser, in)));
+                break;
+            case SADD:
+                queue(command, Operation.setAdd(parser.argString(in, 1, scratch), elements(parser, in)));
+                break;
+            case PING:
+                flush(connection);
+                if (argCount == 1) {
+                    connection.writeRaw(PONG);
+                } else {
+                    connection.writeBulk(parser.argString(in, 1, scratch));
+                }
+                break;
+            case LRANGE:
+                flush(connection);
+                lrange(parser, in, connection);
+                break;
+            case SMEMBERS:
+                flush(connection);
+                smembers(parser.argString(in, 1, scratch), connection);
+                break;
+            case INFO:
+                flush(connection);
+                info(argCount > 1 ? parser.argString(in, 1, scratch) : "all", connection);
+                break;
+            default:
+                flush(connection);
+                connection.writeError("ERR unsupported command");
+        }
+    }
+
+    /** Runs the queued batch and writes its replies. */
+    void flush(Connection connection) {
+        if (pendingCount == 0) {
+            return;
+        }
+        List<Result<?>> results = store.executeBatch(operations);
+        int index = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            writeReply(pendingCommands[i], results, index, pendingOperations[i], connection);
+            index += pendingOperations[i];
+        }
+        operations.clear();
+        Arrays.fill(pendingCommands, 0, pendingCount, null);
+        pendingCount = 0;
+    }
+
+    private void writeReply(RespCommand command, List<Result<?>> results, int from, int count, Connection connection) {
+        switch (command) {
+            case GET:
+                writeValue(results.get(from), connection);
+                break;
+            case SET:
+                writeStatus(results.get(from), connection);
+                break;
+            case DEL:
+                int deleted = 0;
+                for (int i = from; i < from + count; i += 2) {
+                    if (results.get(i).isOk() && results.get(i + 1).isOk()) {
+                        deleted++;
+                    }
+                }
+                connection.writeInteger(deleted);
+                break;
+            default:
+                Result<?> result = results.get(from);
+                if (result.isOk()) {
+                    connection.writeInteger((Integer) result.get());
+                } else {
+                    writeFailure(result.error(), connection);
+                }
+        }
+    }
+
+    private void writeValue(Result<?> result, Connection connection) {
+        if (!result.isOk()) {
+            if (result.error().startsWith("Key not found")) {
+                connection.writeNull();
+            } else {
+                writeFailure(result.error(), connection);
+            }
+        } else if (result.get() instanceof PrimitiveValue primitiveValue) {
+            connection.writeBulk(String.valueOf(primitiveValue.getValue()));
+        } else {
+            connection.writeError(WRONGTYPE);
+        }
+    }
+
+    private void writeStatus(Result<?> result, Connection connection) {
+        if (result.isOk()) {
+            connection.writeRaw(OK);
+        } else {
+            writeFailure(result.error(), connection);
+        }
+    }
+
+    private static void writeFailure(String error, Connection connection) {
+        connection.writeError(error.contains("does not contain") ? WRONGTYPE : "ERR " + error);
+    }
+
+    private void setWithExpiry(RespParser parser, ByteBuffer in, Connection connection) {
+        long ttlMillis;
+        try {
+            if (parser.argCount() != 5) {
+                throw new IllegalArgumentException("syntax error");
+            }
+            long amount = parser.argLong(in, 4);
+            if (parser.argEquals(in, 3, EX)) {
+                ttlMillis = Math.multiplyExact(amount, 1000L);
+            } else if (parser.argEquals(in, 3, PX)) {
+                ttlMillis = amount;
+            } else {
+                throw new IllegalArgumentException("syntax error");
+            }
+            if (ttlMillis <= 0) {
+                throw new IllegalArgumentException("invalid expire time in 'set' command");
+            }
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            connection.writeError("ERR " + e.getMessage());
+            return;
+        }
+        writeStatus(store.setPrimitive(parser.argString(in, 1, scratch), parser.argString(in, 2, scratch), ttlMillis),
+                    connection);
+    }
+
+    private void lrange(RespParser parser, ByteBuffer in, Connection connection) {
+        long start;
+        long stop;
+        try {
+            start = parser.argLong(in, 2);
+            stop = parser.argLong(in, 3);
+        } catch (IllegalArgumentException e) {
+            connection.writeError("ERR " + e.getMessage());
+            return;
+        }
+        Result<Value> result = store.get(parser.argString(in, 1, scratch));
+        if (!result.isOk()) {
+            writeMissingCollection(result, connection);
+            return;
+        }
+        if (!(result.get() instanceof ListValue list)) {
+            connection.writeError(WRONGTYPE);
+            return;
+        }
+
+        int size = list.size();
+        start = start < 0 ? Math.max(0, start + size) : start;
+        stop = stop < 0 ? stop + size : Math.min(stop, size - 1);
+        if (start > stop || start >= size) {
+            connection.writeRaw(EMPTY_ARRAY);
+            return;
+        }
+        writeArray(list.range((int) start, (int) (stop - start + 1)), connection);
+    }
+
+    private void smembers(String key, Connection connection) {
+        Result<Value> result = store.get(key);
+        if (!result.isOk()) {
+            writeMissingCollection(result, connection);
+        } else if (result.get() instanceof SetValue set) {
+            writeArray(set.getValues(), connection);
+        } else {
+            connection.writeError(WRONGTYPE);
+        }
+    }
+
+    private void info(String section, Connection connection) {
+        Result<MetricsSnapshot> stats = store.stats();
+        if (stats.isOk()) {
+            connection.writeBulk(stats.get().toInfo(section));
+        } else {
+            connection.writeError("ERR " + stats.error());
+        }
+    }
+
+    private static void writeMissingCollection(Result<Value> result, Connection connection) {
+        if (result.error().startsWith("Key not found")) {
+            connection.writeRaw(EMPTY_ARRAY);
+        } else {
+            connection.writeError("ERR " + result.error());
+        }
+    }
+
+    private static void writeArray(Collection<Object> elements, Connection connection) {
+        connection.writeArrayHeader(elements.size());
+        for (Object element : elements) {
+            connection.writeBulk(String.valueOf(element));
+        }
+    }
+
+    private List<Object> elements(RespParser parser, ByteBuffer in) {
+        List<Object> elements = new ArrayList<>(parser.argCount() - 2);
+        for (int i = 2; i < parser.argCount(); i++) {
+            elements.add(parser.argString(in, i, scratch));
+        }
+        return elements;
+    }
+
+    private void queue(RespCommand command, Operation operation) {
+        operations.add(operation);
+        pend(command, 1);
+    }
+
+    private void pend(RespCommand command, int operationCount) {
+        if (pendingCount == pendingCommands.length) {
+            pendingCommands = Arrays.copyOf(pendingCommands, pendingCount * 2);
+            pendingOperations = Arrays.copyOf(pendingOperations, pendingCount * 2);
+        }
+        pendingCommands[pendingCount] = command;
+        pendingOperations[pendingCount] = operationCount;
+        pendingCount++;
+    }
+}
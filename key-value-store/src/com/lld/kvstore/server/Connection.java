@@ -0,0 +1,200 @@
+package com.lld.kvstore.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One client socket and its buffers, touched only by the owning event loop. {@code in} holds
+ * received bytes not yet parsed and {@code out} replies not yet sent; each is borrowed from the
+ * loop's pool while non-empty and returned as soon as it drains.
+ */
+final class Connection {
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] NULL_BULK = "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final SocketChannel channel;
+    private final BufferPool pool;
+    private final int maxRequestBytes;
+    private SelectionKey key;
+    private ByteBuffer in;
+    private ByteBuffer out;
+    private boolean closeAfterWrite;
+
+    Connection(SocketChannel channel, BufferPool pool, int maxRequestBytes) {
+        this.channel = channel;
+        this.pool = pool;
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    void attach(SelectionKey key) {
+        this.key = key;
+    }
+
+    /** Reads what is available; returns the buffer flipped for parsing, or null at end of stream. */
+    ByteBuffer read() throws IOException {
+        if (in == null) {
+            in = pool.acquire();
+        }
+        if (channel.read(in) < 0) {
+            return null;
+        }
+        in.flip();
+        return in;
+    }
+
+    /** Keeps the unparsed tail for the next read, growing the buffer if one request fills it. */
+    void compactInput() {
+        if (!in.hasRemaining()) {
+            pool.release(in);
+            in = null;
+            return;
+        }
+        in.compact();
+        if (!in.hasRemaining()) {
+            if (in.capacity() >= maxRequestBytes) {
+                throw new IllegalArgumentException("Protocol error: request exceeds " + maxRequestBytes + " bytes");
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect((int) Math.min((long) in.capacity() * 2, maxRequestBytes));
+            in.flip();
+            grown.put(in);
+            pool.release(in);
+            in = grown;
+        }
+    }
+
+    /**
+     * Sends pending replies. Whatever the socket does not take stays queued and the connection
+     * stops reading until it drains, so a slow client cannot make the server buffer unboundedly.
+     */
+    void flush() throws IOException {
+        if (out != null) {
+            out.flip();
+            channel.write(out);
+            if (out.hasRemaining()) {
+                out.compact();
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            pool.release(out);
+            out = null;
+        }
+        if (closeAfterWrite) {
+            close();
+        } else if (key.isValid()) {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    void closeAfterWrite() {
+        closeAfterWrite = true;
+    }
+
+    void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // already closed by the peer
+        }
+        if (in != null) {
+            pool.release(in);
+            in = null;
+        }
+        if (out != null) {
+            pool.release(out);
+            out = null;
+        }
+    }
+
+    void writeRaw(byte[] bytes) {
+        ensureWritable(bytes.length).put(bytes);
+    }
+
+    void writeSimple(String message) {
+        ByteBuffer buffer = ensureWritable(message.length() + 3);
+        buffer.put((byte) '+');
+        putAscii(buffer, message);
+        buffer.put(CRLF);
+    }
+
+    void writeError(String message) {
+        ByteBuffer buffer = ensureWritable(message.length() + 3);
+        buffer.put((byte) '-');
+        putAscii(buffer, message);
+        buffer.put(CRLF);
+    }
+
+    void writeInteger(long value) {
+        writeHeader((byte) ':', value);
+    }
+
+    void writeArrayHeader(int count) {
+        writeHeader((byte) '*', count);
+    }
+
+    void writeNull() {
+        writeRaw(NULL_BULK);
+    }
+
+    void writeBulk(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeHeader((byte) '$', bytes.length);
+        ByteBuffer buffer = ensureWritable(bytes.length + 2);
+        buffer.put(bytes);
+        buffer.put(CRLF);
+    }
+
+    private void writeHeader(byte type, long value) {
+        ByteBuffer buffer = ensureWritable(23);
+        buffer.put(type);
+        putDecimal(buffer, value);
+        buffer.put(CRLF);
+    }
+
+    private ByteBuffer ensureWritable(int bytes) {
+        if (out == null) {
+            out = pool.acquire();
+        }
+        if (out.remaining() < bytes) {
+            long wanted = Math.max((long) out.capacity() * 2, (long) out.position() + bytes);
+            ByteBuffer grown = ByteBuffer.allocateDirect((int) Math.min(wanted, Integer.MAX_VALUE - 8));
+            out.flip();
+            grown.put(out);
+            pool.release(out);
+            out = grown;
+        }
+        return out;
+    }
+
+    private static void putAscii(ByteBuffer buffer, String message) {
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            buffer.put(c == '\r' || c == '\n' || c > 127 ? (byte) ' ' : (byte) c);
+        }
+    }
+
+    // Writes the digits in place, so integer replies need no temporary String.
+    private static void putDecimal(ByteBuffer buffer, long value) {
+        if (value == Long.MIN_VALUE) {
+            putAscii(buffer, Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int start = buffer.position();
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer.put(start + i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(start + digits);
+    }
+}
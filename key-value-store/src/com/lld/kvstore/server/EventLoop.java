@@ -0,0 +1,129 @@
+package com.lld.kvstore.server;
+
+import com.lld.kvstore.core.KeyValueStore;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A selector thread serving a share of the connections. Each readable socket is drained once
+ * per wakeup: every complete request in the buffer is handled, the replies go out in one write,
+ * and any partial request waits for the next read.
+ */
+final class EventLoop implements Runnable {
+    private final Selector selector;
+    private final Queue<SocketChannel> accepted;
+    private final BufferPool pool;
+    private final RespParser parser;
+    private final CommandHandler handler;
+    private final int maxRequestBytes;
+    private volatile boolean running;
+
+    EventLoop(KeyValueStore store, ServerConfig config) throws IOException {
+        this.selector = Selector.open();
+        this.accepted = new ConcurrentLinkedQueue<>();
+        this.pool = new BufferPool(config.getBufferBytes());
+        this.parser = new RespParser(config.getMaxRequestBytes());
+        this.handler = new CommandHandler(store);
+        this.maxRequestBytes = config.getMaxRequestBytes();
+        this.running = true;
+    }
+
+    /** Hands over a newly accepted socket; called from the acceptor thread. */
+    void register(SocketChannel channel) {
+        accepted.add(channel);
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                registerAccepted();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            onReadable(connection);
+                        } else if (key.isWritable()) {
+                            connection.flush();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        connection.close();
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            // selector closed during shutdown
+        } finally {
+            closeAll();
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void onReadable(Connection connection) throws IOException {
+        ByteBuffer in = connection.read();
+        if (in == null) {
+            connection.close();
+            return;
+        }
+        try {
+            int end;
+            while ((end = parser.parse(in)) != RespParser.INCOMPLETE) {
+                if (parser.argCount() > 0) {
+                    handler.handle(parser, in, connection);
+                }
+                in.position(end);
+            }
+            connection.compactInput();
+        } catch (IllegalArgumentException e) {
+            handler.flush(connection);
+            connection.writeError("ERR " + e.getMessage());
+            connection.closeAfterWrite();
+        }
+        handler.flush(connection);
+        connection.flush();
+    }
+
+    private void registerAccepted() {
+        SocketChannel channel;
+        while ((channel = accepted.poll()) != null) {
+            try {
+                channel.configureBlocking(false);
+                Connection connection = new Connection(channel, pool, maxRequestBytes);
+                connection.attach(channel.register(selector, SelectionKey.OP_READ, connection));
+            } catch (IOException e) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // nothing left to release
+                }
+            }
+        }
+    }
+
+    private void closeAll() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                ((Connection) key.attachment()).close();
+            }
+            selector.close();
+        } catch (IOException | ClosedSelectorException ignored) {
+            // best effort on shutdown
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.lld.kvstore.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The supported command subset. Arity follows Redis: positive means exactly that many arguments
+ * including the command name, negative means at least that many.
+ */
+enum RespCommand {
+    PING(-1),
+    GET(2),
+    SET(-3),
+    DEL(-2),
+    LPUSH(-3),
+    RPUSH(-3),
+    SADD(-3),
+    LRANGE(4),
+    SMEMBERS(2),
+    INFO(-1);
+
+    private static final RespCommand[] ALL = values();
+
+    private final int arity;
+    private final byte[] name;
+
+    RespCommand(int arity) {
+        this.arity = arity;
+        this.name = name().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    boolean acceptsArgCount(int argCount) {
+        return arity >= 0 ? argCount == arity : argCount >= -arity;
+    }
+
+    /** Matches the command name in argument 0 without decoding it; null if unsupported. */
+    static RespCommand lookup(RespParser parser, ByteBuffer buffer) {
+        for (RespCommand command : ALL) {
+            if (parser.argEquals(buffer, 0, command.name)) {
+                return command;
+            }
+        }
+        return null;
+    }
+}
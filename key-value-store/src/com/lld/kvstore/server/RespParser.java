@@ -0,0 +1,168 @@
+package com.lld.kvstore.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parses RESP requests, arrays of bulk strings such as {@code *2\r\n$3\r\nGET\r\n$1\r\nk\r\n}.
+ * Arguments are recorded as offsets into the read buffer instead of being copied out, so parsing
+ * allocates nothing; a partial request is simply parsed again once more bytes have arrived.
+ * One parser per event loop: it holds no state between requests.
+ */
+final class RespParser {
+    static final int INCOMPLETE = -1;
+    private static final int MAX_ARGS = 1024 * 1024;
+
+    private final int maxBulkBytes;
+    private int[] offsets;
+    private int[] lengths;
+    private int argCount;
+    private int cursor;
+
+    RespParser(int maxBulkBytes) {
+        this.maxBulkBytes = maxBulkBytes;
+        this.offsets = new int[16];
+        this.lengths = new int[16];
+    }
+
+    /**
+     * Parses the request starting at the buffer's position. Returns the position just past it,
+     * or {@link #INCOMPLETE} if the buffer ends first. Malformed input raises
+     * {@link IllegalArgumentException}; the connection cannot be resynchronized after that.
+     */
+    int parse(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        cursor = buffer.position();
+        argCount = 0;
+        if (cursor >= limit) {
+            return INCOMPLETE;
+        }
+        byte type = buffer.get(cursor++);
+        if (type != '*') {
+            throw new IllegalArgumentException("Protocol error: expected '*', got '" + (char) type + "'");
+        }
+        long count = readInteger(buffer, limit);
+        if (count == Long.MIN_VALUE) {
+            return INCOMPLETE;
+        }
+        if (count > MAX_ARGS) {
+            throw new IllegalArgumentException("Protocol error: invalid multibulk length");
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (cursor >= limit) {
+                return INCOMPLETE;
+            }
+            byte marker = buffer.get(cursor++);
+            if (marker != '$') {
+                throw new IllegalArgumentException("Protocol error: expected '$', got '" + (char) marker + "'");
+            }
+            long length = readInteger(buffer, limit);
+            if (length == Long.MIN_VALUE) {
+                return INCOMPLETE;
+            }
+            if (length < 0 || length > maxBulkBytes) {
+                throw new IllegalArgumentException("Protocol error: invalid bulk length");
+            }
+            if ((long) cursor + length + 2 > limit) {
+                return INCOMPLETE;
+            }
+            if (buffer.get(cursor + (int) length) != '\r' || buffer.get(cursor + (int) length + 1) != '\n') {
+                throw new IllegalArgumentException("Protocol error: bulk string not terminated by CRLF");
+            }
+            addArg(cursor, (int) length);
+            cursor += (int) length + 2;
+        }
+        return cursor;
+    }
+
+    int argCount() {
+        return argCount;
+    }
+
+    /** Case-insensitive comparison of argument {@code index} with an upper-case ASCII name. */
+    boolean argEquals(ByteBuffer buffer, int index, byte[] upperName) {
+        if (lengths[index] != upperName.length) {
+            return false;
+        }
+        int offset = offsets[index];
+        for (int i = 0; i < upperName.length; i++) {
+            int b = buffer.get(offset + i);
+            if (b >= 'a' && b <= 'z') {
+                b -= 'a' - 'A';
+            }
+            if (b != upperName[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Decodes argument {@code index} as UTF-8 using {@code scratch} as the copy buffer when it fits. */
+    String argString(ByteBuffer buffer, int index, byte[] scratch) {
+        int length = lengths[index];
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(offsets[index], bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    long argLong(ByteBuffer buffer, int index) {
+        int offset = offsets[index];
+        int length = lengths[index];
+        if (length == 0 || length > 20) {
+            throw new IllegalArgumentException("value is not an integer or out of range");
+        }
+        boolean negative = buffer.get(offset) == '-';
+        long value = 0;
+        for (int i = negative ? 1 : 0; i < length; i++) {
+            int digit = buffer.get(offset + i) - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                throw new IllegalArgumentException("value is not an integer or out of range");
+            }
+            value = value * 10 + digit;
+        }
+        if (negative && length == 1) {
+            throw new IllegalArgumentException("value is not an integer or out of range");
+        }
+        return negative ? -value : value;
+    }
+
+    private void addArg(int offset, int length) {
+        if (argCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, argCount * 2);
+            lengths = Arrays.copyOf(lengths, argCount * 2);
+        }
+        offsets[argCount] = offset;
+        lengths[argCount] = length;
+        argCount++;
+    }
+
+    // Reads a signed decimal terminated by CRLF at the cursor; Long.MIN_VALUE if incomplete.
+    private long readInteger(ByteBuffer buffer, int limit) {
+        boolean negative = false;
+        long value = 0;
+        int digits = 0;
+        while (cursor < limit) {
+            byte b = buffer.get(cursor++);
+            if (b == '\r') {
+                if (cursor >= limit) {
+                    return Long.MIN_VALUE;
+                }
+                if (buffer.get(cursor++) != '\n' || digits == 0) {
+                    throw new IllegalArgumentException("Protocol error: malformed length");
+                }
+                return negative ? -value : value;
+            }
+            if (b == '-' && digits == 0 && !negative) {
+                negative = true;
+            } else if (b >= '0' && b <= '9' && digits < 18) {
+                value = value * 10 + (b - '0');
+                digits++;
+            } else {
+                throw new IllegalArgumentException("Protocol error: malformed length");
+            }
+        }
+        return Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,103 @@
+package com.lld.kvstore.server;
+
+import com.lld.kvstore.core.KeyValueStore;
+import com.lld.kvstore.core.KeyValueStoreImpl;
+import com.lld.kvstore.storage.InMemoryStorage;
+import com.lld.kvstore.storage.StripedConcurrencyManager;
+import com.lld.kvstore.storage.TypeValidator;
+import com.lld.kvstore.storage.ValueFactory;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Serves a {@link KeyValueStore} over TCP using a RESP-compatible subset: PING, GET,
+ * SET [EX|PX], DEL, LPUSH, RPUSH, SADD, LRANGE, SMEMBERS and INFO. Works with
+ * {@code redis-cli} and RESP client libraries, including pipelined requests.
+ *
+ * <p>An acceptor thread spreads sockets round-robin over one non-blocking {@link EventLoop} per
+ * core; each connection then stays on its loop, so its requests are handled in order without
+ * synchronization on the network path.
+ */
+public class RespServer implements AutoCloseable {
+    private final KeyValueStore store;
+    private final ServerConfig config;
+    private final EventLoop[] loops;
+    private ServerSocketChannel serverChannel;
+    private Thread acceptor;
+
+    public RespServer(KeyValueStore store, ServerConfig config) {
+        this.store = store;
+        this.config = config;
+        this.loops = new EventLoop[config.getEventLoops()];
+    }
+
+    public synchronized void start() throws IOException {
+        if (serverChannel != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(store, config);
+            Thread thread = new Thread(loops[i], "kv-event-loop-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(new InetSocketAddress(config.getPort()), 1024);
+        acceptor = new Thread(this::acceptLoop, "kv-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (serverChannel == null) {
+            return;
+        }
+        try {
+            serverChannel.close();
+        } catch (IOException ignored) {
+            // the acceptor stops either way
+        }
+        for (EventLoop loop : loops) {
+            loop.shutdown();
+        }
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                loops[next].register(channel);
+                next = (next + 1) % loops.length;
+            } catch (IOException e) {
+                if (!serverChannel.isOpen()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Usage: {@code RespServer [port] [eventLoops]}. */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : ServerConfig.DEFAULT_PORT;
+        int eventLoops = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        KeyValueStore store = new KeyValueStoreImpl(new InMemoryStorage(), new TypeValidator(),
+                                                    new ValueFactory(), new StripedConcurrencyManager());
+        RespServer server = new RespServer(store, new ServerConfig(port, eventLoops,
+                ServerConfig.DEFAULT_BUFFER_BYTES, ServerConfig.DEFAULT_MAX_REQUEST_BYTES));
+        server.start();
+        System.out.println("Listening on port " + server.getPort() + " with " + eventLoops + " event loops");
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,54 @@
+package com.lld.kvstore.server;
+
+/**
+ * Network settings for {@link RespServer}. Port {@code 0} binds an ephemeral port, which
+ * {@link RespServer#getPort()} reports once started.
+ */
+public class ServerConfig {
+    public static final int DEFAULT_PORT = 6379;
+    public static final int DEFAULT_BUFFER_BYTES = 16 * 1024;
+    public static final int DEFAULT_MAX_REQUEST_BYTES = 64 * 1024 * 1024;
+
+    private final int port;
+    private final int eventLoops;
+    private final int bufferBytes;
+    private final int maxRequestBytes;
+
+    public ServerConfig(int port) {
+        this(port, Runtime.getRuntime().availableProcessors(), DEFAULT_BUFFER_BYTES, DEFAULT_MAX_REQUEST_BYTES);
+    }
+
+    /**
+     * @param eventLoops      selector threads; connections are spread over them round-robin
+     * @param bufferBytes     size of the pooled direct buffers used for socket reads and writes
+     * @param maxRequestBytes largest single request a connection may send before it is dropped
+     */
+    public ServerConfig(int port, int eventLoops, int bufferBytes, int maxRequestBytes) {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("port must be between 0 and 65535");
+        }
+        if (eventLoops <= 0 || bufferBytes <= 0 || maxRequestBytes < bufferBytes) {
+            throw new IllegalArgumentException("eventLoops and bufferBytes must be positive and maxRequestBytes >= bufferBytes");
+        }
+        this.port = port;
+        this.eventLoops = eventLoops;
+        this.bufferBytes = bufferBytes;
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getEventLoops() {
+        return eventLoops;
+    }
+
+    public int getBufferBytes() {
+        return bufferBytes;
+    }
+
+    public int getMaxRequestBytes() {
+        return maxRequestBytes;
+    }
+}
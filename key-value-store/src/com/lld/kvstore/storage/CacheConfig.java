@@ -0,0 +1,70 @@
+package com.lld.kvstore.storage;
+
+public class CacheConfig {
+    public static final int DEFAULT_EVICTION_SAMPLES = 5;
+    public static final int DEFAULT_EXPIRY_SAMPLES = 20;
+    public static final long DEFAULT_EXPIRY_INTERVAL_MS = 100;
+
+    private final long maxMemoryBytes;
+    private final EvictionPolicy evictionPolicy;
+    private final int evictionSamples;
+    private final int expirySamples;
+    private final long expiryIntervalMs;
+
+    public CacheConfig(long maxMemoryBytes, EvictionPolicy evictionPolicy) {
+        this(maxMemoryBytes, evictionPolicy, DEFAULT_EVICTION_SAMPLES,
+             DEFAULT_EXPIRY_SAMPLES, DEFAULT_EXPIRY_INTERVAL_MS);
+    }
+
+    /**
+     * @param maxMemoryBytes   estimated heap the entries may occupy; {@code 0} means unbounded
+     * @param evictionSamples  keys inspected per eviction; higher is closer to exact LRU/LFU but slower
+     * @param expirySamples    keys with a TTL inspected per active-expiry round
+     * @param expiryIntervalMs period of the background active-expiry cycle
+     */
+    public CacheConfig(long maxMemoryBytes, EvictionPolicy evictionPolicy, int evictionSamples,
+                       int expirySamples, long expiryIntervalMs) {
+        if (maxMemoryBytes < 0) {
+            throw new IllegalArgumentException("maxMemoryBytes cannot be negative");
+        }
+        if (evictionPolicy == null) {
+            throw new IllegalArgumentException("evictionPolicy cannot be null");
+        }
+        if (evictionSamples <= 0 || expirySamples <= 0 || expiryIntervalMs <= 0) {
+            throw new IllegalArgumentException("Sample sizes and expiry interval must be positive");
+        }
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.evictionPolicy = evictionPolicy;
+        this.evictionSamples = evictionSamples;
+        this.expirySamples = expirySamples;
+        this.expiryIntervalMs = expiryIntervalMs;
+    }
+
+    public static CacheConfig unbounded() {
+        return new CacheConfig(0, EvictionPolicy.NO_EVICTION);
+    }
+
+    public long getMaxMemoryBytes() {
+        return maxMemoryBytes;
+    }
+
+    public boolean isBounded() {
+        return maxMemoryBytes > 0;
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    public int getEvictionSamples() {
+        return evictionSamples;
+    }
+
+    public int getExpirySamples() {
+        return expirySamples;
+    }
+
+    public long getExpiryIntervalMs() {
+        return expiryIntervalMs;
+    }
+}
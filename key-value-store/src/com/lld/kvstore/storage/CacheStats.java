@@ -0,0 +1,75 @@
+package com.lld.kvstore.storage;
+
+public class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expired;
+    private final long keys;
+    private final long keysWithExpiry;
+    private final long usedMemoryBytes;
+    private final long maxMemoryBytes;
+
+    public CacheStats(long hits, long misses, long evictions, long expired, long keys,
+                      long keysWithExpiry, long usedMemoryBytes, long maxMemoryBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expired = expired;
+        this.keys = keys;
+        this.keysWithExpiry = keysWithExpiry;
+        this.usedMemoryBytes = usedMemoryBytes;
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getExpired() {
+        return expired;
+    }
+
+    public long getKeys() {
+        return keys;
+    }
+
+    public long getKeysWithExpiry() {
+        return keysWithExpiry;
+    }
+
+    public long getUsedMemoryBytes() {
+        return usedMemoryBytes;
+    }
+
+    public long getMaxMemoryBytes() {
+        return maxMemoryBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", expired=" + expired +
+                ", keys=" + keys +
+                ", keysWithExpiry=" + keysWithExpiry +
+                ", usedMemoryBytes=" + usedMemoryBytes +
+                ", maxMemoryBytes=" + maxMemoryBytes +
+                '}';
+    }
+}
@@ -3,13 +3,14 @@ package com.lld.kvstore.storage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-public class ConcurrencyManager {
+public class ConcurrencyManager implements LockManager {
     private final ConcurrentHashMap<String, ReentrantReadWriteLock> locks;
     
     public ConcurrencyManager() {
         this.locks = new ConcurrentHashMap<>();
     }
     
+    @Override
     public ReentrantReadWriteLock getLock(String key) {
         return locks.computeIfAbsent(key, _ -> new ReentrantReadWriteLock());
     }
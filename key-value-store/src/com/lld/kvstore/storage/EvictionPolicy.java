@@ -0,0 +1,10 @@
+package com.lld.kvstore.storage;
+
+public enum EvictionPolicy {
+    /** Writes that would exceed the memory limit are rejected. */
+    NO_EVICTION,
+    /** Evicts the least recently used key among a small sample. */
+    APPROXIMATE_LRU,
+    /** Evicts the least frequently used key among a small sample, using a decaying log counter. */
+    APPROXIMATE_LFU
+}
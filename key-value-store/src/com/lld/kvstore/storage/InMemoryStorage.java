@@ -1,28 +1,350 @@
 package com.lld.kvstore.storage;
 
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Heap-backed storage that can run as a fixed-size cache.
+ *
+ * <p>Expired keys are removed lazily when read and actively by a background cycle that, like
+ * Redis, samples a few keys with a TTL at a time and repeats only while more than a quarter of
+ * the sample turns out to be expired. The cycle thread is started on the first TTL write.
+ *
+ * <p>With a memory limit, each write evicts until the estimated footprint fits again. Victims
+ * are chosen by sampling a handful of keys and dropping the least recently or least frequently
+ * used one, which approximates true LRU/LFU without a global ordering structure.
+ */
+public class InMemoryStorage implements Storage, AutoCloseable {
+    private static final int MAX_EVICTION_ATTEMPTS = 64;
+    private static final int EVICTION_POOL_SIZE = 16;
+
+    private final ConcurrentHashMap<String, StorageEntry> storage;
+    private final ConcurrentHashMap<String, StorageEntry> expires;
+    private final CacheConfig config;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LongAdder expired;
+    private final AtomicLong usedBytes;
+
+    // Sampling cursors resume where the previous round stopped; guarded by their locks.
+    private final ReentrantLock evictionLock;
+    private final ReentrantLock expiryLock;
+    private Iterator<StorageEntry> evictionCursor;
+    private final List<StorageEntry> evictionPool;
+    private Iterator<StorageEntry> expiryCursor;
+    private volatile ScheduledExecutorService expiryScheduler;
+    private volatile boolean closed;
 
-public class InMemoryStorage implements Storage {
-    private final Map<String, StorageEntry> storage;
-    
     public InMemoryStorage() {
+        this(CacheConfig.unbounded());
+    }
+
+    public InMemoryStorage(CacheConfig config) {
         this.storage = new ConcurrentHashMap<>();
+        this.expires = new ConcurrentHashMap<>();
+        this.config = config;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.expired = new LongAdder();
+        this.usedBytes = new AtomicLong();
+        this.evictionLock = new ReentrantLock();
+        this.expiryLock = new ReentrantLock();
+        this.evictionCursor = storage.values().iterator();
+        this.evictionPool = new ArrayList<>();
+        this.expiryCursor = expires.values().iterator();
     }
-    
+
     @Override
     public Optional<StorageEntry> read(String key) {
-        return Optional.ofNullable(storage.get(key));
+        StorageEntry entry = storage.get(key);
+        if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+            expire(entry);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entry);
     }
-    
+
+    @Override
+    public Optional<StorageEntry> lookup(String key) {
+        StorageEntry entry = storage.get(key);
+        if (entry != null) {
+            long now = System.currentTimeMillis();
+            if (entry.isExpired(now)) {
+                expire(entry);
+                entry = null;
+            } else if (config.getEvictionPolicy() != EvictionPolicy.NO_EVICTION) {
+                entry.touch(System.nanoTime());
+            }
+        }
+        (entry == null ? misses : hits).increment();
+        return Optional.ofNullable(entry);
+    }
+
     @Override
     public void write(String key, StorageEntry entry) {
-        storage.put(key, entry);
+        long weight = MemoryEstimator.entry(entry);
+        entry.setWeight(weight);
+        StorageEntry previous = storage.get(key);
+        long delta = weight - (previous == null ? 0 : previous.getWeight());
+        if (config.isBounded() && config.getEvictionPolicy() == EvictionPolicy.NO_EVICTION
+                && delta > 0 && usedBytes.get() + delta > config.getMaxMemoryBytes()) {
+            throw new IllegalStateException("Write rejected: used memory would exceed "
+                    + config.getMaxMemoryBytes() + " bytes");
+        }
+
+        previous = storage.put(key, entry);
+        usedBytes.addAndGet(weight - (previous == null ? 0 : previous.getWeight()));
+        if (previous != null && previous.hasExpiry()) {
+            removeExact(expires, previous);
+        }
+        if (entry.hasExpiry()) {
+            expires.put(key, entry);
+            startExpiryCycle();
+        }
+        evictIfNeeded();
     }
-    
+
     @Override
     public void delete(String key) {
-        storage.remove(key);
+        StorageEntry previous = storage.remove(key);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    @Override
+    public KeyScanCursor scanKeys() {
+        return new KeyScanCursor(storage.values().iterator());
+    }
+
+    @Override
+    public void addToCollection(String key, Collection<?> values) {
+        read(key).ifPresent(entry -> {
+            long before = MemoryEstimator.value(entry.getValue());
+            Storage.super.addToCollection(key, values);
+            adjustWeight(entry, MemoryEstimator.value(entry.getValue()) - before);
+            evictIfNeeded();
+        });
+    }
+
+    @Override
+    public void prependToCollection(String key, Collection<?> values) {
+        read(key).ifPresent(entry -> {
+            long before = MemoryEstimator.value(entry.getValue());
+            Storage.super.prependToCollection(key, values);
+            adjustWeight(entry, MemoryEstimator.value(entry.getValue()) - before);
+            evictIfNeeded();
+        });
+    }
+
+    @Override
+    public void removeFromCollection(String key, Collection<?> values) {
+        read(key).ifPresent(entry -> {
+            long before = MemoryEstimator.value(entry.getValue());
+            Storage.super.removeFromCollection(key, values);
+            adjustWeight(entry, MemoryEstimator.value(entry.getValue()) - before);
+        });
+    }
+
+    /**
+     * Runs one active-expiry cycle and returns the number of keys it removed. Called periodically
+     * by the background thread; exposed so callers can drive expiry deterministically.
+     */
+    public int activeExpireCycle() {
+        long started = System.currentTimeMillis();
+        long budgetMs = Math.max(1, config.getExpiryIntervalMs() / 4);
+        int removed = 0;
+        int sampled;
+        int expiredInRound;
+        do {
+            sampled = 0;
+            expiredInRound = 0;
+            long now = System.currentTimeMillis();
+            expiryLock.lock();
+            try {
+                boolean wrapped = false;
+                while (sampled < config.getExpirySamples()) {
+                    if (!expiryCursor.hasNext()) {
+                        if (wrapped) {
+                            break;
+                        }
+                        expiryCursor = expires.values().iterator();
+                        wrapped = true;
+                        continue;
+                    }
+                    StorageEntry entry = expiryCursor.next();
+                    sampled++;
+                    if (entry.isExpired(now) && expire(entry)) {
+                        expiredInRound++;
+                    }
+                }
+            } finally {
+                expiryLock.unlock();
+            }
+            removed += expiredInRound;
+        } while (expiredInRound * 4 > sampled && System.currentTimeMillis() - started < budgetMs);
+        return removed;
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expired.sum(),
+                              storage.size(), expires.size(), usedBytes.get(), config.getMaxMemoryBytes());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        ScheduledExecutorService scheduler = expiryScheduler;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void evictIfNeeded() {
+        if (!config.isBounded() || config.getEvictionPolicy() == EvictionPolicy.NO_EVICTION) {
+            return;
+        }
+        int attempts = 0;
+        while (usedBytes.get() > config.getMaxMemoryBytes() && attempts++ < MAX_EVICTION_ATTEMPTS) {
+            StorageEntry victim = sampleVictim();
+            if (victim == null) {
+                return;
+            }
+            if (removeExact(storage, victim)) {
+                release(victim);
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Feeds a few more sampled keys into the candidate pool and takes the worst one out. The pool
+     * remembers poor candidates across calls (as Redis does), so a sample that happens to land
+     * on a run of hot keys still evicts an older cold key instead.
+     */
+    private StorageEntry sampleVictim() {
+        long now = System.nanoTime();
+        boolean lfu = config.getEvictionPolicy() == EvictionPolicy.APPROXIMATE_LFU;
+
+        evictionLock.lock();
+        try {
+            boolean wrapped = false;
+            int sampled = 0;
+            while (sampled < config.getEvictionSamples()) {
+                if (!evictionCursor.hasNext()) {
+                    if (wrapped) {
+                        break;
+                    }
+                    evictionCursor = storage.values().iterator();
+                    wrapped = true;
+                    continue;
+                }
+                StorageEntry candidate = evictionCursor.next();
+                sampled++;
+                if (!pooled(candidate)) {
+                    evictionPool.add(candidate);
+                }
+            }
+            if (evictionPool.isEmpty()) {
+                return null;
+            }
+
+            evictionPool.sort(Comparator.comparingLong(entry -> evictionScore(entry, lfu, now)));
+            while (evictionPool.size() > EVICTION_POOL_SIZE) {
+                evictionPool.remove(evictionPool.size() - 1);
+            }
+            return evictionPool.remove(0);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static long evictionScore(StorageEntry entry, boolean lfu, long nowNanos) {
+        return lfu
+                ? LfuCounter.decay(entry.getFrequency(), entry.getLastAccessNanos(), nowNanos)
+                : entry.getLastAccessNanos();
+    }
+
+    private boolean expire(StorageEntry entry) {
+        if (removeExact(storage, entry)) {
+            release(entry);
+            expired.increment();
+            return true;
+        }
+        removeExact(expires, entry);
+        return false;
+    }
+
+    private void release(StorageEntry entry) {
+        usedBytes.addAndGet(-entry.getWeight());
+        if (entry.hasExpiry()) {
+            removeExact(expires, entry);
+        }
+    }
+
+    private boolean pooled(StorageEntry candidate) {
+        for (StorageEntry entry : evictionPool) {
+            if (entry == candidate) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes {@code entry}'s key only if it still maps to that very object. Entries compare by
+     * value, so a plain {@code remove(key, entry)} would also drop a newer write of an equal value.
+     */
+    private static boolean removeExact(ConcurrentHashMap<String, StorageEntry> map, StorageEntry entry) {
+        boolean[] removed = new boolean[1];
+        map.computeIfPresent(entry.getKey(), (_, current) -> {
+            if (current != entry) {
+                return current;
+            }
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    private void adjustWeight(StorageEntry entry, long delta) {
+        if (delta != 0) {
+            entry.setWeight(entry.getWeight() + delta);
+            if (storage.get(entry.getKey()) == entry) {
+                usedBytes.addAndGet(delta);
+            }
+        }
+    }
+
+    private void startExpiryCycle() {
+        if (expiryScheduler != null || closed) {
+            return;
+        }
+        synchronized (this) {
+            if (expiryScheduler == null && !closed) {
+                ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "kv-active-expiry");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                scheduler.scheduleWithFixedDelay(this::activeExpireCycle, config.getExpiryIntervalMs(),
+                                                 config.getExpiryIntervalMs(), TimeUnit.MILLISECONDS);
+                expiryScheduler = scheduler;
+            }
+        }
     }
 }
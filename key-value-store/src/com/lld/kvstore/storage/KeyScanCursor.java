@@ -0,0 +1,64 @@
+package com.lld.kvstore.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Pages through the keys of a storage without locking it. Backed by a weakly consistent
+ * {@code ConcurrentHashMap} iterator: every key present for the whole scan is returned exactly
+ * once, keys added or removed meanwhile may or may not appear, and writers are never blocked.
+ */
+public class KeyScanCursor {
+    private final Iterator<StorageEntry> entries;
+    
+    public KeyScanCursor(Iterator<StorageEntry> entries) {
+        this.entries = entries;
+    }
+    
+    /** Returns up to {@code count} live keys; an empty page means the scan is complete. */
+    public synchronized List<String> next(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        long now = System.currentTimeMillis();
+        List<String> page = new ArrayList<>(Math.min(count, 1024));
+        while (page.size() < count && entries.hasNext()) {
+            StorageEntry entry = entries.next();
+            if (!entry.isExpired(now)) {
+                page.add(entry.getKey());
+            }
+        }
+        return page;
+    }
+    
+    public synchronized boolean hasMore() {
+        return entries.hasNext();
+    }
+
+    /** One cursor that runs through {@code parts} in turn, e.g. the keys of several stores. */
+    public static KeyScanCursor concat(List<KeyScanCursor> parts) {
+        Iterator<KeyScanCursor> remaining = parts.iterator();
+        return new KeyScanCursor(new Iterator<StorageEntry>() {
+            private Iterator<StorageEntry> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && remaining.hasNext()) {
+                    current = remaining.next().entries;
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public StorageEntry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package com.lld.kvstore.storage;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Redis-style logarithmic access counter: fits in 0..255, grows with probability
+ * {@code 1 / ((counter - INITIAL) * LOG_FACTOR + 1)} so it can tell a million hits from a
+ * thousand, and decays by one for every idle {@link #DECAY_NANOS}.
+ */
+final class LfuCounter {
+    static final int INITIAL = 5;
+    static final int MAX = 255;
+    static final int LOG_FACTOR = 10;
+    static final long DECAY_NANOS = 60_000_000_000L;
+
+    private LfuCounter() {
+    }
+
+    static int increment(int counter) {
+        if (counter >= MAX) {
+            return MAX;
+        }
+        int base = Math.max(0, counter - INITIAL);
+        double p = 1.0 / (base * LOG_FACTOR + 1);
+        return ThreadLocalRandom.current().nextDouble() < p ? counter + 1 : counter;
+    }
+
+    static int decay(int counter, long lastAccessNanos, long nowNanos) {
+        long periods = (nowNanos - lastAccessNanos) / DECAY_NANOS;
+        return periods <= 0 ? counter : (int) Math.max(0, counter - periods);
+    }
+}
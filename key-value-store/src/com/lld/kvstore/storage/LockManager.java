@@ -0,0 +1,35 @@
+package com.lld.kvstore.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Supplier;
+
+public interface LockManager {
+    ReadWriteLock getLock(String key);
+
+    default <T> T readOptimistically(String key, Supplier<T> reader) {
+        ReadWriteLock lock = getLock(key);
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Distinct locks guarding {@code keys}, in one global order so that callers taking several at
+     * once cannot deadlock. The default orders by key, which is only sound when every key has its
+     * own lock; implementations that share locks between keys must override it.
+     */
+    default List<ReadWriteLock> orderedLocks(Collection<String> keys) {
+        List<ReadWriteLock> locks = new ArrayList<>();
+        for (String key : new TreeSet<>(keys)) {
+            locks.add(getLock(key));
+        }
+        return locks;
+    }
+}
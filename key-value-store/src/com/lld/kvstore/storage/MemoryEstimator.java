@@ -0,0 +1,34 @@
+package com.lld.kvstore.storage;
+
+import com.lld.kvstore.types.ListValue;
+import com.lld.kvstore.types.PrimitiveValue;
+import com.lld.kvstore.types.SetValue;
+import com.lld.kvstore.types.encoding.Footprint;
+
+/**
+ * Rough heap size of a stored entry, used for the max-memory policy. Collection values report
+ * their own size so compact encodings are accounted for what they actually occupy.
+ */
+final class MemoryEstimator {
+    // ConcurrentHashMap node + StorageEntry + TypeDescriptor reference
+    private static final long ENTRY_OVERHEAD = 32 + 40;
+    private static final long VALUE_OVERHEAD = 24 + 16;
+
+    private MemoryEstimator() {
+    }
+
+    static long entry(StorageEntry entry) {
+        return ENTRY_OVERHEAD + Footprint.of(entry.getKey()) + value(entry.getValue());
+    }
+
+    static long value(Object value) {
+        if (value instanceof PrimitiveValue primitiveValue) {
+            return VALUE_OVERHEAD + Footprint.of(primitiveValue.getValue());
+        } else if (value instanceof ListValue listValue) {
+            return VALUE_OVERHEAD + listValue.estimatedBytes();
+        } else if (value instanceof SetValue setValue) {
+            return VALUE_OVERHEAD + setValue.estimatedBytes();
+        }
+        return VALUE_OVERHEAD;
+    }
+}
@@ -1,9 +1,61 @@
 package com.lld.kvstore.storage;
 
+import com.lld.kvstore.types.ListValue;
+import com.lld.kvstore.types.SetValue;
+import java.util.Collection;
 import java.util.Optional;
 
 public interface Storage {
     Optional<StorageEntry> read(String key);
     void write(String key, StorageEntry entry);
     void delete(String key);
+
+    /**
+     * Reads on behalf of a client request. Unlike {@link #read}, which the store also uses for
+     * type checks before writes, this may count a cache hit/miss and refresh eviction metadata.
+     */
+    default Optional<StorageEntry> lookup(String key) {
+        return read(key);
+    }
+
+    /** Opens a non-blocking cursor over all live keys. */
+    KeyScanCursor scanKeys();
+
+    /**
+     * Adds {@code values} in place to the collection stored under {@code key}. Routed through the
+     * storage (rather than mutating the value directly) so durable implementations can log it.
+     */
+    default void addToCollection(String key, Collection<?> values) {
+        read(key).ifPresent(entry -> {
+            Object value = entry.getValue();
+            if (value instanceof ListValue listValue) {
+                values.forEach(listValue::add);
+            } else if (value instanceof SetValue setValue) {
+                values.forEach(setValue::add);
+            }
+            entry.markModified();
+        });
+    }
+
+    /** Inserts {@code values} one by one at the head of the list under {@code key}, like LPUSH. */
+    default void prependToCollection(String key, Collection<?> values) {
+        read(key).ifPresent(entry -> {
+            if (entry.getValue() instanceof ListValue listValue) {
+                values.forEach(listValue::prepend);
+                entry.markModified();
+            }
+        });
+    }
+
+    default void removeFromCollection(String key, Collection<?> values) {
+        read(key).ifPresent(entry -> {
+            Object value = entry.getValue();
+            if (value instanceof ListValue listValue) {
+                values.forEach(listValue::remove);
+            } else if (value instanceof SetValue setValue) {
+                values.forEach(setValue::remove);
+            }
+            entry.markModified();
+        });
+    }
 }
@@ -3,14 +3,34 @@ package com.lld.kvstore.storage;
 import com.lld.kvstore.types.TypeDescriptor;
 
 public class StorageEntry {
+    public static final long NO_EXPIRY = 0L;
+    
     private final String key;
     private final TypeDescriptor type;
     private final Object value;
+    private final long expiresAt;
+    
+    // Eviction bookkeeping, updated racily by readers; approximate by design.
+    private volatile long lastAccessNanos;
+    private volatile int frequency;
+    private volatile long weight;
+    // Bumped under the key's write lock on in-place collection changes; a replaced entry is a new object.
+    private volatile long version;
     
     public StorageEntry(String key, TypeDescriptor type, Object value) {
+        this(key, type, value, NO_EXPIRY);
+    }
+    
+    /**
+     * @param expiresAt epoch millis after which the entry is treated as absent, or {@link #NO_EXPIRY}
+     */
+    public StorageEntry(String key, TypeDescriptor type, Object value, long expiresAt) {
         this.key = key;
         this.type = type;
         this.value = value;
+        this.expiresAt = expiresAt;
+        this.lastAccessNanos = System.nanoTime();
+        this.frequency = LfuCounter.INITIAL;
     }
     
     public String getKey() {
@@ -25,20 +45,66 @@ public class StorageEntry {
         return value;
     }
     
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public boolean hasExpiry() {
+        return expiresAt != NO_EXPIRY;
+    }
+    
+    public boolean isExpired(long nowMillis) {
+        return expiresAt != NO_EXPIRY && nowMillis >= expiresAt;
+    }
+    
+    /**
+     * Number of in-place modifications since this entry was written. Together with the entry's
+     * identity this tells whether a key changed, which is what {@code WATCH} checks.
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    void markModified() {
+        version++;
+    }
+    
+    long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+    
+    int getFrequency() {
+        return frequency;
+    }
+    
+    long getWeight() {
+        return weight;
+    }
+    
+    void setWeight(long weight) {
+        this.weight = weight;
+    }
+    
+    void touch(long nowNanos) {
+        frequency = LfuCounter.increment(LfuCounter.decay(frequency, lastAccessNanos, nowNanos));
+        lastAccessNanos = nowNanos;
+    }
+    
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         
         StorageEntry that = (StorageEntry) obj;
-        return java.util.Objects.equals(key, that.key) && 
+        return expiresAt == that.expiresAt &&
+               java.util.Objects.equals(key, that.key) && 
                java.util.Objects.equals(type, that.type) && 
                java.util.Objects.equals(value, that.value);
     }
     
     @Override
     public int hashCode() {
-        return java.util.Objects.hash(key, type, value);
+        return java.util.Objects.hash(key, type, value, expiresAt);
     }
     
     @Override
@@ -47,6 +113,7 @@ public class StorageEntry {
                 "key='" + key + '\'' +
                 ", type=" + type +
                 ", value=" + value +
+                (hasExpiry() ? ", expiresAt=" + expiresAt : "") +
                 '}';
     }
 }
@@ -0,0 +1,91 @@
+package com.lld.kvstore.storage;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool of {@link StampedLock}s shared by all keys. Memory stays constant no matter
+ * how many keys pass through the store, and reads first try an optimistic stamp so an
+ * uncontended {@code get} never acquires a lock.
+ *
+ * <p>Stamped locks are not reentrant: callers must not take a second lock while holding one,
+ * since two keys may map to the same stripe.
+ */
+public class StripedConcurrencyManager implements LockManager {
+    public static final int DEFAULT_STRIPES = 1024;
+
+    private final StampedLock[] stripes;
+    private final ReadWriteLock[] views;
+    private final int mask;
+
+    public StripedConcurrencyManager() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public StripedConcurrencyManager(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("stripeCount must be positive");
+        }
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new StampedLock[size];
+        this.views = new ReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new StampedLock();
+            views[i] = stripes[i].asReadWriteLock();
+        }
+        this.mask = size - 1;
+    }
+
+    @Override
+    public ReadWriteLock getLock(String key) {
+        return views[stripeIndex(key)];
+    }
+
+    @Override
+    public <T> T readOptimistically(String key, Supplier<T> reader) {
+        StampedLock lock = stripes[stripeIndex(key)];
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            T result = reader.get();
+            if (lock.validate(stamp)) {
+                return result;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public List<ReadWriteLock> orderedLocks(Collection<String> keys) {
+        BitSet used = new BitSet(stripes.length);
+        for (String key : keys) {
+            used.set(stripeIndex(key));
+        }
+        List<ReadWriteLock> locks = new ArrayList<>(used.cardinality());
+        for (int index = used.nextSetBit(0); index >= 0; index = used.nextSetBit(index + 1)) {
+            locks.add(views[index]);
+        }
+        return locks;
+    }
+
+    public int stripeIndex(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+}
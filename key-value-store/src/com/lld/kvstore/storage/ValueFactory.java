@@ -1,23 +1,88 @@
 package com.lld.kvstore.storage;
 
 import com.lld.kvstore.types.*;
+import com.lld.kvstore.types.encoding.*;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
+/**
+ * Creates values, picking the most compact collection encoding the element type allows:
+ * unboxed arrays and open-addressing hash sets for INTEGER/LONG/DOUBLE, a packed byte array for
+ * small STRING lists, and boxed collections otherwise. Values upgrade themselves to the boxed
+ * encoding if an element that does not fit (wrong type, or past the packed size limit) is added.
+ *
+ * <p>With {@link ValueModel#PERSISTENT} collections are immutable tries instead, trading the
+ * compact layouts for lock-free reads and snapshots that cost nothing to take.
+ */
 public class ValueFactory {
+    private final ValueModel model;
+    
+    public ValueFactory() {
+        this(ValueModel.COMPACT);
+    }
+    
+    public ValueFactory(ValueModel model) {
+        this.model = model;
+    }
     
     public Value createPrimitive(Object value, PrimitiveType primitiveType) {
         return new PrimitiveValue(value, primitiveType);
     }
     
-    @SuppressWarnings("unchecked")
     public Value createList(Collection<?> values, PrimitiveType primitiveType) {
-        return new ListValue((List<Object>) values, primitiveType);
+        if (model == ValueModel.PERSISTENT) {
+            return new ListValue(VectorListEncoding.of(values), primitiveType);
+        }
+        ListEncoding encoding = emptyListEncoding(primitiveType, values.size());
+        for (Object value : values) {
+            encoding = encoding.append(value);
+        }
+        return new ListValue(encoding, primitiveType);
     }
     
-    @SuppressWarnings("unchecked")
     public Value createSet(Collection<?> values, PrimitiveType primitiveType) {
-        return new SetValue((Set<Object>) values, primitiveType);
+        if (model == ValueModel.PERSISTENT) {
+            return new SetValue(HamtSetEncoding.of(values), primitiveType);
+        }
+        SetEncoding encoding = emptySetEncoding(primitiveType, values.size());
+        for (Object value : values) {
+            if (!encoding.canHold(value)) {
+                encoding = encoding.upgrade();
+            }
+            encoding.add(value);
+        }
+        return new SetValue(encoding, primitiveType);
+    }
+    
+    private ListEncoding emptyListEncoding(PrimitiveType primitiveType, int size) {
+        switch (primitiveType) {
+            case INTEGER:
+                return new IntListEncoding(size);
+            case LONG:
+                return LongListEncoding.ofLongs(size);
+            case DOUBLE:
+                return LongListEncoding.ofDoubles(size);
+            case STRING:
+                if (size <= PackedStringListEncoding.MAX_ENTRIES) {
+                    return new PackedStringListEncoding();
+                }
+                return new ObjectListEncoding(List.of());
+            default:
+                return new ObjectListEncoding(List.of());
+        }
+    }
+    
+    private SetEncoding emptySetEncoding(PrimitiveType primitiveType, int size) {
+        switch (primitiveType) {
+            case INTEGER:
+                return new IntSetEncoding(size);
+            case LONG:
+                return LongSetEncoding.ofLongs(size);
+            case DOUBLE:
+                return LongSetEncoding.ofDoubles(size);
+            default:
+                return new ObjectSetEncoding(Set.of());
+        }
     }
 }
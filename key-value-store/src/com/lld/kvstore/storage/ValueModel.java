@@ -0,0 +1,12 @@
+package com.lld.kvstore.storage;
+
+/** How {@link ValueFactory} represents list and set values. */
+public enum ValueModel {
+    /** Unboxed or packed encodings updated in place under a per-value read-write lock. */
+    COMPACT,
+    /**
+     * Immutable vector-trie lists and HAMT sets: a write swaps in a new version that shares
+     * structure with the old one, and reads take no lock. Elements are boxed.
+     */
+    PERSISTENT
+}
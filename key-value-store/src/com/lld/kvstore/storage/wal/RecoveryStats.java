@@ -0,0 +1,45 @@
+package com.lld.kvstore.storage.wal;
+
+public class RecoveryStats {
+    private final long snapshotRecords;
+    private final long logRecords;
+    private final int segmentsReplayed;
+    private final long elapsedNanos;
+
+    public RecoveryStats(long snapshotRecords, long logRecords, int segmentsReplayed, long elapsedNanos) {
+        this.snapshotRecords = snapshotRecords;
+        this.logRecords = logRecords;
+        this.segmentsReplayed = segmentsReplayed;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getSnapshotRecords() {
+        return snapshotRecords;
+    }
+
+    public long getLogRecords() {
+        return logRecords;
+    }
+
+    public long getTotalRecords() {
+        return snapshotRecords + logRecords;
+    }
+
+    public int getSegmentsReplayed() {
+        return segmentsReplayed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public double getRecordsPerSecond() {
+        return elapsedNanos == 0 ? 0 : getTotalRecords() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RecoveryStats{snapshotRecords=%d, logRecords=%d, segments=%d, elapsedMs=%d, records/s=%.0f}",
+                snapshotRecords, logRecords, segmentsReplayed, getElapsedMillis(), getRecordsPerSecond());
+    }
+}
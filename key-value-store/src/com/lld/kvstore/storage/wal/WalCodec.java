@@ -0,0 +1,197 @@
+package com.lld.kvstore.storage.wal;
+
+import com.lld.kvstore.types.PrimitiveType;
+import com.lld.kvstore.types.TypeDescriptor;
+import com.lld.kvstore.types.ValueType;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary framing shared by log segments and snapshots:
+ * {@code [int payloadLength][int crc32c(payload)][byte op][key][body]}; a write body is
+ * {@code [long expiresAt][byte valueType][byte primitiveType][element or count + elements]}.
+ * An encoder instance reuses one scratch buffer, so each thread needs its own.
+ */
+final class WalCodec {
+    static final int HEADER_BYTES = 8;
+    // The largest array a replay buffer can be; no frame that fits in memory is longer.
+    static final int MAX_FRAME_BYTES = Integer.MAX_VALUE - 8;
+
+    static final byte OP_WRITE = 1;
+    static final byte OP_DELETE = 2;
+    static final byte OP_ADD = 3;
+    static final byte OP_REMOVE = 4;
+    static final byte OP_PREPEND = 5;
+
+    private static final PrimitiveType[] PRIMITIVE_TYPES = PrimitiveType.values();
+    private static final ValueType[] VALUE_TYPES = ValueType.values();
+    private static final TypeDescriptor[][] TYPES = new TypeDescriptor[VALUE_TYPES.length][PRIMITIVE_TYPES.length];
+
+    static {
+        for (ValueType valueType : VALUE_TYPES) {
+            for (PrimitiveType primitiveType : PRIMITIVE_TYPES) {
+                TYPES[valueType.ordinal()][primitiveType.ordinal()] = new TypeDescriptor(valueType, primitiveType);
+            }
+        }
+    }
+
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+    /** Encodes a full entry; {@code content} is the raw primitive or a collection of primitives. */
+    ByteBuffer encodeWrite(String key, TypeDescriptor type, Object content, long expiresAt) {
+        begin(OP_WRITE, key);
+        ensure(10);
+        buffer.putLong(expiresAt);
+        buffer.put((byte) type.getValueType().ordinal());
+        buffer.put((byte) type.getPrimitiveType().ordinal());
+        if (content instanceof Collection<?> values) {
+            putElements(values);
+        } else {
+            putElement(content);
+        }
+        return finish();
+    }
+
+    ByteBuffer encodeDelete(String key) {
+        begin(OP_DELETE, key);
+        return finish();
+    }
+
+    ByteBuffer encodeCollectionChange(byte op, String key, Collection<?> values) {
+        begin(op, key);
+        putElements(values);
+        return finish();
+    }
+
+    /**
+     * Returns the framed size of the record starting at the current position, {@code -1} if
+     * not even its header is buffered yet, or {@code 0} if the header is garbage. The caller
+     * still has to check the length against the bytes actually left.
+     */
+    static int frameLength(ByteBuffer data) {
+        if (data.remaining() < HEADER_BYTES) {
+            return -1;
+        }
+        int length = data.getInt(data.position());
+        return length <= 0 || length > MAX_FRAME_BYTES - HEADER_BYTES ? 0 : HEADER_BYTES + length;
+    }
+
+    /**
+     * Returns the payload of a fully buffered record and advances past it, or {@code null} if its
+     * checksum does not match (a torn write at the tail of the log).
+     */
+    ByteBuffer nextPayload(ByteBuffer data, int frameLength) {
+        int start = data.position();
+        int checksum = data.getInt(start + 4);
+        ByteBuffer payload = data.slice(start + HEADER_BYTES, frameLength - HEADER_BYTES);
+        crc.reset();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        data.position(start + frameLength);
+        return payload;
+    }
+
+    static TypeDescriptor readType(ByteBuffer payload) {
+        return TYPES[payload.get()][payload.get()];
+    }
+
+    static String readString(ByteBuffer payload) {
+        int length = payload.getInt();
+        String value = new String(payload.array(), payload.arrayOffset() + payload.position(), length,
+                                  StandardCharsets.UTF_8);
+        payload.position(payload.position() + length);
+        return value;
+    }
+
+    static void readElements(ByteBuffer payload, Collection<Object> into) {
+        int count = payload.getInt();
+        for (int i = 0; i < count; i++) {
+            into.add(readElement(payload));
+        }
+    }
+
+    static Object readElement(ByteBuffer payload) {
+        switch (PRIMITIVE_TYPES[payload.get()]) {
+            case STRING:
+                return readString(payload);
+            case INTEGER:
+                return payload.getInt();
+            case LONG:
+                return payload.getLong();
+            case DOUBLE:
+                return payload.getDouble();
+            case FLOAT:
+                return payload.getFloat();
+            case BOOLEAN:
+                return payload.get() != 0;
+            default:
+                throw new IllegalStateException("Unknown element tag");
+        }
+    }
+
+    private void begin(byte op, String key) {
+        buffer.clear();
+        buffer.position(HEADER_BYTES);
+        ensure(1);
+        buffer.put(op);
+        putString(key);
+    }
+
+    private ByteBuffer finish() {
+        int length = buffer.position() - HEADER_BYTES;
+        crc.reset();
+        crc.update(buffer.array(), HEADER_BYTES, length);
+        buffer.putInt(0, length);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    private void putElements(Collection<?> values) {
+        ensure(4);
+        buffer.putInt(values.size());
+        for (Object value : values) {
+            putElement(value);
+        }
+    }
+
+    private void putElement(Object value) {
+        ensure(9);
+        if (value instanceof String s) {
+            buffer.put((byte) PrimitiveType.STRING.ordinal());
+            putString(s);
+        } else if (value instanceof Integer i) {
+            buffer.put((byte) PrimitiveType.INTEGER.ordinal()).putInt(i);
+        } else if (value instanceof Long l) {
+            buffer.put((byte) PrimitiveType.LONG.ordinal()).putLong(l);
+        } else if (value instanceof Double d) {
+            buffer.put((byte) PrimitiveType.DOUBLE.ordinal()).putDouble(d);
+        } else if (value instanceof Float f) {
+            buffer.put((byte) PrimitiveType.FLOAT.ordinal()).putFloat(f);
+        } else if (value instanceof Boolean b) {
+            buffer.put((byte) PrimitiveType.BOOLEAN.ordinal()).put((byte) (b ? 1 : 0));
+        } else {
+            throw new IllegalArgumentException("Unsupported primitive type: " + value.getClass());
+        }
+    }
+
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(4 + bytes.length);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+}
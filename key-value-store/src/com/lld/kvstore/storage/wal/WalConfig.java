@@ -0,0 +1,62 @@
+package com.lld.kvstore.storage.wal;
+
+import java.nio.file.Path;
+
+public class WalConfig {
+    public static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+    public static final long DEFAULT_SYNC_INTERVAL_MS = 10;
+    public static final long DEFAULT_SYNC_BYTES = 4L * 1024 * 1024;
+    public static final long DEFAULT_SNAPSHOT_THRESHOLD_BYTES = 512L * 1024 * 1024;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long syncIntervalMs;
+    private final long syncBytes;
+    private final long snapshotThresholdBytes;
+
+    public WalConfig(Path directory) {
+        this(directory, DEFAULT_SEGMENT_BYTES, DEFAULT_SYNC_INTERVAL_MS,
+             DEFAULT_SYNC_BYTES, DEFAULT_SNAPSHOT_THRESHOLD_BYTES);
+    }
+
+    /**
+     * @param segmentBytes           size at which the active log segment is rolled
+     * @param syncIntervalMs         group-commit interval; at most this much acknowledged data can be lost on a crash
+     * @param syncBytes              unsynced bytes that force an early fsync from the writing thread
+     * @param snapshotThresholdBytes log bytes written since the last snapshot that trigger a new one
+     */
+    public WalConfig(Path directory, long segmentBytes, long syncIntervalMs,
+                     long syncBytes, long snapshotThresholdBytes) {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory cannot be null");
+        }
+        if (segmentBytes <= 0 || syncIntervalMs <= 0 || syncBytes <= 0 || snapshotThresholdBytes <= 0) {
+            throw new IllegalArgumentException("WAL sizes and intervals must be positive");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.syncIntervalMs = syncIntervalMs;
+        this.syncBytes = syncBytes;
+        this.snapshotThresholdBytes = snapshotThresholdBytes;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    public long getSyncIntervalMs() {
+        return syncIntervalMs;
+    }
+
+    public long getSyncBytes() {
+        return syncBytes;
+    }
+
+    public long getSnapshotThresholdBytes() {
+        return snapshotThresholdBytes;
+    }
+}
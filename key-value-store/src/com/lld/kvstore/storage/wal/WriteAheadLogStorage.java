@@ -0,0 +1,766 @@
+package com.lld.kvstore.storage.wal;
+
+import com.lld.kvstore.storage.CacheConfig;
+import com.lld.kvstore.storage.KeyScanCursor;
+import com.lld.kvstore.storage.Storage;
+import com.lld.kvstore.storage.StorageEntry;
+import com.lld.kvstore.storage.ValueFactory;
+import com.lld.kvstore.types.ListValue;
+import com.lld.kvstore.types.PrimitiveValue;
+import com.lld.kvstore.types.SetValue;
+import com.lld.kvstore.types.TypeDescriptor;
+import com.lld.kvstore.types.Value;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Durable {@link Storage}: every mutation is appended to a segmented write-ahead log before it is
+ * applied to the in-memory map, and the log is periodically compacted into a snapshot.
+ *
+ * <p>Appends land in an in-memory buffer and are written and fsynced as a group, either every
+ * {@link WalConfig#getSyncIntervalMs()} by a background thread or as soon as
+ * {@link WalConfig#getSyncBytes()} are pending. A crash can therefore lose at most one sync
+ * interval of acknowledged writes. Snapshots the flusher finds due are written on a thread of
+ * their own, so a long one does not hold up the interval fsyncs.
+ *
+ * <p>Recovery loads the newest snapshot and replays only the segments written after it.
+ * Collection add/remove records are not idempotent, so a snapshot must hold exactly the state
+ * at the moment its segment was rolled. The roll happens under an exclusive gate, which is held
+ * only for the roll itself. Values are then copied while writers keep running: until the copy
+ * is done, the first mutation of each key preserves the key's pre-roll value (copy-on-write),
+ * and the snapshot uses that instead of the live one.
+ *
+ * <p>Expired keys are deleted, and the delete logged, when they are read and by a background
+ * cycle that samples keys with a TTL the way {@link com.lld.kvstore.storage.InMemoryStorage}
+ * does. A key's log record and its map update happen together inside the map's per-key
+ * {@code compute}, so an expiry can never log its delete after a newer write of the same key.
+ * Snapshots leave out keys that have already expired.
+ */
+public final class WriteAheadLogStorage implements Storage, AutoCloseable {
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int IO_BUFFER_BYTES = 1 << 20;
+    private static final int EXPIRY_SAMPLES = CacheConfig.DEFAULT_EXPIRY_SAMPLES;
+    private static final long EXPIRY_INTERVAL_MS = CacheConfig.DEFAULT_EXPIRY_INTERVAL_MS;
+
+    private final WalConfig config;
+    private final ValueFactory valueFactory;
+    private final Map<String, StorageEntry> entries;
+    // Entries with a TTL; only changed inside a compute on the same key of entries.
+    private final Map<String, StorageEntry> expires;
+    private final ThreadLocal<WalCodec> codecs;
+
+    // Mutations hold the read side; a snapshot cut holds the write side.
+    private final ReentrantReadWriteLock gate;
+    private final ReentrantLock appendLock;
+    private final ReentrantLock snapshotLock;
+    private final ByteBuffer writeBuffer;
+    private final ScheduledExecutorService flusher;
+    private final ExecutorService snapshotter;
+    // Set from when the flusher hands a snapshot off until it is done, so they never pile up.
+    private final AtomicBoolean snapshotQueued;
+    private final ReentrantLock expiryLock;
+    // Resumes where the previous expiry round stopped; guarded by expiryLock.
+    private Iterator<StorageEntry> expiryCursor;
+    private volatile ScheduledExecutorService expiryScheduler;
+    // Pre-roll values of keys mutated while a snapshot is being copied; null otherwise.
+    private volatile Map<String, FrozenEntry> snapshotting;
+
+    private FileChannel segment;
+    private long segmentId;
+    private long segmentBytes;
+    private long unsyncedBytes;
+    private long bytesSinceSnapshot;
+    private final RecoveryStats recoveryStats;
+    // Set while recover() replays; expired keys found then are dropped without being logged.
+    private boolean replaying;
+    private volatile boolean closed;
+
+    public WriteAheadLogStorage(WalConfig config, ValueFactory valueFactory) {
+        this.config = config;
+        this.valueFactory = valueFactory;
+        this.entries = new ConcurrentHashMap<>();
+        this.expires = new ConcurrentHashMap<>();
+        this.codecs = ThreadLocal.withInitial(WalCodec::new);
+        this.gate = new ReentrantReadWriteLock();
+        this.appendLock = new ReentrantLock();
+        this.snapshotLock = new ReentrantLock();
+        this.writeBuffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES);
+        this.snapshotQueued = new AtomicBoolean();
+        this.expiryLock = new ReentrantLock();
+        this.expiryCursor = expires.values().iterator();
+
+        try {
+            Files.createDirectories(config.getDirectory());
+            this.recoveryStats = recover();
+            openSegment(segmentId + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open write-ahead log in " + config.getDirectory(), e);
+        }
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "wal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.snapshotter = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "wal-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushTick, config.getSyncIntervalMs(),
+                                       config.getSyncIntervalMs(), TimeUnit.MILLISECONDS);
+        if (!expires.isEmpty()) {
+            startExpiryCycle();
+        }
+    }
+
+    @Override
+    public Optional<StorageEntry> read(String key) {
+        StorageEntry entry = entries.get(key);
+        if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+            expire(entry);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entry);
+    }
+
+    @Override
+    public void write(String key, StorageEntry entry) {
+        gate.readLock().lock();
+        try {
+            ByteBuffer record = codecs.get().encodeWrite(key, entry.getType(), contentOf(entry.getValue()),
+                                                         entry.getExpiresAt());
+            entries.compute(key, (_, _) -> {
+                append(record);
+                preserve(key);
+                trackExpiry(key, entry);
+                return entry;
+            });
+        } finally {
+            gate.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        gate.readLock().lock();
+        try {
+            ByteBuffer record = codecs.get().encodeDelete(key);
+            entries.compute(key, (_, _) -> {
+                append(record);
+                preserve(key);
+                expires.remove(key);
+                return null;
+            });
+        } finally {
+            gate.readLock().unlock();
+        }
+    }
+
+    @Override
+    public KeyScanCursor scanKeys() {
+        return new KeyScanCursor(entries.values().iterator());
+    }
+
+    @Override
+    public void addToCollection(String key, Collection<?> values) {
+        gate.readLock().lock();
+        try {
+            append(codecs.get().encodeCollectionChange(WalCodec.OP_ADD, key, values));
+            preserve(key);
+            Storage.super.addToCollection(key, values);
+        } finally {
+            gate.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void prependToCollection(String key, Collection<?> values) {
+        gate.readLock().lock();
+        try {
+            append(codecs.get().encodeCollectionChange(WalCodec.OP_PREPEND, key, values));
+            preserve(key);
+            Storage.super.prependToCollection(key, values);
+        } finally {
+            gate.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeFromCollection(String key, Collection<?> values) {
+        gate.readLock().lock();
+        try {
+            append(codecs.get().encodeCollectionChange(WalCodec.OP_REMOVE, key, values));
+            preserve(key);
+            Storage.super.removeFromCollection(key, values);
+        } finally {
+            gate.readLock().unlock();
+        }
+    }
+
+    /** Forces every buffered record to disk. */
+    public void sync() {
+        appendLock.lock();
+        try {
+            syncLocked();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to sync write-ahead log", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /** Writes a compacted snapshot and deletes the log segments it covers. */
+    public void snapshot() {
+        snapshotLock.lock();
+        try {
+            Map<String, FrozenEntry> frozen = new ConcurrentHashMap<>();
+            long replayFrom;
+            gate.writeLock().lock();
+            try {
+                appendLock.lock();
+                try {
+                    rollLocked();
+                    replayFrom = segmentId;
+                    bytesSinceSnapshot = 0;
+                } finally {
+                    appendLock.unlock();
+                }
+                snapshotting = frozen;
+            } finally {
+                gate.writeLock().unlock();
+            }
+
+            try {
+                for (String key : entries.keySet()) {
+                    frozen.computeIfAbsent(key, this::freeze);
+                }
+                writeSnapshot(replayFrom, frozen.values());
+            } finally {
+                snapshotting = null;
+            }
+            deleteFilesBefore(SEGMENT_PREFIX, SEGMENT_SUFFIX, replayFrom);
+            deleteFilesBefore(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX, replayFrom);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Runs one active-expiry cycle and returns the number of keys it deleted. Called periodically
+     * by the background thread; exposed so callers can drive expiry deterministically.
+     */
+    public int activeExpireCycle() {
+        long started = System.currentTimeMillis();
+        long budgetMs = Math.max(1, EXPIRY_INTERVAL_MS / 4);
+        int removed = 0;
+        int sampled;
+        int expiredInRound;
+        do {
+            sampled = 0;
+            expiredInRound = 0;
+            long now = System.currentTimeMillis();
+            expiryLock.lock();
+            try {
+                boolean wrapped = false;
+                while (sampled < EXPIRY_SAMPLES) {
+                    if (!expiryCursor.hasNext()) {
+                        if (wrapped) {
+                            break;
+                        }
+                        expiryCursor = expires.values().iterator();
+                        wrapped = true;
+                        continue;
+                    }
+                    StorageEntry entry = expiryCursor.next();
+                    sampled++;
+                    if (entry.isExpired(now) && expire(entry)) {
+                        expiredInRound++;
+                    }
+                }
+            } finally {
+                expiryLock.unlock();
+            }
+            removed += expiredInRound;
+        } while (expiredInRound * 4 > sampled && System.currentTimeMillis() - started < budgetMs);
+        return removed;
+    }
+
+    public RecoveryStats getRecoveryStats() {
+        return recoveryStats;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ScheduledExecutorService scheduler = expiryScheduler;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        flusher.shutdown();
+        snapshotter.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+            snapshotter.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        appendLock.lock();
+        try {
+            syncLocked();
+            segment.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close write-ahead log", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void append(ByteBuffer record) {
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+        int length = record.remaining();
+        appendLock.lock();
+        try {
+            if (length > writeBuffer.remaining()) {
+                drainLocked();
+            }
+            if (length > writeBuffer.capacity()) {
+                writeFully(segment, record);
+            } else {
+                writeBuffer.put(record);
+            }
+            segmentBytes += length;
+            unsyncedBytes += length;
+            bytesSinceSnapshot += length;
+
+            if (segmentBytes >= config.getSegmentBytes()) {
+                rollLocked();
+            } else if (unsyncedBytes >= config.getSyncBytes()) {
+                syncLocked();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to write-ahead log", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Called under the gate's read side before a mutation touches {@code key}. Whichever of this
+     * and the snapshot's own copy reaches the key first wins, so the snapshot always gets the
+     * value as it was at the roll.
+     */
+    private void preserve(String key) {
+        Map<String, FrozenEntry> frozen = snapshotting;
+        if (frozen != null) {
+            frozen.computeIfAbsent(key, this::freeze);
+        }
+    }
+
+    /**
+     * Deletes {@code entry} and logs the delete, unless its key has been written or deleted since.
+     * Returns whether it did. If the log cannot be written the entry stays, still hidden by its
+     * TTL, and a later read or cycle tries again.
+     */
+    private boolean expire(StorageEntry entry) {
+        String key = entry.getKey();
+        if (replaying) {
+            if (!entries.remove(key, entry)) {
+                return false;
+            }
+            expires.remove(key);
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+        boolean[] removed = new boolean[1];
+        gate.readLock().lock();
+        try {
+            entries.computeIfPresent(key, (_, current) -> {
+                if (current != entry) {
+                    return current;
+                }
+                append(codecs.get().encodeDelete(key));
+                preserve(key);
+                expires.remove(key);
+                removed[0] = true;
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            return false;
+        } finally {
+            gate.readLock().unlock();
+        }
+        return removed[0];
+    }
+
+    // Called inside a compute on key, which is what keeps expires in step with entries.
+    private void trackExpiry(String key, StorageEntry entry) {
+        if (entry.hasExpiry()) {
+            expires.put(key, entry);
+            startExpiryCycle();
+        } else {
+            expires.remove(key);
+        }
+    }
+
+    private void startExpiryCycle() {
+        if (expiryScheduler != null || closed || replaying) {
+            return;
+        }
+        synchronized (this) {
+            if (expiryScheduler == null && !closed) {
+                ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "wal-active-expiry");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                scheduler.scheduleWithFixedDelay(this::activeExpireCycle, EXPIRY_INTERVAL_MS,
+                                                 EXPIRY_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                expiryScheduler = scheduler;
+            }
+        }
+    }
+
+    private FrozenEntry freeze(String key) {
+        StorageEntry entry = entries.get(key);
+        // An expired key is already gone as far as readers can tell, so the snapshot drops it too.
+        if (entry == null || entry.isExpired(System.currentTimeMillis())) {
+            return FrozenEntry.ABSENT;
+        }
+        return new FrozenEntry(key, entry.getType(), contentOf(entry.getValue()), entry.getExpiresAt());
+    }
+
+    private void flushTick() {
+        try {
+            boolean snapshotDue;
+            appendLock.lock();
+            try {
+                if (unsyncedBytes > 0) {
+                    syncLocked();
+                }
+                snapshotDue = bytesSinceSnapshot >= config.getSnapshotThresholdBytes();
+            } finally {
+                appendLock.unlock();
+            }
+            if (snapshotDue && !closed && snapshotQueued.compareAndSet(false, true)) {
+                snapshotter.execute(this::backgroundSnapshot);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // Keep the flusher alive; the next append or tick retries and surfaces the error.
+        }
+    }
+
+    private void backgroundSnapshot() {
+        try {
+            if (!closed) {
+                snapshot();
+            }
+        } catch (UncheckedIOException e) {
+            // The log still holds everything; the next snapshot that comes due tries again.
+        } finally {
+            snapshotQueued.set(false);
+        }
+    }
+
+    private void drainLocked() throws IOException {
+        writeBuffer.flip();
+        writeFully(segment, writeBuffer);
+        writeBuffer.clear();
+    }
+
+    private void syncLocked() throws IOException {
+        drainLocked();
+        segment.force(false);
+        unsyncedBytes = 0;
+    }
+
+    private void rollLocked() throws IOException {
+        syncLocked();
+        segment.close();
+        openSegment(segmentId + 1);
+    }
+
+    private void openSegment(long id) throws IOException {
+        segment = FileChannel.open(fileFor(SEGMENT_PREFIX, SEGMENT_SUFFIX, id),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentId = id;
+        segmentBytes = 0;
+    }
+
+    private void writeSnapshot(long replayFrom, Collection<FrozenEntry> frozen) throws IOException {
+        Path target = fileFor(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX, replayFrom);
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        WalCodec codec = codecs.get();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES);
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (FrozenEntry entry : frozen) {
+                if (entry == FrozenEntry.ABSENT) {
+                    continue;
+                }
+                ByteBuffer record = codec.encodeWrite(entry.key(), entry.type(), entry.content(), entry.expiresAt());
+                if (record.remaining() > buffer.remaining()) {
+                    buffer.flip();
+                    writeFully(channel, buffer);
+                    buffer.clear();
+                }
+                if (record.remaining() > buffer.capacity()) {
+                    writeFully(channel, record);
+                } else {
+                    buffer.put(record);
+                }
+            }
+            buffer.flip();
+            writeFully(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private RecoveryStats recover() throws IOException {
+        long started = System.nanoTime();
+        replaying = true;
+        try {
+            return replayAll(started);
+        } finally {
+            replaying = false;
+        }
+    }
+
+    private RecoveryStats replayAll(long started) throws IOException {
+        try (Stream<Path> files = Files.list(config.getDirectory())) {
+            files.filter(path -> path.getFileName().toString().endsWith(TEMP_SUFFIX))
+                 .forEach(path -> path.toFile().delete());
+        }
+
+        TreeMap<Long, Path> snapshots = listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        TreeMap<Long, Path> segments = listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+
+        long snapshotRecords = 0;
+        long replayFrom = 0;
+        if (!snapshots.isEmpty()) {
+            replayFrom = snapshots.lastKey();
+            snapshotRecords = replay(snapshots.lastEntry().getValue(), false);
+        }
+
+        long logRecords = 0;
+        int segmentsReplayed = 0;
+        for (Map.Entry<Long, Path> file : segments.tailMap(replayFrom, true).entrySet()) {
+            logRecords += replay(file.getValue(), file.getKey().equals(segments.lastKey()));
+            segmentsReplayed++;
+        }
+
+        segmentId = Math.max(replayFrom, segments.isEmpty() ? 0 : segments.lastKey());
+        deleteFilesBefore(SEGMENT_PREFIX, SEGMENT_SUFFIX, replayFrom);
+        deleteFilesBefore(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX, replayFrom);
+        return new RecoveryStats(snapshotRecords, logRecords, segmentsReplayed, System.nanoTime() - started);
+    }
+
+    /**
+     * Applies every intact record of {@code file} and returns how many were applied. A torn
+     * record at the end of the newest segment is truncated away. A bad record anywhere else is
+     * fatal: older segments and snapshots are fsynced before anything is written after them, so
+     * it is real corruption, and replaying past it would silently drop the writes it held.
+     */
+    private long replay(Path file, boolean truncateTornTail) throws IOException {
+        WalCodec codec = codecs.get();
+        ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_BYTES);
+        buffer.flip();
+        long validBytes = 0;
+        long records = 0;
+        boolean eof = false;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            while (true) {
+                int frame = WalCodec.frameLength(buffer);
+                // A length running past the end of the file is a garbage header, not a big record.
+                if (frame == 0 || frame > fileSize - validBytes) {
+                    break;
+                }
+                if (frame < 0 || frame > buffer.remaining()) {
+                    if (eof) {
+                        break;
+                    }
+                    if (frame > buffer.capacity()) {
+                        ByteBuffer grown = ByteBuffer.allocate(
+                                (int) Math.min(WalCodec.MAX_FRAME_BYTES, (long) Integer.highestOneBit(frame) << 1));
+                        grown.put(buffer);
+                        buffer = grown;
+                    } else {
+                        buffer.compact();
+                    }
+                    eof = channel.read(buffer) < 0;
+                    buffer.flip();
+                    continue;
+                }
+                ByteBuffer payload = codec.nextPayload(buffer, frame);
+                if (payload == null) {
+                    break;
+                }
+                apply(payload);
+                validBytes += frame;
+                records++;
+            }
+            if (validBytes < fileSize) {
+                if (!truncateTornTail) {
+                    throw new IOException("Corrupt record at offset " + validBytes + " of " + file);
+                }
+                channel.truncate(validBytes);
+            }
+        }
+        return records;
+    }
+
+    private void apply(ByteBuffer payload) {
+        byte op = payload.get();
+        String key = WalCodec.readString(payload);
+        switch (op) {
+            case WalCodec.OP_WRITE: {
+                StorageEntry entry = decodeEntry(key, payload);
+                if (entry.isExpired(System.currentTimeMillis())) {
+                    entries.remove(key);
+                    expires.remove(key);
+                } else {
+                    entries.put(key, entry);
+                    trackExpiry(key, entry);
+                }
+                break;
+            }
+            case WalCodec.OP_DELETE:
+                entries.remove(key);
+                expires.remove(key);
+                break;
+            case WalCodec.OP_ADD: {
+                List<Object> values = new ArrayList<>();
+                WalCodec.readElements(payload, values);
+                Storage.super.addToCollection(key, values);
+                break;
+            }
+            case WalCodec.OP_PREPEND: {
+                List<Object> values = new ArrayList<>();
+                WalCodec.readElements(payload, values);
+                Storage.super.prependToCollection(key, values);
+                break;
+            }
+            case WalCodec.OP_REMOVE: {
+                List<Object> values = new ArrayList<>();
+                WalCodec.readElements(payload, values);
+                Storage.super.removeFromCollection(key, values);
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unknown WAL op " + op + " for key " + key);
+        }
+    }
+
+    private StorageEntry decodeEntry(String key, ByteBuffer payload) {
+        long expiresAt = payload.getLong();
+        TypeDescriptor type = WalCodec.readType(payload);
+        Value value;
+        switch (type.getValueType()) {
+            case LIST: {
+                List<Object> values = new ArrayList<>();
+                WalCodec.readElements(payload, values);
+                value = valueFactory.createList(values, type.getPrimitiveType());
+                break;
+            }
+            case SET: {
+                HashSet<Object> values = new HashSet<>();
+                WalCodec.readElements(payload, values);
+                value = valueFactory.createSet(values, type.getPrimitiveType());
+                break;
+            }
+            default:
+                value = valueFactory.createPrimitive(WalCodec.readElement(payload), type.getPrimitiveType());
+        }
+        return new StorageEntry(key, type, value, expiresAt);
+    }
+
+    private static Object contentOf(Object value) {
+        if (value instanceof PrimitiveValue primitiveValue) {
+            return primitiveValue.getValue();
+        } else if (value instanceof ListValue listValue) {
+            return listValue.getValues();
+        } else if (value instanceof SetValue setValue) {
+            return setValue.getValues();
+        }
+        throw new IllegalArgumentException("Unsupported value: " + value);
+    }
+
+    private TreeMap<Long, Path> listFiles(String prefix, String suffix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.list(config.getDirectory())) {
+            paths.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.startsWith(prefix) && name.endsWith(suffix)) {
+                    files.put(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())), path);
+                }
+            });
+        }
+        return files;
+    }
+
+    private void deleteFilesBefore(String prefix, String suffix, long id) throws IOException {
+        for (Path path : listFiles(prefix, suffix).headMap(id, false).values()) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private Path fileFor(String prefix, String suffix, long id) {
+        return config.getDirectory().resolve(String.format("%s%020d%s", prefix, id, suffix));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /** Copy of an entry as it was when the snapshot's segment was rolled. */
+    private record FrozenEntry(String key, TypeDescriptor type, Object content, long expiresAt) {
+        // Marks a key that did not exist at the roll.
+        static final FrozenEntry ABSENT = new FrozenEntry(null, null, null, StorageEntry.NO_EXPIRY);
+    }
+}
@@ -1,53 +1,163 @@
 package com.lld.kvstore.types;
 
-import java.util.List;
 import java.util.ArrayList;
+import java.util.List;
+import com.lld.kvstore.types.encoding.ListEncoding;
+import com.lld.kvstore.types.encoding.ObjectListEncoding;
+import com.lld.kvstore.types.encoding.PersistentListEncoding;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * A list value. Mutable encodings are guarded by a per-value read-write lock. A
+ * {@link PersistentListEncoding} needs none: readers use whichever version is current, and
+ * writers compare-and-swap in a new one, so reads never block and {@link #getValues()} is an
+ * unmodifiable snapshot rather than a copy.
+ */
 public class ListValue extends Value {
-    private final List<Object> values;
+    private static final AtomicReferenceFieldUpdater<ListValue, ListEncoding> ENCODING =
+            AtomicReferenceFieldUpdater.newUpdater(ListValue.class, ListEncoding.class, "encoding");
+
+    private volatile ListEncoding encoding;
     private final TypeDescriptor typeDescriptor;
+    // Null for persistent encodings.
     private final ReadWriteLock lock;
     
     public ListValue(List<Object> values, PrimitiveType primitiveType) {
-        this.values = new ArrayList<>(values);
+        this(new ObjectListEncoding(values), primitiveType);
+    }
+    
+    /** Wraps an already populated encoding; see {@code ValueFactory} for how one is chosen. */
+    public ListValue(ListEncoding encoding, PrimitiveType primitiveType) {
+        this.encoding = encoding;
         this.typeDescriptor = new TypeDescriptor(ValueType.LIST, primitiveType);
-        this.lock = new ReentrantReadWriteLock();
+        this.lock = encoding instanceof PersistentListEncoding ? null : new ReentrantReadWriteLock();
     }
     
     public List<Object> getValues() {
-        lock.readLock().lock();
+        ListEncoding current = beginRead();
         try {
-            return new ArrayList<>(values);
+            return current.toList();
         } finally {
-            lock.readLock().unlock();
+            endRead();
+        }
+    }
+    
+    /**
+     * Copies only elements {@code [offset, offset + count)}, clamped to the list bounds, so paging
+     * through a large list never copies the whole thing.
+     */
+    public List<Object> range(int offset, int count) {
+        if (offset < 0 || count < 0) {
+            throw new IllegalArgumentException("offset and count must be non-negative");
+        }
+        ListEncoding current = beginRead();
+        try {
+            int from = Math.min(offset, current.size());
+            int to = (int) Math.min((long) from + count, current.size());
+            List<Object> page = new ArrayList<>(to - from);
+            current.copyRange(from, to, page);
+            return page;
+        } finally {
+            endRead();
         }
     }
     
     public boolean add(Object value) {
+        if (lock == null) {
+            ListEncoding current;
+            do {
+                current = encoding;
+            } while (!ENCODING.compareAndSet(this, current, ((PersistentListEncoding) current).append(value)));
+            return true;
+        }
+        lock.writeLock().lock();
+        try {
+            encoding = encoding.append(value);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /** Inserts {@code value} at the head of the list. */
+    public boolean prepend(Object value) {
+        if (lock == null) {
+            ListEncoding current;
+            do {
+                current = encoding;
+            } while (!ENCODING.compareAndSet(this, current, ((PersistentListEncoding) current).prepend(value)));
+            return true;
+        }
         lock.writeLock().lock();
         try {
-            return values.add(value);
+            encoding = encoding.prepend(value);
+            return true;
         } finally {
             lock.writeLock().unlock();
         }
     }
     
     public boolean remove(Object value) {
+        if (lock == null) {
+            while (true) {
+                PersistentListEncoding current = (PersistentListEncoding) encoding;
+                PersistentListEncoding next = current.withoutFirst(value);
+                if (next == current) {
+                    return false;
+                }
+                if (ENCODING.compareAndSet(this, current, next)) {
+                    return true;
+                }
+            }
+        }
         lock.writeLock().lock();
         try {
-            return values.remove(value);
+            return encoding.remove(value);
         } finally {
             lock.writeLock().unlock();
         }
     }
     
+    /** The physical representation currently in use, e.g. {@code IntListEncoding}. */
+    public String getEncodingName() {
+        ListEncoding current = beginRead();
+        try {
+            return current.getClass().getSimpleName();
+        } finally {
+            endRead();
+        }
+    }
+    
+    public long estimatedBytes() {
+        ListEncoding current = beginRead();
+        try {
+            return current.estimatedBytes();
+        } finally {
+            endRead();
+        }
+    }
+    
     public int size() {
-        lock.readLock().lock();
+        ListEncoding current = beginRead();
         try {
-            return values.size();
+            return current.size();
         } finally {
+            endRead();
+        }
+    }
+    
+    // Returns the encoding to read, locked if it is mutable; pair with endRead() in a finally block.
+    private ListEncoding beginRead() {
+        if (lock != null) {
+            lock.readLock().lock();
+        }
+        return encoding;
+    }
+    
+    private void endRead() {
+        if (lock != null) {
             lock.readLock().unlock();
         }
     }
@@ -63,35 +173,35 @@ public class ListValue extends Value {
         if (obj == null || getClass() != obj.getClass()) return false;
         
         ListValue that = (ListValue) obj;
-        lock.readLock().lock();
+        ListEncoding current = beginRead();
         try {
-            return java.util.Objects.equals(values, that.values) && 
+            return java.util.Objects.equals(current.toList(), that.getValues()) && 
                    java.util.Objects.equals(typeDescriptor, that.typeDescriptor);
         } finally {
-            lock.readLock().unlock();
+            endRead();
         }
     }
     
     @Override
     public int hashCode() {
-        lock.readLock().lock();
+        ListEncoding current = beginRead();
         try {
-            return java.util.Objects.hash(values, typeDescriptor);
+            return java.util.Objects.hash(current.toList(), typeDescriptor);
         } finally {
-            lock.readLock().unlock();
+            endRead();
         }
     }
     
     @Override
     public String toString() {
-        lock.readLock().lock();
+        ListEncoding current = beginRead();
         try {
             return "ListValue{" +
-                    "values=" + values +
+                    "values=" + current.toList() +
                     ", type=" + typeDescriptor +
                     '}';
         } finally {
-            lock.readLock().unlock();
+            endRead();
         }
     }
 }
@@ -0,0 +1,34 @@
+package com.lld.kvstore.types;
+
+import java.util.List;
+
+public class ScanResult<T> {
+    private final List<T> items;
+    private final long cursor;
+    
+    public ScanResult(List<T> items, long cursor) {
+        this.items = items;
+        this.cursor = cursor;
+    }
+    
+    public List<T> getItems() {
+        return items;
+    }
+    
+    /** Cursor to pass to the next call, or {@code 0} when the scan is complete. */
+    public long getCursor() {
+        return cursor;
+    }
+    
+    public boolean isComplete() {
+        return cursor == 0;
+    }
+    
+    @Override
+    public String toString() {
+        return "ScanResult{" +
+                "items=" + items +
+                ", cursor=" + cursor +
+                '}';
+    }
+}
@@ -1,53 +1,147 @@
 package com.lld.kvstore.types;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
-import java.util.HashSet;
+import com.lld.kvstore.types.encoding.SetEncoding;
+import com.lld.kvstore.types.encoding.ObjectSetEncoding;
+import com.lld.kvstore.types.encoding.PersistentSetEncoding;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * A set value. Mutable encodings are guarded by a per-value read-write lock. A
+ * {@link PersistentSetEncoding} needs none: readers use whichever version is current, and
+ * writers compare-and-swap in a new one, so reads never block and {@link #getValues()} is an
+ * unmodifiable snapshot rather than a copy.
+ */
 public class SetValue extends Value {
-    private final Set<Object> values;
+    private static final AtomicReferenceFieldUpdater<SetValue, SetEncoding> ENCODING =
+            AtomicReferenceFieldUpdater.newUpdater(SetValue.class, SetEncoding.class, "encoding");
+
+    private volatile SetEncoding encoding;
     private final TypeDescriptor typeDescriptor;
+    // Null for persistent encodings.
     private final ReadWriteLock lock;
     
     public SetValue(Set<Object> values, PrimitiveType primitiveType) {
-        this.values = new HashSet<>(values);
+        this(new ObjectSetEncoding(values), primitiveType);
+    }
+    
+    /** Wraps an already populated encoding; see {@code ValueFactory} for how one is chosen. */
+    public SetValue(SetEncoding encoding, PrimitiveType primitiveType) {
+        this.encoding = encoding;
         this.typeDescriptor = new TypeDescriptor(ValueType.SET, primitiveType);
-        this.lock = new ReentrantReadWriteLock();
+        this.lock = encoding instanceof PersistentSetEncoding ? null : new ReentrantReadWriteLock();
     }
     
     public Set<Object> getValues() {
-        lock.readLock().lock();
+        SetEncoding current = beginRead();
         try {
-            return new HashSet<>(values);
+            return current.toSet();
         } finally {
-            lock.readLock().unlock();
+            endRead();
+        }
+    }
+    
+    /**
+     * Returns up to {@code count} elements from {@code cursor} (start with {@code 0}) and the
+     * cursor for the next page, {@code 0} once the scan is complete. See {@code SetEncoding#scan}
+     * for the guarantees under concurrent modification.
+     */
+    public ScanResult<Object> scan(long cursor, int count) {
+        if (cursor < 0 || count <= 0) {
+            throw new IllegalArgumentException("cursor must be non-negative and count positive");
+        }
+        SetEncoding current = beginRead();
+        try {
+            List<Object> page = new ArrayList<>(Math.min(count, current.size()));
+            long next = current.scan(cursor, count, page);
+            return new ScanResult<>(page, next);
+        } finally {
+            endRead();
         }
     }
     
     public boolean add(Object value) {
+        if (lock == null) {
+            return swap(value, true);
+        }
         lock.writeLock().lock();
         try {
-            return values.add(value);
+            if (!encoding.canHold(value)) {
+                encoding = encoding.upgrade();
+            }
+            return encoding.add(value);
         } finally {
             lock.writeLock().unlock();
         }
     }
     
     public boolean remove(Object value) {
+        if (lock == null) {
+            return swap(value, false);
+        }
         lock.writeLock().lock();
         try {
-            return values.remove(value);
+            return encoding.remove(value);
         } finally {
             lock.writeLock().unlock();
         }
     }
     
+    /** The physical representation currently in use, e.g. {@code IntSetEncoding}. */
+    public String getEncodingName() {
+        SetEncoding current = beginRead();
+        try {
+            return current.getClass().getSimpleName();
+        } finally {
+            endRead();
+        }
+    }
+    
+    public long estimatedBytes() {
+        SetEncoding current = beginRead();
+        try {
+            return current.estimatedBytes();
+        } finally {
+            endRead();
+        }
+    }
+    
     public int size() {
-        lock.readLock().lock();
+        SetEncoding current = beginRead();
         try {
-            return values.size();
+            return current.size();
         } finally {
+            endRead();
+        }
+    }
+    
+    private boolean swap(Object value, boolean add) {
+        while (true) {
+            PersistentSetEncoding current = (PersistentSetEncoding) encoding;
+            PersistentSetEncoding next = add ? current.with(value) : current.without(value);
+            if (next == current) {
+                return false;
+            }
+            if (ENCODING.compareAndSet(this, current, next)) {
+                return true;
+            }
+        }
+    }
+    
+    // Returns the encoding to read, locked if it is mutable; pair with endRead() in a finally block.
+    private SetEncoding beginRead() {
+        if (lock != null) {
+            lock.readLock().lock();
+        }
+        return encoding;
+    }
+    
+    private void endRead() {
+        if (lock != null) {
             lock.readLock().unlock();
         }
     }
@@ -63,35 +157,35 @@ public class SetValue extends Value {
         if (obj == null || getClass() != obj.getClass()) return false;
         
         SetValue that = (SetValue) obj;
-        lock.readLock().lock();
+        SetEncoding current = beginRead();
         try {
-            return java.util.Objects.equals(values, that.values) && 
+            return java.util.Objects.equals(current.toSet(), that.getValues()) && 
                    java.util.Objects.equals(typeDescriptor, that.typeDescriptor);
         } finally {
-            lock.readLock().unlock();
+            endRead();
         }
     }
     
     @Override
     public int hashCode() {
-        lock.readLock().lock();
+        SetEncoding current = beginRead();
         try {
-            return java.util.Objects.hash(values, typeDescriptor);
+            return java.util.Objects.hash(current.toSet(), typeDescriptor);
         } finally {
-            lock.readLock().unlock();
+            endRead();
         }
     }
     
     @Override
     public String toString() {
-        lock.readLock().lock();
+        SetEncoding current = beginRead();
         try {
             return "SetValue{" +
-                    "values=" + values +
+                    "values=" + current.toSet() +
                     ", type=" + typeDescriptor +
                     '}';
         } finally {
-            lock.readLock().unlock();
+            endRead();
         }
     }
 }
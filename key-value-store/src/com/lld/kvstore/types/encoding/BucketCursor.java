@@ -0,0 +1,24 @@
+package com.lld.kvstore.types.encoding;
+
+/**
+ * Redis-style reverse-binary scan cursor over the home buckets of a power-of-two table.
+ * Incrementing the bucket index from its high bit down means that when the table doubles
+ * between two calls, the buckets already visited map exactly onto a prefix of the new order,
+ * so a scan neither misses nor restarts. The cursor counts home buckets, not slots, so
+ * probe-chain shifts on removal or rehash cannot move an element behind it.
+ */
+final class BucketCursor {
+    private BucketCursor() {
+    }
+
+    static int bucket(long cursor, int mask) {
+        return (int) cursor & mask;
+    }
+
+    /** Returns the cursor after {@code cursor}, or {@code 0} once every bucket has been visited. */
+    static long next(long cursor, int mask) {
+        int v = (int) cursor | ~mask;
+        v = Integer.reverse(Integer.reverse(v) + 1);
+        return v & 0xFFFFFFFFL;
+    }
+}
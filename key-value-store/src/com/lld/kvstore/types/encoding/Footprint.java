@@ -0,0 +1,32 @@
+package com.lld.kvstore.types.encoding;
+
+/**
+ * Approximate heap sizes on a 64-bit JVM with compressed oops. Only needs to be proportional;
+ * used by collection encodings and the storage max-memory policy.
+ */
+public final class Footprint {
+    public static final long OBJECT_HEADER = 16;
+    public static final long ARRAY_HEADER = 16;
+    public static final long REFERENCE = 4;
+
+    private Footprint() {
+    }
+
+    /** Size of one boxed element or string, excluding the reference to it. */
+    public static long of(Object element) {
+        if (element instanceof String s) {
+            return 24 + ARRAY_HEADER + align(s.length());
+        } else if (element instanceof Long || element instanceof Double) {
+            return 24;
+        }
+        return 16;
+    }
+
+    public static long array(int length, int elementBytes) {
+        return align(ARRAY_HEADER + (long) length * elementBytes);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,450 @@
+package com.lld.kvstore.types.encoding;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Persistent hash array mapped trie (Bagwell): each level consumes 5 bits of the element's hash,
+ * and a node stores only its occupied slots behind a 32-bit bitmap. An update copies just the
+ * nodes on the path to the changed slot, O(log32 n), and leaves the previous version intact.
+ * Elements with equal hashes share a collision node.
+ *
+ * <p>Iteration and {@link #scan} follow the trie's hash order, so a scan cursor is a position in
+ * that order rather than in a table: a scan returns every element present throughout it exactly
+ * once, whatever is added or removed in between, where the open-addressing sets may repeat some.
+ */
+public final class HamtSetEncoding implements PersistentSetEncoding {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    // Reference to the element plus its share of the bitmap nodes (~6 slots per node on average).
+    private static final long SLOT_BYTES = Footprint.REFERENCE + 6;
+    private static final HamtSetEncoding EMPTY = new HamtSetEncoding(new BitmapNode(null, 0, new Object[0]), 0, 0);
+
+    private final BitmapNode root;
+    private final int size;
+    private final long elementBytes;
+
+    private HamtSetEncoding(BitmapNode root, int size, long elementBytes) {
+        this.root = root;
+        this.size = size;
+        this.elementBytes = elementBytes;
+    }
+
+    public static HamtSetEncoding empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds the set with in-place updates: nodes created during the build carry a private edit
+     * token and are mutated directly instead of copied, as in Clojure's transients.
+     */
+    public static HamtSetEncoding of(Collection<?> values) {
+        Object edit = new Object();
+        BitmapNode root = new BitmapNode(edit, 0, new Object[0]);
+        int size = 0;
+        long elementBytes = 0;
+        for (Object value : values) {
+            int hash = Objects.hashCode(value);
+            if (!root.contains(value, hash, 0)) {
+                root = (BitmapNode) root.with(edit, value, hash, 0);
+                size++;
+                elementBytes += Footprint.of(value);
+            }
+        }
+        return size == 0 ? EMPTY : new HamtSetEncoding(root, size, elementBytes);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return root.contains(value, Objects.hashCode(value), 0);
+    }
+
+    @Override
+    public boolean canHold(Object value) {
+        return true;
+    }
+
+    @Override
+    public boolean add(Object value) {
+        throw new UnsupportedOperationException("HamtSetEncoding is immutable; use with");
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        throw new UnsupportedOperationException("HamtSetEncoding is immutable; use without");
+    }
+
+    @Override
+    public HamtSetEncoding with(Object value) {
+        int hash = Objects.hashCode(value);
+        if (root.contains(value, hash, 0)) {
+            return this;
+        }
+        return new HamtSetEncoding((BitmapNode) root.with(null, value, hash, 0), size + 1,
+                                   elementBytes + Footprint.of(value));
+    }
+
+    @Override
+    public HamtSetEncoding without(Object value) {
+        int hash = Objects.hashCode(value);
+        if (!root.contains(value, hash, 0)) {
+            return this;
+        }
+        BitmapNode next = (BitmapNode) root.without(value, hash, 0);
+        return next == null ? EMPTY : new HamtSetEncoding(next, size - 1, elementBytes - Footprint.of(value));
+    }
+
+    @Override
+    public Set<Object> toSet() {
+        return new View();
+    }
+
+    /**
+     * A non-zero cursor is {@code 1 +} the hash-order position to resume from. Elements sharing a
+     * hash are returned together, so a page can exceed {@code count} by a few.
+     */
+    @Override
+    public long scan(long cursor, int count, Collection<Object> out) {
+        Scan scan = new Scan(cursor, count, out);
+        scan.visit(root, 0, 0);
+        return scan.next;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return Footprint.OBJECT_HEADER + 16 + size * SLOT_BYTES + elementBytes;
+    }
+
+    @Override
+    public SetEncoding upgrade() {
+        return this;
+    }
+
+    private static int chunk(int hash, int shift) {
+        return (hash >>> shift) & MASK;
+    }
+
+    // Bits of the hash consumed at the level with this shift: 5, except 2 at the last level.
+    private static int levelBits(int shift) {
+        return Math.min(BITS, Integer.SIZE - shift);
+    }
+
+    /** Position of a hash in trie order: the level chunks concatenated, root level first. */
+    private static long orderKey(int hash) {
+        long key = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += BITS) {
+            key = (key << levelBits(shift)) | chunk(hash, shift);
+        }
+        return key;
+    }
+
+    private abstract static class Node {
+        abstract boolean contains(Object value, int hash, int shift);
+
+        /** Adds {@code value}, which must be absent; mutates in place if this node belongs to {@code edit}. */
+        abstract Node with(Object edit, Object value, int hash, int shift);
+
+        /** Removes {@code value}, which must be present; {@code null} if the node becomes empty. */
+        abstract Node without(Object value, int hash, int shift);
+
+        /** The only element if this node holds exactly one, so the parent can store it inline. */
+        abstract Object single();
+    }
+
+    private static final class BitmapNode extends Node {
+        private final Object edit;
+        private int bitmap;
+        private Object[] slots;
+
+        BitmapNode(Object edit, int bitmap, Object[] slots) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        @Override
+        boolean contains(Object value, int hash, int shift) {
+            int bit = 1 << chunk(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return false;
+            }
+            Object slot = slots[index(bit)];
+            return slot instanceof Node node ? node.contains(value, hash, shift + BITS) : Objects.equals(slot, value);
+        }
+
+        @Override
+        Node with(Object edit, Object value, int hash, int shift) {
+            int bit = 1 << chunk(hash, shift);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] grown = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, grown, 0, index);
+                grown[index] = value;
+                System.arraycopy(slots, index, grown, index + 1, slots.length - index);
+                if (isEditable(edit)) {
+                    bitmap |= bit;
+                    slots = grown;
+                    return this;
+                }
+                return new BitmapNode(edit, bitmap | bit, grown);
+            }
+            Object slot = slots[index];
+            Node child = slot instanceof Node node
+                    ? node.with(edit, value, hash, shift + BITS)
+                    : merge(edit, slot, Objects.hashCode(slot), value, hash, shift + BITS);
+            return child == slot ? this : set(edit, index, child);
+        }
+
+        @Override
+        Node without(Object value, int hash, int shift) {
+            int bit = 1 << chunk(hash, shift);
+            int index = index(bit);
+            if (slots[index] instanceof Node node) {
+                Node child = node.without(value, hash, shift + BITS);
+                if (child != null) {
+                    Object single = child.single();
+                    return set(null, index, single != null ? single : child);
+                }
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] shrunk = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, shrunk, 0, index);
+            System.arraycopy(slots, index + 1, shrunk, index, shrunk.length - index);
+            return new BitmapNode(null, bitmap ^ bit, shrunk);
+        }
+
+        @Override
+        Object single() {
+            return slots.length == 1 && !(slots[0] instanceof Node) ? slots[0] : null;
+        }
+
+        private Node set(Object edit, int index, Object slot) {
+            if (isEditable(edit)) {
+                slots[index] = slot;
+                return this;
+            }
+            Object[] copy = slots.clone();
+            copy[index] = slot;
+            return new BitmapNode(edit, bitmap, copy);
+        }
+
+        private boolean isEditable(Object edit) {
+            return edit != null && edit == this.edit;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+        private final int hash;
+        private final Object[] elements;
+
+        CollisionNode(int hash, Object[] elements) {
+            this.hash = hash;
+            this.elements = elements;
+        }
+
+        @Override
+        boolean contains(Object value, int hash, int shift) {
+            if (hash != this.hash) {
+                return false;
+            }
+            for (Object element : elements) {
+                if (Objects.equals(element, value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        Node with(Object edit, Object value, int hash, int shift) {
+            if (hash != this.hash) {
+                return merge(edit, this, this.hash, value, hash, shift);
+            }
+            Object[] grown = new Object[elements.length + 1];
+            System.arraycopy(elements, 0, grown, 0, elements.length);
+            grown[elements.length] = value;
+            return new CollisionNode(hash, grown);
+        }
+
+        @Override
+        Node without(Object value, int hash, int shift) {
+            if (elements.length == 1) {
+                return null;
+            }
+            Object[] shrunk = new Object[elements.length - 1];
+            int next = 0;
+            boolean removed = false;
+            for (Object element : elements) {
+                if (!removed && Objects.equals(element, value)) {
+                    removed = true;
+                } else {
+                    shrunk[next++] = element;
+                }
+            }
+            return new CollisionNode(hash, shrunk);
+        }
+
+        @Override
+        Object single() {
+            return elements.length == 1 ? elements[0] : null;
+        }
+    }
+
+    /**
+     * A node at {@code shift} holding {@code a} (an element or a collision node) and element
+     * {@code b}. Distinct hashes always differ in some level's chunk, so this terminates.
+     */
+    private static Node merge(Object edit, Object a, int hashA, Object b, int hashB, int shift) {
+        if (hashA == hashB) {
+            return new CollisionNode(hashA, new Object[] {a, b});
+        }
+        int chunkA = chunk(hashA, shift);
+        int chunkB = chunk(hashB, shift);
+        if (chunkA == chunkB) {
+            return new BitmapNode(edit, 1 << chunkA, new Object[] {merge(edit, a, hashA, b, hashB, shift + BITS)});
+        }
+        Object[] pair = chunkA < chunkB ? new Object[] {a, b} : new Object[] {b, a};
+        return new BitmapNode(edit, (1 << chunkA) | (1 << chunkB), pair);
+    }
+
+    /** Depth-first walk in hash order that skips subtrees lying entirely before the cursor. */
+    private static final class Scan {
+        private final long from;
+        private final int count;
+        private final Collection<Object> out;
+        private int emitted;
+        private long next;
+        private boolean full;
+
+        Scan(long cursor, int count, Collection<Object> out) {
+            this.from = Math.max(0, cursor - 1);
+            this.count = count;
+            this.out = out;
+        }
+
+        // prefix: the order-key bits of the chunks above this node.
+        void visit(BitmapNode node, int shift, long prefix) {
+            int bits = levelBits(shift);
+            int below = Integer.SIZE - shift - bits;
+            int index = 0;
+            for (int remaining = node.bitmap; remaining != 0 && !full; remaining &= remaining - 1, index++) {
+                int chunk = Integer.numberOfTrailingZeros(remaining);
+                long childPrefix = (prefix << bits) | chunk;
+                if (((childPrefix + 1) << below) - 1 < from) {
+                    continue;
+                }
+                Object slot = node.slots[index];
+                if (slot instanceof BitmapNode child) {
+                    visit(child, shift + BITS, childPrefix);
+                } else if (slot instanceof CollisionNode collision) {
+                    emit(orderKey(collision.hash), collision.elements);
+                } else {
+                    emit(orderKey(Objects.hashCode(slot)), slot);
+                }
+            }
+        }
+
+        private void emit(long key, Object... elements) {
+            if (key < from) {
+                return;
+            }
+            for (Object element : elements) {
+                out.add(element);
+            }
+            emitted += elements.length;
+            if (emitted >= count) {
+                full = true;
+                long resumeAt = key + 1;
+                next = resumeAt > 0xFFFF_FFFFL ? 0 : resumeAt + 1;
+            }
+        }
+    }
+
+    private final class View extends AbstractSet<Object> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object value) {
+            return HamtSetEncoding.this.contains(value);
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return new TrieIterator(root);
+        }
+    }
+
+    /** Walks the trie with an explicit stack; depth is at most 7 bitmap levels plus a collision node. */
+    private static final class TrieIterator implements Iterator<Object> {
+        private final Object[][] stack = new Object[8][];
+        private final int[] positions = new int[8];
+        private int depth;
+        private Object nextElement;
+        private boolean hasNext;
+
+        TrieIterator(BitmapNode root) {
+            stack[0] = root.slots;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            Object result = nextElement;
+            advance();
+            return result;
+        }
+
+        private void advance() {
+            while (depth >= 0) {
+                Object[] slots = stack[depth];
+                if (positions[depth] == slots.length) {
+                    depth--;
+                    continue;
+                }
+                Object slot = slots[positions[depth]++];
+                if (slot instanceof BitmapNode node) {
+                    push(node.slots);
+                } else if (slot instanceof CollisionNode collision) {
+                    push(collision.elements);
+                } else {
+                    nextElement = slot;
+                    hasNext = true;
+                    return;
+                }
+            }
+            hasNext = false;
+        }
+
+        private void push(Object[] slots) {
+            depth++;
+            stack[depth] = slots;
+            positions[depth] = 0;
+        }
+    }
+}
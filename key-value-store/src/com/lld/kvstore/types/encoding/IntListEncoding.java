@@ -0,0 +1,84 @@
+package com.lld.kvstore.types.encoding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Unboxed {@code int[]} growable array for INTEGER lists. */
+public class IntListEncoding implements ListEncoding {
+    private int[] elements;
+    private int size;
+
+    public IntListEncoding(int initialCapacity) {
+        this.elements = new int[Math.max(initialCapacity, 4)];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Object get(int index) {
+        return getInt(index);
+    }
+
+    public int getInt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return elements[index];
+    }
+
+    @Override
+    public boolean canHold(Object value) {
+        return value instanceof Integer;
+    }
+
+    @Override
+    public void add(Object value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size + (size >> 1));
+        }
+        elements[size++] = (Integer) value;
+    }
+
+    @Override
+    public void addFirst(Object value) {
+        int[] target = size == elements.length ? new int[size + (size >> 1)] : elements;
+        System.arraycopy(elements, 0, target, 1, size);
+        target[0] = (Integer) value;
+        elements = target;
+        size++;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        if (!(value instanceof Integer)) {
+            return false;
+        }
+        int target = (Integer) value;
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == target) {
+                System.arraycopy(elements, i + 1, elements, i, size - i - 1);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<Object> toList() {
+        List<Object> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(elements[i]);
+        }
+        return values;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return Footprint.OBJECT_HEADER + 8 + Footprint.array(elements.length, Integer.BYTES);
+    }
+}
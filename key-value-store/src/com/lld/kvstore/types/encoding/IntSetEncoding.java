@@ -0,0 +1,182 @@
+package com.lld.kvstore.types.encoding;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Open-addressing {@code int} hash set for INTEGER sets: linear probing, {@code 0} marks an empty
+ * slot (the value zero is tracked by a flag), and removal shifts the probe chain back instead
+ * of leaving tombstones.
+ */
+public class IntSetEncoding implements SetEncoding {
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private int[] table;
+    private int mask;
+    private int assigned;
+    private int resizeAt;
+    private boolean containsZero;
+
+    public IntSetEncoding(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    @Override
+    public int size() {
+        return assigned + (containsZero ? 1 : 0);
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof Integer i && containsInt(i);
+    }
+
+    public boolean containsInt(int value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        for (int slot = hash(value) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            if (table[slot] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean canHold(Object value) {
+        return value instanceof Integer;
+    }
+
+    @Override
+    public boolean add(Object value) {
+        return addInt((Integer) value);
+    }
+
+    public boolean addInt(int value) {
+        if (value == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int slot = hash(value) & mask;
+        while (table[slot] != 0) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        if (++assigned >= resizeAt) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        if (!(value instanceof Integer)) {
+            return false;
+        }
+        int target = (Integer) value;
+        if (target == 0) {
+            boolean removed = containsZero;
+            containsZero = false;
+            return removed;
+        }
+        int slot = hash(target) & mask;
+        while (table[slot] != target) {
+            if (table[slot] == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        shiftBack(slot);
+        assigned--;
+        return true;
+    }
+
+    @Override
+    public Set<Object> toSet() {
+        Set<Object> values = new HashSet<>(Math.max(16, (int) (size() / 0.75f) + 1));
+        if (containsZero) {
+            values.add(0);
+        }
+        for (int value : table) {
+            if (value != 0) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public long scan(long cursor, int count, Collection<Object> out) {
+        int emitted = 0;
+        if (cursor == 0 && containsZero) {
+            out.add(0);
+            emitted++;
+        }
+        do {
+            int bucket = BucketCursor.bucket(cursor, mask);
+            for (int slot = bucket; table[slot] != 0; slot = (slot + 1) & mask) {
+                if ((hash(table[slot]) & mask) == bucket) {
+                    out.add(table[slot]);
+                    emitted++;
+                }
+            }
+            cursor = BucketCursor.next(cursor, mask);
+        } while (cursor != 0 && emitted < count);
+        return cursor;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return Footprint.OBJECT_HEADER + 16 + Footprint.array(table.length, Integer.BYTES);
+    }
+
+    private void shiftBack(int gap) {
+        int slot = (gap + 1) & mask;
+        while (table[slot] != 0) {
+            int home = hash(table[slot]) & mask;
+            // Move the entry into the gap unless its home lies cyclically in (gap, slot].
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                table[gap] = table[slot];
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = table;
+        allocate(capacity);
+        for (int value : old) {
+            if (value != 0) {
+                int slot = hash(value) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 4) / LOAD_FACTOR) + 1;
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
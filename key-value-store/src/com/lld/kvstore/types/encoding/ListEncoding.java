@@ -0,0 +1,55 @@
+package com.lld.kvstore.types.encoding;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Physical representation behind a {@code ListValue}. Implementations are not thread-safe;
+ * the owning value guards them with its lock, except for {@link PersistentListEncoding}s.
+ */
+public interface ListEncoding {
+    int size();
+
+    Object get(int index);
+
+    /** Whether {@code value} fits this encoding without an upgrade (type and size limits). */
+    boolean canHold(Object value);
+
+    void add(Object value);
+
+    /** Inserts {@code value} before the first element, shifting the rest like a Redis listpack. */
+    void addFirst(Object value);
+
+    /** Removes the first occurrence of {@code value}. */
+    boolean remove(Object value);
+
+    List<Object> toList();
+
+    /** Appends elements {@code [from, to)} to {@code out} without materializing the rest. */
+    default void copyRange(int from, int to, Collection<Object> out) {
+        for (int i = from; i < to; i++) {
+            out.add(get(i));
+        }
+    }
+
+    long estimatedBytes();
+
+    /** Returns a general-purpose encoding holding the same elements. */
+    default ListEncoding upgrade() {
+        return new ObjectListEncoding(toList());
+    }
+
+    /** Adds {@code value}, upgrading first if needed, and returns the encoding now in use. */
+    default ListEncoding append(Object value) {
+        ListEncoding target = canHold(value) ? this : upgrade();
+        target.add(value);
+        return target;
+    }
+
+    /** Like {@link #append} but inserts at the head. */
+    default ListEncoding prepend(Object value) {
+        ListEncoding target = canHold(value) ? this : upgrade();
+        target.addFirst(value);
+        return target;
+    }
+}
@@ -0,0 +1,101 @@
+package com.lld.kvstore.types.encoding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unboxed {@code long[]} growable array for LONG lists, and for DOUBLE lists stored as raw
+ * bits (so equality matches {@link Double#equals}).
+ */
+public class LongListEncoding implements ListEncoding {
+    private final boolean doubles;
+    private long[] elements;
+    private int size;
+
+    private LongListEncoding(boolean doubles, int initialCapacity) {
+        this.doubles = doubles;
+        this.elements = new long[Math.max(initialCapacity, 4)];
+    }
+
+    public static LongListEncoding ofLongs(int initialCapacity) {
+        return new LongListEncoding(false, initialCapacity);
+    }
+
+    public static LongListEncoding ofDoubles(int initialCapacity) {
+        return new LongListEncoding(true, initialCapacity);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Object get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return box(elements[index]);
+    }
+
+    @Override
+    public boolean canHold(Object value) {
+        return doubles ? value instanceof Double : value instanceof Long;
+    }
+
+    @Override
+    public void add(Object value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size + (size >> 1));
+        }
+        elements[size++] = unbox(value);
+    }
+
+    @Override
+    public void addFirst(Object value) {
+        long[] target = size == elements.length ? new long[size + (size >> 1)] : elements;
+        System.arraycopy(elements, 0, target, 1, size);
+        target[0] = unbox(value);
+        elements = target;
+        size++;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        if (!canHold(value)) {
+            return false;
+        }
+        long target = unbox(value);
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == target) {
+                System.arraycopy(elements, i + 1, elements, i, size - i - 1);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<Object> toList() {
+        List<Object> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(box(elements[i]));
+        }
+        return values;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return Footprint.OBJECT_HEADER + 8 + Footprint.array(elements.length, Long.BYTES);
+    }
+
+    private Object box(long bits) {
+        return doubles ? (Object) Double.longBitsToDouble(bits) : (Object) bits;
+    }
+
+    private long unbox(Object value) {
+        return doubles ? Double.doubleToLongBits((Double) value) : (Long) value;
+    }
+}
@@ -0,0 +1,197 @@
+package com.lld.kvstore.types.encoding;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Open-addressing {@code long} hash set for LONG sets, and for DOUBLE sets keyed by raw bits.
+ * Same layout as {@link IntSetEncoding}: linear probing, a flag for the value whose bits are
+ * {@code 0}, and backward-shift deletion.
+ */
+public class LongSetEncoding implements SetEncoding {
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private final boolean doubles;
+    private long[] table;
+    private int mask;
+    private int assigned;
+    private int resizeAt;
+    private boolean containsZero;
+
+    private LongSetEncoding(boolean doubles, int expectedSize) {
+        this.doubles = doubles;
+        allocate(capacityFor(expectedSize));
+    }
+
+    public static LongSetEncoding ofLongs(int expectedSize) {
+        return new LongSetEncoding(false, expectedSize);
+    }
+
+    public static LongSetEncoding ofDoubles(int expectedSize) {
+        return new LongSetEncoding(true, expectedSize);
+    }
+
+    @Override
+    public int size() {
+        return assigned + (containsZero ? 1 : 0);
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return canHold(value) && containsBits(unbox(value));
+    }
+
+    @Override
+    public boolean canHold(Object value) {
+        return doubles ? value instanceof Double : value instanceof Long;
+    }
+
+    @Override
+    public boolean add(Object value) {
+        long bits = unbox(value);
+        if (bits == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int slot = hash(bits) & mask;
+        while (table[slot] != 0) {
+            if (table[slot] == bits) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = bits;
+        if (++assigned >= resizeAt) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        if (!canHold(value)) {
+            return false;
+        }
+        long bits = unbox(value);
+        if (bits == 0) {
+            boolean removed = containsZero;
+            containsZero = false;
+            return removed;
+        }
+        int slot = hash(bits) & mask;
+        while (table[slot] != bits) {
+            if (table[slot] == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        shiftBack(slot);
+        assigned--;
+        return true;
+    }
+
+    @Override
+    public Set<Object> toSet() {
+        Set<Object> values = new HashSet<>(Math.max(16, (int) (size() / 0.75f) + 1));
+        if (containsZero) {
+            values.add(box(0));
+        }
+        for (long bits : table) {
+            if (bits != 0) {
+                values.add(box(bits));
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public long scan(long cursor, int count, Collection<Object> out) {
+        int emitted = 0;
+        if (cursor == 0 && containsZero) {
+            out.add(box(0));
+            emitted++;
+        }
+        do {
+            int bucket = BucketCursor.bucket(cursor, mask);
+            for (int slot = bucket; table[slot] != 0; slot = (slot + 1) & mask) {
+                if ((hash(table[slot]) & mask) == bucket) {
+                    out.add(box(table[slot]));
+                    emitted++;
+                }
+            }
+            cursor = BucketCursor.next(cursor, mask);
+        } while (cursor != 0 && emitted < count);
+        return cursor;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return Footprint.OBJECT_HEADER + 24 + Footprint.array(table.length, Long.BYTES);
+    }
+
+    private boolean containsBits(long bits) {
+        if (bits == 0) {
+            return containsZero;
+        }
+        for (int slot = hash(bits) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            if (table[slot] == bits) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void shiftBack(int gap) {
+        int slot = (gap + 1) & mask;
+        while (table[slot] != 0) {
+            int home = hash(table[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                table[gap] = table[slot];
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        allocate(capacity);
+        for (long bits : old) {
+            if (bits != 0) {
+                int slot = hash(bits) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = bits;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private Object box(long bits) {
+        return doubles ? (Object) Double.longBitsToDouble(bits) : (Object) bits;
+    }
+
+    private long unbox(Object value) {
+        return doubles ? Double.doubleToLongBits((Double) value) : (Long) value;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 4) / LOAD_FACTOR) + 1;
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private static int hash(long bits) {
+        long h = bits * 0x9E3779B97F4A7C15L;
+        int folded = (int) (h ^ (h >>> 32));
+        return folded ^ (folded >>> 16);
+    }
+}
@@ -0,0 +1,70 @@
+package com.lld.kvstore.types.encoding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/** Boxed elements in an {@link ArrayList}; holds anything. */
+public class ObjectListEncoding implements ListEncoding {
+    private final List<Object> values;
+    private long elementBytes;
+
+    public ObjectListEncoding(Collection<?> values) {
+        this.values = new ArrayList<>(values);
+        for (Object value : values) {
+            elementBytes += Footprint.of(value);
+        }
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public Object get(int index) {
+        return values.get(index);
+    }
+
+    @Override
+    public boolean canHold(Object value) {
+        return true;
+    }
+
+    @Override
+    public void add(Object value) {
+        values.add(value);
+        elementBytes += Footprint.of(value);
+    }
+
+    @Override
+    public void addFirst(Object value) {
+        values.add(0, value);
+        elementBytes += Footprint.of(value);
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        int index = values.indexOf(value);
+        if (index < 0) {
+            return false;
+        }
+        elementBytes -= Footprint.of(values.remove(index));
+        return true;
+    }
+
+    @Override
+    public List<Object> toList() {
+        return new ArrayList<>(values);
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return Footprint.OBJECT_HEADER + 8 + Footprint.array(values.size(), (int) Footprint.REFERENCE) + elementBytes;
+    }
+
+    @Override
+    public ListEncoding upgrade() {
+        return this;
+    }
+}
@@ -0,0 +1,168 @@
+package com.lld.kvstore.types.encoding;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Boxed elements in an open-addressing table; holds anything. Uses the same probing and
+ * backward-shift deletion as {@link IntSetEncoding} so sets of every type can be scanned
+ * page by page with a {@link BucketCursor}, which {@link HashSet} cannot offer.
+ */
+public final class ObjectSetEncoding implements SetEncoding {
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private Object[] table;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private long elementBytes;
+
+    public ObjectSetEncoding(Collection<?> values) {
+        allocate(capacityFor(values.size()));
+        for (Object value : values) {
+            add(value);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        if (value == null) {
+            return false;
+        }
+        for (int slot = hash(value) & mask; table[slot] != null; slot = (slot + 1) & mask) {
+            if (table[slot].equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean canHold(Object value) {
+        return true;
+    }
+
+    @Override
+    public boolean add(Object value) {
+        Objects.requireNonNull(value, "Set elements cannot be null");
+        int slot = hash(value) & mask;
+        while (table[slot] != null) {
+            if (table[slot].equals(value)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        elementBytes += Footprint.of(value);
+        if (++size >= resizeAt) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        if (value == null) {
+            return false;
+        }
+        int slot = hash(value) & mask;
+        while (!value.equals(table[slot])) {
+            if (table[slot] == null) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        elementBytes -= Footprint.of(table[slot]);
+        shiftBack(slot);
+        size--;
+        return true;
+    }
+
+    @Override
+    public Set<Object> toSet() {
+        Set<Object> values = new HashSet<>(Math.max(16, (int) (size / 0.75f) + 1));
+        for (Object value : table) {
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public long scan(long cursor, int count, Collection<Object> out) {
+        int emitted = 0;
+        do {
+            int bucket = BucketCursor.bucket(cursor, mask);
+            // Everything whose home is this bucket sits in the probe run that starts here.
+            for (int slot = bucket; table[slot] != null; slot = (slot + 1) & mask) {
+                if ((hash(table[slot]) & mask) == bucket) {
+                    out.add(table[slot]);
+                    emitted++;
+                }
+            }
+            cursor = BucketCursor.next(cursor, mask);
+        } while (cursor != 0 && emitted < count);
+        return cursor;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return Footprint.OBJECT_HEADER + 24 + Footprint.array(table.length, (int) Footprint.REFERENCE) + elementBytes;
+    }
+
+    @Override
+    public SetEncoding upgrade() {
+        return this;
+    }
+
+    private void shiftBack(int gap) {
+        int slot = (gap + 1) & mask;
+        while (table[slot] != null) {
+            int home = hash(table[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                table[gap] = table[slot];
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        Object[] old = table;
+        allocate(capacity);
+        for (Object value : old) {
+            if (value != null) {
+                int slot = hash(value) & mask;
+                while (table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 4) / LOAD_FACTOR) + 1;
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private static int hash(Object value) {
+        int h = value.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
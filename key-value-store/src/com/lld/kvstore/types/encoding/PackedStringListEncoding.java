@@ -0,0 +1,172 @@
+package com.lld.kvstore.types.encoding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Small STRING lists packed into one {@code byte[]} as {@code [varint length][utf-8 bytes]}
+ * entries, like a Redis listpack. Access is a linear scan, so the encoding refuses elements
+ * once it holds {@link #MAX_ENTRIES} or {@link #MAX_BYTES}; the owning value then upgrades.
+ */
+public class PackedStringListEncoding implements ListEncoding {
+    public static final int MAX_ENTRIES = 128;
+    public static final int MAX_BYTES = 8 * 1024;
+
+    private byte[] buffer;
+    private int used;
+    private int size;
+
+    public PackedStringListEncoding() {
+        this.buffer = new byte[64];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Object get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        int offset = 0;
+        for (int i = 0; i < index; i++) {
+            offset = skip(offset);
+        }
+        return decode(offset);
+    }
+
+    @Override
+    public boolean canHold(Object value) {
+        // 3 bytes per char bounds the UTF-8 size without encoding twice
+        return value instanceof String s && size < MAX_ENTRIES && used + 5 + s.length() * 3 <= MAX_BYTES;
+    }
+
+    @Override
+    public void add(Object value) {
+        byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+        ensure(5 + bytes.length);
+        used = writeVarint(bytes.length, used);
+        System.arraycopy(bytes, 0, buffer, used, bytes.length);
+        used += bytes.length;
+        size++;
+    }
+
+    @Override
+    public void addFirst(Object value) {
+        byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+        int entry = varintSize(bytes.length) + bytes.length;
+        ensure(entry);
+        System.arraycopy(buffer, 0, buffer, entry, used);
+        System.arraycopy(bytes, 0, buffer, writeVarint(bytes.length, 0), bytes.length);
+        used += entry;
+        size++;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        if (!(value instanceof String)) {
+            return false;
+        }
+        byte[] target = ((String) value).getBytes(StandardCharsets.UTF_8);
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            int next = skip(offset);
+            int start = next - readLength(offset);
+            if (Arrays.equals(buffer, start, next, target, 0, target.length)) {
+                System.arraycopy(buffer, next, buffer, offset, used - next);
+                used -= next - offset;
+                size--;
+                return true;
+            }
+            offset = next;
+        }
+        return false;
+    }
+
+    @Override
+    public List<Object> toList() {
+        List<Object> values = new ArrayList<>(size);
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            values.add(decode(offset));
+            offset = skip(offset);
+        }
+        return values;
+    }
+
+    @Override
+    public void copyRange(int from, int to, Collection<Object> out) {
+        int offset = 0;
+        for (int i = 0; i < to; i++) {
+            if (i >= from) {
+                out.add(decode(offset));
+            }
+            offset = skip(offset);
+        }
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return Footprint.OBJECT_HEADER + 8 + Footprint.array(buffer.length, 1);
+    }
+
+    private String decode(int offset) {
+        int length = readLength(offset);
+        int start = skip(offset) - length;
+        return new String(buffer, start, length, StandardCharsets.UTF_8);
+    }
+
+    /** Returns the offset just past the entry starting at {@code offset}. */
+    private int skip(int offset) {
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer[offset++];
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return offset + length;
+    }
+
+    private int readLength(int offset) {
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer[offset++];
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return length;
+    }
+
+    private int writeVarint(int value, int offset) {
+        while ((value & ~0x7F) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+
+    private static int varintSize(int value) {
+        int bytes = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+
+    private void ensure(int bytes) {
+        if (used + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, used + bytes));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.lld.kvstore.types.encoding;
+
+/**
+ * An immutable {@link ListEncoding}. {@link #append}, {@link #prepend} and {@link #withoutFirst} return a new version
+ * sharing structure with this one, which never changes, so a reader holding a version needs no
+ * lock; {@link #toList()} is an unmodifiable view rather than a copy.
+ */
+public interface PersistentListEncoding extends ListEncoding {
+    @Override
+    PersistentListEncoding append(Object value);
+
+    @Override
+    PersistentListEncoding prepend(Object value);
+
+    /** This list without the first occurrence of {@code value}; {@code this} if there is none. */
+    PersistentListEncoding withoutFirst(Object value);
+}
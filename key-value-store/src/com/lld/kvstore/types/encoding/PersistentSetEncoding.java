@@ -0,0 +1,14 @@
+package com.lld.kvstore.types.encoding;
+
+/**
+ * An immutable {@link SetEncoding}. {@link #with} and {@link #without} return a new version sharing
+ * structure with this one, which never changes, so a reader holding a version needs no lock;
+ * {@link #toSet()} is an unmodifiable view rather than a copy.
+ */
+public interface PersistentSetEncoding extends SetEncoding {
+    /** This set plus {@code value}; {@code this} if it is already present. */
+    PersistentSetEncoding with(Object value);
+
+    /** This set minus {@code value}; {@code this} if it is absent. */
+    PersistentSetEncoding without(Object value);
+}
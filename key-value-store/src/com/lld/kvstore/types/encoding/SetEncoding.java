@@ -0,0 +1,38 @@
+package com.lld.kvstore.types.encoding;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Physical representation behind a {@code SetValue}. Implementations are not thread-safe;
+ * the owning value guards them with its lock, except for {@link PersistentSetEncoding}s.
+ */
+public interface SetEncoding {
+    int size();
+
+    boolean contains(Object value);
+
+    /** Whether {@code value} fits this encoding without an upgrade. */
+    boolean canHold(Object value);
+
+    boolean add(Object value);
+
+    boolean remove(Object value);
+
+    Set<Object> toSet();
+
+    /**
+     * Appends up to {@code count} elements starting at {@code cursor} to {@code out} and returns
+     * the cursor to resume from, or {@code 0} once the whole set has been visited. A scan started
+     * at {@code 0} returns every element that is present throughout it at least once, even if the
+     * set is modified or resized in between; an element may be returned more than once.
+     */
+    long scan(long cursor, int count, Collection<Object> out);
+
+    long estimatedBytes();
+
+    /** Returns a general-purpose encoding holding the same elements. */
+    default SetEncoding upgrade() {
+        return new ObjectSetEncoding(toSet());
+    }
+}
@@ -0,0 +1,277 @@
+package com.lld.kvstore.types.encoding;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Persistent bit-partitioned vector trie, as in Clojure and Scala: elements live in 32-slot leaves
+ * under 32-way internal nodes, plus a tail leaf that is not yet in the tree. Appending copies the
+ * tail, and every 32nd append copies one root-to-leaf path, so old versions stay intact at
+ * O(log32 n) cost. {@code get} is at most 4 hops for a million elements.
+ *
+ * <p>Removing from the middle or inserting at the head rebuilds the vector, which is O(n) like
+ * Redis LREM.
+ */
+public final class VectorListEncoding implements PersistentListEncoding {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final Object[] NO_ELEMENTS = new Object[0];
+    private static final VectorListEncoding EMPTY = new VectorListEncoding(0, 0, null, NO_ELEMENTS, 0);
+
+    private final int size;
+    // Level of the root: 0 when the root is itself a leaf, +5 per internal level.
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+    private final long elementBytes;
+
+    private VectorListEncoding(int size, int shift, Object[] root, Object[] tail, long elementBytes) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+        this.elementBytes = elementBytes;
+    }
+
+    public static VectorListEncoding empty() {
+        return EMPTY;
+    }
+
+    /** Builds the tree bottom-up in one pass instead of appending element by element. */
+    public static VectorListEncoding of(Collection<?> values) {
+        Object[] elements = values.toArray();
+        long elementBytes = 0;
+        for (Object element : elements) {
+            elementBytes += Footprint.of(element);
+        }
+        return build(elements, elementBytes);
+    }
+
+    private static VectorListEncoding build(Object[] elements, long elementBytes) {
+        int size = elements.length;
+        if (size == 0) {
+            return EMPTY;
+        }
+        int tailOffset = tailOffset(size);
+        Object[] tail = new Object[size - tailOffset];
+        System.arraycopy(elements, tailOffset, tail, 0, tail.length);
+
+        List<Object[]> level = new ArrayList<>(tailOffset / WIDTH);
+        for (int from = 0; from < tailOffset; from += WIDTH) {
+            Object[] leaf = new Object[WIDTH];
+            System.arraycopy(elements, from, leaf, 0, WIDTH);
+            level.add(leaf);
+        }
+        int shift = 0;
+        while (level.size() > 1) {
+            List<Object[]> parents = new ArrayList<>((level.size() + MASK) / WIDTH);
+            for (int from = 0; from < level.size(); from += WIDTH) {
+                Object[] parent = new Object[WIDTH];
+                for (int i = from; i < Math.min(from + WIDTH, level.size()); i++) {
+                    parent[i - from] = level.get(i);
+                }
+                parents.add(parent);
+            }
+            level = parents;
+            shift += BITS;
+        }
+        return new VectorListEncoding(size, shift, level.isEmpty() ? null : level.get(0), tail, elementBytes);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Object get(int index) {
+        Objects.checkIndex(index, size);
+        return leafFor(index)[index & MASK];
+    }
+
+    @Override
+    public boolean canHold(Object value) {
+        return true;
+    }
+
+    @Override
+    public void add(Object value) {
+        throw new UnsupportedOperationException("VectorListEncoding is immutable; use append");
+    }
+
+    @Override
+    public void addFirst(Object value) {
+        throw new UnsupportedOperationException("VectorListEncoding is immutable; use prepend");
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        throw new UnsupportedOperationException("VectorListEncoding is immutable; use withoutFirst");
+    }
+
+    @Override
+    public VectorListEncoding append(Object value) {
+        long bytes = elementBytes + Footprint.of(value);
+        if (tail.length < WIDTH) {
+            Object[] grown = new Object[tail.length + 1];
+            System.arraycopy(tail, 0, grown, 0, tail.length);
+            grown[tail.length] = value;
+            return new VectorListEncoding(size + 1, shift, root, grown, bytes);
+        }
+
+        // The tail is full: it becomes the tree's next leaf.
+        int tailOffset = size - WIDTH;
+        Object[] newRoot;
+        int newShift = shift;
+        if (root == null) {
+            newRoot = tail;
+        } else if (tailOffset == 1 << (shift + BITS)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = path(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushLeaf(shift, root, tail, tailOffset);
+        }
+        return new VectorListEncoding(size + 1, newShift, newRoot, new Object[] {value}, bytes);
+    }
+
+    /** Every leaf would shift by one slot, so this rebuilds the vector in O(n). */
+    @Override
+    public VectorListEncoding prepend(Object value) {
+        Object[] elements = new Object[size + 1];
+        elements[0] = value;
+        int written = 1;
+        for (int index = 0; index < size; index += WIDTH) {
+            int length = Math.min(WIDTH, size - index);
+            System.arraycopy(leafFor(index), 0, elements, written, length);
+            written += length;
+        }
+        return build(elements, elementBytes + Footprint.of(value));
+    }
+
+    @Override
+    public VectorListEncoding withoutFirst(Object value) {
+        int found = indexOf(value);
+        if (found < 0) {
+            return this;
+        }
+        // Flatten leaf by leaf, skipping the match, and rebuild without re-measuring every element.
+        Object[] remaining = new Object[size - 1];
+        int written = 0;
+        for (int index = 0; index < size; index += WIDTH) {
+            Object[] leaf = leafFor(index);
+            int length = Math.min(WIDTH, size - index);
+            if (found >= index && found < index + length) {
+                int before = found - index;
+                System.arraycopy(leaf, 0, remaining, written, before);
+                System.arraycopy(leaf, before + 1, remaining, written + before, length - before - 1);
+                written += length - 1;
+            } else {
+                System.arraycopy(leaf, 0, remaining, written, length);
+                written += length;
+            }
+        }
+        return build(remaining, elementBytes - Footprint.of(value));
+    }
+
+    @Override
+    public List<Object> toList() {
+        return new View();
+    }
+
+    @Override
+    public void copyRange(int from, int to, Collection<Object> out) {
+        int index = from;
+        while (index < to) {
+            Object[] leaf = leafFor(index);
+            int end = Math.min(to, (index | MASK) + 1);
+            for (int offset = index & MASK; index < end; index++, offset++) {
+                out.add(leaf[offset]);
+            }
+        }
+    }
+
+    @Override
+    public long estimatedBytes() {
+        // Full 32-slot leaves, plus roughly one internal node per 31 of them, plus the tail.
+        long leaves = tailOffset(size) >>> BITS;
+        long nodes = leaves + leaves / (WIDTH - 1);
+        return Footprint.OBJECT_HEADER + 24 + nodes * Footprint.array(WIDTH, (int) Footprint.REFERENCE)
+                + Footprint.array(tail.length, (int) Footprint.REFERENCE) + elementBytes;
+    }
+
+    @Override
+    public ListEncoding upgrade() {
+        return this;
+    }
+
+    private int indexOf(Object value) {
+        for (int index = 0; index < size; index += WIDTH) {
+            Object[] leaf = leafFor(index);
+            int length = Math.min(WIDTH, size - index);
+            for (int offset = 0; offset < length; offset++) {
+                if (Objects.equals(leaf[offset], value)) {
+                    return index + offset;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset(size)) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    // Index of the first element in the tail; everything before it is in the tree.
+    private static int tailOffset(int size) {
+        return size == 0 ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    // Copies the path to the leaf slot for elements starting at leafIndex and hangs the leaf there.
+    private static Object[] pushLeaf(int level, Object[] parent, Object[] leaf, int leafIndex) {
+        Object[] copy = parent.clone();
+        int slot = (leafIndex >>> level) & MASK;
+        if (level == BITS) {
+            copy[slot] = leaf;
+        } else {
+            Object[] child = (Object[]) parent[slot];
+            copy[slot] = child == null ? path(level - BITS, leaf) : pushLeaf(level - BITS, child, leaf, leafIndex);
+        }
+        return copy;
+    }
+
+    // A chain of single-child nodes from a node at level down to leaf.
+    private static Object[] path(int level, Object[] leaf) {
+        if (level == 0) {
+            return leaf;
+        }
+        Object[] node = new Object[WIDTH];
+        node[0] = path(level - BITS, leaf);
+        return node;
+    }
+
+    private final class View extends AbstractList<Object> implements RandomAccess {
+        @Override
+        public Object get(int index) {
+            return VectorListEncoding.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -8,8 +8,11 @@ import com.lld.ratelimiter.config.TokenBucketParams;
 import com.lld.ratelimiter.model.ClientEndpointPlan;
 import com.lld.ratelimiter.model.ClientPlan;
 import com.lld.ratelimiter.model.RateLimitAlgorithmType;
+import com.lld.ratelimiter.model.RateLimitRequest;
 import com.lld.ratelimiter.facade.RateLimiterFacade;
 
+import java.util.List;
+
 public class Main {
 
     public static void main(String[] args) throws InterruptedException {
@@ -78,5 +81,19 @@ public class Main {
 
             Thread.sleep(100);
         }
+
+        // One gateway request charged against two limits at once: both or neither.
+        RateLimitResult batchResult = rateLimiterFacade.allowAll(List.of(
+                new RateLimitRequest("clientB", "/orders", 3),
+                new RateLimitRequest("clientB", "/search")
+        ));
+
+        System.out.println(
+                "clientB batch allowed=" + batchResult.isAllowed()
+                        + " remaining=" + batchResult.getRemaining()
+                        + " retryAfterMs=" + batchResult.getRetryAfterMs()
+        );
+
+        System.out.println("State store: " + rateLimiterFacade.getStateStoreStats());
     }
 }
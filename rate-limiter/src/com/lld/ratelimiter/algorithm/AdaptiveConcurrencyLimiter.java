@@ -0,0 +1,151 @@
+package com.lld.ratelimiter.algorithm;
+
+import com.lld.ratelimiter.clock.RateLimitClock;
+import com.lld.ratelimiter.config.AimdConcurrencyParams;
+import com.lld.ratelimiter.config.ConcurrencyLimitParams;
+import com.lld.ratelimiter.model.RateLimitCompletion;
+import com.lld.ratelimiter.model.RateLimitResult;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits how many requests may be in flight at once rather than how many may start per second,
+ * and adapts that limit to the latency the backend shows, so a slowing backend sheds load before
+ * its queues build up. The limit is shared by every client of the endpoint and plan.
+ *
+ * <p>Each allowed result holds a slot until its outcome is reported through
+ * {@link RateLimitResult#onSuccess()}, {@link RateLimitResult#onDropped()} or
+ * {@link RateLimitResult#onIgnore()}; a result that is never reported leaks its slot. Admission
+ * is one CAS on the in-flight count; only completions take the lock that updates the limit.
+ */
+public final class AdaptiveConcurrencyLimiter implements RateLimiter {
+
+    private static final double LATENCY_WEIGHT = 0.1;
+
+    private final ConcurrencyLimitParams params;
+    private final ConcurrencyLimitAlgorithm algorithm;
+    private final RateLimitClock clock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Object lock = new Object();
+
+    private volatile int limit;
+    private volatile long smoothedLatencyNanos;
+    // Guarded by lock: the fractional limit the algorithm works on.
+    private double estimatedLimit;
+
+    private AdaptiveConcurrencyLimiter(
+            ConcurrencyLimitParams params,
+            ConcurrencyLimitAlgorithm algorithm,
+            RateLimitClock clock
+    ) {
+        this.params = params;
+        this.algorithm = algorithm;
+        this.clock = clock;
+        this.estimatedLimit = params.getInitialLimit();
+        this.limit = params.getInitialLimit();
+    }
+
+    public static AdaptiveConcurrencyLimiter aimd(AimdConcurrencyParams params, RateLimitClock clock) {
+        long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(params.getLatencyThresholdMs());
+        return new AdaptiveConcurrencyLimiter(params.getLimits(), new AimdLimit(thresholdNanos), clock);
+    }
+
+    public static AdaptiveConcurrencyLimiter gradient(ConcurrencyLimitParams params, RateLimitClock clock) {
+        return new AdaptiveConcurrencyLimiter(params, new GradientLimit(), clock);
+    }
+
+    @Override
+    public RateLimitResult allow(String clientId, int permits) {
+        RateLimiter.checkPermits(permits, params.getMaxLimit());
+
+        while (true) {
+            int current = inFlight.get();
+            int currentLimit = limit;
+
+            if (current + permits > currentLimit) {
+                // A slot frees up when a request completes, about one latency from now.
+                long retryAfterMs = TimeUnit.NANOSECONDS.toMillis(smoothedLatencyNanos);
+                return RateLimitResult.denied(Math.max(1L, retryAfterMs));
+            }
+            if (inFlight.compareAndSet(current, current + permits)) {
+                return RateLimitResult.allowed(
+                        currentLimit - current - permits,
+                        new InFlightRequest(permits, current + permits, clock.nanoTime())
+                );
+            }
+        }
+    }
+
+    @Override
+    public void refund(String clientId, int permits) {
+        inFlight.addAndGet(-permits);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void complete(InFlightRequest request, boolean dropped) {
+        inFlight.addAndGet(-request.permits);
+        long latencyNanos = clock.nanoTime() - request.startNanos;
+
+        synchronized (lock) {
+            double next = algorithm.update(estimatedLimit, request.inFlightAtStart, latencyNanos, dropped);
+            estimatedLimit = Math.max(params.getMinLimit(), Math.min(params.getMaxLimit(), next));
+            limit = (int) estimatedLimit;
+
+            long smoothed = smoothedLatencyNanos;
+            smoothedLatencyNanos = smoothed == 0
+                    ? latencyNanos
+                    : smoothed + (long) ((latencyNanos - smoothed) * LATENCY_WEIGHT);
+        }
+    }
+
+    private final class InFlightRequest implements RateLimitCompletion {
+        private final int permits;
+        private final int inFlightAtStart;
+        private final long startNanos;
+        // Guarded by this; the first report wins.
+        private boolean reported;
+
+        private InFlightRequest(int permits, int inFlightAtStart, long startNanos) {
+            this.permits = permits;
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void onSuccess() {
+            if (markReported()) {
+                complete(this, false);
+            }
+        }
+
+        @Override
+        public void onDropped() {
+            if (markReported()) {
+                complete(this, true);
+            }
+        }
+
+        @Override
+        public void onIgnore() {
+            if (markReported()) {
+                inFlight.addAndGet(-permits);
+            }
+        }
+
+        private synchronized boolean markReported() {
+            if (reported) {
+                return false;
+            }
+            reported = true;
+            return true;
+        }
+    }
+}
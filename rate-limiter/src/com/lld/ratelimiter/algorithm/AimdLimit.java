@@ -0,0 +1,29 @@
+package com.lld.ratelimiter.algorithm;
+
+/**
+ * Additive increase, multiplicative decrease, as TCP does with its congestion window: a drop or a
+ * request slower than the threshold cuts the limit by 10%, and the limit otherwise grows by about
+ * one per round trip (one limit's worth of completions) while it is actually being used.
+ */
+final class AimdLimit implements ConcurrencyLimitAlgorithm {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final long latencyThresholdNanos;
+
+    AimdLimit(long latencyThresholdNanos) {
+        this.latencyThresholdNanos = latencyThresholdNanos;
+    }
+
+    @Override
+    public double update(double limit, int inFlight, long latencyNanos, boolean dropped) {
+        if (dropped || latencyNanos > latencyThresholdNanos) {
+            return limit * BACKOFF_RATIO;
+        }
+        // A mostly idle limit says nothing about how much more the backend could take.
+        if (inFlight * 2 >= limit) {
+            return limit + 1 / limit;
+        }
+        return limit;
+    }
+}
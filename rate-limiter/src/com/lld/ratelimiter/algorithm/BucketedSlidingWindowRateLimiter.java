@@ -0,0 +1,152 @@
+package com.lld.ratelimiter.algorithm;
+
+import com.lld.ratelimiter.clock.RateLimitClock;
+import com.lld.ratelimiter.config.BucketedSlidingWindowParams;
+import com.lld.ratelimiter.model.RateLimitResult;
+import com.lld.ratelimiter.repository.IdlePolicy;
+import com.lld.ratelimiter.repository.RateLimitStateStore;
+import com.lld.ratelimiter.state.BucketedSlidingWindowState;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Sliding window counted in a ring of fixed-size buckets, with memory per client of one int per
+ * bucket regardless of the limit. The window is rounded up to whole buckets (the partially elapsed
+ * oldest one is still counted), so no {@code windowSizeMs} span ever admits more than
+ * {@code maxRequests}, at the cost of denying up to one bucket early. More buckets trade memory
+ * for precision.
+ */
+public final class BucketedSlidingWindowRateLimiter implements RateLimiter {
+
+    private final BucketedSlidingWindowParams params;
+    private final RateLimitStateStore<BucketedSlidingWindowState> stateStore;
+    private final RateLimitClock clock;
+    private final int ringSize;
+    // Built once rather than as a capturing lambda per call.
+    private final Supplier<BucketedSlidingWindowState> newState;
+
+    public BucketedSlidingWindowRateLimiter(
+            BucketedSlidingWindowParams params,
+            RateLimitStateStore<BucketedSlidingWindowState> stateStore,
+            RateLimitClock clock
+    ) {
+        this.params = params;
+        this.stateStore = stateStore;
+        this.clock = clock;
+        this.ringSize = params.getBuckets() + 1;
+        this.newState = () -> new BucketedSlidingWindowState(ringSize);
+    }
+
+    @Override
+    public RateLimitResult allow(String clientId, int permits) {
+        RateLimiter.checkPermits(permits, params.getMaxRequests());
+        long now = clock.millis();
+        long bucket = now / params.getBucketSizeMs();
+
+        while (true) {
+            BucketedSlidingWindowState state = stateStore.getOrCreate(clientId, newState);
+
+            synchronized (state) {
+                if (state.isRetired()) {
+                    continue;
+                }
+
+                advance(state, bucket);
+
+                int[] counts = state.getCounts();
+                if (state.getTotal() + permits <= params.getMaxRequests()) {
+                    counts[slot(state.getNewestBucket())] += permits;
+                    state.setTotal(state.getTotal() + permits);
+
+                    return RateLimitResult.allowed(params.getMaxRequests() - state.getTotal());
+                }
+
+                return RateLimitResult.denied(computeRetryAfterMs(state, now, permits));
+            }
+        }
+    }
+
+    @Override
+    public void refund(String clientId, int permits) {
+        long bucket = clock.millis() / params.getBucketSizeMs();
+
+        while (true) {
+            BucketedSlidingWindowState state = stateStore.getOrCreate(clientId, newState);
+
+            synchronized (state) {
+                if (state.isRetired()) {
+                    continue;
+                }
+
+                advance(state, bucket);
+
+                int[] counts = state.getCounts();
+                int slot = slot(state.getNewestBucket());
+                int refunded = Math.min(permits, counts[slot]);
+                counts[slot] -= refunded;
+                state.setTotal(state.getTotal() - refunded);
+                return;
+            }
+        }
+    }
+
+    // Idle once every counted request has slid out of the ring.
+    public static IdlePolicy<BucketedSlidingWindowState> idlePolicy(BucketedSlidingWindowParams params, RateLimitClock clock) {
+        return state -> {
+            synchronized (state) {
+                long bucket = clock.millis() / params.getBucketSizeMs();
+
+                if (state.getTotal() > 0 && bucket - state.getNewestBucket() < state.getCounts().length) {
+                    return false;
+                }
+                state.retire();
+                return true;
+            }
+        };
+    }
+
+    // Clears the buckets that slid out of the window since the last request, at most once each.
+    private void advance(BucketedSlidingWindowState state, long bucket) {
+        long newestBucket = state.getNewestBucket();
+        if (bucket <= newestBucket) {
+            return;
+        }
+
+        int[] counts = state.getCounts();
+        if (bucket - newestBucket >= counts.length) {
+            Arrays.fill(counts, 0);
+            state.setTotal(0);
+        } else {
+            int total = state.getTotal();
+            for (long expired = newestBucket + 1; expired <= bucket; expired++) {
+                int slot = slot(expired);
+                total -= counts[slot];
+                counts[slot] = 0;
+            }
+            state.setTotal(total);
+        }
+        state.setNewestBucket(bucket);
+    }
+
+    // Time until enough of the oldest buckets expire to make room for permits more requests.
+    private long computeRetryAfterMs(BucketedSlidingWindowState state, long now, int permits) {
+        int[] counts = state.getCounts();
+        int excess = state.getTotal() - params.getMaxRequests() + permits;
+        long oldestBucket = state.getNewestBucket() - counts.length + 1;
+
+        long bucket = oldestBucket;
+        int expired = counts[slot(bucket)];
+        while (expired < excess) {
+            bucket++;
+            expired += counts[slot(bucket)];
+        }
+
+        long expiresAtMs = (bucket + counts.length) * params.getBucketSizeMs();
+        return Math.max(1L, expiresAtMs - now);
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) ringSize);
+    }
+}
@@ -0,0 +1,11 @@
+package com.lld.ratelimiter.algorithm;
+
+/** Policy that moves a concurrency limit after each completed request. */
+interface ConcurrencyLimitAlgorithm {
+
+    /**
+     * Returns the next limit, before clamping, given the request's latency and the number of
+     * requests in flight when it started. Called under the limiter's lock.
+     */
+    double update(double limit, int inFlight, long latencyNanos, boolean dropped);
+}
@@ -0,0 +1,39 @@
+package com.lld.ratelimiter.algorithm;
+
+/**
+ * Vegas-style gradient: compares each request's latency with a slow moving average of past
+ * latencies. Up to {@value #TOLERANCE} times that baseline counts as no queueing and lets the limit
+ * grow by its square root; beyond it the limit shrinks in proportion, by at most half. Changes are
+ * smoothed, and a baseline far above current latencies decays quickly so that a backend that has
+ * recovered is trusted again.
+ */
+final class GradientLimit implements ConcurrencyLimitAlgorithm {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_WEIGHT = 2.0 / (600 + 1);
+
+    private double baselineNanos;
+
+    @Override
+    public double update(double limit, int inFlight, long latencyNanos, boolean dropped) {
+        double latency = Math.max(1, latencyNanos);
+        if (baselineNanos == 0) {
+            baselineNanos = latency;
+        } else {
+            baselineNanos += (latency - baselineNanos) * BASELINE_WEIGHT;
+        }
+        if (baselineNanos > 2 * latency) {
+            baselineNanos *= 0.95;
+        }
+
+        // A mostly idle limit says nothing about how much more the backend could take.
+        if (!dropped && inFlight * 2 < limit) {
+            return limit;
+        }
+
+        double gradient = dropped ? 0.5 : Math.max(0.5, Math.min(1.0, TOLERANCE * baselineNanos / latency));
+        double target = limit * gradient + Math.sqrt(limit);
+        return limit * (1 - SMOOTHING) + target * SMOOTHING;
+    }
+}
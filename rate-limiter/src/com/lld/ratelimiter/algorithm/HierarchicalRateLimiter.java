@@ -0,0 +1,97 @@
+package com.lld.ratelimiter.algorithm;
+
+import com.lld.ratelimiter.clock.RateLimitClock;
+import com.lld.ratelimiter.model.RateLimitResult;
+
+/**
+ * A per-client limiter nested in the budget of the client's plan and the budget of the whole
+ * endpoint: a request is charged to the client, then to the plan (shared fairly among its
+ * clients), then to the endpoint (shared fairly among plans), and whatever was already charged
+ * is refunded when a level above denies. Either budget may be absent.
+ *
+ * <p>The budgets are {@link QuotaBucket}s, updated by CAS without allocating, so with a
+ * LOCK_FREE_TOKEN_BUCKET client limit the whole check is lock-free, and the client limiter's own
+ * result is returned unless a budget has fewer tokens left than the client.
+ */
+public final class HierarchicalRateLimiter implements RateLimiter {
+
+    private final RateLimiter clientLimiter;
+    private final QuotaBucket planQuota;
+    private final QuotaBucket endpointQuota;
+    // The plan's child id in the endpoint budget.
+    private final String planId;
+    private final RateLimitClock clock;
+    private final int quotaCapacity;
+
+    public HierarchicalRateLimiter(
+            RateLimiter clientLimiter,
+            QuotaBucket planQuota,
+            QuotaBucket endpointQuota,
+            String planId,
+            RateLimitClock clock
+    ) {
+        if (planQuota == null && endpointQuota == null) {
+            throw new IllegalArgumentException("at least one quota is required");
+        }
+        this.clientLimiter = clientLimiter;
+        this.planQuota = planQuota;
+        this.endpointQuota = endpointQuota;
+        this.planId = planId;
+        this.clock = clock;
+        this.quotaCapacity = Math.min(
+                planQuota == null ? Integer.MAX_VALUE : planQuota.getCapacity(),
+                endpointQuota == null ? Integer.MAX_VALUE : endpointQuota.getCapacity()
+        );
+    }
+
+    @Override
+    public RateLimitResult allow(String clientId, int permits) {
+        // Checked before charging the client, so an impossible cost leaves nothing to refund.
+        RateLimiter.checkPermits(permits, quotaCapacity);
+
+        RateLimitResult result = clientLimiter.allow(clientId, permits);
+        if (!result.isAllowed()) {
+            return result;
+        }
+
+        long now = clock.nanoTime();
+        long remaining = result.getRemaining();
+
+        if (planQuota != null) {
+            long granted = planQuota.acquire(clientId, permits, now);
+            if (granted < 0) {
+                clientLimiter.refund(clientId, permits);
+                return RateLimitResult.denied(-granted);
+            }
+            remaining = Math.min(remaining, granted);
+        }
+
+        if (endpointQuota != null) {
+            long granted = endpointQuota.acquire(planId, permits, now);
+            if (granted < 0) {
+                if (planQuota != null) {
+                    planQuota.release(clientId, permits, now);
+                }
+                clientLimiter.refund(clientId, permits);
+                return RateLimitResult.denied(-granted);
+            }
+            remaining = Math.min(remaining, granted);
+        }
+
+        return remaining == result.getRemaining()
+                ? result
+                : RateLimitResult.allowed((int) remaining, result.getCompletion());
+    }
+
+    @Override
+    public void refund(String clientId, int permits) {
+        long now = clock.nanoTime();
+        if (endpointQuota != null) {
+            endpointQuota.release(planId, permits, now);
+        }
+        if (planQuota != null) {
+            planQuota.release(clientId, permits, now);
+        }
+        clientLimiter.refund(clientId, permits);
+    }
+}
@@ -0,0 +1,96 @@
+package com.lld.ratelimiter.algorithm;
+
+import com.lld.ratelimiter.clock.RateLimitClock;
+import com.lld.ratelimiter.config.TokenBucketParams;
+import com.lld.ratelimiter.model.RateLimitResult;
+import com.lld.ratelimiter.repository.IdlePolicy;
+import com.lld.ratelimiter.repository.RateLimitStateStore;
+import com.lld.ratelimiter.state.GcraState;
+
+/**
+ * Token bucket with the same parameters and results as {@link TokenBucketRateLimiter}, expressed
+ * as the generic cell rate algorithm (GCRA): each request pushes the client's theoretical arrival
+ * time forward by one emission interval, and is allowed while that stays within
+ * {@code capacity} intervals of now. The state is one {@code long} updated by CAS, so concurrent
+ * requests for the same client never block each other.
+ */
+public final class LockFreeTokenBucketRateLimiter implements RateLimiter {
+
+    private static final long NANOS_PER_MS = 1_000_000L;
+    private static final double MAX_WINDOW_NANOS = Long.MAX_VALUE / 4.0;
+
+    private final RateLimitStateStore<GcraState> stateStore;
+    private final RateLimitClock clock;
+    private final int capacity;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+
+    public LockFreeTokenBucketRateLimiter(
+            TokenBucketParams params,
+            RateLimitStateStore<GcraState> stateStore,
+            RateLimitClock clock
+    ) {
+        this.stateStore = stateStore;
+        this.clock = clock;
+        this.capacity = params.getCapacity();
+        double intervalNanos = 1_000_000_000.0 / params.getRefillRatePerSecond();
+
+        // Capped so that now + burst cannot overflow even for absurdly slow refill rates.
+        this.emissionIntervalNanos = Math.max(1L, (long) Math.min(intervalNanos, MAX_WINDOW_NANOS));
+        this.burstNanos = (long) Math.min((double) emissionIntervalNanos * params.getCapacity(), MAX_WINDOW_NANOS);
+    }
+
+    @Override
+    public RateLimitResult allow(String clientId, int permits) {
+        RateLimiter.checkPermits(permits, capacity);
+        long costNanos = costNanos(permits);
+        long now = clock.nanoTime();
+
+        GcraState state = stateStore.getOrCreate(clientId, GcraState::new);
+
+        while (true) {
+            long theoreticalArrival = state.getTheoreticalArrivalNanos();
+            if (theoreticalArrival == GcraState.RETIRED) {
+                state = stateStore.getOrCreate(clientId, GcraState::new);
+                continue;
+            }
+            long next = Math.max(theoreticalArrival, now) + costNanos;
+            long debtNanos = next - now;
+
+            if (debtNanos > burstNanos) {
+                return RateLimitResult.denied(Math.ceilDiv(debtNanos - burstNanos, NANOS_PER_MS));
+            }
+            if (state.compareAndSet(theoreticalArrival, next)) {
+                return RateLimitResult.allowed((int) ((burstNanos - debtNanos) / emissionIntervalNanos));
+            }
+        }
+    }
+
+    @Override
+    public void refund(String clientId, int permits) {
+        long costNanos = costNanos(permits);
+        long now = clock.nanoTime();
+
+        GcraState state = stateStore.getOrCreate(clientId, GcraState::new);
+
+        while (true) {
+            long theoreticalArrival = state.getTheoreticalArrivalNanos();
+            // A full bucket, fresh or evicted, has nothing to give back to.
+            if (theoreticalArrival <= now || theoreticalArrival == GcraState.RETIRED) {
+                return;
+            }
+            if (state.compareAndSet(theoreticalArrival, theoreticalArrival - costNanos)) {
+                return;
+            }
+        }
+    }
+
+    // A TAT that the clock has caught up with is a full bucket.
+    public static IdlePolicy<GcraState> idlePolicy(RateLimitClock clock) {
+        return state -> state.retireIfIdle(clock.nanoTime());
+    }
+
+    private long costNanos(int permits) {
+        return (long) Math.min((double) emissionIntervalNanos * permits, MAX_WINDOW_NANOS);
+    }
+}
@@ -0,0 +1,234 @@
+package com.lld.ratelimiter.algorithm;
+
+import com.lld.ratelimiter.clock.RateLimitClock;
+import com.lld.ratelimiter.config.TokenBucketParams;
+import com.lld.ratelimiter.repository.IdlePolicy;
+import com.lld.ratelimiter.repository.RateLimitStateStore;
+import com.lld.ratelimiter.state.QuotaShareState;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Supplier;
+
+/**
+ * A token bucket shared by several children, such as the clients of a plan or the plans of an
+ * endpoint, kept as a GCRA arrival time updated by CAS like {@link LockFreeTokenBucketRateLimiter}.
+ *
+ * <p>While more than half the bucket is left, any child may take from it. Below that, a child
+ * with other children active is held to its fair share: each child keeps its own arrival time
+ * at {@code refillRate / activeChildren}, with an equal part of half the bucket as burst, and is
+ * denied once that runs ahead of the clock. Children using less than their share are never
+ * held back by heavier ones, and whatever they leave unused can still be taken. Active children
+ * are counted per epoch of about one bucket refill: a child counts from its first request in an
+ * epoch until the end of the next.
+ */
+public final class QuotaBucket {
+
+    private static final long NANOS_PER_MS = 1_000_000L;
+    private static final double MAX_WINDOW_NANOS = Long.MAX_VALUE / 4.0;
+    private static final long MIN_EPOCH_NANOS = 10 * NANOS_PER_MS;
+    private static final long MAX_EPOCH_NANOS = 1_000 * NANOS_PER_MS;
+
+    // Activity is one word: epoch (low 24 bits) | children in the previous epoch | in this one.
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long EPOCH_MASK = (1L << 24) - 1;
+
+    private static final VarHandle THEORETICAL_ARRIVAL;
+    private static final VarHandle ACTIVITY;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            THEORETICAL_ARRIVAL = lookup.findVarHandle(QuotaBucket.class, "theoreticalArrivalNanos", long.class);
+            ACTIVITY = lookup.findVarHandle(QuotaBucket.class, "activity", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final RateLimitStateStore<QuotaShareState> shares;
+    private final Supplier<QuotaShareState> shareInitializer = QuotaShareState::new;
+    private final int capacity;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final long epochNanos;
+
+    private volatile long theoreticalArrivalNanos = Long.MIN_VALUE;
+    private volatile long activity;
+
+    public QuotaBucket(TokenBucketParams params, RateLimitStateStore<QuotaShareState> shares) {
+        this.shares = shares;
+        this.capacity = params.getCapacity();
+        double intervalNanos = 1_000_000_000.0 / params.getRefillRatePerSecond();
+
+        // Capped so that now + burst cannot overflow even for absurdly slow refill rates.
+        this.emissionIntervalNanos = Math.max(1L, (long) Math.min(intervalNanos, MAX_WINDOW_NANOS));
+        this.burstNanos = (long) Math.min((double) emissionIntervalNanos * params.getCapacity(), MAX_WINDOW_NANOS);
+        this.epochNanos = epochNanos(params);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Takes {@code permits} for {@code childId} at {@code nowNanos}. Returns the tokens left when
+     * granted, or the negated milliseconds to wait when denied; never allocates once the child's
+     * share state exists.
+     */
+    public long acquire(String childId, int permits, long nowNanos) {
+        RateLimiter.checkPermits(permits, capacity);
+        long costNanos = costNanos(permits);
+
+        QuotaShareState share = shares.getOrCreate(childId, shareInitializer);
+
+        while (true) {
+            long shareArrival = share.getTheoreticalArrivalNanos();
+            if (shareArrival == QuotaShareState.RETIRED) {
+                share = shares.getOrCreate(childId, shareInitializer);
+                continue;
+            }
+            int children = markActive(share, nowNanos);
+
+            long debtNanos = Math.max(theoreticalArrivalNanos, nowNanos) + costNanos - nowNanos;
+            if (debtNanos > burstNanos) {
+                return -retryAfterMs(debtNanos - burstNanos);
+            }
+
+            long shareCostNanos = shareCostNanos(costNanos, children);
+            long shareBurstNanos = Math.max(burstNanos / 2, shareCostNanos);
+            long shareNext = Math.max(shareArrival, nowNanos) + shareCostNanos;
+
+            if (shareNext - nowNanos > shareBurstNanos) {
+                if (children > 1 && debtNanos > burstNanos / 2) {
+                    return -retryAfterMs(shareNext - nowNanos - shareBurstNanos);
+                }
+                // Borrowed headroom is still charged to the share, but only up to one share burst,
+                // so a child that borrowed is held to its share, not starved, once the bucket runs low.
+                shareNext = nowNanos + shareBurstNanos;
+            }
+            if (!share.compareAndSet(shareArrival, shareNext)) {
+                continue;
+            }
+
+            while (true) {
+                long theoreticalArrival = theoreticalArrivalNanos;
+                long next = Math.max(theoreticalArrival, nowNanos) + costNanos;
+                debtNanos = next - nowNanos;
+
+                if (debtNanos > burstNanos) {
+                    releaseShare(share, shareNext - Math.max(shareArrival, nowNanos), nowNanos);
+                    return -retryAfterMs(debtNanos - burstNanos);
+                }
+                if (THEORETICAL_ARRIVAL.compareAndSet(this, theoreticalArrival, next)) {
+                    return (burstNanos - debtNanos) / emissionIntervalNanos;
+                }
+            }
+        }
+    }
+
+    /** Gives back permits taken by {@link #acquire}, to the bucket and to the child's share. */
+    public void release(String childId, int permits, long nowNanos) {
+        long costNanos = costNanos(permits);
+
+        while (true) {
+            long theoreticalArrival = theoreticalArrivalNanos;
+            // A full bucket has nothing to give back to.
+            if (theoreticalArrival <= nowNanos) {
+                break;
+            }
+            if (THEORETICAL_ARRIVAL.compareAndSet(this, theoreticalArrival, theoreticalArrival - costNanos)) {
+                break;
+            }
+        }
+
+        // The share was charged at the active count of the time, which the current one approximates.
+        int children = activeChildren(activity, nowNanos / epochNanos);
+        releaseShare(shares.getOrCreate(childId, shareInitializer), shareCostNanos(costNanos, children), nowNanos);
+    }
+
+    // A share that is full again and has not been counted in this epoch or the last is idle.
+    public static IdlePolicy<QuotaShareState> idlePolicy(TokenBucketParams params, RateLimitClock clock) {
+        long epochNanos = epochNanos(params);
+        return state -> {
+            long now = clock.nanoTime();
+            return state.retireIfIdle(now, now / epochNanos);
+        };
+    }
+
+    private int markActive(QuotaShareState share, long nowNanos) {
+        long epoch = nowNanos / epochNanos;
+        if (!share.markActive(epoch)) {
+            return activeChildren(activity, epoch);
+        }
+
+        while (true) {
+            long current = activity;
+            long currentEpoch = current >>> (2 * COUNT_BITS);
+            long updated;
+
+            if (currentEpoch == (epoch & EPOCH_MASK)) {
+                updated = (current & COUNT_MASK) == COUNT_MASK ? current : current + 1;
+            } else if (currentEpoch == ((epoch - 1) & EPOCH_MASK)) {
+                updated = pack(epoch, current & COUNT_MASK, 1);
+            } else {
+                updated = pack(epoch, 0, 1);
+            }
+            if (ACTIVITY.compareAndSet(this, current, updated)) {
+                return activeChildren(updated, epoch);
+            }
+        }
+    }
+
+    private static int activeChildren(long activity, long epoch) {
+        long activityEpoch = activity >>> (2 * COUNT_BITS);
+        long current = activity & COUNT_MASK;
+        long previous = (activity >>> COUNT_BITS) & COUNT_MASK;
+
+        long active;
+        if (activityEpoch == (epoch & EPOCH_MASK)) {
+            active = Math.max(current, previous);
+        } else if (activityEpoch == ((epoch - 1) & EPOCH_MASK)) {
+            active = current;
+        } else {
+            active = 0;
+        }
+        return (int) Math.max(1, active);
+    }
+
+    private static long pack(long epoch, long previous, long current) {
+        return (epoch & EPOCH_MASK) << (2 * COUNT_BITS) | previous << COUNT_BITS | current;
+    }
+
+    private static void releaseShare(QuotaShareState share, long amountNanos, long nowNanos) {
+        while (true) {
+            long shareArrival = share.getTheoreticalArrivalNanos();
+            if (shareArrival <= nowNanos || shareArrival == QuotaShareState.RETIRED) {
+                return;
+            }
+            if (share.compareAndSet(shareArrival, Math.max(nowNanos, shareArrival - amountNanos))) {
+                return;
+            }
+        }
+    }
+
+    // About one full refill of the bucket, so a child stays counted while its share could matter.
+    private static long epochNanos(TokenBucketParams params) {
+        double refillNanos = params.getCapacity() * 1_000_000_000.0 / params.getRefillRatePerSecond();
+        return (long) Math.max(MIN_EPOCH_NANOS, Math.min(refillNanos, MAX_EPOCH_NANOS));
+    }
+
+    private static long retryAfterMs(long excessNanos) {
+        return Math.ceilDiv(excessNanos, NANOS_PER_MS);
+    }
+
+    // A child's share refills at 1/children of the bucket's rate, so each permit costs that much more.
+    private static long shareCostNanos(long costNanos, int children) {
+        return (long) Math.min((double) costNanos * children, MAX_WINDOW_NANOS);
+    }
+
+    private long costNanos(int permits) {
+        return (long) Math.min((double) emissionIntervalNanos * permits, MAX_WINDOW_NANOS);
+    }
+}
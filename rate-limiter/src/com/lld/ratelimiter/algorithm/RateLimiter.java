@@ -4,5 +4,28 @@ import com.lld.ratelimiter.model.RateLimitResult;
 
 public interface RateLimiter {
 
-    RateLimitResult allow(String clientId);
+    default RateLimitResult allow(String clientId) {
+        return allow(clientId, 1);
+    }
+
+    /**
+     * Takes {@code permits} units of the client's limit at once, or none of them. A request that
+     * costs more than the whole limit could never be allowed and is rejected instead.
+     */
+    RateLimitResult allow(String clientId, int permits);
+
+    /**
+     * Gives back permits that {@link #allow(String, int)} granted moments ago and the caller will
+     * not use. Window-based limiters take them off their newest slot, where that grant was counted.
+     */
+    void refund(String clientId, int permits);
+
+    static void checkPermits(int permits, int limit) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive");
+        }
+        if (permits > limit) {
+            throw new IllegalArgumentException("permits must not exceed the limit of " + limit);
+        }
+    }
 }
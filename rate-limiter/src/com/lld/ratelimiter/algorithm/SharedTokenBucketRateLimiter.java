@@ -0,0 +1,214 @@
+package com.lld.ratelimiter.algorithm;
+
+import com.lld.ratelimiter.config.TokenBucketParams;
+import com.lld.ratelimiter.model.RateLimitResult;
+import com.lld.ratelimiter.repository.IdlePolicy;
+import com.lld.ratelimiter.repository.RateLimitStateStore;
+import com.lld.ratelimiter.repository.SharedStateBackend;
+import com.lld.ratelimiter.state.TokenLeaseState;
+
+/**
+ * Token bucket shared by every node through a {@link SharedStateBackend}, using the same GCRA
+ * formulation as {@link LockFreeTokenBucketRateLimiter}. It reads wall-clock time rather than a
+ * {@link com.lld.ratelimiter.clock.RateLimitClock}, whose origin is local to each process, so
+ * that all nodes agree on the shared arrival times.
+ *
+ * <p>With a lease size of 1 every allowed request is one compare-and-exchange on the shared
+ * bucket, and the cluster admits exactly what a single bucket would. With a larger lease, a node
+ * takes up to that many tokens in one exchange and hands them out locally until they run out or
+ * the lease expires; leased tokens are already debited, so the total never exceeds the bucket,
+ * but one node's unused lease is unavailable to the others and can be spent later in a burst.
+ *
+ * <p>Each node remembers the last shared value it saw, so a grant usually needs a single round
+ * trip. A refund from another node can lower the shared value, so a denial computed from the
+ * remembered one is confirmed with a read before it is returned.
+ *
+ * <p>The per-client state is guarded by a {@link java.util.concurrent.locks.ReentrantLock} rather
+ * than a monitor, because the backend is called while holding it and checks from
+ * {@code allowAllAsync} run on virtual threads, which a monitor would pin to their carrier.
+ */
+public final class SharedTokenBucketRateLimiter implements RateLimiter {
+
+    private static final long NANOS_PER_MS = 1_000_000L;
+    private static final double MAX_WINDOW_NANOS = Long.MAX_VALUE / 4.0;
+
+    private final SharedStateBackend backend;
+    private final String keyPrefix;
+    private final RateLimitStateStore<TokenLeaseState> stateStore;
+    private final int capacity;
+    private final int leaseSize;
+    private final long leaseTtlNanos;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+
+    public SharedTokenBucketRateLimiter(
+            TokenBucketParams params,
+            int leaseSize,
+            long leaseTtlMs,
+            SharedStateBackend backend,
+            String limiterId,
+            RateLimitStateStore<TokenLeaseState> stateStore
+    ) {
+        this.backend = backend;
+        this.keyPrefix = limiterId + ":";
+        this.stateStore = stateStore;
+        this.capacity = params.getCapacity();
+        this.leaseSize = leaseSize;
+        this.leaseTtlNanos = leaseTtlMs * NANOS_PER_MS;
+
+        double intervalNanos = 1_000_000_000.0 / params.getRefillRatePerSecond();
+        this.emissionIntervalNanos = Math.max(1L, (long) Math.min(intervalNanos, MAX_WINDOW_NANOS));
+        this.burstNanos = (long) Math.min((double) emissionIntervalNanos * params.getCapacity(), MAX_WINDOW_NANOS);
+    }
+
+    @Override
+    public RateLimitResult allow(String clientId, int permits) {
+        RateLimiter.checkPermits(permits, capacity);
+        long now = System.currentTimeMillis() * NANOS_PER_MS;
+
+        while (true) {
+            TokenLeaseState state = stateStore.getOrCreate(clientId, TokenLeaseState::new);
+
+            state.lock();
+            try {
+                if (state.isRetired()) {
+                    continue;
+                }
+
+                int leased = now < state.getLeaseExpiresAtNanos() ? state.getLeasedTokens() : 0;
+                if (leased >= permits) {
+                    state.setLeasedTokens(leased - permits);
+                    return RateLimitResult.allowed(state.getLeasedTokens());
+                }
+
+                // Holding the lock while leasing makes concurrent requests wait for this lease
+                // instead of each going to the backend.
+                return lease(clientId, state, permits, leased, now);
+            } finally {
+                state.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void refund(String clientId, int permits) {
+        long now = System.currentTimeMillis() * NANOS_PER_MS;
+
+        while (true) {
+            TokenLeaseState state = stateStore.getOrCreate(clientId, TokenLeaseState::new);
+
+            state.lock();
+            try {
+                if (state.isRetired()) {
+                    continue;
+                }
+
+                // A live lease takes the tokens back without a round trip; a single-token lease
+                // lives for a millisecond, so it would mostly let them expire unused.
+                if (leaseSize > 1 && now < state.getLeaseExpiresAtNanos()) {
+                    state.setLeasedTokens(state.getLeasedTokens() + permits);
+                    return;
+                }
+
+                giveBack(clientId, state, permits, now);
+                return;
+            } finally {
+                state.unlock();
+            }
+        }
+    }
+
+    // Tokens still leased locally count towards the request; the backend supplies the rest, plus
+    // enough to refill the lease when the bucket has them.
+    private RateLimitResult lease(String clientId, TokenLeaseState state, int permits, int leased, long now) {
+        String key = keyPrefix + clientId;
+        int needed = permits - leased;
+        long expected = state.getKnownArrivalNanos();
+        // The key is written with a TTL ending a millisecond after its value, so a value that far
+        // in the past has expired unless someone replaced it, and then it was a miss either way.
+        if (expected != SharedStateBackend.ABSENT && expected + NANOS_PER_MS < now) {
+            expected = SharedStateBackend.ABSENT;
+        }
+        boolean confirmed = false;
+
+        while (true) {
+            long base = Math.max(expected, now);
+            long available = (burstNanos - (base - now)) / emissionIntervalNanos;
+
+            if (available < needed) {
+                // A full bucket never denies, so expected is a real value here, and exchanging it
+                // for itself is a plain read.
+                if (!confirmed) {
+                    long witness = backend.compareAndExchange(key, expected, expected, ttlMs(expected, now));
+                    confirmed = true;
+                    if (witness != expected) {
+                        expected = witness;
+                        now = System.currentTimeMillis() * NANOS_PER_MS;
+                        continue;
+                    }
+                }
+                state.setKnownArrivalNanos(expected);
+                state.setLeasedTokens(leased);
+                long retryAfterNanos = base + needed * emissionIntervalNanos - now - burstNanos;
+                return RateLimitResult.denied(Math.max(1L, Math.ceilDiv(retryAfterNanos, NANOS_PER_MS)));
+            }
+
+            int granted = (int) Math.max(needed, Math.min(leaseSize, available));
+            long next = base + granted * emissionIntervalNanos;
+
+            long witness = backend.compareAndExchange(key, expected, next, ttlMs(next, now));
+            if (witness != expected) {
+                expected = witness;
+                confirmed = true;
+                now = System.currentTimeMillis() * NANOS_PER_MS;
+                continue;
+            }
+
+            state.setKnownArrivalNanos(next);
+            state.setLeasedTokens(leased + granted - permits);
+            state.setLeaseExpiresAtNanos(now + leaseTtlNanos);
+            return RateLimitResult.allowed((int) (available - needed));
+        }
+    }
+
+    private void giveBack(String clientId, TokenLeaseState state, int permits, long now) {
+        String key = keyPrefix + clientId;
+        long expected = state.getKnownArrivalNanos();
+
+        // Absent or already in the past means a full bucket, with nothing to give back to.
+        while (expected != SharedStateBackend.ABSENT && expected > now) {
+            long previous = expected - permits * emissionIntervalNanos;
+
+            long witness = backend.compareAndExchange(key, expected, previous, ttlMs(previous, now));
+            if (witness == expected) {
+                state.setKnownArrivalNanos(previous);
+                return;
+            }
+            expected = witness;
+        }
+    }
+
+    // Keeps a key until a millisecond after its arrival time, when the bucket is full again.
+    private static long ttlMs(long arrivalNanos, long now) {
+        return Math.max(1L, Math.ceilDiv(arrivalNanos - now, NANOS_PER_MS) + 1);
+    }
+
+    // Idle once the local lease is spent or expired and the shared bucket, as last seen, is full.
+    public static IdlePolicy<TokenLeaseState> idlePolicy() {
+        return state -> {
+            state.lock();
+            try {
+                long now = System.currentTimeMillis() * NANOS_PER_MS;
+                boolean leaseLive = state.getLeasedTokens() > 0 && now < state.getLeaseExpiresAtNanos();
+
+                if (leaseLive || state.getKnownArrivalNanos() > now) {
+                    return false;
+                }
+                state.retire();
+                return true;
+            } finally {
+                state.unlock();
+            }
+        };
+    }
+}
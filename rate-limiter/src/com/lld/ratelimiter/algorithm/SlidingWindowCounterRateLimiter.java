@@ -0,0 +1,131 @@
+package com.lld.ratelimiter.algorithm;
+
+import com.lld.ratelimiter.clock.RateLimitClock;
+import com.lld.ratelimiter.config.SlidingWindowCounterParams;
+import com.lld.ratelimiter.model.RateLimitResult;
+import com.lld.ratelimiter.repository.IdlePolicy;
+import com.lld.ratelimiter.repository.RateLimitStateStore;
+import com.lld.ratelimiter.state.SlidingWindowCounterState;
+
+/**
+ * Approximates a sliding window with two fixed-window counters: the previous window's count is
+ * weighted by how much of it still overlaps the sliding window, assuming its requests were spread
+ * evenly. Two ints per client regardless of the limit, instead of one timestamp per request.
+ */
+public final class SlidingWindowCounterRateLimiter implements RateLimiter {
+
+    private final SlidingWindowCounterParams params;
+    private final RateLimitStateStore<SlidingWindowCounterState> stateStore;
+    private final RateLimitClock clock;
+
+    public SlidingWindowCounterRateLimiter(
+            SlidingWindowCounterParams params,
+            RateLimitStateStore<SlidingWindowCounterState> stateStore,
+            RateLimitClock clock
+    ) {
+        this.params = params;
+        this.stateStore = stateStore;
+        this.clock = clock;
+    }
+
+    @Override
+    public RateLimitResult allow(String clientId, int permits) {
+        RateLimiter.checkPermits(permits, params.getMaxRequests());
+        long now = clock.millis();
+        long windowSizeMs = params.getWindowSizeMs();
+        long window = now / windowSizeMs;
+        long elapsedMs = now - window * windowSizeMs;
+
+        while (true) {
+            SlidingWindowCounterState state = stateStore.getOrCreate(clientId, SlidingWindowCounterState::new);
+
+            synchronized (state) {
+                if (state.isRetired()) {
+                    continue;
+                }
+
+                roll(state, window);
+
+                double previousWeight = (double) (windowSizeMs - elapsedMs) / windowSizeMs;
+                double estimated = state.getPreviousCount() * previousWeight + state.getCurrentCount();
+
+                if (estimated + permits <= params.getMaxRequests()) {
+                    state.setCurrentCount(state.getCurrentCount() + permits);
+
+                    return RateLimitResult.allowed(
+                            (int) Math.floor(params.getMaxRequests() - estimated - permits)
+                    );
+                }
+
+                return RateLimitResult.denied(computeRetryAfterMs(state, elapsedMs, permits));
+            }
+        }
+    }
+
+    @Override
+    public void refund(String clientId, int permits) {
+        long window = clock.millis() / params.getWindowSizeMs();
+
+        while (true) {
+            SlidingWindowCounterState state = stateStore.getOrCreate(clientId, SlidingWindowCounterState::new);
+
+            synchronized (state) {
+                if (state.isRetired()) {
+                    continue;
+                }
+
+                roll(state, window);
+                state.setCurrentCount(state.getCurrentCount() - Math.min(permits, state.getCurrentCount()));
+                return;
+            }
+        }
+    }
+
+    // Idle once neither counter can contribute to an estimate any more.
+    public static IdlePolicy<SlidingWindowCounterState> idlePolicy(SlidingWindowCounterParams params, RateLimitClock clock) {
+        return state -> {
+            synchronized (state) {
+                long window = clock.millis() / params.getWindowSizeMs();
+                long windowsPassed = window - state.getCurrentWindow();
+
+                boolean idle = windowsPassed >= 2
+                        || state.getCurrentCount() == 0 && (windowsPassed == 1 || state.getPreviousCount() == 0);
+                if (!idle) {
+                    return false;
+                }
+                state.retire();
+                return true;
+            }
+        };
+    }
+
+    private void roll(SlidingWindowCounterState state, long window) {
+        if (window <= state.getCurrentWindow()) {
+            return;
+        }
+
+        int previousCount = window == state.getCurrentWindow() + 1 ? state.getCurrentCount() : 0;
+        state.setPreviousCount(previousCount);
+        state.setCurrentCount(0);
+        state.setCurrentWindow(window);
+    }
+
+    // Time until the weighted estimate leaves room for permits more requests.
+    private long computeRetryAfterMs(SlidingWindowCounterState state, long elapsedMs, int permits) {
+        long windowSizeMs = params.getWindowSizeMs();
+        int maxRequests = params.getMaxRequests();
+        int currentCount = state.getCurrentCount();
+
+        double waitMs;
+        if (currentCount + permits > maxRequests) {
+            // Only the next window helps: this window's count becomes the decaying previous one.
+            double decayMs = windowSizeMs * (double) (currentCount - maxRequests + permits) / currentCount;
+            waitMs = windowSizeMs - elapsedMs + decayMs;
+        } else {
+            double spare = maxRequests - permits - currentCount;
+            waitMs = windowSizeMs * (1 - spare / state.getPreviousCount()) - elapsedMs;
+        }
+
+        return Math.max(1L, (long) Math.ceil(waitMs));
+    }
+}
@@ -1,59 +1,124 @@
 package com.lld.ratelimiter.algorithm;
 
+import com.lld.ratelimiter.clock.RateLimitClock;
 import com.lld.ratelimiter.config.SlidingWindowLogParams;
 import com.lld.ratelimiter.model.RateLimitResult;
+import com.lld.ratelimiter.repository.IdlePolicy;
 import com.lld.ratelimiter.repository.RateLimitStateStore;
 import com.lld.ratelimiter.state.SlidingWindowLogState;
 
 import java.util.Deque;
+import java.util.Iterator;
 
 public final class SlidingWindowLogRateLimiter implements RateLimiter {
 
+    private static final long NANOS_PER_MS = 1_000_000L;
+
     private final SlidingWindowLogParams params;
     private final RateLimitStateStore<SlidingWindowLogState> stateStore;
+    private final RateLimitClock clock;
+    private final long windowSizeNanos;
 
     public SlidingWindowLogRateLimiter(
             SlidingWindowLogParams params,
-            RateLimitStateStore<SlidingWindowLogState> stateStore
+            RateLimitStateStore<SlidingWindowLogState> stateStore,
+            RateLimitClock clock
     ) {
         this.params = params;
         this.stateStore = stateStore;
+        this.clock = clock;
+        this.windowSizeNanos = params.getWindowSizeMs() * NANOS_PER_MS;
     }
 
     @Override
-    public RateLimitResult allow(String clientId) {
-        long now = System.currentTimeMillis();
+    public RateLimitResult allow(String clientId, int permits) {
+        RateLimiter.checkPermits(permits, params.getMaxRequests());
+        long now = clock.nanoTime();
 
-        SlidingWindowLogState state = stateStore.getOrCreate(clientId, SlidingWindowLogState::new);
+        while (true) {
+            SlidingWindowLogState state = stateStore.getOrCreate(clientId, SlidingWindowLogState::new);
 
-        synchronized (state) {
-            Deque<Long> timestamps = state.getRequestTimestamps();
+            synchronized (state) {
+                if (state.isRetired()) {
+                    continue;
+                }
 
-            evictOldRequests(timestamps, now);
+                Deque<Long> timestamps = state.getRequestTimestamps();
 
-            if (timestamps.size() < params.getMaxRequests()) {
-                timestamps.addLast(now);
+                evictOldRequests(timestamps, now);
 
-                int remaining =
-                        params.getMaxRequests() - timestamps.size();
+                if (timestamps.size() + permits <= params.getMaxRequests()) {
+                    for (int i = 0; i < permits; i++) {
+                        timestamps.addLast(now);
+                    }
 
-                return RateLimitResult.allowed(remaining);
-            }
+                    int remaining =
+                            params.getMaxRequests() - timestamps.size();
+
+                    return RateLimitResult.allowed(remaining);
+                }
+
+                long retryAfterNanos =
+                        windowSizeNanos - (now - oldestToExpire(timestamps, permits));
 
-            long oldestRequestTime = timestamps.peekFirst();
-            long retryAfterMs =
-                    params.getWindowSizeMs() - (now - oldestRequestTime);
+                return RateLimitResult.denied(Math.ceilDiv(retryAfterNanos, NANOS_PER_MS));
+            }
+        }
+    }
 
-            return RateLimitResult.denied(retryAfterMs);
+    @Override
+    public void refund(String clientId, int permits) {
+        while (true) {
+            SlidingWindowLogState state = stateStore.getOrCreate(clientId, SlidingWindowLogState::new);
+
+            synchronized (state) {
+                if (state.isRetired()) {
+                    continue;
+                }
+
+                Deque<Long> timestamps = state.getRequestTimestamps();
+                for (int i = 0; i < permits && !timestamps.isEmpty(); i++) {
+                    timestamps.removeLast();
+                }
+                return;
+            }
         }
     }
 
+    // A log whose newest request has left the window is as good as an empty one.
+    public static IdlePolicy<SlidingWindowLogState> idlePolicy(SlidingWindowLogParams params, RateLimitClock clock) {
+        return state -> {
+            synchronized (state) {
+                Long newest = state.getRequestTimestamps().peekLast();
+                long windowStart = clock.nanoTime() - params.getWindowSizeMs() * NANOS_PER_MS;
+
+                if (newest != null && newest > windowStart) {
+                    return false;
+                }
+                state.retire();
+                return true;
+            }
+        };
+    }
+
     private void evictOldRequests(Deque<Long> timestamps, long now) {
-        long windowStart = now - params.getWindowSizeMs();
+        long windowStart = now - windowSizeNanos;
 
         while (!timestamps.isEmpty()
                 && timestamps.peekFirst() <= windowStart) {
             timestamps.removeFirst();
         }
     }
+
+    // The newest timestamp that must leave the window before permits more requests fit.
+    private long oldestToExpire(Deque<Long> timestamps, int permits) {
+        int toExpire = timestamps.size() + permits - params.getMaxRequests();
+
+        Iterator<Long> oldestFirst = timestamps.iterator();
+        long timestamp = oldestFirst.next();
+        for (int i = 1; i < toExpire; i++) {
+            timestamp = oldestFirst.next();
+        }
+        return timestamp;
+    }
 }
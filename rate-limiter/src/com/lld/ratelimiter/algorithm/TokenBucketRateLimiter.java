@@ -1,57 +1,112 @@
 package com.lld.ratelimiter.algorithm;
 
+import com.lld.ratelimiter.clock.RateLimitClock;
 import com.lld.ratelimiter.config.TokenBucketParams;
 import com.lld.ratelimiter.model.RateLimitResult;
+import com.lld.ratelimiter.repository.IdlePolicy;
 import com.lld.ratelimiter.repository.RateLimitStateStore;
 import com.lld.ratelimiter.state.TokenBucketState;
 
+import java.util.function.Supplier;
+
 public final class TokenBucketRateLimiter implements RateLimiter {
 
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
     private final TokenBucketParams params;
     private final RateLimitStateStore<TokenBucketState> stateStore;
+    private final RateLimitClock clock;
+    // Built once: a supplier capturing the request's timestamp would be allocated on every call.
+    private final Supplier<TokenBucketState> newState;
 
     public TokenBucketRateLimiter(
             TokenBucketParams params,
-            RateLimitStateStore<TokenBucketState> stateStore
+            RateLimitStateStore<TokenBucketState> stateStore,
+            RateLimitClock clock
     ) {
         this.params = params;
         this.stateStore = stateStore;
+        this.clock = clock;
+        this.newState = () -> new TokenBucketState(params.getCapacity(), clock.nanoTime());
     }
 
     @Override
-    public RateLimitResult allow(String clientId) {
-        long now = System.currentTimeMillis();
+    public RateLimitResult allow(String clientId, int permits) {
+        RateLimiter.checkPermits(permits, params.getCapacity());
+        long now = clock.nanoTime();
 
-        TokenBucketState state = stateStore.getOrCreate(
-                clientId,
-                () -> new TokenBucketState(params.getCapacity(), now)
-        );
+        while (true) {
+            TokenBucketState state = stateStore.getOrCreate(clientId, newState);
 
-        synchronized (state) {
-            refill(state, now);
+            synchronized (state) {
+                if (state.isRetired()) {
+                    continue;
+                }
 
-            if (state.getAvailableTokens() >= 1.0) {
-                state.setAvailableTokens(state.getAvailableTokens() - 1.0);
+                refill(state, now);
 
-                return RateLimitResult.allowed(
-                        (int) Math.floor(state.getAvailableTokens())
-                );
+                if (state.getAvailableTokens() >= permits) {
+                    state.setAvailableTokens(state.getAvailableTokens() - permits);
+
+                    return RateLimitResult.allowed(
+                            (int) Math.floor(state.getAvailableTokens())
+                    );
+                }
+
+                long retryAfterMs = computeRetryAfterMs(state, permits);
+                return RateLimitResult.denied(retryAfterMs);
             }
+        }
+    }
 
-            long retryAfterMs = computeRetryAfterMs(state);
-            return RateLimitResult.denied(retryAfterMs);
+    @Override
+    public void refund(String clientId, int permits) {
+        long now = clock.nanoTime();
+
+        while (true) {
+            TokenBucketState state = stateStore.getOrCreate(clientId, newState);
+
+            synchronized (state) {
+                if (state.isRetired()) {
+                    continue;
+                }
+
+                refill(state, now);
+                state.setAvailableTokens(Math.min(
+                        params.getCapacity(),
+                        state.getAvailableTokens() + permits
+                ));
+                return;
+            }
         }
     }
 
+    // A bucket that has refilled to capacity behaves exactly like a new one.
+    public static IdlePolicy<TokenBucketState> idlePolicy(TokenBucketParams params, RateLimitClock clock) {
+        return state -> {
+            synchronized (state) {
+                long elapsedNanos = clock.nanoTime() - state.getLastRefillNanos();
+                double tokens = state.getAvailableTokens()
+                        + (elapsedNanos / NANOS_PER_SECOND) * params.getRefillRatePerSecond();
+
+                if (tokens < params.getCapacity()) {
+                    return false;
+                }
+                state.retire();
+                return true;
+            }
+        };
+    }
+
     private void refill(TokenBucketState state, long now) {
-        long elapsedMs = now - state.getLastRefillTimestampMs();
+        long elapsedNanos = now - state.getLastRefillNanos();
 
-        if (elapsedMs <= 0) {
+        if (elapsedNanos <= 0) {
             return;
         }
 
         double tokensToAdd =
-                (elapsedMs / 1000.0) * params.getRefillRatePerSecond();
+                (elapsedNanos / NANOS_PER_SECOND) * params.getRefillRatePerSecond();
 
         double updatedTokens = Math.min(
                 params.getCapacity(),
@@ -59,11 +114,11 @@ public final class TokenBucketRateLimiter implements RateLimiter {
         );
 
         state.setAvailableTokens(updatedTokens);
-        state.setLastRefillTimestampMs(now);
+        state.setLastRefillNanos(now);
     }
 
-    private long computeRetryAfterMs(TokenBucketState state) {
-        double missingTokens = 1.0 - state.getAvailableTokens();
+    private long computeRetryAfterMs(TokenBucketState state, int permits) {
+        double missingTokens = permits - state.getAvailableTokens();
         double secondsToWait =
                 missingTokens / params.getRefillRatePerSecond();
 
@@ -0,0 +1,156 @@
+package com.lld.ratelimiter.benchmark;
+
+import com.lld.ratelimiter.clock.ManualClock;
+import com.lld.ratelimiter.config.AimdConcurrencyParams;
+import com.lld.ratelimiter.config.AlgorithmParams;
+import com.lld.ratelimiter.config.ConcurrencyLimitParams;
+import com.lld.ratelimiter.config.EndpointDefinition;
+import com.lld.ratelimiter.config.EndpointPlanPolicy;
+import com.lld.ratelimiter.config.TokenBucketParams;
+import com.lld.ratelimiter.facade.RateLimiterFacade;
+import com.lld.ratelimiter.model.ClientPlan;
+import com.lld.ratelimiter.model.RateLimitAlgorithmType;
+import com.lld.ratelimiter.model.RateLimitResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Discrete-event simulation in virtual time of one endpoint in front of a backend with
+ * {@value #WORKERS} workers. Requests arrive at 800/s throughout; the backend serves them in
+ * 10 ms, then in 30 ms for the middle phase (a slowdown that cuts its capacity from 1,000/s to
+ * ~333/s), then in 10 ms again. Past the workers, latency grows with the queue; requests still
+ * waiting after {@value #TIMEOUT_MS} ms time out and are reported as drops. Compares a static
+ * 1,000/s token bucket with the two concurrency limiters, per phase.
+ */
+public final class ConcurrencyLimitSimulation {
+
+    private static final int WORKERS = 10;
+    private static final double ARRIVALS_PER_SECOND = 800;
+    private static final long PHASE_NANOS = TimeUnit.SECONDS.toNanos(20);
+    private static final long[] SERVICE_MS_BY_PHASE = {10, 30, 10};
+    private static final long TIMEOUT_MS = 1_000;
+    private static final String ENDPOINT = "/api/search";
+
+    public static void main(String[] args) {
+        simulate(RateLimitAlgorithmType.TOKEN_BUCKET, new TokenBucketParams(1_000, 1_000));
+        simulate(RateLimitAlgorithmType.AIMD_CONCURRENCY, new AimdConcurrencyParams(20, 1, 200, 50));
+        simulate(RateLimitAlgorithmType.GRADIENT_CONCURRENCY, new ConcurrencyLimitParams(20, 1, 200));
+    }
+
+    private static void simulate(RateLimitAlgorithmType algorithm, AlgorithmParams params) {
+        ManualClock clock = new ManualClock();
+        PriorityQueue<Completion> completions = new PriorityQueue<>();
+        SplittableRandom random = new SplittableRandom(7);
+        int phases = SERVICE_MS_BY_PHASE.length;
+        PhaseStats[] stats = new PhaseStats[phases];
+        for (int p = 0; p < phases; p++) {
+            stats[p] = new PhaseStats();
+        }
+
+        try (RateLimiterFacade facade = RateLimiterFacade.withClock(clock)) {
+            facade.registerEndpoint(new EndpointDefinition(ENDPOINT, algorithm));
+            facade.registerEndpointPlanPolicy(new EndpointPlanPolicy(ENDPOINT, ClientPlan.DEFAULT, params));
+
+            long now = 0;
+            int backendInFlight = 0;
+            long end = PHASE_NANOS * phases;
+            double meanGapNanos = 1e9 / ARRIVALS_PER_SECOND;
+
+            while (true) {
+                now += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+                if (now >= end) {
+                    break;
+                }
+
+                // Deliver every completion due before this arrival, in time order.
+                while (!completions.isEmpty() && completions.peek().atNanos <= now) {
+                    Completion completion = completions.poll();
+                    clock.advance(completion.atNanos - clock.nanoTime(), TimeUnit.NANOSECONDS);
+                    backendInFlight--;
+                    PhaseStats phase = stats[(int) (completion.atNanos / PHASE_NANOS)];
+                    if (completion.timedOut) {
+                        completion.result.onDropped();
+                        phase.timedOut++;
+                    } else {
+                        completion.result.onSuccess();
+                        phase.latenciesMs.add(completion.latencyNanos / 1e6);
+                    }
+                }
+                clock.advance(now - clock.nanoTime(), TimeUnit.NANOSECONDS);
+
+                int phaseIndex = (int) (now / PHASE_NANOS);
+                PhaseStats phase = stats[phaseIndex];
+                phase.arrivals++;
+
+                RateLimitResult result = facade.allow("client", ENDPOINT);
+                if (!result.isAllowed()) {
+                    phase.rejected++;
+                    continue;
+                }
+
+                // Latency is fixed at admission: past the workers it grows with the backlog.
+                backendInFlight++;
+                long serviceNanos = TimeUnit.MILLISECONDS.toNanos(SERVICE_MS_BY_PHASE[phaseIndex]);
+                long latencyNanos = serviceNanos * Math.max(WORKERS, backendInFlight) / WORKERS;
+                long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+                boolean timedOut = latencyNanos > timeoutNanos;
+                long doneAt = now + Math.min(latencyNanos, timeoutNanos);
+                completions.add(new Completion(doneAt, latencyNanos, timedOut, result));
+            }
+        }
+
+        System.out.println(algorithm);
+        for (int p = 0; p < phases; p++) {
+            PhaseStats phase = stats[p];
+            List<Double> latencies = phase.latenciesMs;
+            Collections.sort(latencies);
+            System.out.printf(
+                    "  %2d ms service  served=%,6d  rejected=%5.1f%%  timed out=%,5d  p50=%,7.1f ms  p99=%,7.1f ms%n",
+                    SERVICE_MS_BY_PHASE[p],
+                    latencies.size(),
+                    100.0 * phase.rejected / phase.arrivals,
+                    phase.timedOut,
+                    percentile(latencies, 0.50),
+                    percentile(latencies, 0.99)
+            );
+        }
+    }
+
+    private static double percentile(List<Double> sorted, double quantile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.floor(quantile * sorted.size())));
+    }
+
+    private static final class PhaseStats {
+        private final List<Double> latenciesMs = new ArrayList<>();
+        private long arrivals;
+        private long rejected;
+        private long timedOut;
+    }
+
+    private static final class Completion implements Comparable<Completion> {
+        private final long atNanos;
+        private final long latencyNanos;
+        private final boolean timedOut;
+        private final RateLimitResult result;
+
+        private Completion(long atNanos, long latencyNanos, boolean timedOut, RateLimitResult result) {
+            this.atNanos = atNanos;
+            this.latencyNanos = latencyNanos;
+            this.timedOut = timedOut;
+            this.result = result;
+        }
+
+        @Override
+        public int compareTo(Completion other) {
+            return Long.compare(atNanos, other.atNanos);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.lld.ratelimiter.benchmark;
+
+import com.lld.ratelimiter.config.AlgorithmParams;
+import com.lld.ratelimiter.config.EndpointDefinition;
+import com.lld.ratelimiter.config.EndpointPlanPolicy;
+import com.lld.ratelimiter.config.TokenBucketParams;
+import com.lld.ratelimiter.config.TokenLeaseParams;
+import com.lld.ratelimiter.facade.RateLimiterFacade;
+import com.lld.ratelimiter.model.ClientPlan;
+import com.lld.ratelimiter.model.RateLimitAlgorithmType;
+import com.lld.ratelimiter.repository.InProcessSharedStateServer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Twenty API nodes, one thread each, send the same client's traffic through their own facade for
+ * a few seconds; the shared backend charges a simulated round trip per call. The saturated run
+ * compares admissions with what a single bucket would allow (capacity + rate x duration); the
+ * paced run offers 80% of the rate, where every request should pass, and shows how many backend
+ * round trips leasing saves and how many requests it wrongly denies.
+ */
+public final class DistributedLimiterSimulation {
+
+    private static final int NODES = 20;
+    private static final long DURATION_MS = 3_000;
+    private static final long ROUND_TRIP_NANOS = 500_000;
+    private static final int CAPACITY = 100;
+    private static final double RATE_PER_SECOND = 500;
+    private static final String ENDPOINT = "/api/search";
+    private static final String CLIENT = "tenant-42";
+
+    public static void main(String[] args) throws InterruptedException {
+        TokenBucketParams bucket = new TokenBucketParams(CAPACITY, RATE_PER_SECOND);
+
+        for (double offered : new double[] {0, RATE_PER_SECOND * 0.8}) {
+            System.out.println(offered == 0
+                    ? "Saturated, ideal admitted = " + (CAPACITY + (long) (RATE_PER_SECOND * DURATION_MS / 1000))
+                    : "Paced at " + (long) offered + " req/s in total");
+
+            run("local per node", RateLimitAlgorithmType.TOKEN_BUCKET, bucket, offered);
+            run("shared", RateLimitAlgorithmType.SHARED_TOKEN_BUCKET, bucket, offered);
+            run("leased x5", RateLimitAlgorithmType.LEASED_TOKEN_BUCKET,
+                    new TokenLeaseParams(CAPACITY, RATE_PER_SECOND, 5, 1_000), offered);
+            run("leased x20", RateLimitAlgorithmType.LEASED_TOKEN_BUCKET,
+                    new TokenLeaseParams(CAPACITY, RATE_PER_SECOND, 20, 1_000), offered);
+        }
+    }
+
+    // offeredPerSecond of 0 means every node calls allow in a tight loop.
+    private static void run(String name, RateLimitAlgorithmType algorithm, AlgorithmParams params,
+                            double offeredPerSecond) throws InterruptedException {
+        InProcessSharedStateServer server = new InProcessSharedStateServer(ROUND_TRIP_NANOS);
+
+        RateLimiterFacade[] nodes = new RateLimiterFacade[NODES];
+        for (int i = 0; i < NODES; i++) {
+            nodes[i] = RateLimiterFacade.withSharedState(server);
+            nodes[i].registerEndpoint(new EndpointDefinition(ENDPOINT, algorithm));
+            nodes[i].registerEndpointPlanPolicy(new EndpointPlanPolicy(ENDPOINT, ClientPlan.DEFAULT, params));
+        }
+
+        LongAdder calls = new LongAdder();
+        LongAdder admitted = new LongAdder();
+        LongAdder latencyNanos = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(NODES);
+
+        long intervalNanos = offeredPerSecond == 0 ? 0 : (long) (NODES * 1e9 / offeredPerSecond);
+        for (int i = 0; i < NODES; i++) {
+            RateLimiterFacade node = nodes[i];
+            // Spread the nodes' paced sends across the interval rather than firing all at once.
+            long offsetNanos = intervalNanos * i / NODES;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    long startNanos = System.nanoTime();
+                    long nextSend = startNanos + offsetNanos;
+                    long deadline = startNanos + DURATION_MS * 1_000_000L;
+                    long now;
+                    while ((now = System.nanoTime()) < deadline) {
+                        if (now < nextSend) {
+                            LockSupport.parkNanos(nextSend - now);
+                            continue;
+                        }
+                        nextSend += intervalNanos;
+                        boolean allowed = node.allow(CLIENT, ENDPOINT).isAllowed();
+                        latencyNanos.add(System.nanoTime() - now);
+                        calls.increment();
+                        if (allowed) {
+                            admitted.increment();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        start.countDown();
+        done.await();
+        for (RateLimiterFacade node : nodes) {
+            node.close();
+        }
+
+        System.out.printf(
+                "  %-15s admitted=%,7d  denied=%,10d  round trips=%,7d  mean allow=%,7.1f us%n",
+                name,
+                admitted.sum(),
+                calls.sum() - admitted.sum(),
+                server.getRoundTrips(),
+                latencyNanos.sum() / 1000.0 / Math.max(1, calls.sum())
+        );
+    }
+}
@@ -0,0 +1,139 @@
+package com.lld.ratelimiter.benchmark;
+
+import com.lld.ratelimiter.algorithm.RateLimiter;
+import com.lld.ratelimiter.clock.ManualClock;
+import com.lld.ratelimiter.config.EndpointDefinition;
+import com.lld.ratelimiter.config.EndpointPlanPolicy;
+import com.lld.ratelimiter.config.EndpointQuotaPolicy;
+import com.lld.ratelimiter.config.EvictionConfig;
+import com.lld.ratelimiter.config.TokenBucketParams;
+import com.lld.ratelimiter.facade.RateLimiterFacade;
+import com.lld.ratelimiter.factory.RateLimiterFactory;
+import com.lld.ratelimiter.model.ClientEndpointPlan;
+import com.lld.ratelimiter.model.ClientPlan;
+import com.lld.ratelimiter.model.RateLimitAlgorithmType;
+import com.lld.ratelimiter.repository.StateSweeper;
+
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Virtual-time comparison of hierarchical quotas against plain shared buckets, which admit
+ * whoever asks first. Every client is limited to 200/s; the FREE plan has a 200/s budget, PREMIUM
+ * one of 1,000/s, and the endpoint one of 600/s. One FREE client asks 1,000 times a second and
+ * four ask 30 times each; five PREMIUM clients ask 1,000 times each. Fair shares should give each
+ * plan 300/s of the endpoint, so FREE is held to its own 200/s and PREMIUM gets the remaining
+ * 400/s, and within FREE the light clients should get all 30/s they ask for.
+ */
+public final class HierarchicalQuotaSimulation {
+
+    private static final String ENDPOINT = "/api/search";
+    private static final long DURATION_NANOS = TimeUnit.SECONDS.toNanos(20);
+
+    private static final TokenBucketParams CLIENT_LIMIT = new TokenBucketParams(50, 200);
+    private static final TokenBucketParams FREE_BUDGET = new TokenBucketParams(100, 200);
+    private static final TokenBucketParams PREMIUM_BUDGET = new TokenBucketParams(500, 1_000);
+    private static final TokenBucketParams ENDPOINT_BUDGET = new TokenBucketParams(300, 600);
+
+    private static final String[] CLIENTS = {
+            "free-heavy", "free-light-1", "free-light-2", "free-light-3", "free-light-4",
+            "premium-1", "premium-2", "premium-3", "premium-4", "premium-5"
+    };
+    private static final ClientPlan[] PLANS = {
+            ClientPlan.FREE, ClientPlan.FREE, ClientPlan.FREE, ClientPlan.FREE, ClientPlan.FREE,
+            ClientPlan.PREMIUM, ClientPlan.PREMIUM, ClientPlan.PREMIUM, ClientPlan.PREMIUM, ClientPlan.PREMIUM
+    };
+    private static final double[] REQUESTS_PER_SECOND = {1_000, 30, 30, 30, 30, 1_000, 1_000, 1_000, 1_000, 1_000};
+
+    @FunctionalInterface
+    private interface Admission {
+        boolean allow(int client);
+    }
+
+    public static void main(String[] args) {
+        ManualClock clock = new ManualClock();
+        try (RateLimiterFactory factory = new RateLimiterFactory(new StateSweeper(EvictionConfig.defaults()), null, clock)) {
+            RateLimiter clients = factory.create(RateLimitAlgorithmType.LOCK_FREE_TOKEN_BUCKET, CLIENT_LIMIT);
+            RateLimiter free = factory.create(RateLimitAlgorithmType.LOCK_FREE_TOKEN_BUCKET, FREE_BUDGET);
+            RateLimiter premium = factory.create(RateLimitAlgorithmType.LOCK_FREE_TOKEN_BUCKET, PREMIUM_BUDGET);
+            RateLimiter endpoint = factory.create(RateLimitAlgorithmType.LOCK_FREE_TOKEN_BUCKET, ENDPOINT_BUDGET);
+
+            run("shared buckets, first come first served", clock, client -> {
+                RateLimiter plan = PLANS[client] == ClientPlan.FREE ? free : premium;
+                if (!clients.allow(CLIENTS[client]).isAllowed()) {
+                    return false;
+                }
+                if (!plan.allow("plan").isAllowed()) {
+                    clients.refund(CLIENTS[client], 1);
+                    return false;
+                }
+                if (!endpoint.allow("endpoint").isAllowed()) {
+                    plan.refund("plan", 1);
+                    clients.refund(CLIENTS[client], 1);
+                    return false;
+                }
+                return true;
+            });
+        }
+
+        clock = new ManualClock();
+        try (RateLimiterFacade facade = RateLimiterFacade.withClock(clock)) {
+            facade.registerEndpoint(new EndpointDefinition(ENDPOINT, RateLimitAlgorithmType.LOCK_FREE_TOKEN_BUCKET));
+            facade.registerEndpointPlanPolicy(new EndpointPlanPolicy(ENDPOINT, ClientPlan.DEFAULT, CLIENT_LIMIT));
+            facade.registerEndpointQuotaPolicy(new EndpointQuotaPolicy(
+                    ENDPOINT,
+                    ENDPOINT_BUDGET,
+                    Map.of(ClientPlan.FREE, FREE_BUDGET, ClientPlan.PREMIUM, PREMIUM_BUDGET)
+            ));
+            for (int i = 0; i < CLIENTS.length; i++) {
+                facade.registerClientEndpointPlan(new ClientEndpointPlan(CLIENTS[i], ENDPOINT, PLANS[i]));
+            }
+
+            run("hierarchical quotas, fair shares", clock, client -> facade.allow(CLIENTS[client], ENDPOINT).isAllowed());
+        }
+    }
+
+    private static void run(String label, ManualClock clock, Admission admission) {
+        SplittableRandom random = new SplittableRandom(11);
+        PriorityQueue<long[]> arrivals = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        for (int i = 0; i < CLIENTS.length; i++) {
+            arrivals.add(new long[]{nextGap(random, i), i});
+        }
+
+        long[] admitted = new long[CLIENTS.length];
+        while (true) {
+            long[] arrival = arrivals.poll();
+            if (arrival[0] >= DURATION_NANOS) {
+                break;
+            }
+            clock.advance(arrival[0] - clock.nanoTime(), TimeUnit.NANOSECONDS);
+
+            int client = (int) arrival[1];
+            if (admission.allow(client)) {
+                admitted[client]++;
+            }
+            arrival[0] += nextGap(random, client);
+            arrivals.add(arrival);
+        }
+
+        double seconds = DURATION_NANOS / 1e9;
+        System.out.println(label);
+        long free = 0;
+        long premium = 0;
+        for (int i = 0; i < CLIENTS.length; i++) {
+            System.out.printf("  %-13s asks %,6.0f/s  admitted %,6.1f/s%n", CLIENTS[i], REQUESTS_PER_SECOND[i], admitted[i] / seconds);
+            if (PLANS[i] == ClientPlan.FREE) {
+                free += admitted[i];
+            } else {
+                premium += admitted[i];
+            }
+        }
+        System.out.printf("  FREE %,.1f/s  PREMIUM %,.1f/s  endpoint %,.1f/s%n", free / seconds, premium / seconds, (free + premium) / seconds);
+    }
+
+    private static long nextGap(SplittableRandom random, int client) {
+        return (long) (-Math.log(1 - random.nextDouble()) * 1e9 / REQUESTS_PER_SECOND[client]);
+    }
+}
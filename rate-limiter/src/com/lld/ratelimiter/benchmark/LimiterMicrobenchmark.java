@@ -0,0 +1,156 @@
+package com.lld.ratelimiter.benchmark;
+
+import com.lld.ratelimiter.algorithm.RateLimiter;
+import com.lld.ratelimiter.config.AlgorithmParams;
+import com.lld.ratelimiter.config.BucketedSlidingWindowParams;
+import com.lld.ratelimiter.config.EndpointDefinition;
+import com.lld.ratelimiter.config.EndpointPlanPolicy;
+import com.lld.ratelimiter.config.EndpointQuotaPolicy;
+import com.lld.ratelimiter.config.EvictionConfig;
+import com.lld.ratelimiter.config.SlidingWindowCounterParams;
+import com.lld.ratelimiter.config.SlidingWindowLogParams;
+import com.lld.ratelimiter.config.TokenBucketParams;
+import com.lld.ratelimiter.config.TokenLeaseParams;
+import com.lld.ratelimiter.facade.RateLimiterFacade;
+import com.lld.ratelimiter.factory.RateLimiterFactory;
+import com.lld.ratelimiter.model.ClientPlan;
+import com.lld.ratelimiter.model.RateLimitAlgorithmType;
+import com.lld.ratelimiter.repository.InProcessSharedStateServer;
+import com.lld.ratelimiter.repository.StateSweeper;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Single-threaded average time and allocation per {@code allow} for every algorithm, called on
+ * the limiter directly and through the facade (routing table, plan lookup, limiter). JMH-style:
+ * warmup iterations, then measured iterations reported as mean and standard deviation, with
+ * results folded into a sink so the JIT cannot drop the calls. Limits are generous enough that
+ * nearly every call takes the allow path, and the clients rotate over {@value #CLIENTS} ids.
+ */
+public final class LimiterMicrobenchmark {
+
+    private static final int CLIENTS = 1_024;
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURE_ITERATIONS = 5;
+    private static final long ITERATION_MS = 1_000;
+    private static final String ENDPOINT = "/api/search";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final String[] CLIENT_IDS = new String[CLIENTS];
+
+    static {
+        for (int i = 0; i < CLIENTS; i++) {
+            CLIENT_IDS[i] = "client-" + i;
+        }
+    }
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        RateLimiterFactory factory = new RateLimiterFactory(
+                new StateSweeper(EvictionConfig.defaults()),
+                new InProcessSharedStateServer()
+        );
+
+        Object[][] cases = {
+                {RateLimitAlgorithmType.TOKEN_BUCKET, new TokenBucketParams(1_000_000, 1e9)},
+                {RateLimitAlgorithmType.LOCK_FREE_TOKEN_BUCKET, new TokenBucketParams(1_000_000, 1e9)},
+                {RateLimitAlgorithmType.SLIDING_WINDOW_LOG, new SlidingWindowLogParams(10_000, 1)},
+                {RateLimitAlgorithmType.SLIDING_WINDOW_COUNTER, new SlidingWindowCounterParams(100_000, 10)},
+                {RateLimitAlgorithmType.BUCKETED_SLIDING_WINDOW, new BucketedSlidingWindowParams(100_000, 10, 10)},
+                {RateLimitAlgorithmType.SHARED_TOKEN_BUCKET, new TokenBucketParams(1_000_000, 1e9)},
+                {RateLimitAlgorithmType.LEASED_TOKEN_BUCKET, new TokenLeaseParams(1_000_000, 1e9, 1_000, 1_000)},
+        };
+
+        System.out.printf("%-24s %-8s %14s %12s %10s%n", "algorithm", "path", "ns/op", "B/op", "allowed");
+        for (Object[] c : cases) {
+            RateLimitAlgorithmType algorithm = (RateLimitAlgorithmType) c[0];
+            AlgorithmParams params = (AlgorithmParams) c[1];
+
+            RateLimiter limiter = factory.create(algorithm, params, "bench:" + algorithm);
+            run(algorithm, "limiter", i -> limiter.allow(CLIENT_IDS[i]).isAllowed());
+
+            try (RateLimiterFacade facade = RateLimiterFacade.withSharedState(new InProcessSharedStateServer())) {
+                facade.registerEndpoint(new EndpointDefinition(ENDPOINT, algorithm));
+                facade.registerEndpointPlanPolicy(new EndpointPlanPolicy(ENDPOINT, ClientPlan.DEFAULT, params));
+                run(algorithm, "facade", i -> facade.allow(CLIENT_IDS[i], ENDPOINT).isAllowed());
+            }
+        }
+
+        // The client limit nested in plan and endpoint budgets, every level with headroom.
+        try (RateLimiterFacade facade = RateLimiterFacade.withSharedState(new InProcessSharedStateServer())) {
+            TokenBucketParams budget = new TokenBucketParams(1_000_000, 1e9);
+            facade.registerEndpoint(new EndpointDefinition(ENDPOINT, RateLimitAlgorithmType.LOCK_FREE_TOKEN_BUCKET));
+            facade.registerEndpointPlanPolicy(new EndpointPlanPolicy(ENDPOINT, ClientPlan.DEFAULT, budget));
+            facade.registerEndpointQuotaPolicy(
+                    new EndpointQuotaPolicy(ENDPOINT, budget, Map.of(ClientPlan.DEFAULT, budget)));
+            run(RateLimitAlgorithmType.LOCK_FREE_TOKEN_BUCKET, "quotas", i -> facade.allow(CLIENT_IDS[i], ENDPOINT).isAllowed());
+        }
+        factory.close();
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static void run(RateLimitAlgorithmType algorithm, String path, IntPredicate call) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration(call);
+        }
+
+        double[] nanosPerOp = new double[MEASURE_ITERATIONS];
+        long calls = 0;
+        long allowed = 0;
+        long allocated = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            long[] result = iteration(call);
+            nanosPerOp[i] = (double) result[3] / result[0];
+            calls += result[0];
+            allowed += result[1];
+            allocated += result[2];
+        }
+
+        double mean = 0;
+        for (double value : nanosPerOp) {
+            mean += value / MEASURE_ITERATIONS;
+        }
+        double variance = 0;
+        for (double value : nanosPerOp) {
+            variance += (value - mean) * (value - mean) / (MEASURE_ITERATIONS - 1);
+        }
+
+        System.out.printf(
+                "%-24s %-8s %7.1f +- %4.1f %12.1f %9.1f%%%n",
+                algorithm,
+                path,
+                mean,
+                Math.sqrt(variance),
+                (double) allocated / calls,
+                100.0 * allowed / calls
+        );
+    }
+
+    // Returns {calls, allowed, allocated bytes, elapsed nanos}; the clock is read every 1,024 calls.
+    private static long[] iteration(IntPredicate call) {
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        long deadline = started + ITERATION_MS * 1_000_000L;
+        long calls = 0;
+        long allowed = 0;
+        long now;
+
+        do {
+            for (int i = 0; i < CLIENTS; i++) {
+                if (call.test(i)) {
+                    allowed++;
+                }
+            }
+            calls += CLIENTS;
+        } while ((now = System.nanoTime()) < deadline);
+
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        sink += allowed;
+        return new long[] {calls, allowed, allocated, now - started};
+    }
+}
@@ -0,0 +1,97 @@
+package com.lld.ratelimiter.benchmark;
+
+import com.lld.ratelimiter.config.EndpointDefinition;
+import com.lld.ratelimiter.config.EndpointPlanPolicy;
+import com.lld.ratelimiter.config.TokenBucketParams;
+import com.lld.ratelimiter.facade.RateLimiterFacade;
+import com.lld.ratelimiter.model.ClientEndpointPlan;
+import com.lld.ratelimiter.model.ClientPlan;
+import com.lld.ratelimiter.model.RateLimitAlgorithmType;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end {@code RateLimiterFacade.allow} throughput over 20 endpoints and 1,000 clients, a
+ * quarter of them on a PREMIUM plan. Buckets are sized never to deny and use the lock-free token
+ * bucket, so the figure is dominated by resolving the (endpoint, plan) limiter rather than by the
+ * algorithm.
+ */
+public final class RoutingBenchmark {
+
+    private static final int ENDPOINTS = 20;
+    private static final int CLIENTS = 1_000;
+    private static final int[] THREAD_COUNTS = {1, 4};
+    private static final long WARMUP_MS = 2_000;
+    private static final long MEASURE_MS = 5_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        RateLimiterFacade facade = RateLimiterFacade.getInstance();
+        TokenBucketParams generous = new TokenBucketParams(Integer.MAX_VALUE, 1e12);
+
+        String[] endpoints = new String[ENDPOINTS];
+        for (int i = 0; i < ENDPOINTS; i++) {
+            endpoints[i] = "/api/resource-" + i;
+            facade.registerEndpoint(
+                    new EndpointDefinition(endpoints[i], RateLimitAlgorithmType.LOCK_FREE_TOKEN_BUCKET)
+            );
+            facade.registerEndpointPlanPolicy(new EndpointPlanPolicy(endpoints[i], ClientPlan.DEFAULT, generous));
+            facade.registerEndpointPlanPolicy(new EndpointPlanPolicy(endpoints[i], ClientPlan.PREMIUM, generous));
+        }
+
+        String[] clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "client-" + i;
+            if (i % 4 == 0) {
+                for (String endpoint : endpoints) {
+                    facade.registerClientEndpointPlan(new ClientEndpointPlan(clients[i], endpoint, ClientPlan.PREMIUM));
+                }
+            }
+        }
+
+        for (int threads : THREAD_COUNTS) {
+            measure(facade, endpoints, clients, threads, WARMUP_MS);
+            long ops = measure(facade, endpoints, clients, threads, MEASURE_MS);
+            System.out.printf("threads=%-3d %,13d allow/s%n", threads, ops * 1000 / MEASURE_MS);
+        }
+    }
+
+    private static long measure(
+            RateLimiterFacade facade,
+            String[] endpoints,
+            String[] clients,
+            int threads,
+            long durationMs
+    ) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + durationMs * 1_000_000L;
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                try {
+                    start.await();
+                    while ((local & 0xFF) != 0 || System.nanoTime() < deadline) {
+                        facade.allow(clients[random.nextInt(clients.length)], endpoints[random.nextInt(endpoints.length)]);
+                        local++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    ops.add(local);
+                    done.countDown();
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        start.countDown();
+        done.await();
+        return ops.sum();
+    }
+}
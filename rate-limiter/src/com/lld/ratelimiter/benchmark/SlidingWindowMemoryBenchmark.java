@@ -0,0 +1,72 @@
+package com.lld.ratelimiter.benchmark;
+
+import com.lld.ratelimiter.algorithm.RateLimiter;
+import com.lld.ratelimiter.config.AlgorithmParams;
+import com.lld.ratelimiter.config.BucketedSlidingWindowParams;
+import com.lld.ratelimiter.config.SlidingWindowCounterParams;
+import com.lld.ratelimiter.config.SlidingWindowLogParams;
+import com.lld.ratelimiter.factory.RateLimiterFactory;
+import com.lld.ratelimiter.model.RateLimitAlgorithmType;
+
+import java.lang.ref.Reference;
+
+/**
+ * Retained heap of 1M active clients under a 10,000 requests/minute plan, for the sliding window
+ * log and the two constant-memory sliding windows. Each client sends {@code requestsPerClient}
+ * requests (default 20); the log grows with it, the counters do not. Measured as used heap after
+ * GC and includes the client id strings and map entries, e.g.
+ * {@code java -Xmx4g -XX:+UseSerialGC ... SlidingWindowMemoryBenchmark 20}.
+ */
+public final class SlidingWindowMemoryBenchmark {
+
+    private static final RateLimiterFactory FACTORY = new RateLimiterFactory();
+    private static final int CLIENTS = 1_000_000;
+    private static final int MAX_REQUESTS = 10_000;
+    private static final long WINDOW_MS = 60_000;
+
+    public static void main(String[] args) {
+        int requestsPerClient = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+
+        measure(RateLimitAlgorithmType.SLIDING_WINDOW_COUNTER,
+                new SlidingWindowCounterParams(MAX_REQUESTS, WINDOW_MS), requestsPerClient);
+        measure(RateLimitAlgorithmType.BUCKETED_SLIDING_WINDOW,
+                new BucketedSlidingWindowParams(MAX_REQUESTS, WINDOW_MS, 12), requestsPerClient);
+        measure(RateLimitAlgorithmType.SLIDING_WINDOW_LOG,
+                new SlidingWindowLogParams(MAX_REQUESTS, WINDOW_MS), requestsPerClient);
+    }
+
+    private static void measure(RateLimitAlgorithmType algorithm, AlgorithmParams params, int requestsPerClient) {
+        long before = usedAfterGc();
+
+        RateLimiter limiter = FACTORY.create(algorithm, params);
+        long started = System.nanoTime();
+        for (int i = 0; i < CLIENTS; i++) {
+            String clientId = "client-" + i;
+            for (int r = 0; r < requestsPerClient; r++) {
+                limiter.allow(clientId);
+            }
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        long retained = usedAfterGc() - before;
+        Reference.reachabilityFence(limiter);
+
+        System.out.printf(
+                "%-24s clients=%,d requests/client=%d  retained=%,14d B  per client=%,6d B  load=%,d ms%n",
+                algorithm,
+                CLIENTS,
+                requestsPerClient,
+                retained,
+                retained / CLIENTS,
+                elapsedMs
+        );
+    }
+
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
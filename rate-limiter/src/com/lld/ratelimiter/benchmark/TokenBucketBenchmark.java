@@ -0,0 +1,95 @@
+package com.lld.ratelimiter.benchmark;
+
+import com.lld.ratelimiter.config.TokenBucketParams;
+import com.lld.ratelimiter.factory.RateLimiterFactory;
+import com.lld.ratelimiter.algorithm.RateLimiter;
+import com.lld.ratelimiter.model.RateLimitAlgorithmType;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Every thread hammers the same client id, the worst case for per-client state. The "allowing"
+ * bucket refills fast enough that nearly every call consumes a token (a write); the "denying"
+ * bucket is drained, so nearly every call is rejected.
+ */
+public final class TokenBucketBenchmark {
+
+    private static final RateLimiterFactory FACTORY = new RateLimiterFactory();
+    private static final int[] THREAD_COUNTS = {1, 16, 64};
+    private static final long WARMUP_MS = 2_000;
+    private static final long MEASURE_MS = 5_000;
+    private static final String HOT_CLIENT = "hot-client";
+
+    public static void main(String[] args) throws InterruptedException {
+        RateLimitAlgorithmType[] algorithms = {
+                RateLimitAlgorithmType.TOKEN_BUCKET,
+                RateLimitAlgorithmType.LOCK_FREE_TOKEN_BUCKET
+        };
+
+        for (int threads : THREAD_COUNTS) {
+            for (RateLimitAlgorithmType algorithm : algorithms) {
+                run(algorithm, "allowing", new TokenBucketParams(Integer.MAX_VALUE, 1e12), threads);
+                run(algorithm, "denying", new TokenBucketParams(100, 100), threads);
+            }
+        }
+    }
+
+    private static void run(
+            RateLimitAlgorithmType algorithm,
+            String workload,
+            TokenBucketParams params,
+            int threads
+    ) throws InterruptedException {
+        RateLimiter limiter = FACTORY.create(algorithm, params);
+
+        measure(limiter, threads, WARMUP_MS);
+        long[] counts = measure(limiter, threads, MEASURE_MS);
+
+        System.out.printf(
+                "%-22s %-8s threads=%-3d %,13d ops/s  allowed=%5.1f%%%n",
+                algorithm,
+                workload,
+                threads,
+                counts[0] * 1000 / MEASURE_MS,
+                100.0 * counts[1] / Math.max(1, counts[0])
+        );
+    }
+
+    private static long[] measure(RateLimiter limiter, int threads, long durationMs)
+            throws InterruptedException {
+        LongAdder calls = new LongAdder();
+        LongAdder allowed = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + durationMs * 1_000_000L;
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                long localCalls = 0;
+                long localAllowed = 0;
+                try {
+                    start.await();
+                    while ((localCalls & 0xFF) != 0 || System.nanoTime() < deadline) {
+                        if (limiter.allow(HOT_CLIENT).isAllowed()) {
+                            localAllowed++;
+                        }
+                        localCalls++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    calls.add(localCalls);
+                    allowed.add(localAllowed);
+                    done.countDown();
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        start.countDown();
+        done.await();
+        return new long[] {calls.sum(), allowed.sum()};
+    }
+}
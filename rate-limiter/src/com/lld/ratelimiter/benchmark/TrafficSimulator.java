@@ -0,0 +1,239 @@
+package com.lld.ratelimiter.benchmark;
+
+import com.lld.ratelimiter.clock.ManualClock;
+import com.lld.ratelimiter.config.AlgorithmParams;
+import com.lld.ratelimiter.config.BucketedSlidingWindowParams;
+import com.lld.ratelimiter.config.EndpointDefinition;
+import com.lld.ratelimiter.config.EndpointPlanPolicy;
+import com.lld.ratelimiter.config.SlidingWindowCounterParams;
+import com.lld.ratelimiter.config.SlidingWindowLogParams;
+import com.lld.ratelimiter.config.TokenBucketParams;
+import com.lld.ratelimiter.facade.RateLimiterFacade;
+import com.lld.ratelimiter.model.ClientPlan;
+import com.lld.ratelimiter.model.RateLimitAlgorithmType;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a trace of Zipf-distributed clients, a few heavy hitters over a long tail, through the
+ * facade in virtual time, and reports for each in-process algorithm:
+ * <ul>
+ *   <li>throughput: replayed requests per wall-clock second;</li>
+ *   <li>allocation per request;</li>
+ *   <li>accuracy: requests admitted beyond, or denied within, what an exact reference model
+ *   admits per client (a continuous token bucket for the token buckets, a sliding log of
+ *   admitted requests for the windows), as a share of the reference's admissions;</li>
+ *   <li>retained heap per live client state after the replay.</li>
+ * </ul>
+ * All limits average 10 requests/s per client with a burst of 20. The trace is seeded, so every
+ * run replays the same requests.
+ */
+public final class TrafficSimulator {
+
+    private static final int CLIENTS = 100_000;
+    private static final int REQUESTS = 2_000_000;
+    private static final double ZIPF_EXPONENT = 1.1;
+    private static final double REQUESTS_PER_SECOND = 200_000;
+    private static final long SEED = 42;
+
+    private static final int BURST = 20;
+    private static final double RATE_PER_SECOND = 10;
+    private static final long WINDOW_MS = 2_000;
+    private static final String ENDPOINT = "/api/search";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        Trace trace = Trace.zipf(CLIENTS, REQUESTS, ZIPF_EXPONENT, REQUESTS_PER_SECOND, SEED);
+        System.out.printf(
+                "%,d requests from %,d distinct clients over %.1f virtual s; top client sent %,d%n",
+                REQUESTS,
+                trace.distinctClients(),
+                trace.times[REQUESTS - 1] / 1e9,
+                trace.busiestClientRequests()
+        );
+
+        int[] bucketReference = referenceTokenBucket(trace);
+        int[] windowReference = referenceSlidingWindow(trace);
+
+        replay(trace, RateLimitAlgorithmType.TOKEN_BUCKET,
+                new TokenBucketParams(BURST, RATE_PER_SECOND), bucketReference);
+        replay(trace, RateLimitAlgorithmType.LOCK_FREE_TOKEN_BUCKET,
+                new TokenBucketParams(BURST, RATE_PER_SECOND), bucketReference);
+        replay(trace, RateLimitAlgorithmType.SLIDING_WINDOW_LOG,
+                new SlidingWindowLogParams(BURST, WINDOW_MS), windowReference);
+        replay(trace, RateLimitAlgorithmType.SLIDING_WINDOW_COUNTER,
+                new SlidingWindowCounterParams(BURST, WINDOW_MS), windowReference);
+        replay(trace, RateLimitAlgorithmType.BUCKETED_SLIDING_WINDOW,
+                new BucketedSlidingWindowParams(BURST, WINDOW_MS, 10), windowReference);
+    }
+
+    private static void replay(Trace trace, RateLimitAlgorithmType algorithm, AlgorithmParams params,
+                               int[] reference) {
+        long heapBefore = usedAfterGc();
+
+        ManualClock clock = new ManualClock();
+        int[] admitted = new int[CLIENTS];
+        long elapsedNanos;
+        long allocated;
+        long retained;
+        long live;
+
+        try (RateLimiterFacade facade = RateLimiterFacade.withClock(clock)) {
+            facade.registerEndpoint(new EndpointDefinition(ENDPOINT, algorithm));
+            facade.registerEndpointPlanPolicy(new EndpointPlanPolicy(ENDPOINT, ClientPlan.DEFAULT, params));
+
+            long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long started = System.nanoTime();
+
+            long virtualNow = 0;
+            for (int i = 0; i < REQUESTS; i++) {
+                clock.advance(trace.times[i] - virtualNow, TimeUnit.NANOSECONDS);
+                virtualNow = trace.times[i];
+                if (facade.allow(trace.clientIds[trace.clients[i]], ENDPOINT).isAllowed()) {
+                    admitted[trace.clients[i]]++;
+                }
+            }
+
+            elapsedNanos = System.nanoTime() - started;
+            allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            retained = usedAfterGc() - heapBefore;
+            live = facade.getStateStoreStats().getLiveStates();
+            Reference.reachabilityFence(facade);
+        }
+
+        long referenceTotal = 0;
+        long over = 0;
+        long under = 0;
+        for (int c = 0; c < CLIENTS; c++) {
+            referenceTotal += reference[c];
+            over += Math.max(0, admitted[c] - reference[c]);
+            under += Math.max(0, reference[c] - admitted[c]);
+        }
+
+        System.out.printf(
+                "%-24s %,11.0f req/s  %5.1f B/req  over=%5.2f%%  under=%5.2f%%  %,5d B/state (%,d live)%n",
+                algorithm,
+                REQUESTS / (elapsedNanos / 1e9),
+                (double) allocated / REQUESTS,
+                100.0 * over / referenceTotal,
+                100.0 * under / referenceTotal,
+                retained / Math.max(1, live),
+                live
+        );
+    }
+
+    // Exact continuous token bucket per client.
+    private static int[] referenceTokenBucket(Trace trace) {
+        double[] tokens = new double[CLIENTS];
+        long[] lastNanos = new long[CLIENTS];
+        Arrays.fill(tokens, BURST);
+        int[] admitted = new int[CLIENTS];
+
+        for (int i = 0; i < REQUESTS; i++) {
+            int c = trace.clients[i];
+            long now = trace.times[i];
+            tokens[c] = Math.min(BURST, tokens[c] + (now - lastNanos[c]) / 1e9 * RATE_PER_SECOND);
+            lastNanos[c] = now;
+            if (tokens[c] >= 1) {
+                tokens[c] -= 1;
+                admitted[c]++;
+            }
+        }
+        return admitted;
+    }
+
+    // Exact sliding window: admitted while fewer than BURST admissions lie in (now - window, now].
+    private static int[] referenceSlidingWindow(Trace trace) {
+        long windowNanos = TimeUnit.MILLISECONDS.toNanos(WINDOW_MS);
+        List<ArrayDeque<Long>> logs = new ArrayList<>(CLIENTS);
+        for (int c = 0; c < CLIENTS; c++) {
+            logs.add(new ArrayDeque<>());
+        }
+        int[] admitted = new int[CLIENTS];
+
+        for (int i = 0; i < REQUESTS; i++) {
+            int c = trace.clients[i];
+            long now = trace.times[i];
+            ArrayDeque<Long> log = logs.get(c);
+            while (!log.isEmpty() && log.peekFirst() <= now - windowNanos) {
+                log.removeFirst();
+            }
+            if (log.size() < BURST) {
+                log.addLast(now);
+                admitted[c]++;
+            }
+        }
+        return admitted;
+    }
+
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** Request times in virtual nanoseconds and the client index of each request. */
+    private static final class Trace {
+        private final long[] times;
+        private final int[] clients;
+        private final String[] clientIds;
+
+        private Trace(long[] times, int[] clients, String[] clientIds) {
+            this.times = times;
+            this.clients = clients;
+            this.clientIds = clientIds;
+        }
+
+        // Poisson arrivals at requestsPerSecond; client k is picked with probability ~ 1 / k^exponent.
+        static Trace zipf(int clients, int requests, double exponent, double requestsPerSecond, long seed) {
+            double[] cumulative = new double[clients];
+            double sum = 0;
+            for (int k = 0; k < clients; k++) {
+                sum += 1 / Math.pow(k + 1, exponent);
+                cumulative[k] = sum;
+            }
+
+            String[] clientIds = new String[clients];
+            for (int k = 0; k < clients; k++) {
+                clientIds[k] = "client-" + k;
+            }
+
+            SplittableRandom random = new SplittableRandom(seed);
+            long[] times = new long[requests];
+            int[] picks = new int[requests];
+            double meanGapNanos = 1e9 / requestsPerSecond;
+            long now = 0;
+            for (int i = 0; i < requests; i++) {
+                now += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+                times[i] = now;
+                int slot = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                picks[i] = Math.min(clients - 1, slot >= 0 ? slot : -slot - 1);
+            }
+            return new Trace(times, picks, clientIds);
+        }
+
+        int distinctClients() {
+            return (int) Arrays.stream(clients).distinct().count();
+        }
+
+        int busiestClientRequests() {
+            int[] counts = new int[clientIds.length];
+            int busiest = 0;
+            for (int client : clients) {
+                busiest = Math.max(busiest, ++counts[client]);
+            }
+            return busiest;
+        }
+    }
+}
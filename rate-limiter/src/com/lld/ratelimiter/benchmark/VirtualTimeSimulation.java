@@ -0,0 +1,69 @@
+package com.lld.ratelimiter.benchmark;
+
+import com.lld.ratelimiter.clock.ManualClock;
+import com.lld.ratelimiter.config.AlgorithmParams;
+import com.lld.ratelimiter.config.BucketedSlidingWindowParams;
+import com.lld.ratelimiter.config.EndpointDefinition;
+import com.lld.ratelimiter.config.EndpointPlanPolicy;
+import com.lld.ratelimiter.config.SlidingWindowCounterParams;
+import com.lld.ratelimiter.config.SlidingWindowLogParams;
+import com.lld.ratelimiter.config.TokenBucketParams;
+import com.lld.ratelimiter.facade.RateLimiterFacade;
+import com.lld.ratelimiter.model.ClientPlan;
+import com.lld.ratelimiter.model.RateLimitAlgorithmType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives one client at a virtual 1M requests/s for five virtual seconds on a {@link ManualClock},
+ * against a limit of 100k/s, and runs each algorithm twice: the admitted counts are exact and
+ * identical on every run, however fast or slow the machine executes them.
+ */
+public final class VirtualTimeSimulation {
+
+    private static final long REQUESTS = 5_000_000;
+    private static final long NANOS_BETWEEN_REQUESTS = 1_000;
+    private static final int LIMIT_PER_SECOND = 100_000;
+    private static final String ENDPOINT = "/api/search";
+
+    public static void main(String[] args) {
+        simulate(RateLimitAlgorithmType.TOKEN_BUCKET, new TokenBucketParams(1_000, LIMIT_PER_SECOND));
+        simulate(RateLimitAlgorithmType.LOCK_FREE_TOKEN_BUCKET, new TokenBucketParams(1_000, LIMIT_PER_SECOND));
+        simulate(RateLimitAlgorithmType.SLIDING_WINDOW_LOG, new SlidingWindowLogParams(LIMIT_PER_SECOND, 1_000));
+        simulate(RateLimitAlgorithmType.SLIDING_WINDOW_COUNTER, new SlidingWindowCounterParams(LIMIT_PER_SECOND, 1_000));
+        simulate(RateLimitAlgorithmType.BUCKETED_SLIDING_WINDOW,
+                new BucketedSlidingWindowParams(LIMIT_PER_SECOND, 1_000, 10));
+    }
+
+    private static void simulate(RateLimitAlgorithmType algorithm, AlgorithmParams params) {
+        long startNanos = System.nanoTime();
+        long first = run(algorithm, params);
+        long second = run(algorithm, params);
+        double wallSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+        System.out.printf(
+                "%-24s admitted=%,d  repeatable=%s  %,.0f virtual requests per wall-clock second%n",
+                algorithm,
+                first,
+                first == second,
+                2 * REQUESTS / wallSeconds
+        );
+    }
+
+    private static long run(RateLimitAlgorithmType algorithm, AlgorithmParams params) {
+        ManualClock clock = new ManualClock();
+        try (RateLimiterFacade facade = RateLimiterFacade.withClock(clock)) {
+            facade.registerEndpoint(new EndpointDefinition(ENDPOINT, algorithm));
+            facade.registerEndpointPlanPolicy(new EndpointPlanPolicy(ENDPOINT, ClientPlan.DEFAULT, params));
+
+            long admitted = 0;
+            for (long i = 0; i < REQUESTS; i++) {
+                if (facade.allow("client", ENDPOINT).isAllowed()) {
+                    admitted++;
+                }
+                clock.advance(NANOS_BETWEEN_REQUESTS, TimeUnit.NANOSECONDS);
+            }
+            return admitted;
+        }
+    }
+}
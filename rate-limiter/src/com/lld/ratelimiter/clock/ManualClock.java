@@ -0,0 +1,25 @@
+package com.lld.ratelimiter.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock that moves only when told to, so simulations can replay any request schedule, at any
+ * virtual rate, with identical results on every run.
+ */
+public final class ManualClock implements RateLimitClock {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Override
+    public long nanoTime() {
+        return nanoTime.get();
+    }
+
+    public void advance(long amount, TimeUnit unit) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("amount must not be negative");
+        }
+        nanoTime.addAndGet(unit.toNanos(amount));
+    }
+}
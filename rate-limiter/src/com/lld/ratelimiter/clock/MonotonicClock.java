@@ -0,0 +1,20 @@
+package com.lld.ratelimiter.clock;
+
+/** {@link System#nanoTime()}, shifted so every instance reads from zero at class load. */
+public final class MonotonicClock implements RateLimitClock {
+
+    private static final long ORIGIN = System.nanoTime();
+    private static final MonotonicClock INSTANCE = new MonotonicClock();
+
+    private MonotonicClock() {
+    }
+
+    public static MonotonicClock getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime() - ORIGIN;
+    }
+}
@@ -0,0 +1,15 @@
+package com.lld.ratelimiter.clock;
+
+/**
+ * Time source for the rate limiting algorithms: monotonic nanoseconds from a non-negative origin,
+ * so wall-clock steps such as NTP corrections never refill or drain a limit. Only differences
+ * between readings of the same clock are meaningful.
+ */
+public interface RateLimitClock {
+
+    long nanoTime();
+
+    default long millis() {
+        return nanoTime() / 1_000_000L;
+    }
+}
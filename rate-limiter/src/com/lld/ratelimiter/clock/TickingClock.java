@@ -0,0 +1,45 @@
+package com.lld.ratelimiter.clock;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monotonic clock cached in a volatile field that a daemon thread refreshes every tick, so a read
+ * costs a field load instead of a {@link System#nanoTime()} call. Readings lag by up to one tick,
+ * which coarsens refill and window edges to the tick size.
+ */
+public final class TickingClock implements RateLimitClock, AutoCloseable {
+
+    private final RateLimitClock source = MonotonicClock.getInstance();
+    private final ScheduledExecutorService executor;
+    private volatile long nanoTime;
+
+    public TickingClock(long tickMicros) {
+        if (tickMicros <= 0) {
+            throw new IllegalArgumentException("tickMicros must be positive");
+        }
+
+        this.nanoTime = source.nanoTime();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::tick, tickMicros, tickMicros, TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanoTime;
+    }
+
+    private void tick() {
+        nanoTime = source.nanoTime();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
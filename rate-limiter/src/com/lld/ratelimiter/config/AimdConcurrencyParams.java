@@ -0,0 +1,43 @@
+package com.lld.ratelimiter.config;
+
+import java.util.Objects;
+
+public final class AimdConcurrencyParams implements AlgorithmParams {
+
+    private final ConcurrencyLimitParams limits;
+
+    private final long latencyThresholdMs;
+
+    public AimdConcurrencyParams(int initialLimit, int minLimit, int maxLimit, long latencyThresholdMs) {
+        this.limits = new ConcurrencyLimitParams(initialLimit, minLimit, maxLimit);
+        if (latencyThresholdMs <= 0) {
+            throw new IllegalArgumentException("latencyThresholdMs must be positive");
+        }
+        this.latencyThresholdMs = latencyThresholdMs;
+    }
+
+    public ConcurrencyLimitParams getLimits() {
+        return limits;
+    }
+
+    public long getLatencyThresholdMs() {
+        return latencyThresholdMs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AimdConcurrencyParams that)) {
+            return false;
+        }
+        return limits.equals(that.limits)
+                && latencyThresholdMs == that.latencyThresholdMs;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(limits, latencyThresholdMs);
+    }
+}
@@ -1,4 +1,10 @@
 package com.lld.ratelimiter.config;
 
-public sealed interface AlgorithmParams permits TokenBucketParams, SlidingWindowLogParams {
+/**
+ * Implementations are compared by value: a rebuild keeps a limiter, and its clients' state, for
+ * as long as its params stay equal.
+ */
+public sealed interface AlgorithmParams permits TokenBucketParams, SlidingWindowLogParams,
+        SlidingWindowCounterParams, BucketedSlidingWindowParams, TokenLeaseParams, ConcurrencyLimitParams,
+        AimdConcurrencyParams {
 }
@@ -0,0 +1,63 @@
+package com.lld.ratelimiter.config;
+
+import java.util.Objects;
+
+public final class BucketedSlidingWindowParams implements AlgorithmParams {
+    private final int maxRequests;
+
+    private final long windowSizeMs;
+
+    private final int buckets;
+
+    public BucketedSlidingWindowParams(int maxRequests, long windowSizeMs, int buckets) {
+        if (maxRequests <= 0) {
+            throw new IllegalArgumentException("maxRequests must be positive");
+        }
+        if (windowSizeMs <= 0) {
+            throw new IllegalArgumentException("windowSizeMs must be positive");
+        }
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("buckets must be positive");
+        }
+        if (windowSizeMs % buckets != 0) {
+            throw new IllegalArgumentException("windowSizeMs must be a multiple of buckets");
+        }
+        this.maxRequests = maxRequests;
+        this.windowSizeMs = windowSizeMs;
+        this.buckets = buckets;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public long getWindowSizeMs() {
+        return windowSizeMs;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public long getBucketSizeMs() {
+        return windowSizeMs / buckets;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BucketedSlidingWindowParams that)) {
+            return false;
+        }
+        return maxRequests == that.maxRequests
+                && windowSizeMs == that.windowSizeMs
+                && buckets == that.buckets;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxRequests, windowSizeMs, buckets);
+    }
+}
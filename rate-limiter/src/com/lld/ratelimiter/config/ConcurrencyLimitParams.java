@@ -0,0 +1,57 @@
+package com.lld.ratelimiter.config;
+
+import java.util.Objects;
+
+public final class ConcurrencyLimitParams implements AlgorithmParams {
+
+    private final int initialLimit;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    public ConcurrencyLimitParams(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit <= 0) {
+            throw new IllegalArgumentException("minLimit must be positive");
+        }
+        if (maxLimit < minLimit) {
+            throw new IllegalArgumentException("maxLimit must not be below minLimit");
+        }
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("initialLimit must lie between minLimit and maxLimit");
+        }
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConcurrencyLimitParams that)) {
+            return false;
+        }
+        return initialLimit == that.initialLimit
+                && minLimit == that.minLimit
+                && maxLimit == that.maxLimit;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(initialLimit, minLimit, maxLimit);
+    }
+}
@@ -0,0 +1,46 @@
+package com.lld.ratelimiter.config;
+
+import com.lld.ratelimiter.model.ClientPlan;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Budgets that an endpoint's per-client limits are nested in: one per plan, shared by all clients
+ * on that plan, and one for the whole endpoint, shared by all plans. A request must pass its
+ * client's limit and every budget above it.
+ */
+public final class EndpointQuotaPolicy {
+
+    private final String endpoint;
+    private final TokenBucketParams endpointBudget;
+    private final Map<ClientPlan, TokenBucketParams> planBudgets;
+
+    /** {@code endpointBudget} may be null when only plans are budgeted. */
+    public EndpointQuotaPolicy(
+            String endpoint,
+            TokenBucketParams endpointBudget,
+            Map<ClientPlan, TokenBucketParams> planBudgets
+    ) {
+        this.endpoint = Objects.requireNonNull(endpoint, "endpoint");
+        this.endpointBudget = endpointBudget;
+        this.planBudgets = Map.copyOf(Objects.requireNonNull(planBudgets, "planBudgets"));
+
+        if (endpointBudget == null && this.planBudgets.isEmpty()) {
+            throw new IllegalArgumentException("at least one budget is required");
+        }
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Optional<TokenBucketParams> getEndpointBudget() {
+        return Optional.ofNullable(endpointBudget);
+    }
+
+    public Optional<TokenBucketParams> getPlanBudget(ClientPlan plan) {
+        return Optional.ofNullable(planBudgets.get(plan));
+    }
+}
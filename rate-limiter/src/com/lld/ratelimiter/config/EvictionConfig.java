@@ -0,0 +1,31 @@
+package com.lld.ratelimiter.config;
+
+public final class EvictionConfig {
+
+    private final long sweepIntervalMs;
+
+    private final int statesPerSweep;
+
+    public EvictionConfig(long sweepIntervalMs, int statesPerSweep) {
+        if (sweepIntervalMs <= 0) {
+            throw new IllegalArgumentException("sweepIntervalMs must be positive");
+        }
+        if (statesPerSweep <= 0) {
+            throw new IllegalArgumentException("statesPerSweep must be positive");
+        }
+        this.sweepIntervalMs = sweepIntervalMs;
+        this.statesPerSweep = statesPerSweep;
+    }
+
+    public static EvictionConfig defaults() {
+        return new EvictionConfig(100, 10_000);
+    }
+
+    public long getSweepIntervalMs() {
+        return sweepIntervalMs;
+    }
+
+    public int getStatesPerSweep() {
+        return statesPerSweep;
+    }
+}
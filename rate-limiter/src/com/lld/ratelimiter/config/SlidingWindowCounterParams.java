@@ -0,0 +1,45 @@
+package com.lld.ratelimiter.config;
+
+import java.util.Objects;
+
+public final class SlidingWindowCounterParams implements AlgorithmParams {
+    private final int maxRequests;
+
+    private final long windowSizeMs;
+
+    public SlidingWindowCounterParams(int maxRequests, long windowSizeMs) {
+        if (maxRequests <= 0) {
+            throw new IllegalArgumentException("maxRequests must be positive");
+        }
+        if (windowSizeMs <= 0) {
+            throw new IllegalArgumentException("windowSizeMs must be positive");
+        }
+        this.maxRequests = maxRequests;
+        this.windowSizeMs = windowSizeMs;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public long getWindowSizeMs() {
+        return windowSizeMs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SlidingWindowCounterParams that)) {
+            return false;
+        }
+        return maxRequests == that.maxRequests
+                && windowSizeMs == that.windowSizeMs;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxRequests, windowSizeMs);
+    }
+}
@@ -1,5 +1,7 @@
 package com.lld.ratelimiter.config;
 
+import java.util.Objects;
+
 public final class SlidingWindowLogParams implements AlgorithmParams {
     private final int maxRequests;
 
@@ -23,4 +25,21 @@ public final class SlidingWindowLogParams implements AlgorithmParams {
     public long getWindowSizeMs() {
         return windowSizeMs;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SlidingWindowLogParams that)) {
+            return false;
+        }
+        return maxRequests == that.maxRequests
+                && windowSizeMs == that.windowSizeMs;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxRequests, windowSizeMs);
+    }
 }
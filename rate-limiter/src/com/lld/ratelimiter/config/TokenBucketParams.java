@@ -1,5 +1,7 @@
 package com.lld.ratelimiter.config;
 
+import java.util.Objects;
+
 public final class TokenBucketParams implements AlgorithmParams {
 
     private final int capacity;
@@ -26,4 +28,20 @@ public final class TokenBucketParams implements AlgorithmParams {
         return refillRatePerSecond;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TokenBucketParams that)) {
+            return false;
+        }
+        return capacity == that.capacity
+                && Double.compare(refillRatePerSecond, that.refillRatePerSecond) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(capacity, refillRatePerSecond);
+    }
 }
@@ -0,0 +1,57 @@
+package com.lld.ratelimiter.config;
+
+import java.util.Objects;
+
+public final class TokenLeaseParams implements AlgorithmParams {
+
+    private final TokenBucketParams bucket;
+
+    private final int leaseSize;
+
+    private final long leaseTtlMs;
+
+    public TokenLeaseParams(int capacity, double refillRatePerSecond, int leaseSize, long leaseTtlMs) {
+        this.bucket = new TokenBucketParams(capacity, refillRatePerSecond);
+        if (leaseSize <= 0) {
+            throw new IllegalArgumentException("leaseSize must be positive");
+        }
+        if (leaseSize > capacity) {
+            throw new IllegalArgumentException("leaseSize must not exceed capacity");
+        }
+        if (leaseTtlMs <= 0) {
+            throw new IllegalArgumentException("leaseTtlMs must be positive");
+        }
+        this.leaseSize = leaseSize;
+        this.leaseTtlMs = leaseTtlMs;
+    }
+
+    public TokenBucketParams getBucket() {
+        return bucket;
+    }
+
+    public int getLeaseSize() {
+        return leaseSize;
+    }
+
+    public long getLeaseTtlMs() {
+        return leaseTtlMs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TokenLeaseParams that)) {
+            return false;
+        }
+        return bucket.equals(that.bucket)
+                && leaseSize == that.leaseSize
+                && leaseTtlMs == that.leaseTtlMs;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bucket, leaseSize, leaseTtlMs);
+    }
+}
@@ -1,45 +1,73 @@
 package com.lld.ratelimiter.facade;
 
+import com.lld.ratelimiter.clock.RateLimitClock;
 import com.lld.ratelimiter.config.EndpointDefinition;
+import com.lld.ratelimiter.config.EvictionConfig;
 import com.lld.ratelimiter.config.EndpointPlanPolicy;
+import com.lld.ratelimiter.config.EndpointQuotaPolicy;
 import com.lld.ratelimiter.model.ClientEndpointPlan;
+import com.lld.ratelimiter.model.RateLimitRequest;
 import com.lld.ratelimiter.model.RateLimitResult;
+import com.lld.ratelimiter.model.StateStoreStats;
 import com.lld.ratelimiter.factory.RateLimiterFactory;
 import com.lld.ratelimiter.service.RateLimiterRegistry;
 import com.lld.ratelimiter.repository.ClientEndpointPlanRepository;
 import com.lld.ratelimiter.repository.EndpointDefinitionRepository;
 import com.lld.ratelimiter.repository.EndpointPlanPolicyRepository;
+import com.lld.ratelimiter.repository.EndpointQuotaPolicyRepository;
 import com.lld.ratelimiter.repository.InMemoryClientEndpointPlanRepository;
 import com.lld.ratelimiter.repository.InMemoryEndpointDefinitionRepository;
 import com.lld.ratelimiter.repository.InMemoryEndpointPlanPolicyRepository;
+import com.lld.ratelimiter.repository.InMemoryEndpointQuotaPolicyRepository;
+import com.lld.ratelimiter.repository.SharedStateBackend;
+import com.lld.ratelimiter.repository.StateSweeper;
 import com.lld.ratelimiter.service.RateLimiterService;
 
-public final class RateLimiterFacade {
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class RateLimiterFacade implements AutoCloseable {
 
     private static final RateLimiterFacade INSTANCE = new RateLimiterFacade();
 
     private final EndpointDefinitionRepository endpointDefinitionRepository;
     private final EndpointPlanPolicyRepository endpointPlanPolicyRepository;
+    private final EndpointQuotaPolicyRepository endpointQuotaPolicyRepository;
     private final ClientEndpointPlanRepository clientEndpointPlanRepository;
 
+    private final RateLimiterFactory rateLimiterFactory;
     private final RateLimiterService rateLimiterService;
+    // Null when every limiter is in-process: a check then takes well under a microsecond, less
+    // than handing it to another thread would.
+    private final ExecutorService asyncExecutor;
 
     private RateLimiterFacade() {
+        this(new RateLimiterFactory(), null);
+    }
+
+    private RateLimiterFacade(RateLimiterFactory rateLimiterFactory, ExecutorService asyncExecutor) {
         this.endpointDefinitionRepository =
                 new InMemoryEndpointDefinitionRepository();
 
         this.endpointPlanPolicyRepository =
                 new InMemoryEndpointPlanPolicyRepository();
 
+        this.endpointQuotaPolicyRepository =
+                new InMemoryEndpointQuotaPolicyRepository();
+
         this.clientEndpointPlanRepository =
                 new InMemoryClientEndpointPlanRepository();
 
-        RateLimiterRegistry rateLimiterRegistry = new RateLimiterRegistry();
-        RateLimiterFactory rateLimiterFactory = new RateLimiterFactory();
+        RateLimiterRegistry rateLimiterRegistry = new RateLimiterRegistry(rateLimiterFactory::release);
+        this.rateLimiterFactory = rateLimiterFactory;
+        this.asyncExecutor = asyncExecutor;
 
         this.rateLimiterService = new RateLimiterService(
                 endpointDefinitionRepository,
                 endpointPlanPolicyRepository,
+                endpointQuotaPolicyRepository,
                 clientEndpointPlanRepository,
                 rateLimiterRegistry,
                 rateLimiterFactory
@@ -50,12 +78,43 @@ public final class RateLimiterFacade {
         return INSTANCE;
     }
 
+    /**
+     * A separate facade for one node of a cluster whose SHARED_TOKEN_BUCKET and
+     * LEASED_TOKEN_BUCKET limits are enforced across all nodes through {@code backend}. Its async
+     * checks run on virtual threads, since they may wait on backend round trips.
+     */
+    public static RateLimiterFacade withSharedState(SharedStateBackend backend) {
+        return new RateLimiterFacade(
+                new RateLimiterFactory(new StateSweeper(EvictionConfig.defaults()), backend),
+                Executors.newVirtualThreadPerTaskExecutor()
+        );
+    }
+
+    /**
+     * A separate facade whose in-process limiters read {@code clock}, e.g. a
+     * {@link com.lld.ratelimiter.clock.ManualClock} that a simulation advances itself.
+     */
+    public static RateLimiterFacade withClock(RateLimitClock clock) {
+        return new RateLimiterFacade(
+                new RateLimiterFactory(new StateSweeper(EvictionConfig.defaults()), null, clock),
+                null
+        );
+    }
+
     public void registerEndpoint(EndpointDefinition endpointDefinition) {
         endpointDefinitionRepository.save(endpointDefinition);
+        rateLimiterService.refreshRoutes();
     }
 
     public void registerEndpointPlanPolicy(EndpointPlanPolicy endpointPlanPolicy) {
         endpointPlanPolicyRepository.save(endpointPlanPolicy);
+        rateLimiterService.refreshRoutes();
+    }
+
+    /** Nests the endpoint's per-client limits in plan and endpoint-wide budgets. */
+    public void registerEndpointQuotaPolicy(EndpointQuotaPolicy endpointQuotaPolicy) {
+        endpointQuotaPolicyRepository.save(endpointQuotaPolicy);
+        rateLimiterService.refreshRoutes();
     }
 
     public void registerClientEndpointPlan(ClientEndpointPlan clientEndpointPlan) {
@@ -65,6 +124,44 @@ public final class RateLimiterFacade {
     public RateLimitResult allow(String clientId, String endpoint) {
         return rateLimiterService.allow(clientId, endpoint);
     }
+
+    public RateLimitResult allow(String clientId, String endpoint, int cost) {
+        return rateLimiterService.allow(clientId, endpoint, cost);
+    }
+
+    /** Allows every check or none; see {@link RateLimiterService#allowAll(List)}. */
+    public RateLimitResult allowAll(List<RateLimitRequest> requests) {
+        return rateLimiterService.allowAll(requests);
+    }
+
+    public CompletableFuture<RateLimitResult> allowAllAsync(List<RateLimitRequest> requests) {
+        if (asyncExecutor != null) {
+            return CompletableFuture.supplyAsync(() -> rateLimiterService.allowAll(requests), asyncExecutor);
+        }
+
+        try {
+            return CompletableFuture.completedFuture(rateLimiterService.allowAll(requests));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public long getRoutingTableVersion() {
+        return rateLimiterService.getRoutingTableVersion();
+    }
+
+    public StateStoreStats getStateStoreStats() {
+        return rateLimiterFactory.getStateStoreStats();
+    }
+
+    /** Releases the background threads of a facade from {@code withSharedState} or {@code withClock}. */
+    @Override
+    public void close() {
+        rateLimiterFactory.close();
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+        }
+    }
 }
 
 
@@ -1,42 +1,235 @@
 package com.lld.ratelimiter.factory;
 
+import com.lld.ratelimiter.algorithm.AdaptiveConcurrencyLimiter;
+import com.lld.ratelimiter.algorithm.BucketedSlidingWindowRateLimiter;
+import com.lld.ratelimiter.algorithm.HierarchicalRateLimiter;
+import com.lld.ratelimiter.algorithm.LockFreeTokenBucketRateLimiter;
+import com.lld.ratelimiter.algorithm.QuotaBucket;
 import com.lld.ratelimiter.algorithm.RateLimiter;
+import com.lld.ratelimiter.algorithm.SharedTokenBucketRateLimiter;
+import com.lld.ratelimiter.algorithm.SlidingWindowCounterRateLimiter;
 import com.lld.ratelimiter.algorithm.SlidingWindowLogRateLimiter;
 import com.lld.ratelimiter.algorithm.TokenBucketRateLimiter;
+import com.lld.ratelimiter.clock.MonotonicClock;
+import com.lld.ratelimiter.clock.RateLimitClock;
+import com.lld.ratelimiter.config.AimdConcurrencyParams;
 import com.lld.ratelimiter.config.AlgorithmParams;
+import com.lld.ratelimiter.config.BucketedSlidingWindowParams;
+import com.lld.ratelimiter.config.ConcurrencyLimitParams;
+import com.lld.ratelimiter.config.SlidingWindowCounterParams;
 import com.lld.ratelimiter.config.SlidingWindowLogParams;
 import com.lld.ratelimiter.config.TokenBucketParams;
+import com.lld.ratelimiter.config.TokenLeaseParams;
+import com.lld.ratelimiter.config.EvictionConfig;
 import com.lld.ratelimiter.model.RateLimitAlgorithmType;
-import com.lld.ratelimiter.repository.RateLimitStateStore;
+import com.lld.ratelimiter.model.StateStoreStats;
+import com.lld.ratelimiter.repository.IdlePolicy;
 import com.lld.ratelimiter.repository.InMemoryRateLimitStateStore;
+import com.lld.ratelimiter.repository.SharedStateBackend;
+import com.lld.ratelimiter.repository.StateSweeper;
+import com.lld.ratelimiter.state.BucketedSlidingWindowState;
+import com.lld.ratelimiter.state.GcraState;
+import com.lld.ratelimiter.state.QuotaShareState;
+import com.lld.ratelimiter.state.SlidingWindowCounterState;
 import com.lld.ratelimiter.state.SlidingWindowLogState;
 import com.lld.ratelimiter.state.TokenBucketState;
+import com.lld.ratelimiter.state.TokenLeaseState;
 
-public final class RateLimiterFactory {
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public final class RateLimiterFactory implements AutoCloseable {
+
+    private final StateSweeper stateSweeper;
+    private final SharedStateBackend sharedStateBackend;
+    private final RateLimitClock clock;
+    // The store each limiter or quota was built with, so release() can stop sweeping it.
+    private final Map<Object, InMemoryRateLimitStateStore<?>> stateStores =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+
+    public RateLimiterFactory() {
+        this(new StateSweeper(EvictionConfig.defaults()));
+    }
+
+    public RateLimiterFactory(StateSweeper stateSweeper) {
+        this(stateSweeper, null);
+    }
+
+    public RateLimiterFactory(StateSweeper stateSweeper, SharedStateBackend sharedStateBackend) {
+        this(stateSweeper, sharedStateBackend, MonotonicClock.getInstance());
+    }
+
+    /** {@code clock} drives every in-process algorithm and its eviction policy. */
+    public RateLimiterFactory(
+            StateSweeper stateSweeper,
+            SharedStateBackend sharedStateBackend,
+            RateLimitClock clock
+    ) {
+        this.stateSweeper = stateSweeper;
+        this.sharedStateBackend = sharedStateBackend;
+        this.clock = clock;
+    }
 
     public RateLimiter create(
             RateLimitAlgorithmType algorithmType,
             AlgorithmParams params
+    ) {
+        return create(algorithmType, params, null);
+    }
+
+    /**
+     * {@code limiterId} names the limiter's keys in the shared backend, so every node must pass
+     * the same id for the same limiter; it is required only for the shared algorithms.
+     */
+    public RateLimiter create(
+            RateLimitAlgorithmType algorithmType,
+            AlgorithmParams params,
+            String limiterId
     ) {
         return switch (algorithmType) {
             case TOKEN_BUCKET -> {
                 TokenBucketParams tokenBucketParams = (TokenBucketParams) params;
 
-                RateLimitStateStore<TokenBucketState> stateStore =
-                        new InMemoryRateLimitStateStore<>();
+                InMemoryRateLimitStateStore<TokenBucketState> stateStore =
+                        newStateStore(TokenBucketRateLimiter.idlePolicy(tokenBucketParams, clock));
 
-                yield new TokenBucketRateLimiter(tokenBucketParams, stateStore);
+                yield owning(new TokenBucketRateLimiter(tokenBucketParams, stateStore, clock), stateStore);
+            }
+
+            case LOCK_FREE_TOKEN_BUCKET -> {
+                TokenBucketParams tokenBucketParams = (TokenBucketParams) params;
+
+                InMemoryRateLimitStateStore<GcraState> stateStore =
+                        newStateStore(LockFreeTokenBucketRateLimiter.idlePolicy(clock));
+
+                yield owning(new LockFreeTokenBucketRateLimiter(tokenBucketParams, stateStore, clock), stateStore);
             }
 
             case SLIDING_WINDOW_LOG -> {
                 SlidingWindowLogParams slidingWindowLogParams =
                         (SlidingWindowLogParams) params;
 
-                RateLimitStateStore<SlidingWindowLogState> stateStore =
-                        new InMemoryRateLimitStateStore<>();
+                InMemoryRateLimitStateStore<SlidingWindowLogState> stateStore =
+                        newStateStore(SlidingWindowLogRateLimiter.idlePolicy(slidingWindowLogParams, clock));
+
+                yield owning(new SlidingWindowLogRateLimiter(slidingWindowLogParams, stateStore, clock), stateStore);
+            }
+
+            case SLIDING_WINDOW_COUNTER -> {
+                SlidingWindowCounterParams slidingWindowCounterParams =
+                        (SlidingWindowCounterParams) params;
+
+                InMemoryRateLimitStateStore<SlidingWindowCounterState> stateStore =
+                        newStateStore(SlidingWindowCounterRateLimiter.idlePolicy(slidingWindowCounterParams, clock));
+
+                yield owning(new SlidingWindowCounterRateLimiter(slidingWindowCounterParams, stateStore, clock), stateStore);
+            }
+
+            case BUCKETED_SLIDING_WINDOW -> {
+                BucketedSlidingWindowParams bucketedSlidingWindowParams =
+                        (BucketedSlidingWindowParams) params;
+
+                InMemoryRateLimitStateStore<BucketedSlidingWindowState> stateStore =
+                        newStateStore(BucketedSlidingWindowRateLimiter.idlePolicy(bucketedSlidingWindowParams, clock));
 
-                yield new SlidingWindowLogRateLimiter(slidingWindowLogParams, stateStore);
+                yield owning(new BucketedSlidingWindowRateLimiter(bucketedSlidingWindowParams, stateStore, clock), stateStore);
             }
+
+            case SHARED_TOKEN_BUCKET -> {
+                TokenBucketParams tokenBucketParams = (TokenBucketParams) params;
+
+                InMemoryRateLimitStateStore<TokenLeaseState> stateStore =
+                        newStateStore(SharedTokenBucketRateLimiter.idlePolicy());
+
+                yield owning(new SharedTokenBucketRateLimiter(
+                        tokenBucketParams,
+                        1,
+                        1,
+                        requireSharedStateBackend(),
+                        Objects.requireNonNull(limiterId, "limiterId"),
+                        stateStore
+                ), stateStore);
+            }
+
+            case LEASED_TOKEN_BUCKET -> {
+                TokenLeaseParams tokenLeaseParams = (TokenLeaseParams) params;
+
+                InMemoryRateLimitStateStore<TokenLeaseState> stateStore =
+                        newStateStore(SharedTokenBucketRateLimiter.idlePolicy());
+
+                yield owning(new SharedTokenBucketRateLimiter(
+                        tokenLeaseParams.getBucket(),
+                        tokenLeaseParams.getLeaseSize(),
+                        tokenLeaseParams.getLeaseTtlMs(),
+                        requireSharedStateBackend(),
+                        Objects.requireNonNull(limiterId, "limiterId"),
+                        stateStore
+                ), stateStore);
+            }
+
+            // One limit per endpoint and plan, with no per-client state to store or evict.
+            case AIMD_CONCURRENCY ->
+                    AdaptiveConcurrencyLimiter.aimd((AimdConcurrencyParams) params, clock);
+
+            case GRADIENT_CONCURRENCY ->
+                    AdaptiveConcurrencyLimiter.gradient((ConcurrencyLimitParams) params, clock);
         };
     }
-}
\ No newline at end of file
+
+    /** A budget shared by the clients of a plan or the plans of an endpoint. */
+    public QuotaBucket createQuota(TokenBucketParams params) {
+        InMemoryRateLimitStateStore<QuotaShareState> shares = newStateStore(QuotaBucket.idlePolicy(params, clock));
+        return owning(new QuotaBucket(params, shares), shares);
+    }
+
+    /** Nests {@code clientLimiter} in either or both budgets; {@code planId} names the plan in the endpoint's. */
+    public RateLimiter createHierarchical(
+            RateLimiter clientLimiter,
+            QuotaBucket planQuota,
+            QuotaBucket endpointQuota,
+            String planId
+    ) {
+        return new HierarchicalRateLimiter(clientLimiter, planQuota, endpointQuota, planId, clock);
+    }
+
+    /**
+     * Stops sweeping the state of a limiter or quota this factory created, once nothing will call
+     * it again; its clients stop counting towards {@link #getStateStoreStats()}.
+     */
+    public void release(Object limiterOrQuota) {
+        InMemoryRateLimitStateStore<?> stateStore = stateStores.remove(limiterOrQuota);
+        if (stateStore != null) {
+            stateSweeper.unregister(stateStore);
+        }
+    }
+
+    public StateStoreStats getStateStoreStats() {
+        return stateSweeper.getStats();
+    }
+
+    /** Stops the eviction thread; limiters already created keep working without it. */
+    @Override
+    public void close() {
+        stateSweeper.close();
+    }
+
+    private SharedStateBackend requireSharedStateBackend() {
+        if (sharedStateBackend == null) {
+            throw new IllegalStateException("Shared rate limiting requires a SharedStateBackend");
+        }
+        return sharedStateBackend;
+    }
+
+    private <S> InMemoryRateLimitStateStore<S> newStateStore(IdlePolicy<S> idlePolicy) {
+        InMemoryRateLimitStateStore<S> stateStore = new InMemoryRateLimitStateStore<>(idlePolicy);
+        stateSweeper.register(stateStore);
+        return stateStore;
+    }
+
+    private <T> T owning(T limiterOrQuota, InMemoryRateLimitStateStore<?> stateStore) {
+        stateStores.put(limiterOrQuota, stateStore);
+        return limiterOrQuota;
+    }
+}
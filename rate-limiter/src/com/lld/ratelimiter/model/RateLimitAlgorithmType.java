@@ -2,5 +2,12 @@ package com.lld.ratelimiter.model;
 
 public enum RateLimitAlgorithmType {
     TOKEN_BUCKET,
-    SLIDING_WINDOW_LOG
+    LOCK_FREE_TOKEN_BUCKET,
+    SLIDING_WINDOW_LOG,
+    SLIDING_WINDOW_COUNTER,
+    BUCKETED_SLIDING_WINDOW,
+    SHARED_TOKEN_BUCKET,
+    LEASED_TOKEN_BUCKET,
+    AIMD_CONCURRENCY,
+    GRADIENT_CONCURRENCY
 }
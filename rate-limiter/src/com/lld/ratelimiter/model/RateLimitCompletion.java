@@ -0,0 +1,53 @@
+package com.lld.ratelimiter.model;
+
+import java.util.List;
+
+/**
+ * How an allowed request ended, reported back to limiters that adapt to the backend's latency.
+ * Reporting is idempotent: only the first call for a request counts.
+ */
+public interface RateLimitCompletion {
+
+    /** For limiters that do not track completion. */
+    RateLimitCompletion NONE = new RateLimitCompletion() {
+        @Override
+        public void onSuccess() {
+        }
+
+        @Override
+        public void onDropped() {
+        }
+
+        @Override
+        public void onIgnore() {
+        }
+    };
+
+    /** Completed normally; its latency is a sample of the backend's health. */
+    void onSuccess();
+
+    /** Timed out or was rejected as overloaded downstream: a congestion signal. */
+    void onDropped();
+
+    /** Ended without saying anything about the backend, e.g. a client error; only frees its slot. */
+    void onIgnore();
+
+    static RateLimitCompletion all(List<RateLimitCompletion> completions) {
+        return new RateLimitCompletion() {
+            @Override
+            public void onSuccess() {
+                completions.forEach(RateLimitCompletion::onSuccess);
+            }
+
+            @Override
+            public void onDropped() {
+                completions.forEach(RateLimitCompletion::onDropped);
+            }
+
+            @Override
+            public void onIgnore() {
+                completions.forEach(RateLimitCompletion::onIgnore);
+            }
+        };
+    }
+}
@@ -3,10 +3,19 @@ package com.lld.ratelimiter.model;
 public final class RateLimitRequest {
     private final String clientId;
     private final String endpoint;
+    private final int cost;
 
     public RateLimitRequest(String clientId, String endpoint) {
+        this(clientId, endpoint, 1);
+    }
+
+    public RateLimitRequest(String clientId, String endpoint, int cost) {
+        if (cost <= 0) {
+            throw new IllegalArgumentException("cost must be positive");
+        }
         this.clientId = clientId;
         this.endpoint = endpoint;
+        this.cost = cost;
     }
 
     public String getClientId() {
@@ -16,4 +25,8 @@ public final class RateLimitRequest {
     public String getEndpoint() {
         return endpoint;
     }
+
+    public int getCost() {
+        return cost;
+    }
 }
@@ -4,19 +4,26 @@ public final class RateLimitResult {
     private final boolean allowed;
     private final int remaining;
     private final Long retryAfterMs;
+    private final RateLimitCompletion completion;
 
-    private RateLimitResult(boolean allowed, int remaining, Long retryAfterMs) {
+    private RateLimitResult(boolean allowed, int remaining, Long retryAfterMs, RateLimitCompletion completion) {
         this.allowed = allowed;
         this.remaining = remaining;
         this.retryAfterMs = retryAfterMs;
+        this.completion = completion;
     }
 
     public static RateLimitResult allowed(int remaining) {
-        return new RateLimitResult(true, remaining, null);
+        return new RateLimitResult(true, remaining, null, RateLimitCompletion.NONE);
+    }
+
+    /** An allowed result whose outcome the caller must report through {@code completion}. */
+    public static RateLimitResult allowed(int remaining, RateLimitCompletion completion) {
+        return new RateLimitResult(true, remaining, null, completion);
     }
 
     public static RateLimitResult denied(long retryAfterMs) {
-        return new RateLimitResult(false, 0, retryAfterMs);
+        return new RateLimitResult(false, 0, retryAfterMs, RateLimitCompletion.NONE);
     }
 
     public boolean isAllowed() {
@@ -30,4 +37,24 @@ public final class RateLimitResult {
     public Long getRetryAfterMs() {
         return retryAfterMs;
     }
-}
\ No newline at end of file
+
+    public RateLimitCompletion getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Report how an allowed request ended. Required for the concurrency limiters, which free the
+     * request's slot only then; a no-op for every other algorithm.
+     */
+    public void onSuccess() {
+        completion.onSuccess();
+    }
+
+    public void onDropped() {
+        completion.onDropped();
+    }
+
+    public void onIgnore() {
+        completion.onIgnore();
+    }
+}
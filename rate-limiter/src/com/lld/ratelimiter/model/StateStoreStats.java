@@ -0,0 +1,44 @@
+package com.lld.ratelimiter.model;
+
+public final class StateStoreStats {
+    private final long liveStates;
+    private final long examinedStates;
+    private final long evictedStates;
+
+    public StateStoreStats(long liveStates, long examinedStates, long evictedStates) {
+        this.liveStates = liveStates;
+        this.examinedStates = examinedStates;
+        this.evictedStates = evictedStates;
+    }
+
+    public static StateStoreStats empty() {
+        return new StateStoreStats(0, 0, 0);
+    }
+
+    public StateStoreStats plus(StateStoreStats other) {
+        return new StateStoreStats(
+                liveStates + other.liveStates,
+                examinedStates + other.examinedStates,
+                evictedStates + other.evictedStates
+        );
+    }
+
+    public long getLiveStates() {
+        return liveStates;
+    }
+
+    public long getExaminedStates() {
+        return examinedStates;
+    }
+
+    public long getEvictedStates() {
+        return evictedStates;
+    }
+
+    @Override
+    public String toString() {
+        return "StateStoreStats{live=" + liveStates
+                + ", examined=" + examinedStates
+                + ", evicted=" + evictedStates + "}";
+    }
+}
@@ -2,6 +2,7 @@ package com.lld.ratelimiter.repository;
 
 import com.lld.ratelimiter.config.EndpointDefinition;
 
+import java.util.Collection;
 import java.util.Optional;
 
 public interface EndpointDefinitionRepository {
@@ -9,4 +10,6 @@ public interface EndpointDefinitionRepository {
     void save(EndpointDefinition endpointDefinition);
 
     Optional<EndpointDefinition> findByEndpoint(String endpoint);
+
+    Collection<EndpointDefinition> findAll();
 }
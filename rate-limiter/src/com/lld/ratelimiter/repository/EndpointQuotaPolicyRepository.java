@@ -0,0 +1,12 @@
+package com.lld.ratelimiter.repository;
+
+import com.lld.ratelimiter.config.EndpointQuotaPolicy;
+
+import java.util.Optional;
+
+public interface EndpointQuotaPolicyRepository {
+
+    void save(EndpointQuotaPolicy policy);
+
+    Optional<EndpointQuotaPolicy> findByEndpoint(String endpoint);
+}
@@ -0,0 +1,16 @@
+package com.lld.ratelimiter.repository;
+
+/**
+ * Decides, for one algorithm, whether a client's state has become equivalent to a freshly created
+ * one (a full bucket, an empty log) and can be dropped.
+ */
+@FunctionalInterface
+public interface IdlePolicy<S> {
+
+    /**
+     * Returns {@code true} after marking {@code state} retired if it is idle. The check and the
+     * mark must be atomic with respect to the limiter's own updates: a limiter that finds a retired
+     * state fetches a new one instead of updating it.
+     */
+    boolean retireIfIdle(S state);
+}
@@ -2,6 +2,8 @@ package com.lld.ratelimiter.repository;
 
 import com.lld.ratelimiter.config.EndpointDefinition;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -21,4 +23,9 @@ public final class InMemoryEndpointDefinitionRepository
     public Optional<EndpointDefinition> findByEndpoint(String endpoint) {
         return Optional.ofNullable(endpointDefinitions.get(endpoint));
     }
+
+    @Override
+    public Collection<EndpointDefinition> findAll() {
+        return List.copyOf(endpointDefinitions.values());
+    }
 }
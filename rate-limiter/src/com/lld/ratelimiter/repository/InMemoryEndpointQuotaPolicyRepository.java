@@ -0,0 +1,22 @@
+package com.lld.ratelimiter.repository;
+
+import com.lld.ratelimiter.config.EndpointQuotaPolicy;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class InMemoryEndpointQuotaPolicyRepository implements EndpointQuotaPolicyRepository {
+
+    private final ConcurrentMap<String, EndpointQuotaPolicy> policies = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(EndpointQuotaPolicy policy) {
+        policies.put(policy.getEndpoint(), policy);
+    }
+
+    @Override
+    public Optional<EndpointQuotaPolicy> findByEndpoint(String endpoint) {
+        return Optional.ofNullable(policies.get(endpoint));
+    }
+}
@@ -1,16 +1,41 @@
 package com.lld.ratelimiter.repository;
 
+import com.lld.ratelimiter.model.StateStoreStats;
+
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 public final class InMemoryRateLimitStateStore<S>
         implements RateLimitStateStore<S> {
 
     private final ConcurrentMap<String, S> states = new ConcurrentHashMap<>();
+    private final IdlePolicy<S> idlePolicy;
+    private final LongAdder examined = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    // Where the previous sweep stopped; only touched by sweep().
+    private Iterator<Map.Entry<String, S>> sweepCursor;
+
+    public InMemoryRateLimitStateStore() {
+        this(null);
+    }
+
+    public InMemoryRateLimitStateStore(IdlePolicy<S> idlePolicy) {
+        this.idlePolicy = idlePolicy;
+    }
 
     @Override
     public S getOrCreate(String clientId, Supplier<S> initializer) {
+        // Existing clients skip computeIfAbsent, whose mapping function would capture the
+        // initializer and allocate on every call.
+        S state = states.get(clientId);
+        if (state != null) {
+            return state;
+        }
         return states.computeIfAbsent(clientId, _ -> initializer.get());
     }
 
@@ -18,4 +43,49 @@ public final class InMemoryRateLimitStateStore<S>
     public void remove(String clientId) {
         states.remove(clientId);
     }
+
+    /**
+     * Examines up to {@code maxStates} entries, continuing where the previous call stopped, and
+     * evicts the idle ones. A full pass is spread over as many calls as it takes, so no call
+     * holds up requests for longer than its slice. Returns the number evicted.
+     */
+    public synchronized int sweep(int maxStates) {
+        if (idlePolicy == null) {
+            return 0;
+        }
+
+        if (sweepCursor == null || !sweepCursor.hasNext()) {
+            sweepCursor = states.entrySet().iterator();
+        }
+
+        // Stops at the end of a pass even with budget left; the next call starts a new one.
+        int seen = 0;
+        int removed = 0;
+        while (seen < maxStates && sweepCursor.hasNext()) {
+            Map.Entry<String, S> entry = sweepCursor.next();
+            seen++;
+            // Removing inside the map's lock for the key keeps getOrCreate from handing out the
+            // state between the idle check and the removal.
+            boolean[] retired = new boolean[1];
+            states.computeIfPresent(entry.getKey(), (_, state) -> {
+                if (state == entry.getValue() && idlePolicy.retireIfIdle(state)) {
+                    retired[0] = true;
+                    return null;
+                }
+                return state;
+            });
+            if (retired[0]) {
+                removed++;
+            }
+        }
+
+        examined.add(seen);
+        evicted.add(removed);
+        return removed;
+    }
+
+    @Override
+    public StateStoreStats getStats() {
+        return new StateStoreStats(states.size(), examined.sum(), evicted.sum());
+    }
 }
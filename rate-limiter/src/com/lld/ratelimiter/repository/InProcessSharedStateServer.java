@@ -0,0 +1,63 @@
+package com.lld.ratelimiter.repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process stand-in for a remote {@link SharedStateBackend}, for tests and simulations: several
+ * limiter "nodes" in one JVM share it, and every call costs a configurable simulated round trip.
+ */
+public final class InProcessSharedStateServer implements SharedStateBackend {
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long roundTripNanos;
+    private final LongAdder roundTrips = new LongAdder();
+
+    public InProcessSharedStateServer() {
+        this(0);
+    }
+
+    public InProcessSharedStateServer(long roundTripNanos) {
+        this.roundTripNanos = roundTripNanos;
+    }
+
+    @Override
+    public long compareAndExchange(String key, long expected, long updated, long ttlMs) {
+        roundTrips.increment();
+        if (roundTripNanos > 0) {
+            LockSupport.parkNanos(roundTripNanos);
+        }
+
+        long now = System.currentTimeMillis();
+        long[] witness = new long[1];
+        entries.compute(key, (_, entry) -> {
+            long current = entry == null || entry.expiresAtMs <= now ? ABSENT : entry.value;
+            witness[0] = current;
+            if (current != expected) {
+                return current == ABSENT ? null : entry;
+            }
+            return new Entry(updated, now + ttlMs);
+        });
+        return witness[0];
+    }
+
+    public long getRoundTrips() {
+        return roundTrips.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final long value;
+        private final long expiresAtMs;
+
+        private Entry(long value, long expiresAtMs) {
+            this.value = value;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.lld.ratelimiter.repository;
 
+import com.lld.ratelimiter.model.StateStoreStats;
+
 import java.util.function.Supplier;
 
 public interface RateLimitStateStore<S> {
@@ -7,4 +9,6 @@ public interface RateLimitStateStore<S> {
     S getOrCreate(String clientId, Supplier<S> initializer);
 
     void remove(String clientId);
+
+    StateStoreStats getStats();
 }
@@ -0,0 +1,19 @@
+package com.lld.ratelimiter.repository;
+
+/**
+ * Remote store shared by every node, holding one {@code long} per key. A single atomic operation
+ * is enough for the shared limiters, and maps onto a Redis script, an etcd transaction or a
+ * conditional write in most key-value stores.
+ */
+public interface SharedStateBackend {
+
+    /** Value seen for a key that does not exist or has expired. */
+    long ABSENT = Long.MIN_VALUE;
+
+    /**
+     * Sets {@code key} to {@code updated}, expiring after {@code ttlMs}, if its current value is
+     * {@code expected} ({@link #ABSENT} matches a missing key). Returns the value seen before the
+     * operation either way, so a failed exchange doubles as a read.
+     */
+    long compareAndExchange(String key, long expected, long updated, long ttlMs);
+}
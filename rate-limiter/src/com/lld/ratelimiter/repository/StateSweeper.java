@@ -0,0 +1,69 @@
+package com.lld.ratelimiter.repository;
+
+import com.lld.ratelimiter.config.EvictionConfig;
+import com.lld.ratelimiter.model.StateStoreStats;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One background thread that evicts idle client states from every registered store, a bounded
+ * slice per store per tick, so millions of dead entries are reclaimed without a full-map scan
+ * ever blocking requests.
+ */
+public final class StateSweeper implements AutoCloseable {
+
+    private final EvictionConfig config;
+    private final List<InMemoryRateLimitStateStore<?>> stores = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService executor;
+
+    public StateSweeper(EvictionConfig config) {
+        this.config = config;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-state-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(
+                this::sweepAll,
+                config.getSweepIntervalMs(),
+                config.getSweepIntervalMs(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    public void register(InMemoryRateLimitStateStore<?> store) {
+        stores.add(store);
+    }
+
+    /** Stops sweeping {@code store} and counting its states, e.g. once its limiter is replaced. */
+    public void unregister(InMemoryRateLimitStateStore<?> store) {
+        stores.remove(store);
+    }
+
+    public StateStoreStats getStats() {
+        StateStoreStats total = StateStoreStats.empty();
+        for (InMemoryRateLimitStateStore<?> store : stores) {
+            total = total.plus(store.getStats());
+        }
+        return total;
+    }
+
+    private void sweepAll() {
+        for (InMemoryRateLimitStateStore<?> store : stores) {
+            try {
+                store.sweep(config.getStatesPerSweep());
+            } catch (RuntimeException e) {
+                // Keep the schedule alive; the next tick retries from the same cursor.
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
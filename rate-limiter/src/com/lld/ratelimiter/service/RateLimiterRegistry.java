@@ -1,24 +1,61 @@
 package com.lld.ratelimiter.service;
 
+import com.lld.ratelimiter.algorithm.QuotaBucket;
 import com.lld.ratelimiter.algorithm.RateLimiter;
 import com.lld.ratelimiter.model.ClientPlan;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+/**
+ * Keeps limiters and quotas across routing-table rebuilds, each with the config it was built
+ * from. An entry is reused only while the caller still passes an equal config, so unchanged
+ * policies keep their state and a changed one gets a fresh limiter. The entry a fresh one
+ * replaces is handed to {@code onReplaced}, which releases its state.
+ */
 public final class RateLimiterRegistry {
 
-    private final ConcurrentMap<String, ConcurrentMap<ClientPlan, RateLimiter>> limiters =
+    private final ConcurrentMap<String, ConcurrentMap<ClientPlan, Registered<RateLimiter>>> limiters =
             new ConcurrentHashMap<>();
 
+    private final ConcurrentMap<String, Registered<QuotaBucket>> quotas = new ConcurrentHashMap<>();
+
+    private final Consumer<Object> onReplaced;
+
+    public RateLimiterRegistry(Consumer<Object> onReplaced) {
+        this.onReplaced = onReplaced;
+    }
+
     public RateLimiter getOrCreate(
             String endpoint,
             ClientPlan plan,
+            Object config,
             Supplier<RateLimiter> creator
     ) {
         return limiters
                 .computeIfAbsent(endpoint, _ -> new ConcurrentHashMap<>())
-                .computeIfAbsent(plan, _ -> creator.get());
+                .compute(plan, (_, current) -> reuseOrCreate(current, config, creator))
+                .value();
+    }
+
+    /** Quotas are kept by id, an endpoint or endpoint:plan, so their state survives a rebuild too. */
+    public QuotaBucket getOrCreateQuota(String quotaId, Object config, Supplier<QuotaBucket> creator) {
+        return quotas.compute(quotaId, (_, current) -> reuseOrCreate(current, config, creator)).value();
+    }
+
+    private <T> Registered<T> reuseOrCreate(Registered<T> current, Object config, Supplier<T> creator) {
+        if (current != null && current.config().equals(config)) {
+            return current;
+        }
+        Registered<T> created = new Registered<>(config, creator.get());
+        if (current != null) {
+            onReplaced.accept(current.value());
+        }
+        return created;
+    }
+
+    private record Registered<T>(Object config, T value) {
     }
 }
@@ -0,0 +1,58 @@
+package com.lld.ratelimiter.service;
+
+import com.lld.ratelimiter.algorithm.RateLimiter;
+import com.lld.ratelimiter.model.ClientPlan;
+
+import java.util.Map;
+
+/**
+ * Immutable snapshot of endpoint configuration with every (endpoint, plan) pair already resolved
+ * to its limiter, DEFAULT-plan fallback included. A new table replaces the old one whenever
+ * endpoints or policies are registered.
+ */
+final class RoutingTable {
+
+    private final long version;
+    private final Map<String, Route> routes;
+    private final Route defaultRoute;
+
+    RoutingTable(long version, Map<String, Route> routes) {
+        this.version = version;
+        this.routes = Map.copyOf(routes);
+        this.defaultRoute = routes.get(RateLimiterService.DEFAULT_ENDPOINT);
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    Route route(String endpoint) {
+        return routes.get(endpoint);
+    }
+
+    // Null when no DEFAULT endpoint is registered.
+    Route defaultRoute() {
+        return defaultRoute;
+    }
+
+    static final class Route {
+
+        private final String endpoint;
+        private final RateLimiter[] limitersByPlan;
+
+        Route(String endpoint, RateLimiter[] limitersByPlan) {
+            this.endpoint = endpoint;
+            this.limitersByPlan = limitersByPlan;
+        }
+
+        RateLimiter limiterFor(ClientPlan plan) {
+            RateLimiter limiter = limitersByPlan[plan.ordinal()];
+            if (limiter == null) {
+                throw new IllegalStateException(
+                        "No policy found for endpoint=" + endpoint + " and default policy missing"
+                );
+            }
+            return limiter;
+        }
+    }
+}
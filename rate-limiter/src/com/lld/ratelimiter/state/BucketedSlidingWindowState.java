@@ -0,0 +1,42 @@
+package com.lld.ratelimiter.state;
+
+public final class BucketedSlidingWindowState {
+    // Ring of per-bucket counts; bucket index i (timestamp / bucketSizeMs) lives at i % length.
+    private final int[] counts;
+    private long newestBucket;
+    private int total;
+    // Set once the state has been evicted; whoever holds it must fetch a new one.
+    private boolean retired;
+
+    public BucketedSlidingWindowState(int buckets) {
+        this.counts = new int[buckets];
+    }
+
+    public int[] getCounts() {
+        return counts;
+    }
+
+    public long getNewestBucket() {
+        return newestBucket;
+    }
+
+    public void setNewestBucket(long newestBucket) {
+        this.newestBucket = newestBucket;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    public void retire() {
+        this.retired = true;
+    }
+}
@@ -0,0 +1,42 @@
+package com.lld.ratelimiter.state;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Token bucket state reduced to a single word: the theoretical arrival time (TAT) of the next
+ * request, in {@link com.lld.ratelimiter.clock.RateLimitClock} nanoseconds. Tokens and refill time are both implied by how far
+ * the TAT runs ahead of the clock, so one CAS updates the whole bucket.
+ */
+public final class GcraState {
+    // Set once the state has been evicted; no real TAT reaches it.
+    public static final long RETIRED = Long.MAX_VALUE;
+
+    private static final VarHandle THEORETICAL_ARRIVAL;
+
+    static {
+        try {
+            THEORETICAL_ARRIVAL = MethodHandles.lookup()
+                    .findVarHandle(GcraState.class, "theoreticalArrivalNanos", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Any TAT at or before now means a full bucket.
+    private volatile long theoreticalArrivalNanos = Long.MIN_VALUE;
+
+    public long getTheoreticalArrivalNanos() {
+        return theoreticalArrivalNanos;
+    }
+
+    public boolean compareAndSet(long expectedNanos, long updatedNanos) {
+        return THEORETICAL_ARRIVAL.compareAndSet(this, expectedNanos, updatedNanos);
+    }
+
+    /** Retires the state if its bucket is full at {@code nowNanos}, racing allow() by CAS. */
+    public boolean retireIfIdle(long nowNanos) {
+        long theoreticalArrival = theoreticalArrivalNanos;
+        return theoreticalArrival <= nowNanos && compareAndSet(theoreticalArrival, RETIRED);
+    }
+}
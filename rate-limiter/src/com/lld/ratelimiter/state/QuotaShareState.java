@@ -0,0 +1,54 @@
+package com.lld.ratelimiter.state;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * One child's use of a shared quota: a GCRA arrival time at the child's fair-share rate, and the
+ * last activity epoch in which the child was counted as active.
+ */
+public final class QuotaShareState {
+    // Set once the state has been evicted; no real TAT reaches it.
+    public static final long RETIRED = Long.MAX_VALUE;
+
+    private static final VarHandle THEORETICAL_ARRIVAL;
+    private static final VarHandle ACTIVE_EPOCH;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            THEORETICAL_ARRIVAL = lookup.findVarHandle(QuotaShareState.class, "theoreticalArrivalNanos", long.class);
+            ACTIVE_EPOCH = lookup.findVarHandle(QuotaShareState.class, "activeEpoch", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long theoreticalArrivalNanos = Long.MIN_VALUE;
+    private volatile long activeEpoch = -1;
+
+    public long getTheoreticalArrivalNanos() {
+        return theoreticalArrivalNanos;
+    }
+
+    public boolean compareAndSet(long expectedNanos, long updatedNanos) {
+        return THEORETICAL_ARRIVAL.compareAndSet(this, expectedNanos, updatedNanos);
+    }
+
+    /** Returns {@code true} for exactly one caller the first time the child is seen in {@code epoch}. */
+    public boolean markActive(long epoch) {
+        long current = activeEpoch;
+        return current < epoch && ACTIVE_EPOCH.compareAndSet(this, current, epoch);
+    }
+
+    /**
+     * Retires the state once its share is full again and it no longer counts as active, racing
+     * acquisitions by CAS.
+     */
+    public boolean retireIfIdle(long nowNanos, long currentEpoch) {
+        long theoreticalArrival = theoreticalArrivalNanos;
+        return theoreticalArrival <= nowNanos
+                && activeEpoch < currentEpoch - 1
+                && compareAndSet(theoreticalArrival, RETIRED);
+    }
+}
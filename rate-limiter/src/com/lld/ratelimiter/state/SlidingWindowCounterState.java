@@ -0,0 +1,42 @@
+package com.lld.ratelimiter.state;
+
+public final class SlidingWindowCounterState {
+    // Index of the fixed window the current count belongs to (timestamp / windowSizeMs).
+    private long currentWindow;
+    private int currentCount;
+    private int previousCount;
+    // Set once the state has been evicted; whoever holds it must fetch a new one.
+    private boolean retired;
+
+    public long getCurrentWindow() {
+        return currentWindow;
+    }
+
+    public void setCurrentWindow(long currentWindow) {
+        this.currentWindow = currentWindow;
+    }
+
+    public int getCurrentCount() {
+        return currentCount;
+    }
+
+    public void setCurrentCount(int currentCount) {
+        this.currentCount = currentCount;
+    }
+
+    public int getPreviousCount() {
+        return previousCount;
+    }
+
+    public void setPreviousCount(int previousCount) {
+        this.previousCount = previousCount;
+    }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    public void retire() {
+        this.retired = true;
+    }
+}
@@ -5,8 +5,18 @@ import java.util.Deque;
 
 public final class SlidingWindowLogState {
     private final Deque<Long> requestTimestamps = new ArrayDeque<>();
+    // Set once the state has been evicted; whoever holds it must fetch a new one.
+    private boolean retired;
 
     public Deque<Long> getRequestTimestamps() {
         return requestTimestamps;
     }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    public void retire() {
+        this.retired = true;
+    }
 }
@@ -2,11 +2,13 @@ package com.lld.ratelimiter.state;
 
 public final class TokenBucketState {
     private double availableTokens;
-    private long lastRefillTimestampMs;
+    private long lastRefillNanos;
+    // Set once the state has been evicted; whoever holds it must fetch a new one.
+    private boolean retired;
 
-    public TokenBucketState(double availableTokens, long lastRefillTimestampMs) {
+    public TokenBucketState(double availableTokens, long lastRefillNanos) {
         this.availableTokens = availableTokens;
-        this.lastRefillTimestampMs = lastRefillTimestampMs;
+        this.lastRefillNanos = lastRefillNanos;
     }
 
     public double getAvailableTokens() {
@@ -17,11 +19,19 @@ public final class TokenBucketState {
         this.availableTokens = availableTokens;
     }
 
-    public long getLastRefillTimestampMs() {
-        return lastRefillTimestampMs;
+    public long getLastRefillNanos() {
+        return lastRefillNanos;
     }
 
-    public void setLastRefillTimestampMs(long lastRefillTimestampMs) {
-        this.lastRefillTimestampMs = lastRefillTimestampMs;
+    public void setLastRefillNanos(long lastRefillNanos) {
+        this.lastRefillNanos = lastRefillNanos;
+    }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    public void retire() {
+        this.retired = true;
     }
 }
@@ -0,0 +1,56 @@
+package com.lld.ratelimiter.state;
+
+import com.lld.ratelimiter.repository.SharedStateBackend;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+public final class TokenLeaseState {
+    // Held across backend calls, which a virtual thread must not make while pinned by a monitor.
+    private final ReentrantLock lock = new ReentrantLock();
+    // Last shared TAT this node saw; refunds elsewhere may have lowered it since.
+    private long knownArrivalNanos = SharedStateBackend.ABSENT;
+    private int leasedTokens;
+    private long leaseExpiresAtNanos;
+    // Set once the state has been evicted; whoever holds it must fetch a new one.
+    private boolean retired;
+
+    public void lock() {
+        lock.lock();
+    }
+
+    public void unlock() {
+        lock.unlock();
+    }
+
+    public long getKnownArrivalNanos() {
+        return knownArrivalNanos;
+    }
+
+    public void setKnownArrivalNanos(long knownArrivalNanos) {
+        this.knownArrivalNanos = knownArrivalNanos;
+    }
+
+    public int getLeasedTokens() {
+        return leasedTokens;
+    }
+
+    public void setLeasedTokens(int leasedTokens) {
+        this.leasedTokens = leasedTokens;
+    }
+
+    public long getLeaseExpiresAtNanos() {
+        return leaseExpiresAtNanos;
+    }
+
+    public void setLeaseExpiresAtNanos(long leaseExpiresAtNanos) {
+        this.leaseExpiresAtNanos = leaseExpiresAtNanos;
+    }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    public void retire() {
+        this.retired = true;
+    }
+}